@@ -81,9 +81,14 @@ public class App {
             usage();
         }
 
+        assert props != null;
+        try {
+            Log.useAsyncAppender(props);
+        } catch (IllegalArgumentException e) {
+            Log.errorAndExit("Invalid log queue settings: " + e.getMessage(), GlobalConstants.ExitCode.USERINPUT);
+        }
 
         //Map addresses to SA polygons
-        assert props != null;
         if (mapAddressToSA1s) {
             Log.info("Mapping addresses to SA1s");
             long startTime = System.currentTimeMillis();
@@ -24,6 +24,7 @@ package io.github.agentsoz.syntheticpop.addressmapper;
 
 import io.github.agentsoz.syntheticpop.addressmapper.models.Address;
 import io.github.agentsoz.syntheticpop.filemanager.FileUtils;
+import io.github.agentsoz.syntheticpop.filemanager.zip.GzipCodec;
 import io.github.agentsoz.syntheticpop.util.ConfigProperties;
 import io.github.agentsoz.syntheticpop.util.GlobalConstants;
 import io.github.agentsoz.syntheticpop.util.Log;
@@ -47,6 +48,7 @@ public class Household2AddressMapper {
     private final Path sa1ToAddressesJson;
     private List<String> saList;
     private Random rand;
+    private GzipCodec outputCodec;
 
 
     Household2AddressMapper(ConfigProperties props) {
@@ -59,6 +61,11 @@ public class Household2AddressMapper {
             Log.errorAndExit("Reading SA list failed", e, GlobalConstants.ExitCode.USERINPUT);
         }
         rand = new Random(Integer.parseInt(props.getProperty("RandomSeed")));
+        try {
+            outputCodec = GzipCodec.fromProperties(props);
+        } catch (IllegalArgumentException e) {
+            Log.errorAndExit("Invalid output compression settings: " + e.getMessage(), GlobalConstants.ExitCode.USERINPUT);
+        }
     }
 
     void assignHouseholdsToAddresses() {
@@ -96,7 +103,7 @@ public class Household2AddressMapper {
             //Update the households.csv.gz with EZI_ADD (street address) and Geographical location.
             //We can't save the WKT of the geographical location coordinates in the csv because it will break the structures of the csv
             try {
-                HouseholdUtil.saveUpdatedHouseholds(hhsBySA1, hhFile);
+                HouseholdUtil.saveUpdatedHouseholds(hhsBySA1, hhFile, outputCodec);
             } catch (IOException e) {
                 Log.errorAndExit("Failed to write " + hhFile, e, GlobalConstants.ExitCode.IOERROR);
             }
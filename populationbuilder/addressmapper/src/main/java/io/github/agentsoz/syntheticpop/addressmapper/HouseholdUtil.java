@@ -24,16 +24,14 @@ package io.github.agentsoz.syntheticpop.addressmapper;
 
 import io.github.agentsoz.syntheticpop.filemanager.csv.CSVReader;
 import io.github.agentsoz.syntheticpop.filemanager.csv.CSVWriter;
+import io.github.agentsoz.syntheticpop.filemanager.zip.GzipCodec;
 
-import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.zip.GZIPOutputStream;
 
 /**
  * @author wniroshan 30 Apr 2018
@@ -61,14 +59,23 @@ public class HouseholdUtil {
         return hhBySA;
     }
 
-    static void saveUpdatedHouseholds(Map<String, List<LinkedHashMap<String, Object>>> hhsBySA1, Path hhFile) throws IOException {
+    /**
+     * Saves the households to a gzip compressed csv file
+     *
+     * @param hhsBySA1 The households grouped by SA1 codes
+     * @param hhFile   The file to write
+     * @param codec    The gzip codec to compress the file with
+     * @throws IOException When writing the csv file
+     */
+    static void saveUpdatedHouseholds(Map<String, List<LinkedHashMap<String, Object>>> hhsBySA1,
+                                      Path hhFile,
+                                      GzipCodec codec) throws IOException {
         CSVWriter csvWriter = new CSVWriter();
         List<LinkedHashMap<String, Object>> households = hhsBySA1.values()
                                                                  .stream()
                                                                  .flatMap(List::stream)
                                                                  .collect(Collectors.toList());
-        try (OutputStreamWriter csvBW = new OutputStreamWriter(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream
-                (hhFile))))) {
+        try (OutputStreamWriter csvBW = new OutputStreamWriter(codec.newOutputStream(hhFile))) {
             csvWriter.writeLinkedMapAsCsv(csvBW, households);
         }
     }
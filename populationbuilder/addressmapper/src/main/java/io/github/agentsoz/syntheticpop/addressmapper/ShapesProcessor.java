@@ -22,8 +22,8 @@ package io.github.agentsoz.syntheticpop.addressmapper;
  * #L%
  */
 
-import com.vividsolutions.jts.geom.Envelope;
-import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Point;
+import io.github.agentsoz.syntheticpop.geo.AttributeAugmenter;
 import io.github.agentsoz.syntheticpop.geo.FeatureProcessor;
 import io.github.agentsoz.syntheticpop.geo.ShapefileGeoFeatureReader;
 import io.github.agentsoz.syntheticpop.util.GlobalConstants;
@@ -37,8 +37,10 @@ import org.opengis.feature.simple.SimpleFeatureType;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -65,18 +67,15 @@ class ShapesProcessor {
      * Finds the SA polygon of a the specified address.
      *
      * @param address    The address feature
-     * @param saPolygons The Statistical Area polygons and their Envelope map
+     * @param saPolygons The spatial index of Statistical Area polygons
      * @return The Statistical Area feature of that contains the address
      */
-    SimpleFeature findStatisticalArea(SimpleFeature address,
-                                      Map<SimpleFeature, Envelope> saPolygons) {
-
-        for (SimpleFeature sa : saPolygons.keySet()) {
-            if (featProcessor.checkContains(saPolygons.get(sa), address)) {
-                if (featProcessor.checkContains(sa, address)) {
-                    return sa;
-                }
+    SimpleFeature findStatisticalArea(SimpleFeature address, StatisticalAreaIndex saPolygons) {
 
+        // Only the polygons whose envelopes contain the address can contain it
+        for (StatisticalAreaIndex.Area sa : saPolygons.candidates((Point) address.getDefaultGeometry())) {
+            if (featProcessor.checkContains(sa.polygon, address)) {
+                return sa.feature;
             }
         }
 
@@ -91,36 +90,40 @@ class ShapesProcessor {
 
     /**
      * Loads statistical areas features from SA shapes file. This loads only the features where saFilterKey has values specified under
-     * saFilterValues. This also computes the envelopes (bounding box) each SA feature.
+     * saFilterValues. The SA features are indexed by their envelopes (bounding boxes), so the SA of an address is found without checking
+     * every SA.
      *
      * @param saFilePath      SA shapes zip file from ABS
      * @param saShapeFileName The name of the .shp file inside SA shapes zip file
      * @param saFilterKey     A column name in attribute table in SA shapes file
      * @param saFilterValues  An array of values under the saFilterKey column
-     * @return A map of SA features and the corresponding bounding boxes
+     * @return The spatial index of SA features
      */
-    Map<SimpleFeature, Envelope> loadStatisticalAreas(Path saFilePath,
-                                                      String saShapeFileName,
-                                                      String saFilterKey,
-                                                      String[] saFilterValues) {
-        Map<SimpleFeature, Envelope> saFeatures = new HashMap<>();
+    StatisticalAreaIndex loadStatisticalAreas(Path saFilePath,
+                                              String saShapeFileName,
+                                              String saFilterKey,
+                                              String[] saFilterValues) {
+        List<SimpleFeature> saFeatures = new ArrayList<>();
         try {
-            Log.debug("Loading SA shapes where " + saFilterKey + " is " + Arrays.toString(saFilterValues));
+            Log.debug("Loading SA shapes where {} is {}", saFilterKey, Arrays.toString(saFilterValues));
             FeatureSource<SimpleFeatureType, SimpleFeature> ftSource = shapesReader.getFeatureSource(saFilePath, saShapeFileName);
             SimpleFeatureCollection meshBlocks = (SimpleFeatureCollection) shapesReader.loadFeaturesByProperty(ftSource,
                                                                                                                saFilterKey,
                                                                                                                saFilterValues);
             try (SimpleFeatureIterator itr = meshBlocks.features()) {
                 while (itr.hasNext()) {
-                    SimpleFeature sa = itr.next();
-                    saFeatures.put(sa, ((Geometry) sa.getDefaultGeometry()).getEnvelopeInternal());
+                    saFeatures.add(itr.next());
                 }
             }
 
         } catch (IOException ex) {
             Log.errorAndExit("Unable to read " + saShapeFileName + " file", ex, GlobalConstants.ExitCode.USERINPUT);
         }
-        return saFeatures;
+        if (saFeatures.isEmpty()) {
+            Log.errorAndExit("No SA shapes in " + saShapeFileName + " where " + saFilterKey + " is " + Arrays.toString(saFilterValues),
+                             GlobalConstants.ExitCode.USERINPUT);
+        }
+        return new StatisticalAreaIndex(saFeatures, featProcessor);
     }
 
 
@@ -130,19 +133,19 @@ class ShapesProcessor {
      * @param address                The address feature
      * @param sa                     The containing SA of the address
      * @param newAttributesToAddress The new attributes to be added to address feature
-     * @throws IOException If processing failed
+     * @param augmenter              The attribute augmenter that adds the new attributes
+     * @return The copy of the address with the new attributes
      */
     SimpleFeature updateAddress(SimpleFeature address,
                                 SimpleFeature sa,
-                                Map<String, String> newAttributesToAddress) throws IOException {
-        SimpleFeature copyAddressFeat = featProcessor.addNewAttributeType(address,
-                                                                          newAttributesToAddress.keySet(),
-                                                                          String.class);
+                                Map<String, String> newAttributesToAddress,
+                                AttributeAugmenter augmenter) {
+        Map<String, Object> values = new HashMap<>();
         for (Map.Entry<String, String> entry : newAttributesToAddress.entrySet()) {
-            copyAddressFeat.setAttribute(entry.getKey(), sa.getAttribute(entry.getValue()));
+            values.put(entry.getKey(), sa.getAttribute(entry.getValue()));
         }
 
-        return copyAddressFeat;
+        return augmenter.augment(address, values);
     }
 
 }
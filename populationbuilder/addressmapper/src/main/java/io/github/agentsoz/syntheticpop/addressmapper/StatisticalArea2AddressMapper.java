@@ -22,18 +22,16 @@ package io.github.agentsoz.syntheticpop.addressmapper;
  * #L%
  */
 
-import com.vividsolutions.jts.geom.Envelope;
 import io.github.agentsoz.syntheticpop.addressmapper.models.Address;
 import io.github.agentsoz.syntheticpop.filemanager.FileUtils;
 import io.github.agentsoz.syntheticpop.filemanager.zip.Zip;
+import io.github.agentsoz.syntheticpop.geo.AttributeAugmenter;
 import io.github.agentsoz.syntheticpop.geo.ShapefileGeoFeatureWriter;
 import io.github.agentsoz.syntheticpop.util.ConfigProperties;
 import io.github.agentsoz.syntheticpop.util.GlobalConstants;
 import io.github.agentsoz.syntheticpop.util.Log;
-import org.geotools.data.DataUtilities;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.data.simple.SimpleFeatureIterator;
-import org.geotools.feature.DefaultFeatureCollection;
 import org.opengis.feature.simple.SimpleFeature;
 
 import java.io.IOException;
@@ -41,6 +39,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -48,16 +50,27 @@ import java.util.stream.Collectors;
  */
 public class StatisticalArea2AddressMapper {
 
+    /**
+     * The number of addresses matched by a worker thread at a time
+     */
+    private static final int CHUNK_SIZE = 1024;
+    /**
+     * The number of chunks of each worker thread that can be waiting to be written
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
     private final ShapesProcessor shapesProcessor;
 
     private final Path saFilePath, tempOutputDir, outputFile, sa1ToAddressJson;
     private final String saFilterKey, addressShapeFilePattern, saShapeFileName, duplicatesCheckKey;
 
     private final Map<String, String> newAttributesToAddress;
+    private final AttributeAugmenter addressAugmenter;
     private final String[] saFilterValues, addressFilePathStr;
 
     private final boolean deleteTempShapeFiles;
     private final int areaNameDirIndex;
+    private final int threads;
 
     private final HashSet<String> checkedAddresses = new HashSet<>();
     private final Map<String, List<Address>> addressesBySA = new HashMap<>(); //Key: SA1 code, Value: list of addresses in SA1
@@ -73,6 +86,7 @@ public class StatisticalArea2AddressMapper {
 
         duplicatesCheckKey = props.getProperty("DuplicatesCheckKey");
         newAttributesToAddress = props.readKeyValuePairs("NewAttributesToAddress");
+        addressAugmenter = new AttributeAugmenter(newAttributesToAddress.keySet(), String.class);
         tempOutputDir = props.getProperty("TemporaryOutputDirectory").trim().equals("system")
                         ? Paths.get(System.getProperty("java.io.tmpdir"))
                         : props.readFileOrDirectoryPath("TemporaryOutputDirectory");
@@ -82,6 +96,10 @@ public class StatisticalArea2AddressMapper {
         deleteTempShapeFiles = Boolean.parseBoolean(props.getOrDefault("DeleteTemporaryShapeFiles", "true").toString());
         areaNameDirIndex = Integer.parseInt(props.getProperty("AreaNameDirIndex"));
         sa1ToAddressJson = props.readFileOrDirectoryPath("SA1toAddressesJsonFile");
+        threads = Integer.parseInt(props.getOrDefault("MatchingThreads", "1").toString().trim());
+        if (threads < 1) {
+            Log.errorAndExit("MatchingThreads must be at least 1", GlobalConstants.ExitCode.USERINPUT);
+        }
 
     }
 
@@ -93,40 +111,19 @@ public class StatisticalArea2AddressMapper {
 
         //Load the statistical areas
         Log.info("Locating " + saShapeFileName + " in " + saFilePath);
-        Map<SimpleFeature, Envelope> saFeatures = shapesProcessor.loadStatisticalAreas(saFilePath,
-                                                                                       saShapeFileName,
-                                                                                       saFilterKey,
-                                                                                       saFilterValues);
+        StatisticalAreaIndex saFeatures = shapesProcessor.loadStatisticalAreas(saFilePath,
+                                                                               saShapeFileName,
+                                                                               saFilterKey,
+                                                                               saFilterValues);
+        Log.info("Indexed " + saFeatures.size() + " statistical areas");
 
         //Locate the SA id of addresses in each address shapefile and save them to a new temporary shape file
-        Iterator<Path> addressShapeFilesItr = addressShapeFiles.iterator();
-        List<Path> tempShapeFiles = new ArrayList<>(); //The list of newly created temporary shape files
-        while (addressShapeFilesItr.hasNext()) {
-            //Get a shape file and find the SA1s of addresses in them
-            Path addressShapeFile = addressShapeFilesItr.next();
-            SimpleFeatureCollection updatedFeatureCollection = findContainingSAs(addressShapeFile, saFeatures);
-
-            //Save a copy of addresses collection in a new temporary file. (Created one for each address shape file.
-            if (!updatedFeatureCollection.isEmpty()) {
-                Path tempLocation = tempOutputDir.resolve(getAreaName(addressShapeFile).toString());
-                try {
-                    Path saved = saveToTempShapeFile(updatedFeatureCollection, tempLocation);
-                    tempShapeFiles.add(saved);
-                    Log.debug("Temporary files saved to: " + saved.toString());
-                } catch (IOException e) {
-                    Log.errorAndExit("Writing to temp file location failed: " + tempLocation, e, GlobalConstants.ExitCode.DATA_ERROR);
-                }
-
-            } else {
-                Log.warn("Empty processed addresses collection - " + getAreaName(addressShapeFile) + ". It seems no addresses belong to any " +
-                                 "of the statistical areas");
-            }
-        }
+        List<Path> tempShapeFiles = matchAddresses(addressShapeFiles, saFeatures);
 
         //Save the addresses grouped by the SA1 code in a json (text) file. So we don't have to process shape files after this.
         try {
             AddressUtil.saveAsJSONFile(addressesBySA,
-                                       saFeatures.keySet().toArray(new SimpleFeature[]{})[0].getType().getCoordinateReferenceSystem(),
+                                       saFeatures.getCoordinateReferenceSystem(),
                                        sa1ToAddressJson);
             Log.info("Summary addresses file saved to " + sa1ToAddressJson);
         } catch (IOException e) {
@@ -138,6 +135,43 @@ public class StatisticalArea2AddressMapper {
         System.out.println("Updated addresses zip saved to: " + outputFile);
     }
 
+    /**
+     * Finds the SA of the addresses in each address shape file and saves the matched addresses to a new temporary shape file for each
+     * address shape file. The addresses are matched by the worker threads while the files are read, and the matched addresses are
+     * written to the temporary shape files in the order they were read as the chunks complete. So the outputs do not depend on the
+     * number of threads, and only the chunks waiting to be written are kept in memory.
+     *
+     * @param addressShapeFiles The address shape files
+     * @param saFeatures        The spatial index of the SAs
+     * @return The temporary shape files
+     */
+    List<Path> matchAddresses(List<Path> addressShapeFiles, StatisticalAreaIndex saFeatures) {
+        Log.info("Matching addresses using " + threads + " thread(s)");
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Path> tempShapeFiles = new ArrayList<>(); //The list of newly created temporary shape files
+        try {
+            Deque<PendingChunk> pending = new ArrayDeque<>();
+            for (Path addressShapeFile : addressShapeFiles) {
+                //Get a shape file and find the SA1s of addresses in them
+                findContainingSAs(addressShapeFile, saFeatures, executor, pending, tempShapeFiles);
+            }
+            while (!pending.isEmpty()) {
+                writeMatches(pending.poll(), tempShapeFiles);
+            }
+        } finally {
+            // Also stops the workers if matching fails, so they do not keep the program running
+            executor.shutdownNow();
+        }
+        return tempShapeFiles;
+    }
+
+    /**
+     * @return The matched addresses grouped by the SA1 code, in the order they were read
+     */
+    Map<String, List<Address>> getAddressesBySA() {
+        return addressesBySA;
+    }
+
     private void zipAllUpdatedShapeFiles(List<Path> addressShapeFiles, Path sa1ToLgaMapJson) {
         try {
             Log.info("Creating a zip file with all shape files ... ");
@@ -173,23 +207,25 @@ public class StatisticalArea2AddressMapper {
     }
 
     /**
-     * Finds the SA of each address. The addresses that belong to the specified SAs are copied to a new FeatureCollection instance, and SA
-     * ids are added as new attributes. This does not alter the address instances in original FeatureCollection.
+     * Finds the SA of each address. The addresses that belong to the specified SAs are copied to a new temporary shape file, and SA ids
+     * are added as new attributes. This does not alter the address instances in original FeatureCollection. Duplicate addresses are
+     * removed as the file is read, and the remaining addresses are matched in chunks by the executor. When too many chunks are waiting,
+     * the oldest chunks are written before reading on.
      *
      * @param addressShapeFile The addresses shape file
-     * @param allSAs           The SAs and their bounding boxes (envelopes) that addresses  are expected to belong to
-     * @return New collection of addresses that are in one of the SAs with the corresponding SA id.
+     * @param allSAs           The spatial index of the SAs that addresses are expected to belong to
+     * @param executor         The executor to match the addresses
+     * @param pending          The chunks being matched in the order they were read
+     * @param tempShapeFiles   The list of temporary shape files to add the new file to
      */
-    private SimpleFeatureCollection  findContainingSAs(Path addressShapeFile,
-                                                      Map<SimpleFeature, Envelope> allSAs) {
-
-        SimpleFeatureCollection newFeatureCollection = new DefaultFeatureCollection();
+    private void findContainingSAs(Path addressShapeFile,
+                                   StatisticalAreaIndex allSAs,
+                                   ExecutorService executor,
+                                   Deque<PendingChunk> pending,
+                                   List<Path> tempShapeFiles) {
 
         Log.info("Loading address features in " + addressShapeFile.toUri());
 
-        //The addresses are grouped by different values of this key, typically the SA1 code.
-        String groupingKey = newAttributesToAddress.entrySet().stream().findFirst().orElse(null).getKey();
-
         SimpleFeatureCollection addresses = null;
 
         try {
@@ -199,64 +235,101 @@ public class StatisticalArea2AddressMapper {
         }
 
         assert addresses != null;
-        int totalAddresses = addresses.size(), processed = 0, duplicates = 0, logi = 1;
-        SimpleFeature addressFeat = null;
+        MatchedAddressFile output = new MatchedAddressFile(addressShapeFile, addresses.size());
+        int logi = 1;
+        List<SimpleFeature> chunk = new ArrayList<>(CHUNK_SIZE);
 
-        int outside = 0;
-        //Iterate all addresses finding their SAs
+        //Iterate all addresses, submitting them for matching in chunks
         try (SimpleFeatureIterator addressFeatItr = addresses.features()) {
             Log.info("Matching addresses to Statistical Areas");
 
             while (addressFeatItr.hasNext()) {
 
-                addressFeat = addressFeatItr.next(); //Address feature
+                SimpleFeature addressFeat = addressFeatItr.next(); //Address feature
 
                 if (!isDuplicate(addressFeat)) {//Have we already encountered an address feature with the same street address (EZI_ADD)
-                    assert allSAs != null;
-                    SimpleFeature sa = shapesProcessor.findStatisticalArea(addressFeat, allSAs);
-                    if (sa != null) {
-                        //Add SA id to address feature
-                        SimpleFeature updatedAddr = shapesProcessor.updateAddress(addressFeat, sa, newAttributesToAddress);
-                        ((DefaultFeatureCollection) newFeatureCollection).add(updatedAddr);
-
-                        //Record addresses grouping by their SA1
-                        addressesBySA.computeIfAbsent((String) updatedAddr.getAttribute(groupingKey), v -> new ArrayList<>())
-                                     .add(AddressUtil.map2POJO(updatedAddr));
-
-                    }else{
-                        outside++;
+                    chunk.add(addressFeat);
+                    if (chunk.size() == CHUNK_SIZE) {
+                        submit(chunk, allSAs, executor, output, pending, tempShapeFiles);
+                        chunk = new ArrayList<>(CHUNK_SIZE);
                     }
                 } else {
-                    duplicates++;
+                    output.duplicates++;
                 }
 
-                processed++;
-                if (processed == logi) {
-                    Log.info("Processed " + processed + " / " + totalAddresses + " duplicates: " + duplicates);
+                output.processed++;
+                if (output.processed == logi) {
+                    Log.info("Processed " + output.processed + " / " + output.totalAddresses + " duplicates: " + output.duplicates);
                     logi += logi;
                 }
 
             }
-            Log.info("Processed " + processed + " / " + totalAddresses + " addresses, duplicates: " + duplicates+", outside interest area: "+outside);
-
-        } catch (IOException e) {
-            Log.debug(addressFeat.getAttributes().toString());
-            Log.errorAndExit("SA area loading failed", e, GlobalConstants.ExitCode.USERINPUT);
         }
-
-        return newFeatureCollection;
+        if (!chunk.isEmpty()) {
+            submit(chunk, allSAs, executor, output, pending, tempShapeFiles);
+        }
+        // Marks the end of the file, so the file is closed after its last chunk is written
+        pending.add(new PendingChunk(output, null));
     }
 
-    private Path saveToTempShapeFile(SimpleFeatureCollection featCollection,
-                                     Path tempFileLoc) throws IOException {
-        Path tempOutDir = tempFileLoc.toAbsolutePath();
-        Files.createDirectories(tempOutDir);
-
-        return new ShapefileGeoFeatureWriter().writeFeatures(DataUtilities.simple(featCollection),
-                                                             tempOutDir);
+    private void submit(List<SimpleFeature> chunk,
+                        StatisticalAreaIndex allSAs,
+                        ExecutorService executor,
+                        MatchedAddressFile output,
+                        Deque<PendingChunk> pending,
+                        List<Path> tempShapeFiles) {
+        while (pending.size() >= threads * CHUNKS_PER_THREAD) {
+            writeMatches(pending.poll(), tempShapeFiles);
+        }
+        pending.add(new PendingChunk(output, executor.submit(() -> matchAddresses(chunk, allSAs))));
+    }
 
+    /**
+     * Waits for a chunk of addresses to be matched and writes the addresses that are in one of the SAs to the temporary shape file of the
+     * address shape file, or closes the temporary shape file if the chunk marks the end of the address shape file.
+     *
+     * @param chunk          The chunk
+     * @param tempShapeFiles The list of temporary shape files to add the closed file to
+     */
+    private void writeMatches(PendingChunk chunk, List<Path> tempShapeFiles) {
+        if (chunk.matches == null) {
+            chunk.output.close(tempShapeFiles);
+            return;
+        }
+        List<MatchedAddress> matches = null;
+        try {
+            matches = chunk.matches.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Log.errorAndExit("Interrupted while matching addresses", e, GlobalConstants.ExitCode.PROGERROR);
+        } catch (ExecutionException e) {
+            Log.errorAndExit("SA area loading failed", e.getCause(), GlobalConstants.ExitCode.USERINPUT);
+        }
+        chunk.output.write(matches);
     }
 
+    /**
+     * Finds the SA of each address in a chunk. Runs on a worker thread, so it only reads the SA index and the mapper settings.
+     *
+     * @param addresses The address features
+     * @param allSAs    The spatial index of the SAs
+     * @return The matched address of each address, or null if the address is not in any of the SAs
+     * @throws IOException If converting an address to a POJO fails
+     */
+    private List<MatchedAddress> matchAddresses(List<SimpleFeature> addresses, StatisticalAreaIndex allSAs) throws IOException {
+        List<MatchedAddress> matches = new ArrayList<>(addresses.size());
+        for (SimpleFeature addressFeat : addresses) {
+            SimpleFeature sa = shapesProcessor.findStatisticalArea(addressFeat, allSAs);
+            if (sa != null) {
+                //Add SA id to address feature
+                SimpleFeature updatedAddr = shapesProcessor.updateAddress(addressFeat, sa, newAttributesToAddress, addressAugmenter);
+                matches.add(new MatchedAddress(updatedAddr, AddressUtil.map2POJO(updatedAddr)));
+            } else {
+                matches.add(null);
+            }
+        }
+        return matches;
+    }
 
     private Path getAreaName(Path addressShapeFile) {
         return addressShapeFile.getName(addressShapeFile.getNameCount() - areaNameDirIndex);
@@ -266,4 +339,90 @@ public class StatisticalArea2AddressMapper {
     private boolean isDuplicate(SimpleFeature address) {
         return !checkedAddresses.add(address.getAttribute(duplicatesCheckKey).toString());
     }
+
+    /**
+     * A chunk of addresses submitted for matching. A chunk without matches marks the end of an address shape file
+     */
+    private static final class PendingChunk {
+        final MatchedAddressFile output;
+        final Future<List<MatchedAddress>> matches;
+
+        PendingChunk(MatchedAddressFile output, Future<List<MatchedAddress>> matches) {
+            this.output = output;
+            this.matches = matches;
+        }
+    }
+
+    /**
+     * The temporary shape file of the matched addresses of an address shape file. The file is created when the first matched address is
+     * written, so no file is created if no addresses belong to any of the SAs.
+     */
+    private final class MatchedAddressFile {
+        final Path addressShapeFile;
+        final int totalAddresses;
+        int processed = 0, duplicates = 0, outside = 0;
+        private final Path tempLocation;
+        private ShapefileGeoFeatureWriter.FeatureAppender appender;
+
+        MatchedAddressFile(Path addressShapeFile, int totalAddresses) {
+            this.addressShapeFile = addressShapeFile;
+            this.totalAddresses = totalAddresses;
+            this.tempLocation = tempOutputDir.resolve(getAreaName(addressShapeFile).toString()).toAbsolutePath();
+        }
+
+        void write(List<MatchedAddress> matches) {
+            //The addresses are grouped by different values of this key, typically the SA1 code.
+            String groupingKey = newAttributesToAddress.entrySet().stream().findFirst().orElse(null).getKey();
+
+            for (MatchedAddress match : matches) {
+                if (match == null) {
+                    outside++;
+                    continue;
+                }
+                try {
+                    if (appender == null) {
+                        Files.createDirectories(tempLocation);
+                        appender = new ShapefileGeoFeatureWriter().openFeatures(match.feature.getFeatureType(), tempLocation);
+                    }
+                    appender.write(match.feature);
+                } catch (IOException e) {
+                    Log.errorAndExit("Writing to temp file location failed: " + tempLocation, e, GlobalConstants.ExitCode.DATA_ERROR);
+                }
+
+                //Record addresses grouping by their SA1
+                addressesBySA.computeIfAbsent((String) match.feature.getAttribute(groupingKey), v -> new ArrayList<>())
+                             .add(match.address);
+            }
+        }
+
+        void close(List<Path> tempShapeFiles) {
+            Log.info("Processed " + processed + " / " + totalAddresses + " addresses, duplicates: " + duplicates +
+                             ", outside interest area: " + outside);
+            if (appender != null) {
+                try {
+                    appender.close();
+                } catch (IOException e) {
+                    Log.errorAndExit("Writing to temp file location failed: " + appender.getPath(), e, GlobalConstants.ExitCode.DATA_ERROR);
+                }
+                tempShapeFiles.add(appender.getPath());
+                Log.debug("Temporary files saved to: {}", appender.getPath());
+            } else {
+                Log.warn("Empty processed addresses collection - " + getAreaName(addressShapeFile) + ". It seems no addresses belong to " +
+                                 "any of the statistical areas");
+            }
+        }
+    }
+
+    /**
+     * An address feature with the attributes of its SA, and its POJO
+     */
+    private static final class MatchedAddress {
+        final SimpleFeature feature;
+        final Address address;
+
+        MatchedAddress(SimpleFeature feature, Address address) {
+            this.feature = feature;
+            this.address = address;
+        }
+    }
 }
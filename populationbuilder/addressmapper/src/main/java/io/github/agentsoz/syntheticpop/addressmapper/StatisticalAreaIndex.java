@@ -0,0 +1,107 @@
+package io.github.agentsoz.syntheticpop.addressmapper;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.index.strtree.STRtree;
+import io.github.agentsoz.syntheticpop.geo.FeatureProcessor;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+import java.util.List;
+
+/**
+ * A spatial index of statistical area polygons. The bounding boxes (envelopes) of the polygons are kept in an STR packed R-tree, so
+ * finding the polygon of a point only tests the few polygons whose bounding boxes contain the point instead of all polygons. Each polygon
+ * is kept as a prepared geometry, so testing the points of many addresses against the same polygon reuses its segment index. The segment
+ * indexes are built when the index is created, so the index can be used from several threads.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+class StatisticalAreaIndex {
+
+    private final STRtree tree = new STRtree();
+    private final CoordinateReferenceSystem crs;
+
+    /**
+     * @param statisticalAreas The statistical area features
+     * @param featProcessor    Feature processor instance to prepare the polygons
+     * @throws IllegalArgumentException If there are no statistical areas
+     */
+    StatisticalAreaIndex(List<SimpleFeature> statisticalAreas, FeatureProcessor featProcessor) {
+        if (statisticalAreas.isEmpty()) {
+            throw new IllegalArgumentException("No statistical areas to index");
+        }
+        for (SimpleFeature sa : statisticalAreas) {
+            Geometry polygon = (Geometry) sa.getDefaultGeometry();
+            PreparedGeometry prepared = featProcessor.prepare(sa);
+            // A prepared polygon builds its point locator index on the first check without synchronisation, so build it here before the
+            // polygon is shared between the matching threads
+            prepared.contains(polygon.getInteriorPoint());
+            tree.insert(polygon.getEnvelopeInternal(), new Area(sa, prepared));
+        }
+        // Build the tree now. The tree cannot be changed after this, and it can be queried from several threads
+        tree.build();
+        crs = statisticalAreas.get(0).getType().getCoordinateReferenceSystem();
+    }
+
+    /**
+     * Finds the statistical areas whose bounding boxes contain the point. The point may still be outside these areas.
+     *
+     * @param point The point
+     * @return The candidate statistical areas
+     */
+    @SuppressWarnings("unchecked")
+    List<Area> candidates(Point point) {
+        return (List<Area>) tree.query(new Envelope(point.getCoordinate()));
+    }
+
+    /**
+     * @return The number of statistical areas in the index
+     */
+    int size() {
+        return tree.size();
+    }
+
+    /**
+     * @return The coordinate reference system of the statistical areas
+     */
+    CoordinateReferenceSystem getCoordinateReferenceSystem() {
+        return crs;
+    }
+
+    /**
+     * A statistical area feature and its prepared polygon
+     */
+    static final class Area {
+        final SimpleFeature feature;
+        final PreparedGeometry polygon;
+
+        private Area(SimpleFeature feature, PreparedGeometry polygon) {
+            this.feature = feature;
+            this.polygon = polygon;
+        }
+    }
+}
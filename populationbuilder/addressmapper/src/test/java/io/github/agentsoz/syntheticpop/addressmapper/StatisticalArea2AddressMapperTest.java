@@ -0,0 +1,243 @@
+package io.github.agentsoz.syntheticpop.addressmapper;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import io.github.agentsoz.syntheticpop.addressmapper.models.Address;
+import io.github.agentsoz.syntheticpop.geo.FeatureProcessor;
+import io.github.agentsoz.syntheticpop.geo.ShapefileGeoFeatureReader;
+import io.github.agentsoz.syntheticpop.util.ConfigProperties;
+import io.github.agentsoz.syntheticpop.util.Log;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.shapefile.ShapefileDataStore;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.feature.DefaultFeatureCollection;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * @author wniroshan 18 Oct 2026
+ */
+public class StatisticalArea2AddressMapperTest {
+
+    private static final int GRID = 4;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+    private Logger logger;
+    private List<SimpleFeature> sa1s;
+    private Map<Path, SimpleFeatureCollection> addressFiles;
+
+    @Before
+    public void setUp() throws Exception {
+        logger = Log.createLogger("AddressMapperTest", "AddressMapperTest.log");
+
+        // A grid of 1 x 1 SA1 squares, every other square split into two triangles. Prepared squares are checked as rectangles, while
+        // prepared triangles use the point locator index that is shared between the matching threads
+        SimpleFeatureType saType = DataUtilities.createType("SA1", "the_geom:Polygon,SA1_MAIN16:String");
+        sa1s = new ArrayList<>();
+        for (int x = 0; x < GRID; x++) {
+            for (int y = 0; y < GRID; y++) {
+                if ((x + y) % 2 == 0) {
+                    Geometry square = geometryFactory.toGeometry(new Envelope(x, x + 1, y, y + 1));
+                    sa1s.add(SimpleFeatureBuilder.build(saType, new Object[]{square, "2" + x + y}, null));
+                } else {
+                    Geometry lower = triangle(new Coordinate(x, y), new Coordinate(x + 1, y), new Coordinate(x + 1, y + 1));
+                    Geometry upper = triangle(new Coordinate(x, y), new Coordinate(x + 1, y + 1), new Coordinate(x, y + 1));
+                    sa1s.add(SimpleFeatureBuilder.build(saType, new Object[]{lower, "2" + x + y + "1"}, null));
+                    sa1s.add(SimpleFeatureBuilder.build(saType, new Object[]{upper, "2" + x + y + "2"}, null));
+                }
+            }
+        }
+
+        // Two address files spanning several chunks. Some addresses are outside the grid and some are repeated, also across files
+        SimpleFeatureType addressType = DataUtilities.createType("ADDRESS", "the_geom:Point,EZI_ADD:String,PFI:String");
+        Random random = new Random(4456);
+        addressFiles = new LinkedHashMap<>();
+        for (String area : Arrays.asList("areaA", "areaB")) {
+            DefaultFeatureCollection addresses = new DefaultFeatureCollection();
+            for (int i = 0; i < 3000; i++) {
+                Coordinate c = new Coordinate(random.nextDouble() * (GRID + 1), random.nextDouble() * GRID);
+                String ezi = "ADDRESS " + random.nextInt(5000);
+                addresses.add(SimpleFeatureBuilder.build(addressType,
+                                                         new Object[]{geometryFactory.createPoint(c), ezi, area + i},
+                                                         area + "." + i));
+            }
+            addressFiles.put(tempFolder.getRoot().toPath().resolve(area).resolve("ADDRESS.shp"), addresses);
+        }
+    }
+
+    @Test
+    public void testThreadsMatchSequentialMatcher() throws IOException {
+        Map<String, List<String>> expected = matchSequentially();
+
+        for (int threads : new int[]{1, 4}) {
+            StatisticalArea2AddressMapper mapper = mapper(threads);
+            List<Path> tempShapeFiles = mapper.matchAddresses(new ArrayList<>(addressFiles.keySet()),
+                                                              new StatisticalAreaIndex(sa1s, new FeatureProcessor()));
+
+            Assert.assertEquals("Threads: " + threads, expected, eziAddresses(mapper.getAddressesBySA()));
+            Assert.assertEquals(2, tempShapeFiles.size());
+            for (Path tempShapeFile : tempShapeFiles) {
+                Assert.assertTrue(Files.exists(tempShapeFile));
+            }
+        }
+    }
+
+    @Test
+    public void testFileWithoutMatches() throws IOException {
+        // An address file in between the others with all addresses outside the grid
+        SimpleFeatureType addressType = DataUtilities.createType("ADDRESS", "the_geom:Point,EZI_ADD:String,PFI:String");
+        DefaultFeatureCollection outside = new DefaultFeatureCollection();
+        for (int i = 0; i < 2000; i++) {
+            Coordinate c = new Coordinate(GRID + 1 + i, -1);
+            outside.add(SimpleFeatureBuilder.build(addressType,
+                                                   new Object[]{geometryFactory.createPoint(c), "OUTSIDE " + i, "areaC" + i},
+                                                   "areaC." + i));
+        }
+        Path areaA = addressFiles.keySet().iterator().next();
+        Map<Path, SimpleFeatureCollection> files = new LinkedHashMap<>();
+        files.put(areaA, addressFiles.remove(areaA));
+        files.put(tempFolder.getRoot().toPath().resolve("areaC").resolve("ADDRESS.shp"), outside);
+        files.putAll(addressFiles);
+        addressFiles = files;
+
+        ListAppender<ILoggingEvent> events = new ListAppender<>();
+        events.start();
+        logger.addAppender(events);
+        try {
+            StatisticalArea2AddressMapper mapper = mapper(2);
+            List<Path> tempShapeFiles = mapper.matchAddresses(new ArrayList<>(addressFiles.keySet()),
+                                                              new StatisticalAreaIndex(sa1s, new FeatureProcessor()));
+
+            // No temp file for the file without matches, and the others are complete
+            Assert.assertEquals(2, tempShapeFiles.size());
+            Assert.assertEquals("areaA", tempShapeFiles.get(0).getParent().getFileName().toString());
+            Assert.assertEquals("areaB", tempShapeFiles.get(1).getParent().getFileName().toString());
+            Assert.assertFalse(Files.exists(tempShapeFiles.get(0).getParent().resolveSibling("areaC")));
+            int written = 0;
+            for (Path tempShapeFile : tempShapeFiles) {
+                ShapefileDataStore dataStore = new ShapefileDataStore(tempShapeFile.toUri().toURL());
+                try {
+                    written += dataStore.getFeatureSource().getFeatures().size();
+                } finally {
+                    dataStore.dispose();
+                }
+            }
+            int matched = mapper.getAddressesBySA().values().stream().mapToInt(List::size).sum();
+            Assert.assertEquals(matched, written);
+
+            Assert.assertTrue(events.list.stream()
+                                         .anyMatch(e -> e.getLevel() == Level.WARN && e.getFormattedMessage().contains("areaC")));
+        } finally {
+            logger.detachAppender(events);
+        }
+    }
+
+    private Geometry triangle(Coordinate a, Coordinate b, Coordinate c) {
+        return geometryFactory.createPolygon(geometryFactory.createLinearRing(new Coordinate[]{a, b, c, a}), null);
+    }
+
+    /**
+     * The original single threaded matching: checks every SA1 for each address that was not seen before
+     */
+    private Map<String, List<String>> matchSequentially() {
+        Map<String, List<String>> expected = new HashMap<>();
+        Set<String> checked = new HashSet<>();
+        for (SimpleFeatureCollection addresses : addressFiles.values()) {
+            for (SimpleFeature address : DataUtilities.list(addresses)) {
+                if (!checked.add(address.getAttribute("EZI_ADD").toString())) {
+                    continue;
+                }
+                for (SimpleFeature sa1 : sa1s) {
+                    if (((Geometry) sa1.getDefaultGeometry()).contains((Geometry) address.getDefaultGeometry())) {
+                        expected.computeIfAbsent((String) sa1.getAttribute("SA1_MAIN16"), k -> new ArrayList<>())
+                                .add(address.getAttribute("EZI_ADD").toString());
+                        break;
+                    }
+                }
+            }
+        }
+        return expected;
+    }
+
+    private static Map<String, List<String>> eziAddresses(Map<String, List<Address>> addressesBySA) {
+        Map<String, List<String>> ezi = new HashMap<>();
+        addressesBySA.forEach((sa, addresses) -> {
+            List<String> names = new ArrayList<>();
+            addresses.forEach(a -> names.add(a.getProperties().getEZI_ADD()));
+            ezi.put(sa, names);
+        });
+        return ezi;
+    }
+
+    private StatisticalArea2AddressMapper mapper(int threads) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("AddressesShapeFileZip", "addresses.zip");
+        props.setProperty("AddressesShapeFileNamePattern", "ADDRESS.shp");
+        props.setProperty("SAShapeFileZip", "sa1.zip");
+        props.setProperty("SAShapeFileName", "SA1.shp");
+        props.setProperty("DuplicatesCheckKey", "EZI_ADD");
+        props.setProperty("NewAttributesToAddress", "SA1_MAIN16:SA1_MAIN16");
+        props.setProperty("TemporaryOutputDirectory", tempFolder.newFolder("temp" + threads).toString());
+        props.setProperty("SAFilterPropertyName", "GCC_CODE16");
+        props.setProperty("SAFilterPropertyValues", "2GMEL");
+        props.setProperty("UpdatedAddressShapeFile", "addresses-out.zip");
+        props.setProperty("AreaNameDirIndex", "2");
+        props.setProperty("SA1toAddressesJsonFile", "sa1-addresses.json.gz");
+        props.setProperty("MatchingThreads", String.valueOf(threads));
+        Path propsFile = tempFolder.newFile("addressmapper" + threads + ".properties").toPath();
+        try (Writer writer = Files.newBufferedWriter(propsFile)) {
+            props.store(writer, null);
+        }
+
+        // Reads the addresses from memory instead of the shape files
+        ShapesProcessor shapesProcessor = new ShapesProcessor(new FeatureProcessor(), new ShapefileGeoFeatureReader()) {
+            @Override
+            SimpleFeatureCollection loadAddresses(Path addressShapeFile) {
+                return addressFiles.get(addressShapeFile);
+            }
+        };
+        return new StatisticalArea2AddressMapper(new ConfigProperties(propsFile.toString()), shapesProcessor);
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.agentsoz.syntheticpop.addressmapper;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import io.github.agentsoz.syntheticpop.geo.FeatureProcessor;
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import java.util.*;
+
+/**
+ * @author wniroshan 18 Oct 2026
+ */
+public class StatisticalAreaIndexTest {
+
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+    private List<SimpleFeature> sas;
+    private StatisticalAreaIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        SimpleFeatureType saType = DataUtilities.createType("SA1", "the_geom:Polygon,SA1_MAIN16:String");
+        sas = new ArrayList<>();
+        // A grid of 1 x 1 squares
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 3; y++) {
+                Geometry square = geometryFactory.toGeometry(new Envelope(x, x + 1, y, y + 1));
+                sas.add(SimpleFeatureBuilder.build(saType, new Object[]{square, "2" + x + y}, null));
+            }
+        }
+        // A triangle over the grid, so its bounding box covers points outside it
+        Coordinate[] corners = {new Coordinate(0, 0), new Coordinate(3, 0), new Coordinate(0, 3), new Coordinate(0, 0)};
+        Geometry triangle = geometryFactory.createPolygon(geometryFactory.createLinearRing(corners), null);
+        sas.add(SimpleFeatureBuilder.build(saType, new Object[]{triangle, "T"}, null));
+        index = new StatisticalAreaIndex(sas, new FeatureProcessor());
+    }
+
+    @Test
+    public void testCandidatesAreAllEnvelopesContainingPoint() {
+        Assert.assertEquals(sas.size(), index.size());
+        Random random = new Random(4456);
+        for (int i = 0; i < 1000; i++) {
+            Point point = geometryFactory.createPoint(new Coordinate(random.nextDouble() * 4 - 0.5, random.nextDouble() * 4 - 0.5));
+            Set<String> expected = new HashSet<>();
+            for (SimpleFeature sa : sas) {
+                if (((Geometry) sa.getDefaultGeometry()).getEnvelopeInternal().contains(point.getCoordinate())) {
+                    expected.add((String) sa.getAttribute("SA1_MAIN16"));
+                }
+            }
+            Assert.assertEquals(point.toString(), expected, codes(index.candidates(point)));
+        }
+    }
+
+    @Test
+    public void testCandidatesOnSharedBoundary() {
+        // On the edge between two squares
+        Point edge = geometryFactory.createPoint(new Coordinate(1, 2.5));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("202", "212", "T")), codes(index.candidates(edge)));
+
+        // On the corner of four squares
+        Point corner = geometryFactory.createPoint(new Coordinate(1, 1));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("200", "201", "210", "211", "T")), codes(index.candidates(corner)));
+
+        // Outside all bounding boxes
+        Assert.assertTrue(index.candidates(geometryFactory.createPoint(new Coordinate(3.5, 1))).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyIndex() {
+        new StatisticalAreaIndex(Collections.emptyList(), new FeatureProcessor());
+    }
+
+    private static Set<String> codes(List<StatisticalAreaIndex.Area> areas) {
+        Set<String> codes = new HashSet<>();
+        for (StatisticalAreaIndex.Area area : areas) {
+            codes.add((String) area.feature.getAttribute("SA1_MAIN16"));
+        }
+        Assert.assertEquals("Each area is a candidate once", areas.size(), codes.size());
+        return codes;
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.agentsoz.syntheticpop.geo;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.FeatureSource;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of one point in polygon test on the Greater Melbourne SA1 polygons, using the raw polygon and the prepared polygon
+ * containment checks of {@link FeatureProcessor}. Each test checks a random point within the bounding box of a random SA1, which is what
+ * matching an address does for each SA1 whose bounding box contains the address. The SA1 shape file zip from ABS is not part of the
+ * repository. Set its location with {@code -p saShapeFile=<zip>} if it is not in the default location of addressmapper.properties.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class FeatureProcessorBenchmark {
+
+    private static final int SIZE = 4096;
+    private static final long SEED = 4456L;
+
+    /**
+     * The SA1 shape file zip, relative to the populationbuilder directory
+     */
+    @Param("../data/melbourne-2016/raw/1270055001_sa1_2016_aust_shape.zip")
+    public String saShapeFile;
+
+    private final FeatureProcessor featProcessor = new FeatureProcessor();
+    private final SimpleFeature[] polygons = new SimpleFeature[SIZE];
+    private final PreparedGeometry[] preparedPolygons = new PreparedGeometry[SIZE];
+    private final SimpleFeature[] points = new SimpleFeature[SIZE];
+
+    @Setup
+    public void setUp() throws IOException, SchemaException {
+        Path shapeFile = Paths.get(saShapeFile);
+        if (!Files.exists(shapeFile)) {
+            throw new IllegalStateException("SA1 shape file zip not found: " + shapeFile.toAbsolutePath() + ". Set -p saShapeFile=<zip>");
+        }
+        ShapefileGeoFeatureReader shapesReader = new ShapefileGeoFeatureReader();
+        FeatureSource<SimpleFeatureType, SimpleFeature> source = shapesReader.getFeatureSource(shapeFile, "SA1_2016_AUST.shp");
+        SimpleFeatureCollection collection = (SimpleFeatureCollection) shapesReader.loadFeaturesByProperty(source,
+                                                                                                           "GCC_CODE16",
+                                                                                                           new String[]{"2GMEL"});
+        List<SimpleFeature> sa1s = new ArrayList<>();
+        try (SimpleFeatureIterator itr = collection.features()) {
+            while (itr.hasNext()) {
+                SimpleFeature sa1 = itr.next();
+                if (sa1.getDefaultGeometry() != null) {
+                    sa1s.add(sa1);
+                }
+            }
+        }
+
+        SimpleFeatureType pointType = DataUtilities.createType("Address", "the_geom:Point");
+        GeometryFactory geometryFactory = new GeometryFactory();
+        Random random = new Random(SEED);
+        for (int i = 0; i < SIZE; i++) {
+            polygons[i] = sa1s.get(random.nextInt(sa1s.size()));
+            preparedPolygons[i] = featProcessor.prepare(polygons[i]);
+            Envelope envelope = ((Geometry) polygons[i].getDefaultGeometry()).getEnvelopeInternal();
+            Coordinate c = new Coordinate(envelope.getMinX() + random.nextDouble() * envelope.getWidth(),
+                                          envelope.getMinY() + random.nextDouble() * envelope.getHeight());
+            points[i] = SimpleFeatureBuilder.build(pointType, new Object[]{geometryFactory.createPoint(c)}, null);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int contains() {
+        int inside = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (featProcessor.checkContains(polygons[i], points[i])) {
+                inside++;
+            }
+        }
+        return inside;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int preparedContains() {
+        int inside = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (featProcessor.checkContains(preparedPolygons[i], points[i])) {
+                inside++;
+            }
+        }
+        return inside;
+    }
+}
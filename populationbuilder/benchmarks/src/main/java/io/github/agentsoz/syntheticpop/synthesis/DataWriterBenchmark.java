@@ -0,0 +1,91 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import io.github.agentsoz.syntheticpop.filemanager.zip.GzipCodec;
+import io.github.agentsoz.syntheticpop.synthesis.models.Household;
+import io.github.agentsoz.syntheticpop.synthesis.models.Person;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks writing the persons file of an SA2 from the person instances and from the population table the synthesis uses.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class DataWriterBenchmark {
+
+    /**
+     * The OutputCompression property of the population files
+     */
+    @Param({"standard", "parallel"})
+    public String compression;
+
+    private List<Person> persons;
+    private PopulationTable population;
+    private GzipCodec codec;
+    private Path outputFile;
+
+    @Setup(Level.Trial)
+    public void setUp(SA2Input input) throws IOException {
+        List<Household> households = input.newPopulationFactory().makePopulation();
+        PersonPropertiesHandler.buildRelationships(households);
+        persons = households.stream().map(Household::getMembers).flatMap(List::stream).collect(Collectors.toList());
+        population = PopulationTable.fromHouseholds(households);
+
+        Properties props = new Properties();
+        props.setProperty("OutputCompression", compression);
+        codec = GzipCodec.fromProperties(props);
+        outputFile = Files.createTempFile("persons", ".csv.gz");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(outputFile);
+    }
+
+    @Benchmark
+    public Path savePersons() throws IOException {
+        DataWriter.savePersons(outputFile, persons, codec);
+        return outputFile;
+    }
+
+    @Benchmark
+    public Path savePersonsFromTable() throws IOException {
+        DataWriter.savePersons(outputFile, population, codec);
+        return outputFile;
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import io.github.agentsoz.syntheticpop.synthesis.models.AgeRange;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the generic {@link PopulationRules#validateParentChildAgeRule(Object, Object, Object)} with the primitive and age range matrix
+ * checks of {@link ParentChildAgeRule} on the same random parent and child combinations.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class ParentChildAgeRuleBenchmark {
+
+    private static final int SIZE = 4096;
+
+    private final ParentChildAgeRule rule = ParentChildAgeRule.DEFAULT;
+    private final AgeRange[] parent1Ranges = new AgeRange[SIZE];
+    private final AgeRange[] parent2Ranges = new AgeRange[SIZE];
+    private final AgeRange[] childRanges = new AgeRange[SIZE];
+    private final int[] parent1Ages = new int[SIZE];
+    private final int[] parent2Ages = new int[SIZE];
+    private final int[] childAges = new int[SIZE];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(SA2Input.SEED);
+        AgeRange[] ranges = AgeRange.values();
+        for (int i = 0; i < SIZE; i++) {
+            parent1Ranges[i] = ranges[random.nextInt(ranges.length)];
+            // A quarter of the families have one parent
+            parent2Ranges[i] = random.nextInt(4) == 0 ? null : ranges[random.nextInt(ranges.length)];
+            childRanges[i] = ranges[random.nextInt(ranges.length)];
+            parent1Ages[i] = random.nextInt(100);
+            parent2Ages[i] = parent2Ranges[i] == null ? ParentChildAgeRule.NO_PARENT : random.nextInt(100);
+            childAges[i] = random.nextInt(100);
+        }
+    }
+
+    @Benchmark
+    public int populationRulesAgeRanges() {
+        int valid = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (PopulationRules.validateParentChildAgeRule(parent1Ranges[i], parent2Ranges[i], childRanges[i])) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int ruleAgeRanges() {
+        int valid = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (rule.isValid(parent1Ranges[i], parent2Ranges[i], childRanges[i])) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int populationRulesAges() {
+        int valid = 0;
+        for (int i = 0; i < SIZE; i++) {
+            Integer parent2 = parent2Ages[i] == ParentChildAgeRule.NO_PARENT ? null : parent2Ages[i];
+            if (PopulationRules.validateParentChildAgeRule(parent1Ages[i], parent2, childAges[i])) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int ruleAges() {
+        int valid = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (rule.isValid(parent1Ages[i], parent2Ages[i], childAges[i])) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+}
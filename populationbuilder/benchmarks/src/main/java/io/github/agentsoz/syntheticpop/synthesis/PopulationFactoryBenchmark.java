@@ -0,0 +1,151 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import io.github.agentsoz.syntheticpop.synthesis.models.Household;
+import io.github.agentsoz.syntheticpop.synthesis.models.Person;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks the stages of the household construction of an SA2. Each stage runs on a population factory that has completed the
+ * preceding stages, which are set up again before every invocation because each stage consumes the persons and families it is given.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PopulationFactoryBenchmark {
+
+    @State(Scope.Thread)
+    public static class BeforeCoupleWithChildUnits {
+        PopulationFactory factory;
+
+        @Setup(Level.Invocation)
+        public void setUp(SA2Input input) {
+            factory = input.newPopulationFactory();
+            factory.formAllPersons();
+            factory.formBasicOneParentAndCoupleUnits();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BeforeChildren {
+        PopulationFactory factory;
+        List<Household> familyHouseholds;
+
+        @Setup(Level.Invocation)
+        public void setUp(SA2Input input) {
+            factory = input.newPopulationFactory();
+            factory.formAllPersons();
+            factory.formAllKnownFamilies();
+            factory.formNonFamilyHouseholds();
+            familyHouseholds = factory.formFamilyHouseholds();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BeforeExtras {
+        PopulationFactory factory;
+        List<Household> familyHouseholds;
+
+        @Setup(Level.Invocation)
+        public void setUp(SA2Input input) {
+            factory = input.newPopulationFactory();
+            factory.formAllPersons();
+            factory.formAllKnownFamilies();
+            factory.formNonFamilyHouseholds();
+            familyHouseholds = factory.formFamilyHouseholds();
+            factory.completeHouseholdsWithChildren(familyHouseholds);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Households {
+        List<Household> households;
+
+        @Setup(Level.Invocation)
+        public void setUp(SA2Input input) {
+            households = input.newPopulationFactory().makePopulation();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Persons {
+        List<Person> persons;
+        Random random;
+
+        @Setup(Level.Invocation)
+        public void setUp(SA2Input input) {
+            List<Household> households = input.newPopulationFactory().makePopulation();
+            PersonPropertiesHandler.buildRelationships(households);
+            persons = households.stream().map(Household::getMembers).flatMap(List::stream).collect(Collectors.toList());
+            random = new Random(SA2Input.SEED);
+        }
+    }
+
+    /**
+     * {@link FamilyFactory#formCoupleWithChildFamilyBasicUnits(int, List, List)} for the primary couple with children families
+     */
+    @Benchmark
+    public PopulationFactory formCoupleWithChildFamilyBasicUnits(BeforeCoupleWithChildUnits stage) {
+        stage.factory.formBasicCoupleWithChildUnits();
+        return stage.factory;
+    }
+
+    /**
+     * {@link HouseholdFactory#completeHouseholdsWithChildren(List, List)}
+     */
+    @Benchmark
+    public List<Household> completeHouseholdsWithChildren(BeforeChildren stage) {
+        stage.factory.completeHouseholdsWithChildren(stage.familyHouseholds);
+        return stage.familyHouseholds;
+    }
+
+    /**
+     * {@link HouseholdFactory#addExtrasAsChildrenAndRelatives(List, List, List, List, List, List)}
+     */
+    @Benchmark
+    public List<Household> addExtrasAsChildrenAndRelatives(BeforeExtras stage) {
+        stage.factory.addExtrasAsChildrenAndRelatives(stage.familyHouseholds);
+        return stage.familyHouseholds;
+    }
+
+    @Benchmark
+    public List<Household> buildRelationships(Households stage) {
+        PersonPropertiesHandler.buildRelationships(stage.households);
+        return stage.households;
+    }
+
+    @Benchmark
+    public int assignAge(SA2Input input, Persons stage) {
+        return PersonPropertiesHandler.assignAge(stage.persons, input.ageSamplingTable, ParentChildAgeRule.DEFAULT, stage.random);
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import io.github.agentsoz.syntheticpop.synthesis.models.HhRecord;
+import io.github.agentsoz.syntheticpop.synthesis.models.IndRecord;
+import io.github.agentsoz.syntheticpop.util.Log;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * The inputs of an SA2 for the benchmarks. The household and person records of the Armadale test SA2 are scaled by {@link #scale}, so the
+ * benchmarks run on SA2s of about {@code 8200 * scale} persons with the same household and person type distributions.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+@State(Scope.Benchmark)
+public class SA2Input {
+
+    static final String SA2 = "Armadale";
+    static final long SEED = 58455245456L;
+
+    /**
+     * The SA2 size as a multiple of Armadale
+     */
+    @Param({"1", "10", "50"})
+    public int scale;
+
+    List<HhRecord> hhRecords;
+    List<IndRecord> indRecords;
+    AgeSamplingTable ageSamplingTable;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        Log.createLogger("Benchmark", ch.qos.logback.classic.Level.WARN, "Benchmark.log");
+
+        Path dir = Files.createTempDirectory("benchmark");
+        Path hhFile = copyResource(SA2 + "/preprocessed/household_types.csv.gz", dir);
+        Path indFile = copyResource(SA2 + "/preprocessed/person_types.csv.gz", dir);
+        Path ageFile = copyResource("Persons_percentage_by_age_2016_Greater_Melbourne_SA2s.zip", dir);
+
+        hhRecords = new ArrayList<>();
+        for (HhRecord r : DataReader.readHouseholdRecords(hhFile).get(SA2)) {
+            hhRecords.add(new HhRecord(r.NUM_OF_PERSONS_PER_HH,
+                                       r.FAMILY_HOUSEHOLD_TYPE.getFamilyCount(),
+                                       r.FAMILY_HOUSEHOLD_TYPE.getFamilyType(),
+                                       r.HH_COUNT * scale,
+                                       r.SA));
+        }
+        indRecords = new ArrayList<>();
+        for (IndRecord r : DataReader.readPersonRecords(indFile).get(SA2)) {
+            indRecords.add(new IndRecord(r.RELATIONSHIP_STATUS, r.SEX, r.AGE_RANGE, r.IND_COUNT * scale, r.SA));
+        }
+
+        Map<String, String> ageParams = new HashMap<>();
+        ageParams.put("FileName", ageFile.toString());
+        ageParams.put("AgeColumn", "0");
+        ageParams.put("SANamesRow", "10");
+        ageSamplingTable = new AgeSamplingTable(DataReader.readAgeDistribution(ageParams).get(SA2));
+
+        Files.delete(hhFile);
+        Files.delete(indFile);
+        Files.delete(ageFile);
+        Files.delete(dir);
+    }
+
+    /**
+     * @return A new population factory of the SA2 with a fixed seed, so each benchmark invocation does the same work
+     */
+    PopulationFactory newPopulationFactory() {
+        return new PopulationFactory(hhRecords, indRecords, 0.2, ParentChildAgeRule.DEFAULT, new Random(SEED));
+    }
+
+    private static Path copyResource(String resource, Path dir) throws IOException {
+        Path file = dir.resolve(resource.substring(resource.lastIndexOf('/') + 1));
+        try (InputStream in = SA2Input.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing benchmark resource: " + resource);
+            }
+            Files.copy(in, file);
+        }
+        return file;
+    }
+}
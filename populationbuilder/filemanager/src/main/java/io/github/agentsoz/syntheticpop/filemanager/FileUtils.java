@@ -29,9 +29,13 @@ import io.github.agentsoz.syntheticpop.util.LambdaCheckedException;
 import io.github.agentsoz.syntheticpop.util.Log;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Comparator;
 import java.util.List;
 
@@ -68,4 +72,48 @@ public class FileUtils {
         }
     }
 
+    /**
+     * Computes the SHA-256 hash of the contents of a file
+     *
+     * @param file The file
+     * @return The hash as a lower case hexadecimal string
+     * @throws IOException If reading the file fails
+     */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest = sha256Digest();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Computes the SHA-256 hash of the UTF-8 bytes of a string
+     *
+     * @param text The string
+     * @return The hash as a lower case hexadecimal string
+     */
+    public static String sha256(String text) {
+        return toHex(sha256Digest().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new Error(e); // Every Java platform supports SHA-256
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
 }
@@ -0,0 +1,92 @@
+package io.github.agentsoz.syntheticpop.filemanager.csv;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import io.github.agentsoz.syntheticpop.filemanager.zip.GzipCodec;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Path;
+
+/**
+ * Writes a csv file one row at a time. Unlike {@link CSVWriter#writeAsCsv(Writer, java.util.List)} the rows do not have to be collected
+ * into a list first, so large outputs can be written without keeping a second copy of the data in memory. Rows are formatted exactly as
+ * {@link CSVWriter} formats them.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+public class CSVRowWriter implements Closeable {
+
+    private final CSVPrinter csvPrinter;
+
+    /**
+     * @param fileWriter The writer to write the csv rows to. It is closed when this instance is closed.
+     * @throws IOException If the csv printer cannot be created
+     */
+    public CSVRowWriter(Writer fileWriter) throws IOException {
+        this.csvPrinter = new CSVPrinter(fileWriter, CSVFormat.DEFAULT);
+    }
+
+    /**
+     * Creates a writer for a gzip compressed csv file
+     *
+     * @param gzipCsvFile The file to write
+     * @return The row writer
+     * @throws IOException If the file cannot be opened
+     */
+    public static CSVRowWriter gzip(Path gzipCsvFile) throws IOException {
+        return gzip(gzipCsvFile, GzipCodec.STANDARD);
+    }
+
+    /**
+     * Creates a writer for a gzip compressed csv file
+     *
+     * @param gzipCsvFile The file to write
+     * @param codec       The gzip codec to compress the file with
+     * @return The row writer
+     * @throws IOException If the file cannot be opened
+     */
+    public static CSVRowWriter gzip(Path gzipCsvFile, GzipCodec codec) throws IOException {
+        return new CSVRowWriter(new OutputStreamWriter(codec.newOutputStream(gzipCsvFile)));
+    }
+
+    /**
+     * Writes a row. Null values are written as empty cells. The array can be reused for the next row once this method returns.
+     *
+     * @param values The values of the row
+     * @throws IOException If writing fails
+     */
+    public void writeRow(Object... values) throws IOException {
+        csvPrinter.printRecord(values);
+    }
+
+    @Override
+    public void close() throws IOException {
+        csvPrinter.flush();
+        csvPrinter.close();
+    }
+}
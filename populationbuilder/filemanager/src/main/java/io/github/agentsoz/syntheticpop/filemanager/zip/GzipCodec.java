@@ -0,0 +1,151 @@
+package io.github.agentsoz.syntheticpop.filemanager.zip;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Creates the gzip streams used to write output files. The standard codec writes through {@link GZIPOutputStream}. The parallel codec
+ * splits the data into blocks that are compressed concurrently by a thread pool shared by all the streams of the codec, and writes them as
+ * a multi-member gzip file. Both are read by zcat, R and {@link java.util.zip.GZIPInputStream}.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+public class GzipCodec {
+
+    /**
+     * The default codec. Writes single member gzip files with the default compression level.
+     */
+    public static final GzipCodec STANDARD = new GzipCodec(false, Deflater.DEFAULT_COMPRESSION, 1);
+
+    /**
+     * Number of uncompressed bytes in each member of a parallel gzip file
+     */
+    static final int BLOCK_SIZE = 1024 * 1024;
+
+    private final boolean parallel;
+    private final int level;
+    private final int threads;
+    private ExecutorService executor = null;
+
+    /**
+     * @param parallel True to compress blocks concurrently
+     * @param level    The compression level, 0-9, or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param threads  Number of compression threads. Only used if parallel is true
+     */
+    public GzipCodec(boolean parallel, int level, int threads) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be between 0 and 9: " + level);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Compression threads must be at least 1: " + threads);
+        }
+        this.parallel = parallel;
+        this.level = level;
+        this.threads = threads;
+    }
+
+    /**
+     * Reads the codec from the properties. OutputCompression is either "standard" (the default) or "parallel", OutputCompressionLevel is
+     * the compression level (0-9, defaults to the zlib default) and OutputCompressionThreads is the number of compression threads of the
+     * parallel codec (defaults to the number of available processors).
+     *
+     * @param props The properties
+     * @return The codec
+     * @throws IllegalArgumentException If a property has an invalid value
+     */
+    public static GzipCodec fromProperties(Properties props) {
+        String codec = props.getOrDefault("OutputCompression", "standard").toString().trim().toLowerCase();
+        if (!codec.equals("standard") && !codec.equals("parallel")) {
+            throw new IllegalArgumentException("OutputCompression must be standard or parallel: " + codec);
+        }
+        String level = props.getOrDefault("OutputCompressionLevel", "").toString().trim();
+        String threads = props.getOrDefault("OutputCompressionThreads", "").toString().trim();
+        try {
+            return new GzipCodec(codec.equals("parallel"),
+                                 level.isEmpty() ? Deflater.DEFAULT_COMPRESSION : Integer.parseInt(level),
+                                 threads.isEmpty() ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(threads));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opens a gzip stream that writes to the specified file. The file is created or truncated.
+     *
+     * @param file The output file
+     * @return The gzip stream
+     * @throws IOException If the file cannot be opened
+     */
+    public OutputStream newOutputStream(Path file) throws IOException {
+        return newOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+    }
+
+    /**
+     * Wraps the stream in a gzip stream
+     *
+     * @param out The stream to write the compressed data to. It is closed when the gzip stream is closed
+     * @return The gzip stream
+     * @throws IOException If the gzip header cannot be written
+     */
+    public OutputStream newOutputStream(OutputStream out) throws IOException {
+        if (parallel) {
+            return new ParallelGzipOutputStream(out, executor(), level, BLOCK_SIZE, 2 * threads);
+        } else if (level == Deflater.DEFAULT_COMPRESSION) {
+            return new GZIPOutputStream(out);
+        } else {
+            return new GZIPOutputStream(out) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "gzip-" + threadCount.incrementAndGet());
+                t.setDaemon(true); // Idle compression threads must not keep the JVM alive
+                return t;
+            });
+        }
+        return executor;
+    }
+
+    @Override
+    public String toString() {
+        return (parallel ? "parallel gzip, " + threads + " thread(s)" : "standard gzip") + ", level " + (level == Deflater
+                .DEFAULT_COMPRESSION ? "default" : level);
+    }
+}
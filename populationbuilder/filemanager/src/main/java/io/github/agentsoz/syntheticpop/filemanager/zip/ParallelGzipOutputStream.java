@@ -0,0 +1,204 @@
+package io.github.agentsoz.syntheticpop.filemanager.zip;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A gzip output stream that compresses blocks of the input concurrently. Each block is compressed independently into a complete gzip
+ * member and the members are written in order, so the output is a standard multi-member gzip file that zcat, R and
+ * {@link java.util.zip.GZIPInputStream} read as a single stream. The output is slightly larger than a single member stream because the
+ * deflate dictionary is reset at each block.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+final class ParallelGzipOutputStream extends OutputStream {
+
+    /**
+     * A member header without optional fields or modification time, and with OS 0. {@link java.util.zip.GZIPOutputStream} writes OS 0
+     * up to Java 15 and OS 255 (unknown) from Java 16, so the headers differ in that byte on newer Java versions
+     */
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private final OutputStream out;
+    private final ExecutorService executor;
+    private final int level;
+    private final int maxPendingBlocks;
+    private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+    private final int blockSize;
+    private byte[] block;
+    private int count = 0;
+    private boolean memberSubmitted = false;
+    private boolean closed = false;
+
+    /**
+     * @param out              The stream to write the compressed data to. It is closed when this stream is closed
+     * @param executor         The executor that compresses the blocks
+     * @param level            The deflate compression level
+     * @param blockSize        The number of uncompressed bytes in each gzip member
+     * @param maxPendingBlocks The maximum number of blocks waiting to be compressed or written. Writes block when this is reached
+     */
+    ParallelGzipOutputStream(OutputStream out, ExecutorService executor, int level, int blockSize, int maxPendingBlocks) {
+        this.out = out;
+        this.executor = executor;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.maxPendingBlocks = maxPendingBlocks;
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (count == blockSize) {
+            submitBlock();
+        }
+        block[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (count == blockSize) {
+                submitBlock();
+            }
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, block, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Writes the blocks that are already compressed and flushes the underlying stream. The partially filled block is not compressed until
+     * it is full or the stream is closed, so flushing does not produce small gzip members.
+     *
+     * @throws IOException If writing fails
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        while (!pending.isEmpty() && pending.peek().isDone()) {
+            writeNextMember();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (count > 0 || !memberSubmitted) {
+                submitBlock(); // An empty input still gives one empty member, like GZIPOutputStream
+            }
+            while (!pending.isEmpty()) {
+                writeNextMember();
+            }
+        } finally {
+            pending.forEach(f -> f.cancel(true));
+            pending.clear();
+            block = null;
+            out.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        final byte[] data = block;
+        final int length = count;
+        pending.add(executor.submit(() -> compress(data, length, level)));
+        memberSubmitted = true;
+        block = new byte[blockSize];
+        count = 0;
+        while (pending.size() > maxPendingBlocks) {
+            writeNextMember();
+        }
+    }
+
+    private void writeNextMember() throws IOException {
+        try {
+            out.write(pending.poll().get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            throw new IOException("Compressing a block failed", e.getCause());
+        }
+    }
+
+    /**
+     * Compresses a block into a complete gzip member
+     *
+     * @param data   The block
+     * @param length The number of bytes in the block
+     * @param level  The deflate compression level
+     * @return The gzip member
+     */
+    static byte[] compress(byte[] data, int length, int level) {
+        ByteArrayOutputStream member = new ByteArrayOutputStream(length / 3 + 64);
+        member.write(HEADER, 0, HEADER.length);
+
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            byte[] buffer = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                member.write(buffer, 0, deflater.deflate(buffer));
+            }
+        } finally {
+            deflater.end();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        writeIntLE(member, (int) crc.getValue());
+        writeIntLE(member, length);
+        return member.toByteArray();
+    }
+
+    private static void writeIntLE(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+}
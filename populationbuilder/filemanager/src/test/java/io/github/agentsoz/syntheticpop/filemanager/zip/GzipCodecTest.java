@@ -0,0 +1,212 @@
+package io.github.agentsoz.syntheticpop.filemanager.zip;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+/**
+ * @author wniroshan 18 Oct 2026
+ */
+public class GzipCodecTest {
+
+    @Test
+    public void testEmptyInputIsOneEmptyMember() throws IOException, DataFormatException {
+        byte[] parallel = compress(new GzipCodec(true, 6, 2), new byte[0]);
+
+        Assert.assertEquals(0, decompress(parallel).length);
+        Assert.assertEquals(1, countMembers(parallel));
+        // The same member as GZIPOutputStream writes, apart from the OS byte of the header which depends on the Java version
+        byte[] standard = compress(GzipCodec.STANDARD, new byte[0]);
+        Assert.assertEquals(standard.length, parallel.length);
+        Assert.assertArrayEquals(Arrays.copyOf(standard, 9), Arrays.copyOf(parallel, 9));
+        Assert.assertArrayEquals(Arrays.copyOfRange(standard, 10, standard.length), Arrays.copyOfRange(parallel, 10, parallel.length));
+    }
+
+    @Test
+    public void testBlockBoundaries() throws IOException, DataFormatException {
+        GzipCodec codec = new GzipCodec(true, 6, 2);
+
+        byte[] oneBlock = data(GzipCodec.BLOCK_SIZE);
+        byte[] compressed = compress(codec, oneBlock);
+        Assert.assertArrayEquals(oneBlock, decompress(compressed));
+        Assert.assertEquals(1, countMembers(compressed));
+
+        byte[] oneBlockAndAByte = data(GzipCodec.BLOCK_SIZE + 1);
+        compressed = compress(codec, oneBlockAndAByte);
+        Assert.assertArrayEquals(oneBlockAndAByte, decompress(compressed));
+        Assert.assertEquals(2, countMembers(compressed));
+    }
+
+    @Test
+    public void testFlushInTheMiddleOfABlock() throws IOException {
+        GzipCodec codec = new GzipCodec(true, 6, 2);
+        byte[] data = data(3 * GzipCodec.BLOCK_SIZE / 2);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = codec.newOutputStream(bytes)) {
+            out.write(data, 0, 1000);
+            out.flush();
+            out.write(data[1000]);
+            out.flush();
+            out.write(data, 1001, GzipCodec.BLOCK_SIZE);
+            out.flush();
+            out.write(data, GzipCodec.BLOCK_SIZE + 1001, data.length - GzipCodec.BLOCK_SIZE - 1001);
+        }
+
+        Assert.assertArrayEquals(data, decompress(bytes.toByteArray()));
+        // Flushing does not start a new member
+        Assert.assertArrayEquals(compress(codec, data), bytes.toByteArray());
+    }
+
+    @Test
+    public void testOutputDoesNotDependOnThreads() throws IOException {
+        byte[] data = data(5 * GzipCodec.BLOCK_SIZE / 2);
+
+        byte[] oneThread = compress(new GzipCodec(true, 6, 1), data);
+        byte[] fourThreads = compress(new GzipCodec(true, 6, 4), data);
+
+        Assert.assertArrayEquals(data, decompress(oneThread));
+        Assert.assertArrayEquals(oneThread, fourThreads);
+        Assert.assertArrayEquals(data, decompress(compress(new GzipCodec(false, 6, 1), data)));
+    }
+
+    @Test
+    public void testWriteAfterClose() throws IOException {
+        OutputStream out = new GzipCodec(true, 6, 1).newOutputStream(new ByteArrayOutputStream());
+        out.close();
+        out.close();
+        try {
+            out.write(1);
+            Assert.fail("Expected an IOException");
+        } catch (IOException e) {
+            Assert.assertEquals("Stream closed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testInvalidSettings() {
+        for (int level : new int[]{-2, 10}) {
+            try {
+                new GzipCodec(true, level, 1);
+                Assert.fail("Expected an IllegalArgumentException for level " + level);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        try {
+            new GzipCodec(true, 6, 0);
+            Assert.fail("Expected an IllegalArgumentException for 0 threads");
+        } catch (IllegalArgumentException ignored) {
+        }
+
+        for (String[] property : new String[][]{{"OutputCompression", "zip"},
+                                                {"OutputCompressionLevel", "high"},
+                                                {"OutputCompressionLevel", "11"},
+                                                {"OutputCompressionThreads", "0"}}) {
+            Properties props = new Properties();
+            props.setProperty(property[0], property[1]);
+            try {
+                GzipCodec.fromProperties(props);
+                Assert.fail("Expected an IllegalArgumentException for " + Arrays.toString(property));
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void testFromProperties() {
+        Assert.assertEquals("standard gzip, level default", GzipCodec.fromProperties(new Properties()).toString());
+
+        Properties props = new Properties();
+        props.setProperty("OutputCompression", "Parallel");
+        props.setProperty("OutputCompressionLevel", "1");
+        props.setProperty("OutputCompressionThreads", "3");
+        Assert.assertEquals("parallel gzip, 3 thread(s), level 1", GzipCodec.fromProperties(props).toString());
+    }
+
+    /**
+     * Text like data, so it compresses
+     */
+    private static byte[] data(int length) {
+        Random random = new Random(4456);
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (random.nextInt(8) == 0 ? ',' : 'a' + random.nextInt(6));
+        }
+        return data;
+    }
+
+    private static byte[] compress(GzipCodec codec, byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = codec.newOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] gzip) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                bytes.write(buffer, 0, n);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Counts the gzip members. The members have the 10 byte header without optional fields and an 8 byte trailer
+     */
+    private static int countMembers(byte[] gzip) throws DataFormatException {
+        int members = 0;
+        int offset = 0;
+        byte[] buffer = new byte[64 * 1024];
+        while (offset < gzip.length) {
+            Assert.assertEquals(0x1f, gzip[offset] & 0xff);
+            Assert.assertEquals(0x8b, gzip[offset + 1] & 0xff);
+            Inflater inflater = new Inflater(true);
+            inflater.setInput(gzip, offset + 10, gzip.length - offset - 10);
+            while (!inflater.finished()) {
+                inflater.inflate(buffer);
+            }
+            offset = gzip.length - inflater.getRemaining() + 8;
+            inflater.end();
+            members++;
+        }
+        Assert.assertEquals(gzip.length, offset);
+        return members;
+    }
+}
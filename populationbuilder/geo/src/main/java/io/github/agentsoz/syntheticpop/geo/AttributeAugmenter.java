@@ -0,0 +1,113 @@
+package io.github.agentsoz.syntheticpop.geo;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.util.Converters;
+import org.opengis.feature.FeatureFactory;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies features adding a fixed set of new attributes, like {@link FeatureProcessor#addNewAttributeType(SimpleFeature, Collection,
+ * Class)}, but for many features. The feature type with the new attributes is built once for each feature type of the source features, and
+ * a copy is made by filling an attribute array, so copying a feature does not build a feature type or a feature builder. An instance can be
+ * used from several threads.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+public class AttributeAugmenter {
+
+    private final List<String> attributeNames;
+    private final Class<?> valueClass;
+    private final FeatureFactory featureFactory = CommonFactoryFinder.getFeatureFactory(null);
+
+    // Features read from the same file share their feature type instance, so the types are compared by identity
+    private final Map<SimpleFeatureType, SimpleFeatureType> augmentedTypes = new IdentityHashMap<>();
+    private volatile SimpleFeatureType[] lastTypes;
+
+    /**
+     * @param attributeNames The names of the new attributes
+     * @param valueClass     Object class of the values of the new attributes
+     */
+    public AttributeAugmenter(Collection<String> attributeNames, Class<?> valueClass) {
+        this.attributeNames = new ArrayList<>(attributeNames);
+        this.valueClass = valueClass;
+    }
+
+    /**
+     * @param sourceType The feature type of the source features
+     * @return The feature type with the new attributes added after the attributes of the source type
+     */
+    public SimpleFeatureType getAugmentedType(SimpleFeatureType sourceType) {
+        SimpleFeatureType[] last = lastTypes;
+        if (last == null || last[0] != sourceType) {
+            SimpleFeatureType augmentedType;
+            synchronized (augmentedTypes) {
+                augmentedType = augmentedTypes.computeIfAbsent(sourceType, this::buildType);
+            }
+            last = new SimpleFeatureType[]{sourceType, augmentedType};
+            lastTypes = last;
+        }
+        return last[1];
+    }
+
+    /**
+     * Copies a feature adding the new attributes. The new feature gets a new feature ID.
+     *
+     * @param feature The feature to copy. It is not changed
+     * @param values  The values of the new attributes by attribute name. The values are converted to the value class of the new
+     *                attributes. Attributes without a value are set to null
+     * @return The copy of the feature with the new attributes
+     */
+    public SimpleFeature augment(SimpleFeature feature, Map<String, ?> values) {
+        SimpleFeatureType type = getAugmentedType(feature.getFeatureType());
+        int sourceCount = feature.getAttributeCount();
+        Object[] attributes = new Object[sourceCount + attributeNames.size()];
+        for (int i = 0; i < sourceCount; i++) {
+            attributes[i] = feature.getAttribute(i);
+        }
+        for (int i = 0; i < attributeNames.size(); i++) {
+            attributes[sourceCount + i] = Converters.convert(values.get(attributeNames.get(i)), valueClass);
+        }
+        return featureFactory.createSimpleFeature(attributes, type, SimpleFeatureBuilder.createDefaultFeatureId());
+    }
+
+    private SimpleFeatureType buildType(SimpleFeatureType sourceType) {
+        // Create the new type using the former as a template
+        SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+        typeBuilder.init(sourceType);
+        typeBuilder.setName(sourceType.getName());
+        for (String attributeName : attributeNames) {
+            typeBuilder.add(attributeName, valueClass);
+        }
+        return typeBuilder.buildFeatureType();
+    }
+}
@@ -25,6 +25,8 @@ package io.github.agentsoz.syntheticpop.geo;
 import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
 import org.geotools.data.DataUtilities;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.feature.FeatureIterator;
@@ -116,6 +118,30 @@ public class FeatureProcessor {
         return jtsGeoPolygon.contains(jtsPoint);
     }
 
+    /**
+     * Prepares the geometry of a polygon feature for repeated containment checks. A prepared polygon indexes its segments when it is
+     * first used, so checking many points against the same polygon is much faster than {@link #checkContains(SimpleFeature,
+     * SimpleFeature)}. The index is built without synchronisation, so a prepared geometry must be used once before it is shared between
+     * threads.
+     *
+     * @param polygon The polygon
+     * @return The prepared geometry of the polygon
+     */
+    public PreparedGeometry prepare(SimpleFeature polygon) {
+        return PreparedGeometryFactory.prepare((Geometry) polygon.getDefaultGeometry());
+    }
+
+    /**
+     * Checks whether point geographically located within the prepared polygon
+     *
+     * @param polygon The prepared polygon
+     * @param point   The point
+     * @return True if point is within the polygon, false otherwise
+     */
+    public boolean checkContains(PreparedGeometry polygon, SimpleFeature point) {
+        return polygon.contains((Point) point.getDefaultGeometry());
+    }
+
     /**
      * Transforms Coordinate Reference System (CRS) of the features in featureCollection
      *
@@ -152,7 +178,8 @@ public class FeatureProcessor {
     }
 
     /**
-     * Add new attribute to a copy of the feature collection. Value of the new attribute is set to null
+     * Add new attribute to a copy of the feature collection. Value of the new attribute is set to null. Use {@link AttributeAugmenter} to
+     * add the same attributes to many features.
      *
      * @param simpleFeature  The feature to be used as a template
      * @param attributeNames String list of attribute names
@@ -25,6 +25,7 @@ package io.github.agentsoz.syntheticpop.geo;
 import io.github.agentsoz.syntheticpop.util.GlobalConstants;
 import io.github.agentsoz.syntheticpop.util.Log;
 import org.geotools.data.DefaultTransaction;
+import org.geotools.data.FeatureWriter;
 import org.geotools.data.FileDataStoreFactorySpi;
 import org.geotools.data.Transaction;
 import org.geotools.data.shapefile.ShapefileDataStore;
@@ -32,7 +33,12 @@ import org.geotools.data.shapefile.ShapefileDataStoreFactory;
 import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.data.simple.SimpleFeatureSource;
 import org.geotools.data.simple.SimpleFeatureStore;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
@@ -99,4 +105,90 @@ public class ShapefileGeoFeatureWriter {
 
     }
 
+    /**
+     * Creates a shape file to write features one at a time, so the features do not have to be kept in a feature collection. The features
+     * are written to the file as they are added and the file is complete when the appender is closed.
+     *
+     * @param schema    The feature type of the features
+     * @param outputDir directory where output files to be written
+     * @return The appender of the new shape file
+     * @throws IOException When creating the file
+     */
+    public FeatureAppender openFeatures(final SimpleFeatureType schema, final Path outputDir) throws IOException {
+        final Path path = Paths.get(outputDir + File.separator + schema.getName().toString() + ".shp");
+        final Map<String, Serializable> params = new HashMap<>();
+        params.put("url", path.toUri().toURL());
+        params.put("create spatial index", Boolean.TRUE);
+
+        FileDataStoreFactorySpi dataStoreFactory = new ShapefileDataStoreFactory();
+        ShapefileDataStore newDataStore = (ShapefileDataStore) dataStoreFactory.createNewDataStore(params);
+        try {
+            newDataStore.createSchema(schema);
+            return new FeatureAppender(newDataStore, path);
+        } catch (IOException e) {
+            newDataStore.dispose();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends features to a new shape file. See {@link #openFeatures(SimpleFeatureType, Path)}
+     */
+    public static final class FeatureAppender implements Closeable {
+        private final ShapefileDataStore dataStore;
+        private final FeatureWriter<SimpleFeatureType, SimpleFeature> writer;
+        private final Path path;
+        private int count = 0;
+
+        private FeatureAppender(ShapefileDataStore dataStore, Path path) throws IOException {
+            this.dataStore = dataStore;
+            this.writer = dataStore.getFeatureWriterAppend(dataStore.getTypeNames()[0], Transaction.AUTO_COMMIT);
+            this.path = path;
+        }
+
+        /**
+         * Writes a copy of the feature to the shape file. The attributes are copied by name, except the geometry which the shape file
+         * always names the_geom.
+         *
+         * @param feature The feature
+         * @throws IOException When writing the file
+         */
+        public void write(SimpleFeature feature) throws IOException {
+            SimpleFeature newFeature = writer.next();
+            for (AttributeDescriptor descriptor : newFeature.getFeatureType().getAttributeDescriptors()) {
+                if (descriptor instanceof GeometryDescriptor) {
+                    newFeature.setDefaultGeometry(feature.getDefaultGeometry());
+                } else {
+                    String name = descriptor.getLocalName();
+                    newFeature.setAttribute(name, feature.getAttribute(name));
+                }
+            }
+            writer.write();
+            count++;
+        }
+
+        /**
+         * @return The number of features written
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return The .shp file
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                writer.close();
+            } finally {
+                dataStore.dispose();
+            }
+        }
+    }
+
 }
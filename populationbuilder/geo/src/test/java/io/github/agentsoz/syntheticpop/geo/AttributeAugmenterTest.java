@@ -0,0 +1,95 @@
+package io.github.agentsoz.syntheticpop.geo;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author wniroshan 18 Oct 2026
+ */
+public class AttributeAugmenterTest {
+
+    private SimpleFeatureType addressType;
+    private SimpleFeature address;
+    private Point point;
+
+    @Before
+    public void setUp() throws SchemaException {
+        addressType = DataUtilities.createType("ADDRESS", "the_geom:Point,EZI_ADD:String,PFI:Integer");
+        point = new GeometryFactory().createPoint(new Coordinate(144.96, -37.81));
+        address = SimpleFeatureBuilder.build(addressType, new Object[]{point, "14 FAIRWAY COURT BUNDOORA 3083", 42}, "ADDRESS.1");
+    }
+
+    @Test
+    public void testAugmentedType() {
+        AttributeAugmenter augmenter = new AttributeAugmenter(Arrays.asList("SA1_MAIN16", "SA2_NAME16"), String.class);
+
+        SimpleFeatureType type = augmenter.getAugmentedType(addressType);
+
+        Assert.assertEquals(addressType.getName(), type.getName());
+        Assert.assertEquals(5, type.getAttributeCount());
+        Assert.assertEquals("the_geom", type.getGeometryDescriptor().getLocalName());
+        Assert.assertEquals("EZI_ADD", type.getDescriptor(1).getLocalName());
+        Assert.assertEquals(Integer.class, type.getDescriptor(2).getType().getBinding());
+        Assert.assertEquals("SA1_MAIN16", type.getDescriptor(3).getLocalName());
+        Assert.assertEquals(String.class, type.getDescriptor(3).getType().getBinding());
+        Assert.assertEquals("SA2_NAME16", type.getDescriptor(4).getLocalName());
+        Assert.assertEquals(String.class, type.getDescriptor(4).getType().getBinding());
+        // The type is built once for each source type
+        Assert.assertSame(type, augmenter.getAugmentedType(addressType));
+    }
+
+    @Test
+    public void testAugmentCopiesAndConvertsValues() {
+        AttributeAugmenter augmenter = new AttributeAugmenter(Arrays.asList("SA1_MAIN16", "SA2_NAME16"), String.class);
+        Map<String, Object> values = new HashMap<>();
+        values.put("SA1_MAIN16", 20601110501L); // A numeric SA attribute
+
+        SimpleFeature copy = augmenter.augment(address, values);
+
+        Assert.assertSame(augmenter.getAugmentedType(addressType), copy.getFeatureType());
+        Assert.assertEquals(point, copy.getDefaultGeometry());
+        Assert.assertEquals("14 FAIRWAY COURT BUNDOORA 3083", copy.getAttribute("EZI_ADD"));
+        Assert.assertEquals(42, copy.getAttribute("PFI"));
+        Assert.assertEquals("20601110501", copy.getAttribute("SA1_MAIN16"));
+        Assert.assertNull(copy.getAttribute("SA2_NAME16"));
+        Assert.assertNotEquals(address.getID(), copy.getID());
+
+        // The source feature is not changed
+        Assert.assertEquals(3, address.getAttributeCount());
+        Assert.assertSame(addressType, address.getFeatureType());
+    }
+}
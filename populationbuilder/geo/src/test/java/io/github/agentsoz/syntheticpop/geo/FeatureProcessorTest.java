@@ -0,0 +1,121 @@
+package io.github.agentsoz.syntheticpop.geo;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import java.util.Random;
+
+/**
+ * @author wniroshan 18 Oct 2026
+ */
+public class FeatureProcessorTest {
+
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+    private final FeatureProcessor featureProcessor = new FeatureProcessor();
+    private SimpleFeatureType polygonType;
+    private SimpleFeatureType pointType;
+
+    @Before
+    public void setUp() throws SchemaException {
+        polygonType = DataUtilities.createType("SA1", "the_geom:Polygon,SA1_MAIN16:String");
+        pointType = DataUtilities.createType("ADDRESS", "the_geom:Point,EZI_ADD:String");
+    }
+
+    @Test
+    public void testPreparedContainsOnSquare() {
+        SimpleFeature square = polygon(ring(0, 0, 10, 0, 10, 10, 0, 10, 0, 0));
+        PreparedGeometry prepared = featureProcessor.prepare(square);
+
+        Assert.assertTrue(featureProcessor.checkContains(prepared, point(5, 5))); // Interior
+        Assert.assertFalse(featureProcessor.checkContains(prepared, point(15, 5))); // Exterior
+        Assert.assertFalse(featureProcessor.checkContains(prepared, point(10, 5))); // On an edge
+        Assert.assertFalse(featureProcessor.checkContains(prepared, point(0, 0))); // On a vertex
+
+        assertAgreesWithContains(square, prepared, -1, 11);
+    }
+
+    @Test
+    public void testPreparedContainsOnPolygonWithHole() {
+        Polygon withHole = geometryFactory.createPolygon(ring(0, 0, 10, 0, 10, 10, 0, 10, 0, 0),
+                                                         new LinearRing[]{ring(3, 3, 7, 3, 7, 7, 3, 7, 3, 3)});
+        SimpleFeature polygon = SimpleFeatureBuilder.build(polygonType, new Object[]{withHole, "20601110501"}, null);
+        PreparedGeometry prepared = featureProcessor.prepare(polygon);
+
+        Assert.assertTrue(featureProcessor.checkContains(prepared, point(1, 1)));
+        Assert.assertFalse(featureProcessor.checkContains(prepared, point(5, 5))); // In the hole
+        Assert.assertFalse(featureProcessor.checkContains(prepared, point(3, 5))); // On the edge of the hole
+
+        assertAgreesWithContains(polygon, prepared, -1, 11);
+    }
+
+    /**
+     * Compares the prepared check with the plain check on random points, and on points of a grid which fall on the edges and vertices
+     */
+    private void assertAgreesWithContains(SimpleFeature polygon, PreparedGeometry prepared, double min, double max) {
+        Random random = new Random(4456);
+        for (int i = 0; i < 2000; i++) {
+            SimpleFeature point = point(min + random.nextDouble() * (max - min), min + random.nextDouble() * (max - min));
+            Assert.assertEquals(point.getDefaultGeometry().toString(),
+                                featureProcessor.checkContains(polygon, point),
+                                featureProcessor.checkContains(prepared, point));
+        }
+        for (double x = min; x <= max; x += 0.5) {
+            for (double y = min; y <= max; y += 0.5) {
+                SimpleFeature point = point(x, y);
+                Assert.assertEquals(point.getDefaultGeometry().toString(),
+                                    featureProcessor.checkContains(polygon, point),
+                                    featureProcessor.checkContains(prepared, point));
+            }
+        }
+    }
+
+    private LinearRing ring(double... xy) {
+        Coordinate[] coordinates = new Coordinate[xy.length / 2];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = new Coordinate(xy[2 * i], xy[2 * i + 1]);
+        }
+        return geometryFactory.createLinearRing(coordinates);
+    }
+
+    private SimpleFeature polygon(LinearRing shell) {
+        Geometry polygon = geometryFactory.createPolygon(shell, null);
+        return SimpleFeatureBuilder.build(polygonType, new Object[]{polygon, "20601110501"}, null);
+    }
+
+    private SimpleFeature point(double x, double y) {
+        return SimpleFeatureBuilder.build(pointType, new Object[]{geometryFactory.createPoint(new Coordinate(x, y)), "ADDRESS"}, null);
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.agentsoz.syntheticpop.geo;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.shapefile.ShapefileDataStore;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author wniroshan 18 Oct 2026
+ */
+public class ShapefileGeoFeatureWriterTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testOpenFeaturesRoundTrip() throws SchemaException, IOException {
+        // The geometry is not named the_geom, so the shape file renames it
+        SimpleFeatureType type = DataUtilities.createType("ADDRESS", "location:Point,EZI_ADD:String,SA1_MAIN16:String");
+        GeometryFactory geometryFactory = new GeometryFactory();
+        List<SimpleFeature> features = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Point point = geometryFactory.createPoint(new Coordinate(144.0 + i, -37.0 - i));
+            features.add(SimpleFeatureBuilder.build(type, new Object[]{point, "ADDRESS " + i, "2060111050" + i}, "ADDRESS." + i));
+        }
+
+        ShapefileGeoFeatureWriter.FeatureAppender appender = new ShapefileGeoFeatureWriter().openFeatures(type,
+                                                                                                        tempFolder.getRoot().toPath());
+        try {
+            for (SimpleFeature feature : features) {
+                appender.write(feature);
+            }
+        } finally {
+            appender.close();
+        }
+
+        Path shp = tempFolder.getRoot().toPath().resolve("ADDRESS.shp");
+        Assert.assertEquals(shp, appender.getPath());
+        Assert.assertEquals(3, appender.getCount());
+        Assert.assertTrue(Files.exists(shp));
+
+        ShapefileDataStore dataStore = new ShapefileDataStore(shp.toUri().toURL());
+        try {
+            List<SimpleFeature> read = new ArrayList<>();
+            try (SimpleFeatureIterator iterator = dataStore.getFeatureSource().getFeatures().features()) {
+                while (iterator.hasNext()) {
+                    read.add(iterator.next());
+                }
+            }
+            Assert.assertEquals(features.size(), read.size());
+            for (int i = 0; i < features.size(); i++) {
+                Point expected = (Point) features.get(i).getDefaultGeometry();
+                Point actual = (Point) read.get(i).getDefaultGeometry();
+                Assert.assertTrue(expected.equalsExact(actual));
+                Assert.assertEquals(features.get(i).getAttribute("EZI_ADD"), read.get(i).getAttribute("EZI_ADD"));
+                Assert.assertEquals(features.get(i).getAttribute("SA1_MAIN16"), read.get(i).getAttribute("SA1_MAIN16"));
+            }
+        } finally {
+            dataStore.dispose();
+        }
+    }
+
+    @Test
+    public void testOpenFeaturesEmpty() throws SchemaException, IOException {
+        SimpleFeatureType type = DataUtilities.createType("EMPTY", "the_geom:Point,EZI_ADD:String");
+        ShapefileGeoFeatureWriter.FeatureAppender appender = new ShapefileGeoFeatureWriter().openFeatures(type,
+                                                                                                        tempFolder.getRoot().toPath());
+        appender.close();
+
+        Assert.assertEquals(0, appender.getCount());
+        ShapefileDataStore dataStore = new ShapefileDataStore(appender.getPath().toUri().toURL());
+        try {
+            Assert.assertEquals(0, dataStore.getFeatureSource().getFeatures().size());
+        } finally {
+            dataStore.dispose();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Samples exact ages from an age distribution. The cumulative probabilities of each age interval are calculated the first time the
+ * interval is used and reused for all the persons in that interval, so sampling an age is a binary search with no allocations. The
+ * intervals are looked up by their minimum age and length in an array.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+class AgeSamplingTable {
+
+    private final List<Double> ageDistribution;
+    /**
+     * The cumulative probabilities indexed by the minimum age and then by the maximum age minus the minimum age. Created when first used
+     */
+    private double[][][] cumulativeByInterval = null;
+
+    /**
+     * @param ageDistribution The percentage of persons in each age year, indexed by age
+     */
+    AgeSamplingTable(List<Double> ageDistribution) {
+        this.ageDistribution = ageDistribution;
+    }
+
+    /**
+     * Samples an age in the interval. Returns -1 if the distribution is empty within the interval, or if the random draw is above the
+     * last cumulative probability because of rounding errors.
+     *
+     * @param minAge The minimum age of the interval
+     * @param maxAge The maximum age of the interval (inclusive)
+     * @param random The random number generator
+     * @return The sampled age or -1
+     */
+    int sample(int minAge, int maxAge, Random random) {
+        double[] cumulative = cumulative(minAge, maxAge);
+        if (cumulative.length == 0) {
+            return -1;
+        }
+        double ageOffSet = random.nextDouble();
+        // First age whose cumulative probability is not less than the offset
+        int low = 0, high = cumulative.length - 1;
+        if (ageOffSet > cumulative[high]) {
+            return -1;
+        }
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ageOffSet <= cumulative[mid]) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return minAge + low;
+    }
+
+    /**
+     * @param minAge The minimum age of the interval
+     * @param maxAge The maximum age of the interval (inclusive)
+     * @return True if no persons are in the interval according to the distribution
+     */
+    boolean isEmpty(int minAge, int maxAge) {
+        return cumulative(minAge, maxAge).length == 0;
+    }
+
+    /**
+     * The cumulative age probabilities of the interval. The arithmetic is the same as computing the probabilities of each age in the
+     * interval and summing them in age order, so the same random draw gives the same age. Each element holds the largest cumulative
+     * probability up to that age, so the array is sorted and the binary search finds the first age a linear scan would find even if the
+     * distribution has invalid (negative or NaN) values. An empty array means the interval has no persons.
+     */
+    private double[] cumulative(int minAge, int maxAge) {
+        if (minAge < 0 || maxAge < minAge || maxAge >= ageDistribution.size()) {
+            throw new IndexOutOfBoundsException("Invalid age interval " + minAge + "-" + maxAge + " for ages 0-" +
+                                                        (ageDistribution.size() - 1));
+        }
+        if (cumulativeByInterval == null) {
+            cumulativeByInterval = new double[ageDistribution.size()][][];
+        }
+        double[][] byMaxAge = cumulativeByInterval[minAge];
+        if (byMaxAge == null) {
+            byMaxAge = new double[ageDistribution.size() - minAge][];
+            cumulativeByInterval[minAge] = byMaxAge;
+        }
+        double[] cumulative = byMaxAge[maxAge - minAge];
+        if (cumulative == null) {
+            List<Double> agePercentages = ageDistribution.subList(minAge, maxAge + 1);
+            double percentagesSum = agePercentages.stream().mapToDouble(e -> e).sum();
+            if (percentagesSum == 0) {
+                cumulative = new double[0];
+            } else {
+                cumulative = new double[agePercentages.size()];
+                double sum = 0, max = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < cumulative.length; i++) {
+                    sum += agePercentages.get(i) / percentagesSum;
+                    max = sum > max ? sum : max;
+                    cumulative[i] = max;
+                }
+            }
+            byMaxAge[maxAge - minAge] = cumulative;
+        }
+        return cumulative;
+    }
+}
@@ -23,7 +23,7 @@ package io.github.agentsoz.syntheticpop.synthesis;
  */
 
 import io.github.agentsoz.syntheticpop.filemanager.csv.abs.StatisticalAreaCodeReader;
-import io.github.agentsoz.syntheticpop.synthesis.models.*;
+import io.github.agentsoz.syntheticpop.filemanager.zip.GzipCodec;
 import io.github.agentsoz.syntheticpop.util.ConfigProperties;
 import io.github.agentsoz.syntheticpop.util.GlobalConstants;
 import io.github.agentsoz.syntheticpop.util.Log;
@@ -33,11 +33,14 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author Bhagya N. Wickramasinghe
@@ -51,23 +54,28 @@ public class App {
         System.out.println("Options:");
         System.out.println("   -p=BOOLEAN");
         System.out.println("       Set True to generate only persons instances");
+        System.out.println("   -l=FILE");
+        System.out.println("       The log file. Defaults to PopulationSynthesis.log");
         System.exit(0);
     }
 
     public static void main(String[] args) {
         long startTime = System.currentTimeMillis();
 
-        Log.createLogger("Synthesis", "PopulationSynthesis.log");
-
         //Read command line arguments
         boolean personsOnly = false;
-        if (args.length > 1) {
-            if (args[1].equals("-p")) {
+        String logFile = "PopulationSynthesis.log";
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("-p")) {
                 personsOnly = true;
+            } else if (args[i].startsWith("-l=")) {
+                logFile = args[i].substring(3);
             } else {
                 usage();
             }
         }
+
+        Log.createLogger("Synthesis", logFile);
         ConfigProperties props = null;
         try {
             props = new ConfigProperties(args[0]);
@@ -75,6 +83,12 @@ public class App {
             usage();
         }
 
+        try {
+            Log.useAsyncAppender(props);
+        } catch (IllegalArgumentException e) {
+            Log.errorAndExit("Invalid log queue settings: " + e.getMessage(), GlobalConstants.ExitCode.USERINPUT);
+        }
+
         // Read in the config properties
         Path inputDirectory = props.readFileOrDirectoryPath("InputDirectory");
         Path outputDirectory = props.readFileOrDirectoryPath("OutputDirectory");
@@ -89,6 +103,37 @@ public class App {
                 "NonPrimaryCoupleWithChildProbability"));
         Map<String, String> ageDistributionParams = props.readKeyValuePairs("AgeDistributionFile");
 
+        ParentChildAgeRule ageRule = ParentChildAgeRule.DEFAULT;
+        String ageGap = props.getOrDefault("ParentChildAgeGap", "").toString().trim();
+        if (!ageGap.isEmpty()) {
+            try {
+                ageRule = ParentChildAgeRule.parse(ageGap);
+            } catch (IllegalArgumentException e) {
+                Log.errorAndExit("Invalid ParentChildAgeGap: " + e.getMessage(), GlobalConstants.ExitCode.USERINPUT);
+            }
+        }
+
+        int threads = Integer.parseInt(props.getOrDefault("SynthesisThreads", "1").toString().trim());
+        if (threads < 1) {
+            Log.errorAndExit("SynthesisThreads must be at least 1", GlobalConstants.ExitCode.USERINPUT);
+        }
+
+        GzipCodec outputCodec = GzipCodec.STANDARD;
+        try {
+            outputCodec = GzipCodec.fromProperties(props);
+        } catch (IllegalArgumentException e) {
+            Log.errorAndExit("Invalid output compression settings: " + e.getMessage(), GlobalConstants.ExitCode.USERINPUT);
+        }
+
+        InputCache inputCache = InputCache.DISABLED;
+        String inputCacheDirectory = props.getOrDefault("InputCacheDirectory", "").toString().trim();
+        if (!inputCacheDirectory.isEmpty()) {
+            inputCache = new InputCache(props.readFileOrDirectoryPath("InputCacheDirectory"));
+        }
+
+        boolean resume = props.getOrDefault("Resume", "false").toString().trim().toLowerCase().equals("true");
+        String manifestFile = props.getOrDefault("ManifestFile", RunManifest.FILE_NAME).toString().trim();
+
         boolean doSA1 = props.getProperty("DoSA1").trim().toLowerCase().equals("true");
 
         Map<String, String> sa1HhDistCsvProperties = null;
@@ -117,110 +162,75 @@ public class App {
                 e.printStackTrace();
             }
 
-            Random rand = new Random(randomSeed);
-
             //Read exact age distributions
-            Map<String, List<Double>> ageDistribution = DataReader.readAgeDistribution(ageDistributionParams);
+            Map<String, List<Double>> ageDistribution = inputCache.readAgeDistribution(ageDistributionParams);
+
+            SA2Synthesiser synthesiser = new SA2Synthesiser(inputDirectory,
+                                                            outputDirectory,
+                                                            randomSeed,
+                                                            nonPrimaryCoupleWithChildProbability,
+                                                            ageRule,
+                                                            ageDistribution,
+                                                            sa2CodeMap,
+                                                            enableSummaryReports,
+                                                            sa1HhDistCsvProperties,
+                                                            personsOnly,
+                                                            outputCodec,
+                                                            inputCache);
 
             //Map for parent child age gap histogram and populate it with initial 0
-            Map<Integer, Integer> parentalAgeGapHistogram = new LinkedHashMap<>();
-            for (int i = 0; i < 115; i++) {
-                parentalAgeGapHistogram.put(i, 0);
-            }
-
+            Map<Integer, Integer> parentalAgeGapHistogram = SA2Synthesiser.newAgeGapHistogram();
             Map<String, Integer> randomAgeAssignments = new LinkedHashMap<>();
+            Map<String, Metrics> performance = new LinkedHashMap<>();
+
+            // SA2s are synthesised concurrently, but the results are merged in the SA list order so the analysis files do not depend
+            // on the order in which the SA2s finish.
+            Log.info("Synthesising " + saList.size() + " SA2s using " + threads + " thread(s)");
+            Log.info("Output compression: " + outputCodec);
+            Files.createDirectories(outputDirectory);
+            RunManifest manifest = new RunManifest(outputDirectory, manifestFile, resume);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<SA2Synthesiser.Result>> results = new ArrayList<>(saList.size());
             for (String sa : saList) {
-                sa = sa.trim();
-                Log.info("Starting: " + sa);
-                Path hhFile = Paths.get(inputDirectory + File.separator + sa + File.separator + "preprocessed/household_types.csv.gz");
-                Path indFile = Paths.get(inputDirectory + File.separator + sa + File.separator + "preprocessed/person_types.csv.gz");
-
-                // Read input CSVs
-                Map<String, List<HhRecord>> hhRecs = DataReader.readHouseholdRecords(hhFile);
-                Map<String, List<IndRecord>> indRecs = DataReader.readPersonRecords(indFile);
-
-                if (hhRecs.isEmpty() || indRecs.isEmpty()) {
-                    Log.warn("Skipping " + sa + ": No data");
-                    continue;
-                }
-
-                // Group persons into households considering person, household and family types
-                PopulationFactory populationFactory = new PopulationFactory(hhRecs.get(sa),
-                                                                            indRecs.get(sa),
-                                                                            nonPrimaryCoupleWithChildProbability,
-                                                                            rand);
-
-                if (personsOnly) {
-                    List<Person> personsOfSA2 = populationFactory.makeAllPersons();
-                    int randomAgePersons = PersonPropertiesHandler.assignAge(personsOfSA2, ageDistribution.get(sa), rand);
-                    randomAgeAssignments.put(sa, randomAgePersons);
-
-                    assignUniqueIDs(personsOfSA2, sa2CodeMap.get(sa), null);
-                    Log.info("Writing output files to: " + outputDirectory);
-                    Path outputSA2Location = Paths.get(outputDirectory + File.separator + sa +
-                                                               File.separator + "population");
-                    DataWriter.savePersons(Paths.get(outputSA2Location + File.separator + "persons.csv.gz"),
-                                           personsOfSA2);
-                    if (enableSummaryReports) {
-
-                        DataWriter.savePersonsSummary(indRecs.get(sa),
-                                                      personsOfSA2,
-                                                      Paths.get(outputSA2Location + File.separator + "output_person_types.csv.gz"));
-
-                    }
-
-                } else {
-                    List<Household> householdsOfSA2 = populationFactory.makePopulation();
-                    Log.info(sa + " household construction complete");
-
-                    // Link the persons in each household
-                    PersonPropertiesHandler.buildRelationships(householdsOfSA2);
-
-                    // Assign actual ages to persons based on their age category and
-                    // overall age distribution
-                    Log.info("Assigning ages");
-                    List<Person> personsOfSA2 = householdsOfSA2.parallelStream()
-                                                               .map(Household::getMembers)
-                                                               .flatMap(List::stream)
-                                                               .collect(Collectors.toList());
-                    int randomAgePersons = PersonPropertiesHandler.assignAge(personsOfSA2, ageDistribution.get(sa), rand);
-                    if (randomAgePersons > 0) {
-                        //Track SAs that have persons that were assigned random ages.
-                        randomAgeAssignments.put(sa, randomAgePersons);
-                    }
-                    recordAgeGapDistribution(householdsOfSA2, parentalAgeGapHistogram);
-
-                    Log.info("Generating unique IDs");
-                    assignUniqueIDs(householdsOfSA2, sa2CodeMap);
-
-                    if (doSA1) {
-                        Log.info("Assigning households to SA1s");
-                        assignHouseholdsToSA1s(sa,
-                                               sa1HhDistCsvProperties,
-                                               inputDirectory,
-                                               householdsOfSA2,
-                                               rand);
-                    }
-
-                    Path outputSA2Location = Paths.get(outputDirectory + File.separator + sa + File.separator + "population");
-                    Log.info("Writing output files to: " + outputSA2Location);
-                    Files.createDirectories(outputSA2Location);
-                    DataWriter.saveHouseholds(Paths.get(outputSA2Location + File.separator + "households.csv.gz"), householdsOfSA2);
-                    DataWriter.saveFamilies(Paths.get(outputSA2Location + File.separator + "families.csv.gz"), householdsOfSA2);
-                    DataWriter.savePersons(Paths.get(outputSA2Location + File.separator + "persons.csv.gz"), personsOfSA2);
-
-                    if (enableSummaryReports) {
-                        DataWriter.saveHouseholdSummary(hhRecs.get(sa),
-                                                        householdsOfSA2,
-                                                        Paths.get(outputSA2Location + File.separator + "output_household_types.csv.gz"));
-                        DataWriter.savePersonsSummary(indRecs.get(sa),
-                                                      personsOfSA2,
-                                                      Paths.get(outputSA2Location + File.separator + "output_person_types.csv.gz"));
+                String saName = sa.trim();
+                results.add(executor.submit(() -> manifest.synthesise(saName, synthesiser)));
+            }
+            executor.shutdown();
+
+            for (Future<SA2Synthesiser.Result> future : results) {
+                SA2Synthesiser.Result result;
+                try {
+                    result = future.get();
+                } catch (InterruptedException e) {
+                    executor.shutdownNow();
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for SA2 synthesis", e);
+                } catch (ExecutionException e) {
+                    executor.shutdownNow();
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
                     }
+                    throw new Error(cause);
+                }
+                if (result == null) {
+                    continue; // No data for this SA2
+                }
+                result.parentalAgeGapHistogram.forEach((gap, count) -> parentalAgeGapHistogram.merge(gap, count, Integer::sum));
+                if (personsOnly || result.randomAgePersons > 0) {
+                    //Track SAs that have persons that were assigned random ages.
+                    randomAgeAssignments.put(result.sa, result.randomAgePersons);
+                }
+                if (!result.metrics.isEmpty()) {
+                    // SA2s that were up to date in the manifest were not synthesised in this run, so they have no metrics
+                    performance.put(result.sa, result.metrics);
                 }
-
-
             }
+            Log.info(manifest.synthesisedCount() + " SA2(s) synthesised, " + manifest.skippedCount() + " SA2(s) up to date");
             Log.info("Writing analysis data files to: " + analysisDirectory);
             Files.createDirectories(analysisDirectory);
             DataWriter.saveParentChildAgeGapSummary(Paths.get(analysisDirectory + File.separator + "parent_child_age_gap.csv"),
@@ -229,6 +239,7 @@ public class App {
                 DataWriter.saveRandomAgeAssignedPersons(Paths.get(analysisDirectory + File.separator + "age_randomly_assigned_persons.csv"),
                                                         randomAgeAssignments);
             }
+            DataWriter.savePerformanceReport(Paths.get(analysisDirectory + File.separator + "performance.csv"), performance);
         } catch (IOException e) {
             e.printStackTrace();
             System.exit(1);
@@ -237,67 +248,4 @@ public class App {
         Log.info("Done!");
         Log.info("Execution time: " + timeSpent + " secs");
     }
-
-    /**
-     * Updates properties in all persons, families and households based on SA2 main code.
-     *
-     * @param allHouseholds Households in the population
-     * @param sa2CodeMap    The map of SA2 names and codes
-     */
-    private static void assignUniqueIDs(List<Household> allHouseholds, Map<String, String> sa2CodeMap) {
-        for (Household h : allHouseholds) {
-            String sa2MainCode = sa2CodeMap.get(h.getSA2Name());
-            h.setSA2MainCode(sa2MainCode);
-            h.setID(sa2MainCode + "H" + h.getID());
-            for (Family f : h.getFamilies()) {
-                f.setID(sa2MainCode + "F" + f.getID());
-                assignUniqueIDs(f.getMembers(), sa2MainCode, f.getID());
-            }
-        }
-    }
-
-    private static void assignUniqueIDs(List<Person> persons, String sa2MainCode, String familyId) {
-        for (Person p : persons) {
-            p.setFamilyID(familyId);
-            p.setSA2MainCode(sa2MainCode);
-            p.setID(sa2MainCode + "P" + p.getID());
-        }
-    }
-
-    private static void assignHouseholdsToSA1s(String thisSA2,
-                                               Map<String, String> sa1HhDistCsvProperties,
-                                               Path inputLocation,
-                                               List<Household> householdsOfSA2,
-                                               Random rand) throws IOException {
-        Path sa1HouseholdsFile = Paths.get(inputLocation + File.separator + thisSA2 + File
-                .separator + "preprocessed" + File.separator + sa1HhDistCsvProperties.get("FileName"));
-        int numberOfPersonsColumn = Integer.parseInt(sa1HhDistCsvProperties.get("NumberOfPersonsColumn"));
-        int familyHouseholdTypeColumn = Integer.parseInt(sa1HhDistCsvProperties.get("FamilyHouseholdTypeColumn"));
-
-        Map<String, Map<String, Integer>> sa1HhCounts = DataReader.readSA1HouseholdDistribution(sa1HouseholdsFile,
-                                                                                                numberOfPersonsColumn,
-                                                                                                familyHouseholdTypeColumn);
-        Map<String, List<Household>> hhsByType = HouseholdSummary.groupHouseholdsByHouseholdType(householdsOfSA2);
-
-        SA1PopulationMaker.distributePopulationToSA1s(sa1HhCounts, hhsByType, rand);
-    }
-
-    private static void recordAgeGapDistribution(List<Household> householdsOfSA2, Map<Integer, Integer> parentalAgeGapHistogram) {
-        for (Household h : householdsOfSA2) {
-            for (Person m : h.getMembers()) {
-                if (m.isChild()) {
-                    if (m.getFather() != null) {
-                        int ageGapDad = m.getFather().getAge() - m.getAge();
-                        parentalAgeGapHistogram.compute(ageGapDad, (k, v) -> v + 1);
-                    }
-                    if (m.getMother() != null) {
-                        int ageGapMom = m.getMother().getAge() - m.getAge();
-                        parentalAgeGapHistogram.compute(ageGapMom, (k, v) -> v + 1);
-                    }
-                }
-            }
-        }
-    }
-
 }
-
@@ -22,7 +22,9 @@ package io.github.agentsoz.syntheticpop.synthesis;
  * #L%
  */
 
+import io.github.agentsoz.syntheticpop.filemanager.csv.CSVRowWriter;
 import io.github.agentsoz.syntheticpop.filemanager.csv.CSVWriter;
+import io.github.agentsoz.syntheticpop.filemanager.zip.GzipCodec;
 import io.github.agentsoz.syntheticpop.synthesis.models.*;
 
 import java.io.BufferedOutputStream;
@@ -40,6 +42,33 @@ import java.util.zip.GZIPOutputStream;
 
 public class DataWriter {
 
+    private static final String[] PERSON_COLUMNS = {"AgentId",
+                                                    "Age",
+                                                    "Gender",
+                                                    "RelationshipStatus",
+                                                    "PartnerId",
+                                                    "MotherId",
+                                                    "FatherId",
+                                                    "ChildrenIds",
+                                                    "RelativeIds",
+                                                    "SA2_MAINCODE",
+                                                    "SA1_7DIGCODE"};
+    private static final String[] FAMILY_COLUMNS = {"FamilyId",
+                                                    "FamilySize",
+                                                    "FamilyType",
+                                                    "Members",
+                                                    "HouseholdId",
+                                                    "SA2_MAINCODE",
+                                                    "SA1_7DIGCODE"};
+    private static final String[] HOUSEHOLD_COLUMNS = {"HouseholdId",
+                                                       "HouseholdSize",
+                                                       "FamilyCount",
+                                                       "PrimaryFamilyType",
+                                                       "Members",
+                                                       "Families",
+                                                       "SA2_MAINCODE",
+                                                       "SA1_7DIGCODE"};
+
     /**
      * Computes the number of households in households list by each family household type given in HhRecords list (the marginal
      * distribution) and saves to the specified csv file.
@@ -133,208 +162,331 @@ public class DataWriter {
     }
 
     /**
-     * Saves all households in households list to the specified csv file
+     * Saves all households in households list to the specified csv file. The order of items in each row is: "HouseholdId",
+     * "HouseholdSize", "FamilyCount", "PrimaryFamilyType", "Members", "Families", "SA2_MAINCODE", "SA1_7DIGCODE"
      *
      * @param outputCsvFile The csv file path
      * @param households    The list of households
      * @throws IOException If file writing fails
      */
     public static void saveHouseholds(Path outputCsvFile, List<Household> households) throws IOException {
-        List<List<String>> csvReadyHhs = householdAsList(households);
-        CSVWriter csvWriter = new CSVWriter();
-        csvWriter.writeAsCsv(new OutputStreamWriter(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(
-                outputCsvFile)))), csvReadyHhs);
+        saveHouseholds(outputCsvFile, households, GzipCodec.STANDARD);
+    }
+
+    /**
+     * Same as {@link #saveHouseholds(Path, List)}, but compresses the file with the specified codec
+     *
+     * @param outputCsvFile The csv file path
+     * @param households    The list of households
+     * @param codec         The gzip codec
+     * @throws IOException If file writing fails
+     */
+    public static void saveHouseholds(Path outputCsvFile, List<Household> households, GzipCodec codec) throws IOException {
+        try (CSVRowWriter csvWriter = CSVRowWriter.gzip(outputCsvFile, codec)) {
+            csvWriter.writeRow((Object[]) HOUSEHOLD_COLUMNS);
+            Object[] hhData = new Object[8];
+            StringBuilder memberIds = new StringBuilder(), familyIds = new StringBuilder();
+            for (Household household : households) {
+                // HouseholdID
+                hhData[0] = household.getID();
+                //Household size
+                hhData[1] = String.valueOf(household.getExpectedSize());
+                //FamilyCount. Empty if the household has no type
+                hhData[2] = household.getFamilyHouseholdType() == null ? "" : String.valueOf(household.getExpectedFamilyCount());
+                // PrimaryFamilyType
+                hhData[3] = String.valueOf(household.getPrimaryFamilyType());
+                // Members
+                hhData[4] = personIds(memberIds, household.getMembers());
+                // FamilyIds
+                familyIds.setLength(0);
+                familyIds.append('[');
+                List<Family> families = household.getFamilies();
+                for (int i = 0; i < families.size(); i++) {
+                    if (i > 0) {
+                        familyIds.append(", ");
+                    }
+                    familyIds.append(families.get(i).getID());
+                }
+                hhData[5] = familyIds.append(']');
+                // SA2_MAINCODE_2011
+                hhData[6] = household.getSA2MainCode();
+                //SA1_7DIGCODE
+                hhData[7] = household.getSA1Code();
+                csvWriter.writeRow(hhData);
+            }
+        }
     }
 
     /**
-     * Saves all families in households list to the specified csv file
+     * Saves all families in households list to the specified csv file. The order of items in each row is: "FamilyId", "FamilySize",
+     * "FamilyType", "Members", "HouseholdId", "SA2_MAINCODE", "SA1_7DIGCODE"
      *
      * @param outputCsvFile The csv file path
      * @param households    The list of households
      * @throws IOException If file writing fails
      */
     public static void saveFamilies(Path outputCsvFile, List<Household> households) throws IOException {
-        List<List<String>> csvReadyFamilies = familiesAsList(households);
-        CSVWriter csvWriter = new CSVWriter();
-        csvWriter.writeAsCsv(new OutputStreamWriter(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(
-                outputCsvFile)))), csvReadyFamilies);
+        saveFamilies(outputCsvFile, households, GzipCodec.STANDARD);
+    }
+
+    /**
+     * Same as {@link #saveFamilies(Path, List)}, but compresses the file with the specified codec
+     *
+     * @param outputCsvFile The csv file path
+     * @param households    The list of households
+     * @param codec         The gzip codec
+     * @throws IOException If file writing fails
+     */
+    public static void saveFamilies(Path outputCsvFile, List<Household> households, GzipCodec codec) throws IOException {
+        try (CSVRowWriter csvWriter = CSVRowWriter.gzip(outputCsvFile, codec)) {
+            csvWriter.writeRow((Object[]) FAMILY_COLUMNS);
+            Object[] fData = new Object[7];
+            StringBuilder memberIds = new StringBuilder();
+            for (Household household : households) {
+                for (Family family : household.getFamilies()) {
+                    fData[0] = String.valueOf(family.getID());//family id
+                    fData[1] = String.valueOf(family.size()); // family size
+                    fData[2] = String.valueOf(family.getType()); // family type
+                    fData[3] = personIds(memberIds, family.getMembers()); //members
+                    fData[4] = household.getID(); //Household id
+                    fData[5] = household.getSA2MainCode(); //SA2 main code
+                    fData[6] = household.getSA1Code(); //SA1 code
+                    csvWriter.writeRow(fData);
+                }
+            }
+        }
     }
 
     /**
-     * Saves all persons in the households list to the specified csv file
+     * Saves all persons in the households list to the specified csv file. The order of items in each row is: "AgentId", "Age", "Gender",
+     * "RelationshipStatus", "PartnerId", "MotherId", "FatherId", "ChildrenIds", "RelativeIds", "SA2_MAINCODE", "SA1_7DIGCODE"
      *
      * @param outputCsvFile Output csv file path
      * @param persons       The list of persons
      * @throws IOException If file writing fails
      */
     public static void savePersons(Path outputCsvFile, List<Person> persons) throws IOException {
-        List<List<String>> csvReadyPersons = personsAsList(persons);
-        CSVWriter csvWriter = new CSVWriter();
-        csvWriter.writeAsCsv(new OutputStreamWriter(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(
-                outputCsvFile)))), csvReadyPersons);
+        savePersons(outputCsvFile, persons, GzipCodec.STANDARD);
     }
 
     /**
-     * Converting persons to a list of array lists to be written as a csv. The order of items in each list is: "AgentId", "Age", "Gender",
-     * "RelationshipStatus", "PartnerId", "MotherId", "FatherId", "ChildrenIds", "RelativeIds", "HouseholdId", "FamilyId", "SA2_MAINCODE",
-     * "SA1_7DIGCODE"
+     * Same as {@link #savePersons(Path, List)}, but compresses the file with the specified codec
      *
-     * @param persons The list of persons
-     * @return Persons as a list of String lists
+     * @param outputCsvFile The csv file path
+     * @param persons       The list of persons
+     * @param codec         The gzip codec
+     * @throws IOException If file writing fails
      */
-    private static List<List<String>> personsAsList(List<Person> persons) {
-        final List<String> PERSONS_OUTPUT_COLS = new ArrayList<>(Arrays.asList("AgentId",
-                                                                               "Age",
-                                                                               "Gender",
-                                                                               "RelationshipStatus",
-                                                                               "PartnerId",
-                                                                               "MotherId",
-                                                                               "FatherId",
-                                                                               "ChildrenIds",
-                                                                               "RelativeIds",
-                                                                               "SA2_MAINCODE",
-                                                                               "SA1_7DIGCODE"));
-        List<List<String>> outputPersons = new ArrayList<>();
-        outputPersons.add(PERSONS_OUTPUT_COLS);
-        for (Person person : persons) {
-            List<String> pData = new ArrayList<>();
-            // AgentId
-            pData.add(String.valueOf(person.getID()));
-            // Age
-            pData.add(String.valueOf(person.getAge()));
-            // Gender
-            pData.add(String.valueOf(person.getSex()));
-            // RelationshipStatus
-            pData.add(String.valueOf(person.getRelationshipStatus()));
-            // PartnerId
-            if (person.getPartner() != null) {
-                pData.add(String.valueOf(person.getPartner().getID()));
-            } else {
-                pData.add(null);
+    public static void savePersons(Path outputCsvFile, List<Person> persons, GzipCodec codec) throws IOException {
+        try (CSVRowWriter csvWriter = CSVRowWriter.gzip(outputCsvFile, codec)) {
+            csvWriter.writeRow((Object[]) PERSON_COLUMNS);
+            Object[] pData = new Object[11];
+            StringBuilder childrenIds = new StringBuilder(), relativeIds = new StringBuilder();
+            for (Person person : persons) {
+                // AgentId
+                pData[0] = String.valueOf(person.getID());
+                // Age
+                pData[1] = String.valueOf(person.getAge());
+                // Gender
+                pData[2] = String.valueOf(person.getSex());
+                // RelationshipStatus
+                pData[3] = String.valueOf(person.getRelationshipStatus());
+                // PartnerId
+                pData[4] = person.getPartner() != null ? String.valueOf(person.getPartner().getID()) : null;
+                // MotherId
+                pData[5] = person.getMother() != null ? String.valueOf(person.getMother().getID()) : null;
+                // FatherId
+                pData[6] = person.getFather() != null ? String.valueOf(person.getFather().getID()) : null;
+                // ChildrenIds
+                pData[7] = person.getChildren() != null ? personIds(childrenIds, person.getChildren()) : null;
+                // RelativeIds
+                pData[8] = person.getRelatives() != null ? personIds(relativeIds, person.getRelatives()) : null;
+                pData[9] = person.getSA2MainCode(); //SA2 main code
+                pData[10] = person.getSA1Code(); //SA1 code
+                csvWriter.writeRow(pData);
             }
-            // MotherId
-            if (person.getMother() != null) {
-                pData.add(String.valueOf(person.getMother().getID()));
-            } else {
-                pData.add(null);
+        }
+    }
+
+    /**
+     * Saves the households of the population table to the specified csv file. The file is the same as the file
+     * {@link #saveHouseholds(Path, List, GzipCodec)} writes from the households the table was built from.
+     *
+     * @param outputCsvFile The csv file path
+     * @param population    The population table
+     * @param codec         The gzip codec
+     * @throws IOException If file writing fails
+     */
+    public static void saveHouseholds(Path outputCsvFile, PopulationTable population, GzipCodec codec) throws IOException {
+        try (CSVRowWriter csvWriter = CSVRowWriter.gzip(outputCsvFile, codec)) {
+            csvWriter.writeRow((Object[]) HOUSEHOLD_COLUMNS);
+            Object[] hhData = new Object[8];
+            StringBuilder householdId = new StringBuilder(), memberIds = new StringBuilder(), familyIds = new StringBuilder();
+            FamilyType[] familyTypes = FamilyType.values();
+            FamilyHouseholdType[] familyHouseholdTypes = FamilyHouseholdType.values();
+            for (int h = 0; h < population.householdCount(); h++) {
+                int firstFamily = population.familiesStart[h], endFamily = population.familiesStart[h + 1];
+                hhData[0] = householdID(population, h, householdId);
+                hhData[1] = String.valueOf(population.expectedSize[h]);
+                byte type = population.familyHouseholdType[h];
+                hhData[2] = type == PopulationTable.NONE ? "" : String.valueOf(familyHouseholdTypes[type].getFamilyCount());
+                byte primary = population.primaryFamilyType[h];
+                hhData[3] = String.valueOf(primary == PopulationTable.NONE ? null : familyTypes[primary]);
+                int firstMember = firstFamily < endFamily ? population.membersStart[firstFamily] : 0;
+                int endMember = firstFamily < endFamily ? population.membersStart[endFamily] : 0;
+                memberIds.setLength(0);
+                memberIds.append('[');
+                for (int p = firstMember; p < endMember; p++) {
+                    if (p > firstMember) {
+                        memberIds.append(", ");
+                    }
+                    population.appendID(memberIds, population.personIdPrefix[p], population.personIdNumber[p]);
+                }
+                hhData[4] = memberIds.append(']');
+                familyIds.setLength(0);
+                familyIds.append('[');
+                for (int f = firstFamily; f < endFamily; f++) {
+                    if (f > firstFamily) {
+                        familyIds.append(", ");
+                    }
+                    population.appendID(familyIds, population.familyIdPrefix[f], population.familyIdNumber[f]);
+                }
+                hhData[5] = familyIds.append(']');
+                hhData[6] = population.string(population.householdSA2[h]);
+                hhData[7] = population.string(population.householdSA1[h]);
+                csvWriter.writeRow(hhData);
             }
-            // FatherId
-            if (person.getFather() != null) {
-                pData.add(String.valueOf(person.getFather().getID()));
-            } else {
-                pData.add(null);
+        }
+    }
+
+    /**
+     * Saves the families of the population table to the specified csv file. The file is the same as the file
+     * {@link #saveFamilies(Path, List, GzipCodec)} writes from the households the table was built from.
+     *
+     * @param outputCsvFile The csv file path
+     * @param population    The population table
+     * @param codec         The gzip codec
+     * @throws IOException If file writing fails
+     */
+    public static void saveFamilies(Path outputCsvFile, PopulationTable population, GzipCodec codec) throws IOException {
+        try (CSVRowWriter csvWriter = CSVRowWriter.gzip(outputCsvFile, codec)) {
+            csvWriter.writeRow((Object[]) FAMILY_COLUMNS);
+            Object[] fData = new Object[7];
+            StringBuilder familyId = new StringBuilder(), memberIds = new StringBuilder(), householdId = new StringBuilder();
+            FamilyType[] familyTypes = FamilyType.values();
+            for (int f = 0; f < population.familyCount(); f++) {
+                int firstMember = population.membersStart[f], endMember = population.membersStart[f + 1];
+                int h = population.familyHousehold[f];
+                familyId.setLength(0);
+                fData[0] = population.appendID(familyId, population.familyIdPrefix[f], population.familyIdNumber[f]);
+                fData[1] = String.valueOf(endMember - firstMember);
+                fData[2] = String.valueOf(population.familyType[f] == PopulationTable.NONE ? null : familyTypes[population.familyType[f]]);
+                memberIds.setLength(0);
+                memberIds.append('[');
+                for (int p = firstMember; p < endMember; p++) {
+                    if (p > firstMember) {
+                        memberIds.append(", ");
+                    }
+                    population.appendID(memberIds, population.personIdPrefix[p], population.personIdNumber[p]);
+                }
+                fData[3] = memberIds.append(']');
+                fData[4] = householdID(population, h, householdId);
+                fData[5] = population.string(population.householdSA2[h]);
+                fData[6] = population.string(population.householdSA1[h]);
+                csvWriter.writeRow(fData);
             }
-            // ChildrenIds
-            if (person.getChildren() != null) {
-                List<String> childrenIds = person.getChildren()
-                                                 .stream()
-                                                 .map(Person::getID)
-                                                 .collect(Collectors.toList());
-                pData.add(childrenIds.toString());
-            } else {
-                pData.add(null);
+        }
+    }
+
+    /**
+     * Saves the persons of the population table to the specified csv file. The file is the same as the file
+     * {@link #savePersons(Path, List, GzipCodec)} writes from the persons the table was built from.
+     *
+     * @param outputCsvFile The csv file path
+     * @param population    The population table
+     * @param codec         The gzip codec
+     * @throws IOException If file writing fails
+     */
+    public static void savePersons(Path outputCsvFile, PopulationTable population, GzipCodec codec) throws IOException {
+        try (CSVRowWriter csvWriter = CSVRowWriter.gzip(outputCsvFile, codec)) {
+            csvWriter.writeRow((Object[]) PERSON_COLUMNS);
+            Object[] pData = new Object[11];
+            StringBuilder[] buffers = new StringBuilder[6];
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = new StringBuilder();
             }
-            // RelativeIds
-            if (person.getRelatives() != null) {
-                pData.add(person.getRelatives()
-                                .stream()
-                                .map(Person::getID)
-                                .collect(Collectors.toList())
-                                .toString());
-            } else {
-                pData.add(null);
+            Sex[] sexes = Sex.values();
+            RelationshipStatus[] relStatuses = RelationshipStatus.values();
+            for (int p = 0; p < population.personCount(); p++) {
+                pData[0] = personID(population, p, buffers[0]);
+                pData[1] = String.valueOf(population.age[p]);
+                pData[2] = String.valueOf(population.sex[p] == PopulationTable.NONE ? null : sexes[population.sex[p]]);
+                byte relStatus = population.relationshipStatus[p];
+                pData[3] = String.valueOf(relStatus == PopulationTable.NONE ? null : relStatuses[relStatus]);
+                pData[4] = population.partner[p] == PopulationTable.NONE ? null : personID(population, population.partner[p], buffers[1]);
+                pData[5] = population.mother[p] == PopulationTable.NONE ? null : personID(population, population.mother[p], buffers[2]);
+                pData[6] = population.father[p] == PopulationTable.NONE ? null : personID(population, population.father[p], buffers[3]);
+                pData[7] = (population.listFlags[p] & PopulationTable.HAS_CHILDREN) == 0
+                           ? null
+                           : personIds(population, population.children, population.childrenStart[p], population.childrenStart[p + 1],
+                                       buffers[4]);
+                pData[8] = (population.listFlags[p] & PopulationTable.HAS_RELATIVES) == 0
+                           ? null
+                           : personIds(population, population.relatives, population.relativesStart[p], population.relativesStart[p + 1],
+                                       buffers[5]);
+                pData[9] = population.string(population.personSA2[p]);
+                pData[10] = population.string(population.personSA1[p]);
+                csvWriter.writeRow(pData);
             }
-            pData.add(person.getSA2MainCode()); //SA2 main code
-            pData.add(person.getSA1Code()); //SA1 code
-
-            outputPersons.add(pData);
         }
-        return outputPersons;
+    }
+
+    private static StringBuilder personID(PopulationTable population, int person, StringBuilder buffer) {
+        buffer.setLength(0);
+        return population.appendID(buffer, population.personIdPrefix[person], population.personIdNumber[person]);
     }
 
     /**
-     * Get the families in the households as a list of list to be written to csv files. Order of items in each list is: "FamilyId",
-     * "FamilySize", "FamilyType", "Members", "HouseholdId", "SA2_MAINCODE", "SA1_7DIGCODE"
-     *
-     * @param households The households
-     * @return Families as a list of lists
+     * A household without an ID is written as an empty cell, like a null ID of a {@link Household}
      */
-    private static List<List<String>> familiesAsList(List<Household> households) {
-        List<String> FAMILIES_OUTPUT_COLS = new ArrayList<>(Arrays.asList("FamilyId",
-                                                                          "FamilySize",
-                                                                          "FamilyType",
-                                                                          "Members",
-                                                                          "HouseholdId",
-                                                                          "SA2_MAINCODE",
-                                                                          "SA1_7DIGCODE"));
-        List<List<String>> outputFamilies = new ArrayList<>();
-        outputFamilies.add(FAMILIES_OUTPUT_COLS);
-        for (Household household : households) {
-            for (Family family : household.getFamilies()) {
-                List<String> fData = new ArrayList<>();
-                fData.add(String.valueOf(family.getID()));//family id
-                fData.add(String.valueOf(family.size())); // family size
-                fData.add(String.valueOf(family.getType())); // family type
-                List<String> memberIds = family.getMembers().stream().map(Person::getID).collect(Collectors.toList()); //members
-                fData.add(memberIds.toString());
-
-                fData.add(household.getID()); //Household id
-                fData.add(household.getSA2MainCode()); //SA2 main code
-                fData.add(household.getSA1Code()); //SA1 code
-
-                outputFamilies.add(fData);
+    private static CharSequence householdID(PopulationTable population, int household, StringBuilder buffer) {
+        int prefix = population.householdIdPrefix[household];
+        if (prefix == PopulationTable.NONE) {
+            return null;
+        }
+        buffer.setLength(0);
+        return population.appendID(buffer, prefix, population.householdIdNumber[household]);
+    }
+
+    private static StringBuilder personIds(PopulationTable population, int[] persons, int start, int end, StringBuilder buffer) {
+        buffer.setLength(0);
+        buffer.append('[');
+        for (int i = start; i < end; i++) {
+            if (i > start) {
+                buffer.append(", ");
             }
+            population.appendID(buffer, population.personIdPrefix[persons[i]], population.personIdNumber[persons[i]]);
         }
-        return outputFamilies;
+        return buffer.append(']');
     }
 
     /**
-     * Coverts the households to a list of list entries, each list entry representing a household. This is to be used to write households to
-     * a csv file. The order of items in each list is: "HouseholdId", "HouseholdSize", "FamilyCount", "PrimaryFamilyType", "Members",
-     * "Families", "SA2_MAINCODE", "SA1_7DIGCODE"
+     * Writes the IDs of the persons to the buffer in the same format as {@code List.toString()}, e.g. "[1, 2, 3]"
      *
-     * @param households The list of household instances
-     * @return Households as a list of lists
+     * @param buffer  The buffer to reuse. Its current content is discarded
+     * @param persons The persons
+     * @return The buffer
      */
-    private static List<List<String>> householdAsList(List<Household> households) {
-        final List<String> HOUSEHOLDS_OUTPUT_COLS = new ArrayList<>(Arrays.asList("HouseholdId",
-                                                                                  "HouseholdSize",
-                                                                                  "FamilyCount",
-                                                                                  "PrimaryFamilyType",
-                                                                                  "Members",
-                                                                                  "Families",
-                                                                                  "SA2_MAINCODE",
-                                                                                  "SA1_7DIGCODE"));
-        List<List<String>> outputHouseholds = new ArrayList<>();
-        outputHouseholds.add(HOUSEHOLDS_OUTPUT_COLS);
-        for (Household household : households) {
-            List<String> hhData = new ArrayList<>();
-            // HouseholdID
-            hhData.add(household.getID());
-            //Household size
-            hhData.add(String.valueOf(household.getExpectedSize()));
-            //FamilyCount
-            hhData.add(String.valueOf(household.getExpectedFamilyCount()));
-            // PrimaryFamilyType
-            hhData.add(String.valueOf(household.getPrimaryFamilyType()));
-            // Members
-            List<String> memberIds = household.getMembers().stream().map(Person::getID).collect(Collectors.toList());
-            hhData.add(memberIds.toString());
-            // FamilyIds
-            List<String> familyIds = household.getFamilies()
-                                              .stream()
-                                              .map(Family::getID)
-                                              .collect(Collectors.toList());
-            hhData.add(familyIds.toString());
-
-            // SA2_MAINCODE_2011
-            hhData.add(household.getSA2MainCode());
-            //SA1_7DIGCODE
-            hhData.add(household.getSA1Code());
-            outputHouseholds.add(hhData);
+    private static StringBuilder personIds(StringBuilder buffer, List<Person> persons) {
+        buffer.setLength(0);
+        buffer.append('[');
+        for (int i = 0; i < persons.size(); i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(persons.get(i).getID());
         }
-
-        return outputHouseholds;
+        return buffer.append(']');
     }
 
     public static void saveParentChildAgeGapSummary(Path outputCsvFile, Map<Integer, Integer> parentalAgeGapHistogram) throws IOException {
@@ -360,4 +512,29 @@ public class DataWriter {
         CSVWriter csvWriter = new CSVWriter();
         csvWriter.writeAsCsv(new OutputStreamWriter(new BufferedOutputStream(Files.newOutputStream(outputFile))), ageAssignmentsList);
     }
+
+    /**
+     * Saves the metrics of the synthesised SA2s as a csv file. Each row gives one timer, counter or gauge of an SA2. Timers give the
+     * number of runs of the stage and the total time in milliseconds, counters give the total count and gauges give the last value.
+     *
+     * @param outputFile The csv file
+     * @param metrics    The metrics by SA2 name, in the order the rows are written
+     * @throws IOException If file writing fails
+     */
+    static void savePerformanceReport(Path outputFile, Map<String, Metrics> metrics) throws IOException {
+
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(Arrays.asList("SA2", "Type", "Metric", "Runs", "Value"));
+        metrics.forEach((sa, m) -> {
+            m.timers().forEach((name, t) -> rows.add(Arrays.asList(sa,
+                                                                   "Timer",
+                                                                   name,
+                                                                   String.valueOf(t.count()),
+                                                                   String.format(Locale.ROOT, "%.3f", t.nanos() / 1e6))));
+            m.counters().forEach((name, v) -> rows.add(Arrays.asList(sa, "Counter", name, "", String.valueOf(v))));
+            m.gauges().forEach((name, v) -> rows.add(Arrays.asList(sa, "Gauge", name, "", String.valueOf(v))));
+        });
+        CSVWriter csvWriter = new CSVWriter();
+        csvWriter.writeAsCsv(new OutputStreamWriter(new BufferedOutputStream(Files.newOutputStream(outputFile))), rows);
+    }
 }
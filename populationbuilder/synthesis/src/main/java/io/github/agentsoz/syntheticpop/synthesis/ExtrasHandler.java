@@ -26,7 +26,6 @@ import io.github.agentsoz.syntheticpop.synthesis.models.*;
 import io.github.agentsoz.syntheticpop.util.Log;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * @author wniroshan 18 Dec 2017
@@ -35,11 +34,23 @@ class ExtrasHandler {
 
     final Random random;
     private final List<IndRecord> indRecords;
-    private List<Person> extras = new ArrayList<>();
+    private final IDAllocator ids;
+    private final ExtrasPool extras = new ExtrasPool();
+    private final Map<Long, PropertiesSampler> samplers = new HashMap<>();
 
     ExtrasHandler(List<IndRecord> indRecords, Random random) {
+        this(indRecords, random, IDAllocator.shared());
+    }
+
+    /**
+     * @param indRecords The person records of the SA2
+     * @param random     The random number generator
+     * @param ids        The ID allocator of the synthesis run
+     */
+    ExtrasHandler(List<IndRecord> indRecords, Random random, IDAllocator ids) {
         this.random = random;
         this.indRecords = indRecords;
+        this.ids = ids;
     }
 
     void formExtras(List<HhRecord> hhRecs) {
@@ -55,11 +66,12 @@ class ExtrasHandler {
 
         int extraPersons = personsInHh - personsInInd;
         if (extraPersons > 0) {
-            for (int i = 0; i < extraPersons; i++) {
-                extras.add(new Person());
+            IDAllocator.Block block = ids.reservePersonIDs(extraPersons);
+            while (block.hasNext()) {
+                extras.add(new Person(block.next()));
             }
         } else {
-            Log.debug("There are " + Math.abs(extraPersons) + " more persons in the persons file than the households file");
+            Log.debug("There are {} more persons in the persons file than the households file", Math.abs(extraPersons));
         }
 
     }
@@ -92,23 +104,19 @@ class ExtrasHandler {
 
         List<Person> persons = new ArrayList<>(count);
 
-        Iterator<Person> extrasIterator = this.extras.iterator();
-        while (extrasIterator.hasNext() && persons.size() < count) {
-            Person p = extrasIterator.next();
-
-            if (sex != null && ageRange != null && sex.contains(p.getSex()) && ageRange.contains(p.getAgeRange())) {
+        if (sex != null && ageRange != null) {
+            Person p;
+            while (persons.size() < count && (p = this.extras.pollFirst(sex, ageRange)) != null) {
                 persons.add(p);
-                extrasIterator.remove();
             }
-
         }
 
         count -= persons.size();
         if (count > 0) {
             if (this.extras.size() >= count) {
-                List<Person> selected = this.extras.subList(0, count);
-                persons.addAll(selected);
-                this.extras.removeAll(selected);
+                for (int i = 0; i < count; i++) {
+                    persons.add(this.extras.pollFirst());
+                }
             } else {
                 throw new NotEnoughPersonsException("There are not enough persons in extras. Requested: " + count + " available: " + this
                         .extras
@@ -119,25 +127,12 @@ class ExtrasHandler {
 
         //Proportionally set the properties of persons we selected
         if (!persons.isEmpty()) {
-            List<IndRecord> dist = indRecords.stream()
-                                             .filter(r -> (relStatus == null || relStatus.contains(r.RELATIONSHIP_STATUS)) //filter by
-                                                     // relationship. If relationship status is null get all records
-                                                     && (ageRange == null || ageRange.contains(r.AGE_RANGE))// Filter by age range, or
-                                                     // get all if not specified
-                                                     && (sex == null || sex.contains(r.SEX)))// Filter by sex, or get all if not specified
-                                             .collect(Collectors.toList());
-
-            int sum = dist.stream().mapToInt(r -> r.IND_COUNT).sum();
-
+            PropertiesSampler sampler = samplers.computeIfAbsent(samplerKey(relStatus, sex, ageRange),
+                                                                 k -> new PropertiesSampler(relStatus, sex, ageRange));
             for (Person p : persons) {
-                int offset = random.nextInt(sum);
-                int s = 0;
-                for (IndRecord r : dist) {
-                    s += r.IND_COUNT;
-                    if (offset < s) {
-                        setProperties(p, r.RELATIONSHIP_STATUS, r.SEX, r.AGE_RANGE);
-                        break;
-                    }
+                IndRecord r = sampler.sample(random);
+                if (r != null) {
+                    setProperties(p, r.RELATIONSHIP_STATUS, r.SEX, r.AGE_RANGE);
                 }
             }
         }
@@ -177,6 +172,38 @@ class ExtrasHandler {
         persons.clear();
     }
 
+    /**
+     * Packs the filters of a {@link PropertiesSampler} into a number. Filters that match the same records have the same key.
+     *
+     * @param relStatus Relationship statuses to match, or null to match all
+     * @param sex       Sexes to match, or null to match all
+     * @param ageRange  Age ranges to match, or null to match all
+     * @return The key of the sampler
+     */
+    private static long samplerKey(List<RelationshipStatus> relStatus, List<Sex> sex, List<AgeRange> ageRange) {
+        int relStatusBits = RelationshipStatus.values().length + 2;
+        int sexBits = Sex.values().length + 2;
+        return filterBits(relStatus, relStatusBits)
+                | filterBits(sex, sexBits) << relStatusBits
+                | filterBits(ageRange, AgeRange.values().length + 2) << (relStatusBits + sexBits);
+    }
+
+    /**
+     * @param values The values of a filter, or null to match all
+     * @param bits   The number of values of the enum plus 2
+     * @return A bit for each value in the filter, bit 0 for a null value, and the last bit if the filter matches all
+     */
+    private static long filterBits(List<? extends Enum<?>> values, int bits) {
+        if (values == null) {
+            return 1L << (bits - 1);
+        }
+        long filter = 0;
+        for (Enum<?> value : values) {
+            filter |= 1L << (value == null ? 0 : value.ordinal() + 1);
+        }
+        return filter;
+    }
+
     /**
      * Set properties of a person. Overwrites already set properties.
      *
@@ -190,4 +217,59 @@ class ExtrasHandler {
         p.setAgeRange(ageRange);
         p.setSex(sex);
     }
+
+    /**
+     * Samples person records of the SA2 that match a combination of relationship status, sex and age range filters, in proportion to the
+     * number of persons of each record. The cumulative counts are computed once for each filter combination and a record is found by
+     * binary search. The same random draw selects the same record as a linear scan of the matching records.
+     */
+    private final class PropertiesSampler {
+        private final List<IndRecord> dist = new ArrayList<>();
+        private final int[] cumulative;
+        private final int sum;
+
+        /**
+         * @param relStatus Relationship statuses to match, or null to match all
+         * @param sex       Sexes to match, or null to match all
+         * @param ageRange  Age ranges to match, or null to match all
+         */
+        PropertiesSampler(List<RelationshipStatus> relStatus, List<Sex> sex, List<AgeRange> ageRange) {
+            for (IndRecord r : indRecords) {
+                if ((relStatus == null || relStatus.contains(r.RELATIONSHIP_STATUS)) //filter by relationship. If relationship status is
+                        // null get all records
+                        && (ageRange == null || ageRange.contains(r.AGE_RANGE))// Filter by age range, or get all if not specified
+                        && (sex == null || sex.contains(r.SEX))) {// Filter by sex, or get all if not specified
+                    dist.add(r);
+                }
+            }
+            // Running maximum of the cumulative counts, so the array is sorted even if a count is negative
+            cumulative = new int[dist.size()];
+            int s = 0, max = Integer.MIN_VALUE;
+            for (int i = 0; i < dist.size(); i++) {
+                s += dist.get(i).IND_COUNT;
+                max = Math.max(s, max);
+                cumulative[i] = max;
+            }
+            sum = s;
+        }
+
+        /**
+         * @param random The random number generator
+         * @return The selected record, or null if the offset is beyond the last record
+         */
+        IndRecord sample(Random random) {
+            int offset = random.nextInt(sum);
+            // First record whose cumulative count is larger than the offset
+            int low = 0, high = cumulative.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (offset < cumulative[mid]) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low < cumulative.length ? dist.get(low) : null;
+        }
+    }
 }
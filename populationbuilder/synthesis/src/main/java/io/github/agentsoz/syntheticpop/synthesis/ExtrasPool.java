@@ -0,0 +1,167 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import io.github.agentsoz.syntheticpop.synthesis.models.AgeRange;
+import io.github.agentsoz.syntheticpop.synthesis.models.Person;
+import io.github.agentsoz.syntheticpop.synthesis.models.Sex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The extras of an SA2, grouped by sex and age range. Persons keep the order they were added in: taking the first person, or the first
+ * person of some sexes and age ranges, gives the same person as scanning a single list from the front, but only the first person of each
+ * group is checked. Persons created by {@link ExtrasHandler#formExtras(List)} have no sex or age range and go to their own group.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+class ExtrasPool {
+
+    private static final Sex[] SEXES = Sex.values();
+    private static final AgeRange[] AGE_RANGES = AgeRange.values();
+
+    private final List<ArrayDeque<Entry>> groups;
+    private long nextSequence = 0;
+    private int size = 0;
+
+    ExtrasPool() {
+        int groupCount = (SEXES.length + 1) * (AGE_RANGES.length + 1);
+        groups = new ArrayList<>(groupCount);
+        for (int i = 0; i < groupCount; i++) {
+            groups.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Adds a person to the end of the pool. The sex and age range of the person must not change while the person is in the pool.
+     *
+     * @param person The person
+     */
+    void add(Person person) {
+        groups.get(groupOf(person.getSex(), person.getAgeRange())).addLast(new Entry(nextSequence++, person));
+        size++;
+    }
+
+    /**
+     * Adds persons to the end of the pool in the order of the collection. See {@link #add(Person)}
+     *
+     * @param persons The persons
+     */
+    void addAll(Collection<Person> persons) {
+        persons.forEach(this::add);
+    }
+
+    /**
+     * Removes the first person in the pool.
+     *
+     * @return The person, or null if the pool is empty
+     */
+    Person pollFirst() {
+        ArrayDeque<Entry> first = null;
+        for (ArrayDeque<Entry> group : groups) {
+            first = earlier(first, group);
+        }
+        return poll(first);
+    }
+
+    /**
+     * Removes the first person in the pool whose sex and age range are in the given lists.
+     *
+     * @param sexes     The acceptable sexes
+     * @param ageRanges The acceptable age ranges
+     * @return The person, or null if there is no such person
+     */
+    Person pollFirst(List<Sex> sexes, List<AgeRange> ageRanges) {
+        ArrayDeque<Entry> first = null;
+        for (int s = 0; s <= SEXES.length; s++) {
+            if (!sexes.contains(s == 0 ? null : SEXES[s - 1])) {
+                continue;
+            }
+            for (int a = 0; a <= AGE_RANGES.length; a++) {
+                if (ageRanges.contains(a == 0 ? null : AGE_RANGES[a - 1])) {
+                    first = earlier(first, groups.get(s * (AGE_RANGES.length + 1) + a));
+                }
+            }
+        }
+        return poll(first);
+    }
+
+    /**
+     * @return The number of persons in the pool
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Copies the persons in the order they were added. This sorts all persons and is only meant for diagnostics.
+     *
+     * @return A copy of the persons in the order they were added
+     */
+    List<Person> snapshot() {
+        List<Entry> entries = new ArrayList<>(size);
+        groups.forEach(entries::addAll);
+        entries.sort(Comparator.comparingLong(e -> e.sequence));
+        List<Person> persons = new ArrayList<>(size);
+        entries.forEach(e -> persons.add(e.person));
+        return persons;
+    }
+
+    private Person poll(ArrayDeque<Entry> group) {
+        if (group == null) {
+            return null;
+        }
+        size--;
+        return group.pollFirst().person;
+    }
+
+    private static ArrayDeque<Entry> earlier(ArrayDeque<Entry> current, ArrayDeque<Entry> candidate) {
+        if (candidate.isEmpty()) {
+            return current;
+        }
+        if (current == null || candidate.peekFirst().sequence < current.peekFirst().sequence) {
+            return candidate;
+        }
+        return current;
+    }
+
+    private static int groupOf(Sex sex, AgeRange ageRange) {
+        int s = sex == null ? 0 : sex.ordinal() + 1;
+        int a = ageRange == null ? 0 : ageRange.ordinal() + 1;
+        return s * (AGE_RANGES.length + 1) + a;
+    }
+
+    private static final class Entry {
+        private final long sequence;
+        private final Person person;
+
+        private Entry(long sequence, Person person) {
+            this.sequence = sequence;
+            this.person = person;
+        }
+    }
+}
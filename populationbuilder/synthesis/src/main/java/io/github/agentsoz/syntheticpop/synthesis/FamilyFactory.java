@@ -32,11 +32,28 @@ public class FamilyFactory {
 
     private final Random random;
     private final ExtrasHandler extrasHandler;
+    private final IDAllocator ids;
+    private final ParentChildAgeRule ageRule;
+    private final Metrics metrics;
     private AgeRange.AgeComparator ageComparator = new AgeRange.AgeComparator();
 
     FamilyFactory(Random random, ExtrasHandler extrasHandler) {
+        this(random, extrasHandler, IDAllocator.shared(), ParentChildAgeRule.DEFAULT, new Metrics());
+    }
+
+    /**
+     * @param random        The random number generator
+     * @param extrasHandler The extras of the SA2
+     * @param ids           The ID allocator of the synthesis run
+     * @param ageRule       The parent child age rule
+     * @param metrics       The metrics of the SA2
+     */
+    FamilyFactory(Random random, ExtrasHandler extrasHandler, IDAllocator ids, ParentChildAgeRule ageRule, Metrics metrics) {
         this.random = random;
         this.extrasHandler = extrasHandler;
+        this.ids = ids;
+        this.ageRule = ageRule;
+        this.metrics = metrics;
     }
 
 
@@ -54,11 +71,10 @@ public class FamilyFactory {
             //Form lone parents older than the oldest child. Otherwise we may not be able to find children for newly formed parents
             children.sort(ageComparator.reversed());
             List<AgeRange> loneParentAges = Stream.of(AgeRange.values())
-                                                  .filter(pa -> PopulationRules.validateParentChildAgeRule(pa,
-                                                                                                           null,
-                                                                                                           children.get(0).getAgeRange()))
+                                                  .filter(pa -> ageRule.isValid(pa, null, children.get(0).getAgeRange()))
                                                   .collect(Collectors.toList());
             int newLoneParentsCount = count - loneParents.size();
+            metrics.increment("Extras used as lone parents", newLoneParentsCount);
             loneParents.addAll(extrasHandler.getPersonsFromExtras(Collections.singletonList(RelationshipStatus.LONE_PARENT),
                                                                   null, //Sex automatically decided by data distribution
                                                                   loneParentAges,
@@ -69,11 +85,10 @@ public class FamilyFactory {
         if (count > children.size()) {
             loneParents.sort(ageComparator);
             List<AgeRange> childAges = Stream.of(AgeRange.values())
-                                             .filter(ca -> PopulationRules.validateParentChildAgeRule(loneParents.get(0).getAgeRange(),
-                                                                                                      null,
-                                                                                                      ca))
+                                             .filter(ca -> ageRule.isValid(loneParents.get(0).getAgeRange(), null, ca))
                                              .collect(Collectors.toList());
             int childrenToForm = count - children.size();
+            metrics.increment("Extras used as children", childrenToForm);
             children.addAll(extrasHandler.getChildrenFromExtras(null, childAges, childrenToForm));
         }
 
@@ -84,24 +99,30 @@ public class FamilyFactory {
         children.sort(ageComparator.reversed());
 
         List<Family> lnParentBasic = new ArrayList<>();
-        for (int i = 0; i < count; i++) {
-            if (children.isEmpty()) {
-                throw new NotEnoughPersonsException("One Parent Basic: Not enough children - units successfully formed: " + lnParentBasic
-                        .size());
-            }
+        ChildrenByAge childrenByAge = new ChildrenByAge(children, ageRule);
+        try (Pool<Person> loneParentsPool = new Pool<>(loneParents)) {
+            for (int i = 0; i < count; i++) {
+                if (childrenByAge.isEmpty()) {
+                    throw new NotEnoughPersonsException("One Parent Basic: Not enough children - units successfully formed: " +
+                                                                lnParentBasic.size());
+                }
 
-            Family f = new Family();
-            Person loneParent = loneParents.remove(0);
-            f.addMember(loneParent);
-            Person child = getChildForFamily(f, children);
-            if (child != null) {
-                f.addMember(child);
-                f.setType(FamilyType.ONE_PARENT);
-                lnParentBasic.add(f);
-            } else {
-                loneParents.add(loneParent);
+                Family f = new Family(ids.nextFamilyID());
+                Person loneParent = loneParentsPool.next();
+                f.addMember(loneParent);
+                Person child = childrenByAge.removeChildForFamily(f, random);
+                if (child != null) {
+                    f.addMember(child);
+                    f.setType(FamilyType.ONE_PARENT);
+                    lnParentBasic.add(f);
+                } else {
+                    loneParentsPool.putBack(loneParent);
+                }
             }
+        } finally {
+            childrenByAge.copyTo(children);
         }
+        metrics.increment("One parent families formed", lnParentBasic.size());
         return lnParentBasic;
     }
 
@@ -118,6 +139,7 @@ public class FamilyFactory {
         if (count * 2 > relatives.size()) {
 
             int newRelativesCount = (count * 2) - relatives.size();
+            metrics.increment("Extras used as relatives", newRelativesCount);
             relatives.addAll(extrasHandler.getPersonsFromExtras(RelationshipStatus.RELATIVE,
                                                                 null,
                                                                 null,
@@ -127,18 +149,21 @@ public class FamilyFactory {
         List<Family> otherFamilyBasic = new ArrayList<>();
         Collections.shuffle(relatives, random);
 
-        for (int i = 0; i < count; i++) {
-            if (relatives.size() < 2) {
-                throw new NotEnoughPersonsException(
-                        "Basic Other Family: Not enough Relatives - successfully formed units: " + otherFamilyBasic.size());
+        try (Pool<Person> relativesPool = new Pool<>(relatives)) {
+            for (int i = 0; i < count; i++) {
+                if (relativesPool.size() < 2) {
+                    throw new NotEnoughPersonsException(
+                            "Basic Other Family: Not enough Relatives - successfully formed units: " + otherFamilyBasic.size());
+                }
+                Family f = new Family(ids.nextFamilyID());
+                f.addMember(relativesPool.next());
+                f.addMember(relativesPool.next());
+                f.setType(FamilyType.OTHER_FAMILY);
+                otherFamilyBasic.add(f);
             }
-            Family f = new Family();
-            f.addMember(relatives.remove(0));
-            f.addMember(relatives.remove(0));
-            f.setType(FamilyType.OTHER_FAMILY);
-            otherFamilyBasic.add(f);
         }
 
+        metrics.increment("Other families formed", otherFamilyBasic.size());
         return otherFamilyBasic;
     }
 
@@ -157,6 +182,7 @@ public class FamilyFactory {
         if (count > marriedMales.size()) {
 
             int newMalesCount = count - marriedMales.size();
+            metrics.increment("Extras used as married persons", newMalesCount);
             marriedMales.addAll(extrasHandler.getPersonsFromExtras(RelationshipStatus.MARRIED,
                                                                    Sex.Male,
                                                                    null,
@@ -166,6 +192,7 @@ public class FamilyFactory {
         if (count > marriedFemales.size()) {
 
             int newFemalesCount = count - marriedFemales.size();
+            metrics.increment("Extras used as married persons", newFemalesCount);
             marriedFemales.addAll(extrasHandler.getPersonsFromExtras(RelationshipStatus.MARRIED,
                                                                      Sex.Female,
                                                                      null,
@@ -180,13 +207,16 @@ public class FamilyFactory {
         int diff = marriedMales.size() - marriedFemales.size();
 
         List<Family> couples = new ArrayList<>();
-        for (int i = 0; i < count; i++) {
-            Family f = new Family();
-            f.addMember(marriedMales.remove(0));
-            f.addMember(marriedFemales.remove(0));
-            f.setType(FamilyType.COUPLE_ONLY);
-            couples.add(f);
+        try (Pool<Person> males = new Pool<>(marriedMales); Pool<Person> females = new Pool<>(marriedFemales)) {
+            for (int i = 0; i < count; i++) {
+                Family f = new Family(ids.nextFamilyID());
+                f.addMember(males.next());
+                f.addMember(females.next());
+                f.setType(FamilyType.COUPLE_ONLY);
+                couples.add(f);
+            }
         }
+        metrics.increment("Couple families formed", couples.size());
         return couples;
     }
 
@@ -214,17 +244,12 @@ public class FamilyFactory {
         if (count > children.size()) {
             couples.sort(new AgeRange.YoungestParentAgeComparator());
             List<AgeRange> childAges = Stream.of(AgeRange.values())
-                                             .filter(ca -> PopulationRules.validateParentChildAgeRule(couples.get(0)
-                                                                                                             .getMembers()
-                                                                                                             .get(0)
-                                                                                                             .getAgeRange(),
-                                                                                                      couples.get(0)
-                                                                                                             .getMembers()
-                                                                                                             .get(1)
-                                                                                                             .getAgeRange(),
-                                                                                                      ca))
+                                             .filter(ca -> ageRule.isValid(couples.get(0).getMembers().get(0).getAgeRange(),
+                                                                           couples.get(0).getMembers().get(1).getAgeRange(),
+                                                                           ca))
                                              .collect(Collectors.toList());
             int childrenToForm = count - children.size();
+            metrics.increment("Extras used as children", childrenToForm);
             children.addAll(extrasHandler.getChildrenFromExtras(null, childAges, childrenToForm));
         }
 
@@ -234,19 +259,23 @@ public class FamilyFactory {
         List<Family> cplWithChildUnits = new ArrayList<>();
         Collections.shuffle(children, random);
 
-        boolean success = false;
-        Iterator<Person> childrenItr = children.iterator();
-        while (childrenItr.hasNext()) {
-            Person child = childrenItr.next();
-            Family f = getParentCoupleForChild(child, couples);
-
-            if (f != null) {
-                childrenItr.remove();
-                f.setType(FamilyType.COUPLE_WITH_CHILDREN);
-                f.addMember(child);
-                cplWithChildUnits.add(f);
-                if (count == cplWithChildUnits.size()) {
-                    break;
+        try (CouplesForChildren couplesForChildren = new CouplesForChildren(couples, ageRule);
+             Pool<Person> childrenPool = new Pool<>(children)) {
+            while (!childrenPool.isEmpty()) {
+                Person child = childrenPool.peek();
+                Family f = couplesForChildren.removeFamilyForChild(child, random);
+
+                if (f != null) {
+                    childrenPool.next();
+                    f.setType(FamilyType.COUPLE_WITH_CHILDREN);
+                    f.addMember(child);
+                    cplWithChildUnits.add(f);
+                    if (count == cplWithChildUnits.size()) {
+                        break;
+                    }
+                } else {
+                    // Children without a suitable couple stay in the list, at the position they had before
+                    childrenPool.skip();
                 }
             }
         }
@@ -256,61 +285,210 @@ public class FamilyFactory {
                             .size());
         }
 
+        metrics.increment("Couple with children families formed", cplWithChildUnits.size());
         return cplWithChildUnits;
     }
 
 
     /**
-     * Returns a suitable child for the family considering population rules and removes the selected child from the children list. Returns
-     * null of a suitable child was not found.
-     *
-     * @param family   The family to add a child
-     * @param children The list of children to select a child from
-     * @return Suitable child instance or null
+     * The children available for one parent families, grouped by age range. Selecting a child only looks at the age ranges that suit the
+     * parents instead of filtering and sorting the whole list for every family. A selected child is replaced by the last child of its age
+     * range, so removing it does not shift the other children. The order of the children within an age range does not matter because
+     * children are selected at random.
      */
-    private Person getChildForFamily(Family family, List<Person> children) {
-        List<Person> parents = family.getParents();
-
-        List<Person> suitableChildren = children.stream()
-                                                .filter(c -> PopulationRules.validateParentChildAgeRule(parents.get(0).getAgeRange(),
-                                                                                                        parents.size() == 2 ?
-                                                                                                        parents.get(1).getAgeRange() :
-                                                                                                        null,
-                                                                                                        c.getAgeRange()))
-                                                .sorted(ageComparator)
-                                                .collect(Collectors.toList());
-        if (suitableChildren.isEmpty()) {
-            return null;
-        } else {
-            int offset = random.nextInt(suitableChildren.size());
-            Person newChild = suitableChildren.get(offset);
-            children.remove(newChild);
-            return newChild;
+    private static final class ChildrenByAge {
+        private final List<List<Person>> byAgeRange = new ArrayList<>(AgeRange.values().length);
+        private final ParentChildAgeRule ageRule;
+        private int size = 0;
+
+        /**
+         * @param children Children sorted in age descending order
+         * @param ageRule  The parent child age rule
+         */
+        ChildrenByAge(List<Person> children, ParentChildAgeRule ageRule) {
+            this.ageRule = ageRule;
+            for (int i = 0; i < AgeRange.values().length; i++) {
+                byAgeRange.add(new ArrayList<>());
+            }
+            for (Person c : children) {
+                byAgeRange.get(c.getAgeRange().ordinal()).add(c);
+            }
+            size = children.size();
         }
-    }
 
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Randomly selects a child whose age suits the parents of the family and removes it from the available children. Children are
+         * considered in age ascending order. Returns null if there is no suitable child.
+         *
+         * @param family The family to add a child
+         * @param random The random number generator
+         * @return Suitable child instance or null
+         */
+        Person removeChildForFamily(Family family, Random random) {
+            List<Person> parents = family.getParents();
+            AgeRange parent1 = parents.get(0).getAgeRange();
+            AgeRange parent2 = parents.size() == 2 ? parents.get(1).getAgeRange() : null;
+
+            int suitable = 0;
+            for (AgeRange ageRange : AgeRange.values()) {
+                if (ageRule.isValid(parent1, parent2, ageRange)) {
+                    suitable += byAgeRange.get(ageRange.ordinal()).size();
+                }
+            }
+            if (suitable == 0) {
+                return null;
+            }
+
+            int offset = random.nextInt(suitable);
+            for (AgeRange ageRange : AgeRange.values()) {
+                if (ageRule.isValid(parent1, parent2, ageRange)) {
+                    List<Person> bucket = byAgeRange.get(ageRange.ordinal());
+                    if (offset < bucket.size()) {
+                        size--;
+                        Person child = bucket.get(offset);
+                        bucket.set(offset, bucket.get(bucket.size() - 1));
+                        bucket.remove(bucket.size() - 1);
+                        return child;
+                    }
+                    offset -= bucket.size();
+                }
+            }
+            throw new IllegalStateException("Child selection offset out of range");
+        }
+
+        /**
+         * Replaces the contents of the list with the remaining children in age descending order
+         *
+         * @param children The list to update
+         */
+        void copyTo(List<Person> children) {
+            children.clear();
+            for (int i = byAgeRange.size() - 1; i >= 0; i--) {
+                children.addAll(byAgeRange.get(i));
+            }
+        }
+    }
 
     /**
-     * Returns a suitable family for the specified child considering population rules. Returns null if no suitable family
-     *
-     * @param child    The child looking for a family
-     * @param families The list of families to select from
-     * @return The selected family.
+     * The couples available for couple with children families. A couple is selected for a child with the same probability distribution as
+     * picking a random couple from the suitable couples in the list order, but without scanning the whole list for every child. For each
+     * child age a Fenwick tree over the list positions counts the remaining couples that suit a child of that age, so finding and removing
+     * the selected couple takes logarithmic time. The trees are built the first time a child of that age is seen.
      */
-    private Family getParentCoupleForChild(Person child, List<Family> families) {
-
-        List<Family> suitableCouples = families.parallelStream().filter(f -> {
-            List<Person> parents = f.getParents();
-            return PopulationRules.validateParentChildAgeRule(parents.get(0), parents.size() == 2 ? parents.get(1) : null, child);
-        }).collect(Collectors.toList());
-
-        if (suitableCouples.isEmpty()) {
-            return null;
-        } else {
-            int offset = random.nextInt(suitableCouples.size());
-            Family newFamily = suitableCouples.get(offset);
-            families.remove(newFamily);
-            return newFamily;
+    static final class CouplesForChildren implements AutoCloseable {
+        private final List<Family> couples;
+        private final int[] parent1Ages;
+        private final int[] parent2Ages; // ParentChildAgeRule.NO_PARENT if there is no second parent
+        private final boolean[] removed;
+        private final ParentChildAgeRule ageRule;
+        private final Map<Integer, int[]> treesByChildAge = new HashMap<>();
+
+        /**
+         * @param couples The couples to select from. Selected couples are removed from the list when this instance is closed.
+         * @param ageRule The parent child age rule
+         */
+        CouplesForChildren(List<Family> couples, ParentChildAgeRule ageRule) {
+            this.couples = couples;
+            this.ageRule = ageRule;
+            this.parent1Ages = new int[couples.size()];
+            this.parent2Ages = new int[couples.size()];
+            this.removed = new boolean[couples.size()];
+            for (int i = 0; i < couples.size(); i++) {
+                List<Person> parents = couples.get(i).getParents();
+                parent1Ages[i] = ParentChildAgeRule.ageOf(parents.get(0));
+                parent2Ages[i] = parents.size() == 2 ? ParentChildAgeRule.ageOf(parents.get(1)) : ParentChildAgeRule.NO_PARENT;
+            }
+        }
+
+        /**
+         * Randomly selects a couple whose ages suit the child and marks it as removed. Returns null if there is no suitable couple.
+         *
+         * @param child  The child looking for a family
+         * @param random The random number generator
+         * @return The selected family or null
+         */
+        Family removeFamilyForChild(Person child, Random random) {
+            int[] tree = treesByChildAge.computeIfAbsent(ParentChildAgeRule.ageOf(child), this::buildTree);
+            int suitable = prefixSum(tree, removed.length);
+            if (suitable == 0) {
+                return null;
+            }
+
+            int index = findNth(tree, random.nextInt(suitable) + 1);
+            removed[index] = true;
+            for (Map.Entry<Integer, int[]> entry : treesByChildAge.entrySet()) {
+                if (isSuitable(index, entry.getKey())) {
+                    add(entry.getValue(), index, -1);
+                }
+            }
+            return couples.get(index);
+        }
+
+        /**
+         * Removes the selected couples from the list. The remaining couples keep their order.
+         */
+        @Override
+        public void close() {
+            List<Family> remaining = new ArrayList<>(couples.size());
+            for (int i = 0; i < couples.size(); i++) {
+                if (!removed[i]) {
+                    remaining.add(couples.get(i));
+                }
+            }
+            couples.clear();
+            couples.addAll(remaining);
+        }
+
+        private int[] buildTree(int childAge) {
+            int[] tree = new int[removed.length + 1];
+            for (int i = 0; i < removed.length; i++) {
+                if (!removed[i] && isSuitable(i, childAge)) {
+                    add(tree, i, 1);
+                }
+            }
+            return tree;
+        }
+
+        private boolean isSuitable(int index, int childAge) {
+            return ageRule.isValid(parent1Ages[index], parent2Ages[index], childAge);
+        }
+
+        /**
+         * Adds delta to the count of the list position
+         */
+        static void add(int[] tree, int index, int delta) {
+            for (int i = index + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        /**
+         * Sums the counts of the first count list positions
+         */
+        static int prefixSum(int[] tree, int count) {
+            int sum = 0;
+            for (int i = count; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        /**
+         * Finds the list position of the nth counted couple
+         */
+        static int findNth(int[] tree, int n) {
+            int pos = 0;
+            for (int step = Integer.highestOneBit(tree.length); step > 0; step >>= 1) {
+                if (pos + step < tree.length && tree[pos + step] < n) {
+                    pos += step;
+                    n -= tree[pos];
+                }
+            }
+            return pos;
         }
     }
 }
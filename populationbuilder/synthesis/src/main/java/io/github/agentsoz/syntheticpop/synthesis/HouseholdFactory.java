@@ -38,13 +38,40 @@ public class HouseholdFactory {
 
     private final Random random;
     private final ExtrasHandler extrasHandler;
+    private final IDAllocator ids;
+    private final MembershipRegistry registry;
+    private final ParentChildAgeRule ageRule;
+    private final Metrics metrics;
     private final List<HhRecord> hhRecs;
     private final Comparator<Family> youngParentAgeComparator = new AgeRange.YoungestParentAgeComparator();
 
     HouseholdFactory(List<HhRecord> hhRecords, Random random, ExtrasHandler extrasHandler) {
+        this(hhRecords, random, extrasHandler, IDAllocator.shared(), new MembershipRegistry(), ParentChildAgeRule.DEFAULT, new Metrics());
+    }
+
+    /**
+     * @param hhRecords     The household records of the SA2
+     * @param random        The random number generator
+     * @param extrasHandler The extras of the SA2
+     * @param ids           The ID allocator of the synthesis run
+     * @param registry      The membership registry of the synthesis run
+     * @param ageRule       The parent child age rule
+     * @param metrics       The metrics of the SA2
+     */
+    HouseholdFactory(List<HhRecord> hhRecords,
+                     Random random,
+                     ExtrasHandler extrasHandler,
+                     IDAllocator ids,
+                     MembershipRegistry registry,
+                     ParentChildAgeRule ageRule,
+                     Metrics metrics) {
         this.hhRecs = hhRecords;
         this.random = random;
         this.extrasHandler = extrasHandler;
+        this.ids = ids;
+        this.registry = registry;
+        this.ageRule = ageRule;
+        this.metrics = metrics;
     }
 
     /**
@@ -62,19 +89,22 @@ public class HouseholdFactory {
             int hhCount = lnPersonHhs.get(0).HH_COUNT;// Only 1 member households have lone persons
             int diff = hhCount - lonePersons.size();
 
-            for (int i = 0; i < lnPersonHhs.get(0).HH_COUNT; i++) {
-                Family f = new Family();
-                if (lonePersons.isEmpty()) {
-                    throw new NotEnoughPersonsException(lnPersonHhs.get(0).FAMILY_HOUSEHOLD_TYPE + ": Not enough lone " +
-                                                                "persons");
+            try (Pool<Person> lonePersonsPool = new Pool<>(lonePersons)) {
+                for (int i = 0; i < lnPersonHhs.get(0).HH_COUNT; i++) {
+                    Family f = new Family(ids.nextFamilyID());
+                    if (lonePersonsPool.isEmpty()) {
+                        throw new NotEnoughPersonsException(lnPersonHhs.get(0).FAMILY_HOUSEHOLD_TYPE + ": Not enough lone " +
+                                                                    "persons");
+                    }
+                    f.addMember(lonePersonsPool.next());
+                    f.setType(FamilyType.LONE_PERSON);
+                    Household h = new Household(1, FamilyHouseholdType.LONE_PERSON, lnPersonHhs.get(0).SA, ids.nextHouseholdID());
+                    addFamily(h, f);
+                    hhList.add(h);
                 }
-                f.addMember(lonePersons.remove(0));
-                f.setType(FamilyType.LONE_PERSON);
-                Household h = new Household(1, FamilyHouseholdType.LONE_PERSON, lnPersonHhs.get(0).SA);
-                h.addFamily(f);
-                hhList.add(h);
             }
 
+            metrics.increment("Lone person households formed", hhList.size());
             Log.info("Lone person households: Households formed: " + hhList.size());
             if (diff > 0) {
                 Log.warn("Lone person households: Persons discarded: " + 0);
@@ -100,28 +130,33 @@ public class HouseholdFactory {
 
         List<Household> hhList = new ArrayList<>();
         int totalGroupHhs = 0;
-        for (HhRecord hhRec : grpHhRecs) {
+        try (Pool<Person> groupHhPersonsPool = new Pool<>(groupHhPersons)) {
+            for (HhRecord hhRec : grpHhRecs) {
 
-            int hhCount = hhRec.HH_COUNT;
-            totalGroupHhs += hhRec.HH_COUNT;
-            int hhSize = hhRec.NUM_OF_PERSONS_PER_HH;
+                int hhCount = hhRec.HH_COUNT;
+                totalGroupHhs += hhRec.HH_COUNT;
+                int hhSize = hhRec.NUM_OF_PERSONS_PER_HH;
 
-            for (int i = 0; i < hhCount; i++) {
-                Family f = new Family();
-                if (hhSize > groupHhPersons.size()) {
-                    throw new NotEnoughPersonsException(hhRec.FAMILY_HOUSEHOLD_TYPE + ": Not enough group household persons");
-                }
-                f.addMembers(groupHhPersons.subList(0, hhSize));
-                f.setType(FamilyType.GROUP_HOUSEHOLD);
-                groupHhPersons.subList(0, hhSize).clear();
+                for (int i = 0; i < hhCount; i++) {
+                    Family f = new Family(ids.nextFamilyID());
+                    if (hhSize > groupHhPersonsPool.size()) {
+                        throw new NotEnoughPersonsException(hhRec.FAMILY_HOUSEHOLD_TYPE + ": Not enough group household persons");
+                    }
+                    f.addMembers(groupHhPersonsPool.next(hhSize));
+                    f.setType(FamilyType.GROUP_HOUSEHOLD);
 
-                Household h = new Household(hhRec.NUM_OF_PERSONS_PER_HH, FamilyHouseholdType.GROUP_HOUSEHOLD, hhRec.SA);
-                h.addFamily(f);
+                    Household h = new Household(hhRec.NUM_OF_PERSONS_PER_HH,
+                                                FamilyHouseholdType.GROUP_HOUSEHOLD,
+                                                hhRec.SA,
+                                                ids.nextHouseholdID());
+                    addFamily(h, f);
 
-                hhList.add(h);
-            }
+                    hhList.add(h);
+                }
 
+            }
         }
+        metrics.increment("Group households formed", hhList.size());
         Log.info("Group households: Households formed: " + hhList.size());
         Log.info("Group households: All Households created");
         if (!groupHhPersons.isEmpty()) {
@@ -157,54 +192,61 @@ public class HouseholdFactory {
 
         List<Household> basicHouseholds = new ArrayList<>();
         int cpl = 0, cwc = 0, other = 0, one = 0; //bookkeeping
-        for (HhRecord hhRec : hhRecs) {
-            List<Family> primaryFamilyUnitsList;
-            switch (hhRec.getPrimaryFamilyType()) {
-                case COUPLE_ONLY:
-                    cpl += hhRec.HH_COUNT;
-                    primaryFamilyUnitsList = coupleOnlyBasic;
-                    break;
-                case COUPLE_WITH_CHILDREN:
-                    cwc += hhRec.HH_COUNT;
-                    primaryFamilyUnitsList = coupleWithChildrenBasic;
-                    break;
-                case ONE_PARENT:
-                    one += hhRec.HH_COUNT;
-                    primaryFamilyUnitsList = oneParentBasicFamilies;
-                    break;
-                case OTHER_FAMILY:
-                    other += hhRec.HH_COUNT;
-                    primaryFamilyUnitsList = otherFamilyBasic;
-                    break;
-                default:
-                    continue;
-            }
+        try (Pool<Family> coupleOnlyPool = new Pool<>(coupleOnlyBasic);
+             Pool<Family> coupleWithChildrenPool = new Pool<>(coupleWithChildrenBasic);
+             Pool<Family> oneParentPool = new Pool<>(oneParentBasicFamilies);
+             Pool<Family> otherFamilyPool = new Pool<>(otherFamilyBasic)) {
+            for (HhRecord hhRec : hhRecs) {
+                Pool<Family> primaryFamilyUnits;
+                switch (hhRec.getPrimaryFamilyType()) {
+                    case COUPLE_ONLY:
+                        cpl += hhRec.HH_COUNT;
+                        primaryFamilyUnits = coupleOnlyPool;
+                        break;
+                    case COUPLE_WITH_CHILDREN:
+                        cwc += hhRec.HH_COUNT;
+                        primaryFamilyUnits = coupleWithChildrenPool;
+                        break;
+                    case ONE_PARENT:
+                        one += hhRec.HH_COUNT;
+                        primaryFamilyUnits = oneParentPool;
+                        break;
+                    case OTHER_FAMILY:
+                        other += hhRec.HH_COUNT;
+                        primaryFamilyUnits = otherFamilyPool;
+                        break;
+                    default:
+                        continue;
+                }
 
-            if (hhRec.HH_COUNT > 0) {
-                for (int i = 0; i < hhRec.HH_COUNT; i++) {
-                    if (primaryFamilyUnitsList.isEmpty()) {
-                        throw new NotEnoughPersonsException(hhRec.FAMILY_HOUSEHOLD_TYPE + ": Not enough basic family units");
+                if (hhRec.HH_COUNT > 0) {
+                    for (int i = 0; i < hhRec.HH_COUNT; i++) {
+                        if (primaryFamilyUnits.isEmpty()) {
+                            throw new NotEnoughPersonsException(hhRec.FAMILY_HOUSEHOLD_TYPE + ": Not enough basic family units");
+                        }
+                        Household household = new Household(hhRec.NUM_OF_PERSONS_PER_HH,
+                                                            hhRec.FAMILY_HOUSEHOLD_TYPE,
+                                                            hhRec.SA,
+                                                            ids.nextHouseholdID());
+                        addFamily(household, primaryFamilyUnits.next());
+                        household.setPrimaryFamilyType(hhRec.getPrimaryFamilyType());
+                        basicHouseholds.add(household);
                     }
-                    Household household = new Household(hhRec.NUM_OF_PERSONS_PER_HH,
-                                                        hhRec.FAMILY_HOUSEHOLD_TYPE,
-                                                        hhRec.SA);
-                    household.addFamily(primaryFamilyUnitsList.remove(0));
-                    household.setPrimaryFamilyType(hhRec.getPrimaryFamilyType());
-                    basicHouseholds.add(household);
-                }
 
+                }
             }
         }
 
+        metrics.increment("Family households formed", basicHouseholds.size());
         Log.info("All households populated with primary families");
-        Log.debug("Primary family " + FamilyType.COUPLE_ONLY + " formed households: " + cpl);
-        Log.debug("Primary family " + FamilyType.COUPLE_WITH_CHILDREN + " formed households: " + cwc);
-        Log.debug("Primary family " + FamilyType.ONE_PARENT + " formed households: " + one);
-        Log.debug("Primary family " + FamilyType.OTHER_FAMILY + " formed households: " + other);
-        Log.debug("Remaining Couples basic: " + coupleOnlyBasic.size());
-        Log.debug("Remaining Couple with children basic: " + coupleWithChildrenBasic.size());
-        Log.debug("Remaining Other family basic: " + otherFamilyBasic.size());
-        Log.debug("Remaining One parent basic: " + oneParentBasicFamilies.size());
+        Log.debug("Primary family {} formed households: {}", FamilyType.COUPLE_ONLY, cpl);
+        Log.debug("Primary family {} formed households: {}", FamilyType.COUPLE_WITH_CHILDREN, cwc);
+        Log.debug("Primary family {} formed households: {}", FamilyType.ONE_PARENT, one);
+        Log.debug("Primary family {} formed households: {}", FamilyType.OTHER_FAMILY, other);
+        Log.debug("Remaining Couples basic: {}", coupleOnlyBasic.size());
+        Log.debug("Remaining Couple with children basic: {}", coupleWithChildrenBasic.size());
+        Log.debug("Remaining Other family basic: {}", otherFamilyBasic.size());
+        Log.debug("Remaining One parent basic: {}", oneParentBasicFamilies.size());
         return basicHouseholds;
     }
 
@@ -238,10 +280,10 @@ public class HouseholdFactory {
                                            FamilyFactory familyFactory) {
         Log.info("Assigning known Basic One Parent families to suitable households");
         assignOneParentUnitsAsNonPrimaryFamilies(households, unusedBasicOneParentFamilies);
-        Log.debug("Non-primary known: Basic One Parent families: Unassigned families: " + unusedBasicOneParentFamilies.size());
+        Log.debug("Non-primary known: Basic One Parent families: Unassigned families: {}", unusedBasicOneParentFamilies.size());
         if (!unusedBasicOneParentFamilies.isEmpty()) {
-            Log.debug("Non-primary known: Basic One Parent families: Remaining Children : " + children.size());
-            Log.debug("Non-primary known: Basic One Parent families: Remaining Lone Parents : " + loneParents.size());
+            Log.debug("Non-primary known: Basic One Parent families: Remaining Children : {}", children.size());
+            Log.debug("Non-primary known: Basic One Parent families: Remaining Lone Parents : {}", loneParents.size());
             Log.debug("Non-primary known: Basic One Parent families: Adding unassigned persons to persons lists");
             Supplier<Stream<Person>> memSup = () -> unusedBasicOneParentFamilies.stream()
                                                                                 .map(Family::getMembers)
@@ -260,19 +302,19 @@ public class HouseholdFactory {
             children.addAll(extraChildren);
             unusedBasicOneParentFamilies.clear();
 
-            Log.debug("Non-primary known: Basic One Parent families: Remaining Children : " + children.size());
-            Log.debug("Non-primary known: Basic One Parent families: Remaining Lone Parents : " + loneParents.size());
+            Log.debug("Non-primary known: Basic One Parent families: Remaining Children : {}", children.size());
+            Log.debug("Non-primary known: Basic One Parent families: Remaining Lone Parents : {}", loneParents.size());
 
         }
 
         Log.info("Assigning known Basic Couple families to suitable households");
 
         assignCouplesAsNonPrimaryFamilies(households, unusedCouples, children, nonPrimaryCwcProb, familyFactory);
-        Log.debug("Non-primary known: Basic Couple families: Unassigned families: " + unusedCouples.size());
+        Log.debug("Non-primary known: Basic Couple families: Unassigned families: {}", unusedCouples.size());
 
         if (!unusedCouples.isEmpty()) {
-            Log.debug("Non-primary known: Basic Couple families: Remaining Male Married : " + marriedMales.size());
-            Log.debug("Non-primary known: Basic Couple families: Remaining Female Married : " + marriedFemales.size());
+            Log.debug("Non-primary known: Basic Couple families: Remaining Male Married : {}", marriedMales.size());
+            Log.debug("Non-primary known: Basic Couple families: Remaining Female Married : {}", marriedFemales.size());
             Log.debug("Non-primary known: Basic Couple families: Adding unassigned persons to persons lists");
 
             Supplier<Stream<Person>> familyMemberSupplier = () -> unusedCouples.stream().map(Family::getMembers).flatMap(List::stream);
@@ -281,8 +323,8 @@ public class HouseholdFactory {
             marriedFemales.addAll(familyMemberSupplier.get().filter(p -> p.getSex() == Sex.Female).collect(Collectors.toList()));
             unusedCouples.clear();
 
-            Log.debug("Non-primary known: Basic Couple families: Remaining Male Married : " + marriedMales.size());
-            Log.debug("Non-primary known: Basic Couple families: Remaining Female Married : " + marriedFemales.size());
+            Log.debug("Non-primary known: Basic Couple families: Remaining Male Married : {}", marriedMales.size());
+            Log.debug("Non-primary known: Basic Couple families: Remaining Female Married : {}", marriedFemales.size());
         }
 
 
@@ -310,16 +352,16 @@ public class HouseholdFactory {
                                                  FamilyFactory familyFactory) {
 
         Log.info("Assigning unknown non-primary families to households");
-        Log.debug("Non-primary unknown: Remaining Married males: " + marriedMales.size());
-        Log.debug("Non-primary unknown: Remaining Married females: " + marriedFemales.size());
-        Log.debug("Non-primary unknown: Remaining Relatives: " + relatives.size());
-        Log.debug("Non-primary unknown: Remaining Children: " + children.size());
-        Log.debug("Non-primary unknown: Remaining Lone Parents: " + loneParents.size());
-        Log.debug("Non-primary unknown: Remaining Extras: " + extrasHandler.remainingExtras());
-        Log.debug("Non-primary unknown: Families needed: " + households.stream()
-                                                                       .mapToInt(h -> h.getExpectedFamilyCount() - h
-                                                                               .getCurrentFamilyCount())
-                                                                       .sum());
+        Log.debug("Non-primary unknown: Remaining Married males: {}", marriedMales.size());
+        Log.debug("Non-primary unknown: Remaining Married females: {}", marriedFemales.size());
+        Log.debug("Non-primary unknown: Remaining Relatives: {}", relatives.size());
+        Log.debug("Non-primary unknown: Remaining Children: {}", children.size());
+        Log.debug("Non-primary unknown: Remaining Lone Parents: {}", loneParents.size());
+        Log.debug("Non-primary unknown: Remaining Extras: {}", extrasHandler.remainingExtras());
+        Log.debug(() -> "Non-primary unknown: Families needed: " + households.stream()
+                                                                             .mapToInt(h -> h.getExpectedFamilyCount() - h
+                                                                                     .getCurrentFamilyCount())
+                                                                             .sum());
 
         Map<FamilyType, Integer> currentDist = new HashMap<>(4, 1);
         households.forEach(h -> {
@@ -421,22 +463,23 @@ public class HouseholdFactory {
                         throw new Error("Unexpected FamilyType when forming Unknown Non-primary families: " + newFamilyType);
 
                 }
-                h.addFamily(newFamily);
+                addFamily(h, newFamily);
             }
 
         }
 
 
-        Log.debug("Non-primary unknown: Formed Couples: " + formedCouples);
-        Log.debug("Non-primary unknown: Formed Couple with Child: " + formedCwc);
-        Log.debug("Non-primary unknown: Formed Other Family: " + formedOtherFamily);
-        Log.debug("Non-primary unknown: Formed One Parent: " + formedOneParent);
-        Log.debug("Non-primary unknown: Remaining Married males: " + marriedMales.size());
-        Log.debug("Non-primary unknown: Remaining Married females: " + marriedFemales.size());
-        Log.debug("Non-primary unknown: Remaining Relatives: " + relatives.size());
-        Log.debug("Non-primary unknown: Remaining Children: " + children.size());
-        Log.debug("Non-primary unknown: Remaining Lone Parents: " + loneParents.size());
-        Log.debug("Non-primary unknown: Remaining Extras: " + extrasHandler.remainingExtras());
+        metrics.increment("Unknown non-primary families formed", formedCouples + formedCwc + formedOtherFamily + formedOneParent);
+        Log.debug("Non-primary unknown: Formed Couples: {}", formedCouples);
+        Log.debug("Non-primary unknown: Formed Couple with Child: {}", formedCwc);
+        Log.debug("Non-primary unknown: Formed Other Family: {}", formedOtherFamily);
+        Log.debug("Non-primary unknown: Formed One Parent: {}", formedOneParent);
+        Log.debug("Non-primary unknown: Remaining Married males: {}", marriedMales.size());
+        Log.debug("Non-primary unknown: Remaining Married females: {}", marriedFemales.size());
+        Log.debug("Non-primary unknown: Remaining Relatives: {}", relatives.size());
+        Log.debug("Non-primary unknown: Remaining Children: {}", children.size());
+        Log.debug("Non-primary unknown: Remaining Lone Parents: {}", loneParents.size());
+        Log.debug("Non-primary unknown: Remaining Extras: {}", extrasHandler.remainingExtras());
 
         Log.info("Assigning unknown non-primary families completed");
     }
@@ -457,57 +500,62 @@ public class HouseholdFactory {
                                                    double nonPrimaryCwcProb,
                                                    FamilyFactory familyFactory) {
         Log.info("Adding " + FamilyType.COUPLE_ONLY + " as non primary");
-        Log.debug(FamilyType.COUPLE_ONLY + ": Available family units: " + couples.size());
-        Log.debug(FamilyType.COUPLE_ONLY + ": Remaining Children: " + children.size());
+        Log.debug("{}: Available family units: {}", FamilyType.COUPLE_ONLY, couples.size());
+        Log.debug("{}: Remaining Children: {}", FamilyType.COUPLE_ONLY, children.size());
 
         List<Household> eligible = households.parallelStream()
                                              .filter(h -> h.getExpectedFamilyCount() > h.getCurrentFamilyCount() && h.getExpectedSize() >= h
                                                      .getCurrentSize() + 2)
                                              .collect(Collectors.toList());
 
-        Log.debug(FamilyType.COUPLE_ONLY + ": Total eligible households: " + eligible.size());
+        Log.debug("{}: Total eligible households: {}", FamilyType.COUPLE_ONLY, eligible.size());
         Collections.shuffle(eligible, random);
         Household h;
 
         int added = 0, completed = 0, cwcAdded = 0;
         Set<Household> cplAddedHhs = new HashSet<>(), cwcAddedHhs = new HashSet<>();
-        while (!eligible.isEmpty() && !couples.isEmpty()) {
-            h = eligible.get(0);
-            Family f = couples.remove(0);
-            if (h.getPrimaryFamilyType() == FamilyType.COUPLE_WITH_CHILDREN
-                    //To add couple with children family, the Hh must have more free slots than required by basic families
-                    && ((h.getExpectedFamilyCount() - h.getCurrentFamilyCount()) * 2 > h.getExpectedSize() - h.getCurrentSize())
-                    && random.nextDouble() < nonPrimaryCwcProb) {
-
-                familyFactory.formCoupleWithChildFamilyBasicUnits(1, new ArrayList<>(Collections.singletonList(f)), children);
-
-                //bookkeeping
-                cwcAdded++;
-                if (!cwcAddedHhs.add(h) && h.getExpectedFamilyCount() != 3) {
-                    throw new UnsupportedOperationException("Added a 3rd family to a 2 family household");
-                }
+        try (Pool<Household> eligiblePool = new Pool<>(eligible); Pool<Family> couplesPool = new Pool<>(couples)) {
+            while (!eligiblePool.isEmpty() && !couplesPool.isEmpty()) {
+                h = eligiblePool.peek();
+                Family f = couplesPool.next();
+                if (h.getPrimaryFamilyType() == FamilyType.COUPLE_WITH_CHILDREN
+                        //To add couple with children family, the Hh must have more free slots than required by basic families
+                        && ((h.getExpectedFamilyCount() - h.getCurrentFamilyCount()) * 2 > h.getExpectedSize() - h.getCurrentSize())
+                        && random.nextDouble() < nonPrimaryCwcProb) {
+
+                    familyFactory.formCoupleWithChildFamilyBasicUnits(1, new ArrayList<>(Collections.singletonList(f)), children);
+
+                    //bookkeeping
+                    cwcAdded++;
+                    if (!cwcAddedHhs.add(h) && h.getExpectedFamilyCount() != 3) {
+                        throw new UnsupportedOperationException("Added a 3rd family to a 2 family household");
+                    }
 
-            } else {
-                //bookkeeping
-                added++;
-                if (!cplAddedHhs.add(h) && h.getExpectedFamilyCount() != 3) {
-                    throw new UnsupportedOperationException("Added a 3rd family to a 2 family household");
+                } else {
+                    //bookkeeping
+                    added++;
+                    if (!cplAddedHhs.add(h) && h.getExpectedFamilyCount() != 3) {
+                        throw new UnsupportedOperationException("Added a 3rd family to a 2 family household");
+                    }
                 }
-            }
-            h.addFamily(f);
+                addFamily(h, f);
 
-            if (h.getExpectedFamilyCount() == h.getCurrentFamilyCount()) {
-                eligible.remove(h);
-                completed++;
+                if (h.getExpectedFamilyCount() == h.getCurrentFamilyCount()) {
+                    eligiblePool.next();
+                    completed++;
+                }
             }
         }
 
-        Log.debug(FamilyType.COUPLE_ONLY + ": Used Couples: " + added + " Updated Households: " + cplAddedHhs.size());
-        Log.debug(FamilyType.COUPLE_ONLY + ": Used Couples as Couple with Children: " + cwcAdded + " Updated Households: " + cwcAddedHhs
-                .size());
-        Log.debug(FamilyType.COUPLE_ONLY + ": Family count completed households: " + completed);
-        Log.debug(FamilyType.COUPLE_ONLY + ": Remaining eligible households: " + eligible.size());
-        Log.debug(FamilyType.COUPLE_ONLY + ": Remaining Children: " + children.size());
+        metrics.increment("Couples added as non-primary families", added + cwcAdded);
+        Log.debug("{}: Used Couples: {} Updated Households: {}", FamilyType.COUPLE_ONLY, added, cplAddedHhs.size());
+        Log.debug("{}: Used Couples as Couple with Children: {} Updated Households: {}",
+                  FamilyType.COUPLE_ONLY,
+                  cwcAdded,
+                  cwcAddedHhs.size());
+        Log.debug("{}: Family count completed households: {}", FamilyType.COUPLE_ONLY, completed);
+        Log.debug("{}: Remaining eligible households: {}", FamilyType.COUPLE_ONLY, eligible.size());
+        Log.debug("{}: Remaining Children: {}", FamilyType.COUPLE_ONLY, children.size());
     }
 
 
@@ -528,7 +576,7 @@ public class HouseholdFactory {
                                                           List<Family> basicUnits) {
 
         Log.info("Adding " + FamilyType.ONE_PARENT + " as non primary");
-        Log.debug(FamilyType.ONE_PARENT + ": available family units: " + basicUnits.size());
+        Log.debug("{}: available family units: {}", FamilyType.ONE_PARENT, basicUnits.size());
 
         List<Household> eligibleHhs = households.stream()
                                                 .filter(h -> (FamilyType.ONE_PARENT == h.getPrimaryFamilyType()
@@ -538,28 +586,31 @@ public class HouseholdFactory {
                                                 //has enough vacancies
                                                 .collect(Collectors.toList()); //Convert to an actual list
 
-        Log.debug(FamilyType.ONE_PARENT + ": total eligible households: " + eligibleHhs.size());
+        Log.debug("{}: total eligible households: {}", FamilyType.ONE_PARENT, eligibleHhs.size());
 
         int added = 0, completed = 0;
-        while (!basicUnits.isEmpty() && !eligibleHhs.isEmpty()) {
-            int randIndex = random.nextInt(eligibleHhs.size());
-            Family f = basicUnits.remove(0);
-            f.setType(FamilyType.ONE_PARENT);
-            eligibleHhs.get(randIndex).addFamily(f);
-            if (eligibleHhs.get(randIndex).getExpectedFamilyCount() == eligibleHhs.get(randIndex)
-                                                                                  .getCurrentFamilyCount()) {
-                eligibleHhs.remove(randIndex);
-                completed++;
+        try (Pool<Family> basicUnitsPool = new Pool<>(basicUnits)) {
+            while (!basicUnitsPool.isEmpty() && !eligibleHhs.isEmpty()) {
+                int randIndex = random.nextInt(eligibleHhs.size());
+                Family f = basicUnitsPool.next();
+                f.setType(FamilyType.ONE_PARENT);
+                addFamily(eligibleHhs.get(randIndex), f);
+                if (eligibleHhs.get(randIndex).getExpectedFamilyCount() == eligibleHhs.get(randIndex)
+                                                                                      .getCurrentFamilyCount()) {
+                    eligibleHhs.remove(randIndex);
+                    completed++;
+                }
+                added++;
             }
-            added++;
         }
 
-        Log.debug(FamilyType.ONE_PARENT + ": updated households: " + added);
-        Log.debug(FamilyType.ONE_PARENT + ": family count completed households: " + completed);
-        Log.debug(FamilyType.ONE_PARENT + ": remaining eligible households: " + eligibleHhs.stream()
-                                                                                           .filter(h -> h.getExpectedFamilyCount() > h
-                                                                                                   .getCurrentFamilyCount())
-                                                                                           .count());
+        metrics.increment("One parent families added as non-primary families", added);
+        Log.debug("{}: updated households: {}", FamilyType.ONE_PARENT, added);
+        Log.debug("{}: family count completed households: {}", FamilyType.ONE_PARENT, completed);
+        Log.debug(() -> FamilyType.ONE_PARENT + ": remaining eligible households: " + eligibleHhs.stream()
+                                                                                                 .filter(h -> h.getExpectedFamilyCount() > h
+                                                                                                         .getCurrentFamilyCount())
+                                                                                                 .count());
     }
 
     /**
@@ -574,8 +625,8 @@ public class HouseholdFactory {
                                          List<Person> relatives,
                                          FamilyHouseholdType familyHouseholdType) {
         Log.info("Fill " + ((familyHouseholdType == null) ? "All" : familyHouseholdType) + " households with relatives");
-        Log.debug("Start remaining relatives: " + relatives.size());
-        Log.debug("Start remaining extras: " + extrasHandler.remainingExtras());
+        Log.debug("Start remaining relatives: {}", relatives.size());
+        Log.debug("Start remaining extras: {}", extrasHandler.remainingExtras());
 
         Collections.shuffle(relatives, random);
         //Filter the household that match the family household type.
@@ -583,35 +634,35 @@ public class HouseholdFactory {
                                                  .filter(hh -> (hh.getFamilyHouseholdType() == familyHouseholdType || familyHouseholdType
                                                          == null) && (hh.getExpectedSize() > hh.getCurrentSize()))
                                                  .collect(Collectors.toList());
-        Log.debug((familyHouseholdType != null ? familyHouseholdType.name() : "All") + ": Eligible households: " + availableHhs.size());
-        Log.debug((familyHouseholdType != null ? familyHouseholdType.name() : "All") + ": Slots to fill: " + availableHhs.stream()
-                                                                                                                         .mapToInt(h -> h
-                                                                                                                                 .getExpectedSize() - h
-                                                                                                                                 .getCurrentSize())
-                                                                                                                         .sum());
+        Log.debug("{}: Eligible households: {}", familyHouseholdType != null ? familyHouseholdType.name() : "All", availableHhs.size());
+        Log.debug(() -> (familyHouseholdType != null ? familyHouseholdType.name() : "All") + ": Slots to fill: " + availableHhs.stream()
+                                                                                                                               .mapToInt(h -> h
+                                                                                                                                       .getExpectedSize() - h
+                                                                                                                                       .getCurrentSize())
+                                                                                                                               .sum());
         int formed = 0;
-        for (Household h : availableHhs) {
-            int diff = h.getExpectedSize() - h.getCurrentSize();
-            if (diff > 0) {
-                Family f = h.getPrimaryFamily();
-                if (relatives.size() >= diff) {
-                    f.addMembers(relatives.subList(0, diff));
-                    relatives.subList(0, diff).clear();
-                } else {
-                    int rels = relatives.size();
-                    f.addMembers(relatives);
-                    relatives.clear();
-                    f.addMembers(extrasHandler.getPersonsFromExtras(RelationshipStatus.RELATIVE, null, null, diff - rels));
-
-
+        try (Pool<Person> relativesPool = new Pool<>(relatives)) {
+            for (Household h : availableHhs) {
+                int diff = h.getExpectedSize() - h.getCurrentSize();
+                if (diff > 0) {
+                    Family f = h.getPrimaryFamily();
+                    if (relativesPool.size() >= diff) {
+                        f.addMembers(relativesPool.next(diff));
+                    } else {
+                        int rels = relativesPool.size();
+                        f.addMembers(relativesPool.next(rels));
+                        f.addMembers(extrasHandler.getPersonsFromExtras(RelationshipStatus.RELATIVE, null, null, diff - rels));
+                        metrics.increment("Extras used as relatives", diff - rels);
+                    }
+                    metrics.increment("Relatives added to households", diff);
+                    formed++;
                 }
-                formed++;
             }
         }
 
         Log.info((familyHouseholdType != null ? familyHouseholdType.name() : "All") + ": updated households: " + formed);
-        Log.debug("End remaining relatives: " + relatives.size());
-        Log.debug("End remaining extras: " + extrasHandler.remainingExtras());
+        Log.debug("End remaining relatives: {}", relatives.size());
+        Log.debug("End remaining extras: {}", extrasHandler.remainingExtras());
     }
 
     /**
@@ -624,7 +675,7 @@ public class HouseholdFactory {
                                         List<Person> knownChildren) {
 
         Log.info("Adding all known children to households");
-        Log.debug("Total known Children from data: " + knownChildren.size());
+        Log.debug("Total known Children from data: {}", knownChildren.size());
         knownChildren.sort(new AgeRange.AgeComparator().reversed());
         List<Household> parentHhs = households.stream()
                                               .filter(h -> h.getPrimaryFamilyType() == FamilyType.ONE_PARENT || h.getPrimaryFamilyType()
@@ -632,15 +683,16 @@ public class HouseholdFactory {
                                               .sorted(Comparator.comparing(Household::getPrimaryFamily,
                                                                            new AgeRange.YoungestParentAgeComparator().reversed()))
                                               .collect(Collectors.toList());
-        Log.debug("All: Eligible households: " + parentHhs.size());
-        Log.debug("All: Slots to fill: " + parentHhs.stream().mapToInt(h -> h.getExpectedSize() - h.getCurrentSize()).sum());
+        Log.debug("All: Eligible households: {}", parentHhs.size());
+        Log.debug(() -> "All: Slots to fill: " + parentHhs.stream().mapToInt(h -> h.getExpectedSize() - h.getCurrentSize()).sum());
 
 
         Iterator<Person> childItr = knownChildren.iterator();
         int updated = 0, completed = 0;
+        ParentHouseholdIndex parentHhIndex = new ParentHouseholdIndex(parentHhs, ageRule);
         while (childItr.hasNext()) {
             Person child = childItr.next();
-            int hhIndex = selectHouseholdWithSuitablePrimaryFamilyForChild(child, parentHhs);
+            int hhIndex = parentHhIndex.selectHouseholdForChild(child);
             if (hhIndex >= 0) {
                 Family pf = parentHhs.get(hhIndex).getPrimaryFamily();
                 try {
@@ -659,12 +711,13 @@ public class HouseholdFactory {
                 updated++;
                 if (parentHhs.get(hhIndex).getExpectedSize() == parentHhs.get(hhIndex).getCurrentSize()) {
                     completed++;
-                    parentHhs.remove(hhIndex);
+                    parentHhIndex.remove(hhIndex);
                 }
             }
         }
+        parentHhIndex.removeCompletedHouseholds(parentHhs);
 
-        Log.debug("Children with no suitable primary family in any eligible household: " + knownChildren.size());
+        Log.debug("Children with no suitable primary family in any eligible household: {}", knownChildren.size());
 
         childItr = knownChildren.iterator();
         while (childItr.hasNext()) {
@@ -683,9 +736,11 @@ public class HouseholdFactory {
             }
         }
 
-        Log.debug("Children with no suitable non-primary families in any eligible household: " + knownChildren.size());
-        Log.debug("Updated households: " + updated);
-        Log.debug("Completed households: " + completed);
+        metrics.increment("Known children added to households", updated);
+        metrics.increment("Known children without a household", knownChildren.size());
+        Log.debug("Children with no suitable non-primary families in any eligible household: {}", knownChildren.size());
+        Log.debug("Updated households: {}", updated);
+        Log.debug("Completed households: {}", completed);
 
     }
 
@@ -702,9 +757,9 @@ public class HouseholdFactory {
                                                                               .getType() == FamilyType.COUPLE_WITH_CHILDREN)
                     && h.getFamily(1).size() + 1 < h.getPrimaryFamily().size()) {
                 List<Person> parents = h.getFamily(1).getParents();
-                if (PopulationRules.validateParentChildAgeRule(parents.get(0).getAgeRange(),
-                                                               (parents.size() == 2) ? parents.get(1).getAgeRange() : null,
-                                                               child.getAgeRange())) {
+                if (ageRule.isValid(parents.get(0).getAgeRange(),
+                                    (parents.size() == 2) ? parents.get(1).getAgeRange() : null,
+                                    child.getAgeRange())) {
                     suitableFamily = h.getFamily(1);
                 }
 
@@ -713,9 +768,9 @@ public class HouseholdFactory {
                                                                               .getType() == FamilyType.COUPLE_WITH_CHILDREN)
                     && h.getFamily(2).size() + 1 < h.getPrimaryFamily().size()) {
                 List<Person> parents = h.getFamily(2).getParents();
-                if (PopulationRules.validateParentChildAgeRule(parents.get(0).getAgeRange(),
-                                                               (parents.size() == 2) ? parents.get(1).getAgeRange() : null,
-                                                               child.getAgeRange())) {
+                if (ageRule.isValid(parents.get(0).getAgeRange(),
+                                    (parents.size() == 2) ? parents.get(1).getAgeRange() : null,
+                                    child.getAgeRange())) {
                     suitableFamily = h.getFamily(2);
                 }
             }
@@ -731,26 +786,26 @@ public class HouseholdFactory {
                                          List<Person> marriedFemales,
                                          List<Person> loneParents,
                                          List<Person> children) {
-        Log.debug("Remaining Extras: " + extrasHandler.remainingExtras());
+        Log.debug("Remaining Extras: {}", extrasHandler.remainingExtras());
         Log.info("Converting unused Lone Parents, Married Males and Married Females to extras");
-        Log.debug("Remaining Married Males: " + marriedMales.size());
-        Log.debug("Remaining Married Females: " + marriedFemales.size());
-        Log.debug("Remaining Lone Parents: " + loneParents.size());
-        Log.debug("Remaining Children: " + children.size());
+        Log.debug("Remaining Married Males: {}", marriedMales.size());
+        Log.debug("Remaining Married Females: {}", marriedFemales.size());
+        Log.debug("Remaining Lone Parents: {}", loneParents.size());
+        Log.debug("Remaining Children: {}", children.size());
 
         extrasHandler.addToExtras(marriedFemales);
         extrasHandler.addToExtras(marriedMales);
         extrasHandler.addToExtras(loneParents);
         extrasHandler.addToExtras(children);
-        Log.debug("Remaining Extras: " + extrasHandler.remainingExtras());
+        Log.debug("Remaining Extras: {}", extrasHandler.remainingExtras());
 
         Log.info("Adding extras to households as children and relatives");
         List<Household> eligible = households.stream()
                                              .filter(h -> h.getExpectedSize() > h.getCurrentSize())
                                              .collect(Collectors.toList());
 
-        Log.debug("All: Eligible households: " + eligible.size());
-        Log.debug("All: Slots to fill: " + eligible.stream().mapToInt(h -> h.getExpectedSize() - h.getCurrentSize()).sum());
+        Log.debug("All: Eligible households: {}", eligible.size());
+        Log.debug(() -> "All: Slots to fill: " + eligible.stream().mapToInt(h -> h.getExpectedSize() - h.getCurrentSize()).sum());
 
         List<IndRecord> relTypes = indRecs.stream()
                                           .filter(r -> r.RELATIONSHIP_STATUS == RelationshipStatus.RELATIVE)
@@ -791,40 +846,15 @@ public class HouseholdFactory {
             }
             updated++;
         }
-        Log.debug("New Children from extras: " + newChildren);
-        Log.debug("New Relatives from extras: " + newRelatives);
-        Log.debug("Updated households: " + updated);
-        Log.debug("Completed households: " + completed);
-        Log.debug("Remaining incomplete households: " + eligible.size());
-        Log.debug("End remaining extras: " + extrasHandler.remainingExtras());
-    }
-
-    /**
-     * Finds a suitable household that the given child can be added. Rule applied here is: a child must come from an age category with at
-     * least a 15 year age gap (younger) to the parent's.
-     *
-     * @param child      The child that needs a family household
-     * @param households The list of households to select from
-     * @return The index of the suitable household. Returns -1 if no suitable household was found
-     */
-    private int selectHouseholdWithSuitablePrimaryFamilyForChild(Person child, List<Household> households) {
-        for (int i = 0; i < households.size(); i++) {
-            Household h = households.get(i);
-            if ((h.getPrimaryFamilyType() == FamilyType.ONE_PARENT || h.getPrimaryFamilyType() == FamilyType
-                    .COUPLE_WITH_CHILDREN)
-                    && h.getExpectedSize() > h.getCurrentSize()) {
-                Family pf = h.getPrimaryFamily();
-
-                List<Person> parents = pf.getParents();
-
-                if (PopulationRules.validateParentChildAgeRule(parents.get(0).getAgeRange(),
-                                                               parents.size() == 2 ? parents.get(1).getAgeRange() : null,
-                                                               child.getAgeRange())) {
-                    return i;
-                }
-            }
-        }
-        return -1;
+        metrics.increment("Extras added to households as children", newChildren);
+        metrics.increment("Extras added to households as relatives", newRelatives);
+        metrics.gauge("Incomplete households", eligible.size());
+        Log.debug("New Children from extras: {}", newChildren);
+        Log.debug("New Relatives from extras: {}", newRelatives);
+        Log.debug("Updated households: {}", updated);
+        Log.debug("Completed households: {}", completed);
+        Log.debug("Remaining incomplete households: {}", eligible.size());
+        Log.debug("End remaining extras: {}", extrasHandler.remainingExtras());
     }
 
     /**
@@ -839,9 +869,123 @@ public class HouseholdFactory {
                          .filter(r -> (r.RELATIONSHIP_STATUS == RelationshipStatus.U15_CHILD
                                  || r.RELATIONSHIP_STATUS == RelationshipStatus.STUDENT
                                  || r.RELATIONSHIP_STATUS == RelationshipStatus.O15_CHILD)
-                                 && (PopulationRules.validateParentChildAgeRule(parents.get(0).getAgeRange(),
-                                                                                parents.size() == 2 ? parents.get(1).getAgeRange() : null,
-                                                                                r.AGE_RANGE)))
+                                 && (ageRule.isValid(parents.get(0).getAgeRange(),
+                                                     parents.size() == 2 ? parents.get(1).getAgeRange() : null,
+                                                     r.AGE_RANGE)))
                          .collect(Collectors.toList());
     }
+
+    /**
+     * Adds the family to the household and records the membership in the registry of the synthesis run.
+     *
+     * @param household The household
+     * @param family    The family to add
+     * @throws Error If the family is already in a household
+     */
+    private void addFamily(Household household, Family family) {
+        if (registry.isInHousehold(family)) {
+            throw new Error("Family " + family.getID() + " is already in a household");
+        }
+        household.addFamily(family);
+        registry.addFamilyToHousehold(family);
+    }
+
+    /**
+     * Index of the parent households that have free slots for children. Households are grouped by the age ranges of the parents in their
+     * primary family, and each group keeps the households in the order of the household list. A child is given the first household in the
+     * list that has a free slot and parents of suitable ages, as a linear scan of the list would, but only the first household of each
+     * group needs to be checked. Whether a group suits a child depends only on the age ranges, so it is computed once for each child age
+     * range.
+     */
+    private static final class ParentHouseholdIndex {
+        private final List<ArrayDeque<Integer>> groups = new ArrayList<>();
+        private final List<AgeRange[]> groupParents = new ArrayList<>();
+        private final Map<AgeRange, List<ArrayDeque<Integer>>> groupsByChildAge = new EnumMap<>(AgeRange.class);
+        private final int[] groupOfHousehold;
+        private final boolean[] removed;
+        private final ParentChildAgeRule ageRule;
+
+        /**
+         * @param parentHhs Households with a primary family that can have children, in the order they should be filled
+         * @param ageRule   The parent child age rule
+         */
+        ParentHouseholdIndex(List<Household> parentHhs, ParentChildAgeRule ageRule) {
+            this.ageRule = ageRule;
+            groupOfHousehold = new int[parentHhs.size()];
+            removed = new boolean[parentHhs.size()];
+            Map<List<AgeRange>, Integer> groupIds = new HashMap<>();
+            for (int i = 0; i < parentHhs.size(); i++) {
+                Household h = parentHhs.get(i);
+                groupOfHousehold[i] = -1;
+                if (h.getExpectedSize() <= h.getCurrentSize()) {
+                    continue; // No free slots, so never selected
+                }
+                List<Person> parents = h.getPrimaryFamily().getParents();
+                AgeRange parent1 = parents.get(0).getAgeRange();
+                AgeRange parent2 = parents.size() == 2 ? parents.get(1).getAgeRange() : null;
+                int group = groupIds.computeIfAbsent(Arrays.asList(parent1, parent2), k -> {
+                    groups.add(new ArrayDeque<>());
+                    groupParents.add(new AgeRange[]{parent1, parent2});
+                    return groups.size() - 1;
+                });
+                groups.get(group).add(i);
+                groupOfHousehold[i] = group;
+            }
+        }
+
+        /**
+         * Finds the first household that has a free slot and a primary family whose parents suit the child according to the parent child
+         * age rule.
+         *
+         * @param child The child that needs a family household
+         * @return The index of the household in the household list. Returns -1 if no suitable household was found
+         */
+        int selectHouseholdForChild(Person child) {
+            int selected = -1;
+            for (ArrayDeque<Integer> group : groupsByChildAge.computeIfAbsent(child.getAgeRange(), this::suitableGroups)) {
+                Integer first = group.peekFirst();
+                if (first != null && (selected < 0 || first < selected)) {
+                    selected = first;
+                }
+            }
+            return selected;
+        }
+
+        /**
+         * Removes a completed household from the index. Only the household returned by {@link #selectHouseholdForChild(Person)} can be
+         * removed.
+         *
+         * @param hhIndex The index of the household in the household list
+         */
+        void remove(int hhIndex) {
+            groups.get(groupOfHousehold[hhIndex]).pollFirst();
+            removed[hhIndex] = true;
+        }
+
+        /**
+         * Removes the households completed while the index was used from the household list. The remaining households keep their order.
+         *
+         * @param parentHhs The household list the index was created from
+         */
+        void removeCompletedHouseholds(List<Household> parentHhs) {
+            List<Household> remaining = new ArrayList<>(parentHhs.size());
+            for (int i = 0; i < parentHhs.size(); i++) {
+                if (!removed[i]) {
+                    remaining.add(parentHhs.get(i));
+                }
+            }
+            parentHhs.clear();
+            parentHhs.addAll(remaining);
+        }
+
+        private List<ArrayDeque<Integer>> suitableGroups(AgeRange childAge) {
+            List<ArrayDeque<Integer>> suitable = new ArrayList<>();
+            for (int g = 0; g < groups.size(); g++) {
+                if (ageRule.isValid(groupParents.get(g)[0], groupParents.get(g)[1], childAge)) {
+                    suitable.add(groups.get(g));
+                }
+            }
+            return suitable;
+        }
+    }
 }
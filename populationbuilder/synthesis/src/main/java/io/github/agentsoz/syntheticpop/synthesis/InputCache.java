@@ -0,0 +1,365 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import io.github.agentsoz.syntheticpop.filemanager.FileUtils;
+import io.github.agentsoz.syntheticpop.synthesis.models.*;
+import io.github.agentsoz.syntheticpop.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * A cache of parsed input files. The first time an input file is read its records are parsed by {@link DataReader} and saved in a compact
+ * binary snapshot named after the SHA-256 hash of the file contents. Later runs with the same input find the snapshot and memory-map it
+ * instead of inflating and parsing the csv file, so repeated runs over the same inputs, such as parameter sweeps, skip parsing. Editing an
+ * input file changes its hash, so a stale snapshot is never used. A snapshot that cannot be read is ignored and rewritten.
+ * <p>
+ * The cache is disabled if the cache directory is null, in which case the files are always parsed.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+class InputCache {
+
+    /**
+     * The cache that always parses the input files
+     */
+    static final InputCache DISABLED = new InputCache(null);
+
+    private static final int MAGIC = 0x53504331; // "SPC1"
+    /**
+     * Increment when the snapshot layout changes, so snapshots of an older layout are not read
+     */
+    private static final int VERSION = 1;
+    private static final byte NONE = -1;
+
+    private final Path cacheDirectory;
+
+    /**
+     * @param cacheDirectory The directory to save the snapshots in, or null to disable the cache
+     */
+    InputCache(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Same as {@link DataReader#readHouseholdRecords(Path)}, but reads the records from the cache if they are there
+     *
+     * @param hhFile The household types file
+     * @return The household records grouped by SA
+     * @throws IOException If reading the input file fails
+     */
+    Map<String, List<HhRecord>> readHouseholdRecords(Path hhFile) throws IOException {
+        Path snapshot = snapshotOf("households", hhFile, "");
+        if (snapshot != null) {
+            Map<String, List<HhRecord>> cached = load(snapshot, InputCache::decodeHouseholdRecords);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Map<String, List<HhRecord>> hhRecs = DataReader.readHouseholdRecords(hhFile);
+        if (snapshot != null) {
+            save(snapshot, out -> encodeHouseholdRecords(hhRecs, out));
+        }
+        return hhRecs;
+    }
+
+    /**
+     * Same as {@link DataReader#readPersonRecords(Path)}, but reads the records from the cache if they are there
+     *
+     * @param indFile The person types file
+     * @return The person records grouped by SA
+     * @throws IOException If reading the input file fails
+     */
+    Map<String, List<IndRecord>> readPersonRecords(Path indFile) throws IOException {
+        Path snapshot = snapshotOf("persons", indFile, "");
+        if (snapshot != null) {
+            Map<String, List<IndRecord>> cached = load(snapshot, InputCache::decodePersonRecords);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Map<String, List<IndRecord>> indRecs = DataReader.readPersonRecords(indFile);
+        if (snapshot != null) {
+            save(snapshot, out -> encodePersonRecords(indRecs, out));
+        }
+        return indRecs;
+    }
+
+    /**
+     * Same as {@link DataReader#readAgeDistribution(Map)}, but reads the distributions from the cache if they are there. The snapshot key
+     * includes the file parameters, so the same file read with different row or column settings is cached separately.
+     *
+     * @param params The age distribution file parameters
+     * @return Age distributions by SA2 name
+     * @throws IOException If reading the input file fails
+     */
+    Map<String, List<Double>> readAgeDistribution(Map<String, String> params) throws IOException {
+        Path snapshot = snapshotOf("ages", Paths.get(params.get("FileName")), new TreeMap<>(params).toString());
+        if (snapshot != null) {
+            Map<String, List<Double>> cached = load(snapshot, InputCache::decodeAgeDistribution);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Map<String, List<Double>> ageDist = DataReader.readAgeDistribution(params);
+        if (snapshot != null) {
+            save(snapshot, out -> encodeAgeDistribution(ageDist, out));
+        }
+        return ageDist;
+    }
+
+    /**
+     * Finds the snapshot file of an input file
+     *
+     * @param kind      The kind of records in the file
+     * @param inputFile The input file
+     * @param extraKey  Parameters that change how the input file is read
+     * @return The snapshot file, or null if the cache is disabled or the input file does not exist
+     * @throws IOException If reading the input file fails
+     */
+    private Path snapshotOf(String kind, Path inputFile, String extraKey) throws IOException {
+        if (cacheDirectory == null || !Files.isRegularFile(inputFile)) {
+            return null;
+        }
+        String fileHash = FileUtils.sha256(inputFile);
+        String key = extraKey.isEmpty() ? fileHash : FileUtils.sha256(fileHash + extraKey);
+        return cacheDirectory.resolve(kind + "-" + key + ".bin");
+    }
+
+    private interface Decoder<T> {
+        T decode(ByteBuffer in);
+    }
+
+    private interface Encoder {
+        void encode(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Memory-maps and decodes a snapshot
+     *
+     * @param snapshot The snapshot file
+     * @param decoder  Decodes the records after the header
+     * @return The decoded records, or null if there is no valid snapshot
+     */
+    private <T> T load(Path snapshot, Decoder<T> decoder) {
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                Log.warn("Ignoring input cache file of an unknown format: " + snapshot);
+                return null;
+            }
+            T records = decoder.decode(in);
+            if (in.hasRemaining()) {
+                throw new IllegalStateException("unexpected data at the end");
+            }
+            Log.debug("Read cached input {}", snapshot);
+            return records;
+        } catch (IOException | BufferUnderflowException | BufferOverflowException | IllegalStateException |
+                IndexOutOfBoundsException | NegativeArraySizeException e) {
+            Log.warn("Ignoring unreadable input cache file " + snapshot + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a snapshot. The snapshot is written to a temporary file first and then moved into place, so a reader never sees a partial
+     * snapshot. A failure to write the cache is logged but is not an error, because the records are already parsed.
+     *
+     * @param snapshot The snapshot file
+     * @param encoder  Encodes the records after the header
+     */
+    private void save(Path snapshot, Encoder encoder) {
+        Path temp = null;
+        try {
+            Files.createDirectories(cacheDirectory);
+            temp = Files.createTempFile(cacheDirectory, snapshot.getFileName().toString(), ".tmp");
+            try (OutputStream os = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                encoder.encode(out);
+            }
+            try {
+                Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Log.debug("Saved input cache {}", snapshot);
+        } catch (IOException e) {
+            Log.warn("Could not save input cache file " + snapshot + ": " + e);
+            try {
+                if (temp != null) {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException ignored) {
+                // Nothing more to do, the temporary file is never read
+            }
+        }
+    }
+
+    private static void encodeHouseholdRecords(Map<String, List<HhRecord>> hhRecs, DataOutputStream out) throws IOException {
+        out.writeInt(hhRecs.size());
+        for (Map.Entry<String, List<HhRecord>> sa : hhRecs.entrySet()) {
+            writeString(sa.getKey(), out);
+            out.writeInt(sa.getValue().size());
+            for (HhRecord r : sa.getValue()) {
+                out.writeInt(r.NUM_OF_PERSONS_PER_HH);
+                out.writeByte(r.FAMILY_HOUSEHOLD_TYPE == null ? NONE : r.FAMILY_HOUSEHOLD_TYPE.getFamilyCount());
+                out.writeByte(r.FAMILY_HOUSEHOLD_TYPE == null ? NONE : r.FAMILY_HOUSEHOLD_TYPE.getFamilyType().ordinal());
+                out.writeInt(r.HH_COUNT);
+                writeNullableString(r.SA, out);
+            }
+        }
+    }
+
+    private static Map<String, List<HhRecord>> decodeHouseholdRecords(ByteBuffer in) {
+        FamilyType[] familyTypes = FamilyType.values();
+        int saCount = in.getInt();
+        Map<String, List<HhRecord>> hhRecs = new LinkedHashMap<>();
+        for (int s = 0; s < saCount; s++) {
+            String sa = readString(in);
+            int recCount = in.getInt();
+            List<HhRecord> recs = new ArrayList<>(Math.min(recCount, in.remaining()));
+            for (int i = 0; i < recCount; i++) {
+                int nofPersons = in.getInt();
+                int familyCount = in.get();
+                int familyType = in.get();
+                int hhCount = in.getInt();
+                recs.add(new HhRecord(nofPersons,
+                                      familyCount,
+                                      familyType == NONE ? null : familyTypes[familyType],
+                                      hhCount,
+                                      readNullableString(in)));
+            }
+            hhRecs.put(sa, recs);
+        }
+        return hhRecs;
+    }
+
+    private static void encodePersonRecords(Map<String, List<IndRecord>> indRecs, DataOutputStream out) throws IOException {
+        out.writeInt(indRecs.size());
+        for (Map.Entry<String, List<IndRecord>> sa : indRecs.entrySet()) {
+            writeString(sa.getKey(), out);
+            out.writeInt(sa.getValue().size());
+            for (IndRecord r : sa.getValue()) {
+                out.writeByte(r.RELATIONSHIP_STATUS == null ? NONE : r.RELATIONSHIP_STATUS.ordinal());
+                out.writeByte(r.SEX == null ? NONE : r.SEX.ordinal());
+                out.writeByte(r.AGE_RANGE == null ? NONE : r.AGE_RANGE.ordinal());
+                out.writeInt(r.IND_COUNT);
+                writeNullableString(r.SA, out);
+            }
+        }
+    }
+
+    private static Map<String, List<IndRecord>> decodePersonRecords(ByteBuffer in) {
+        RelationshipStatus[] relStatuses = RelationshipStatus.values();
+        Sex[] sexes = Sex.values();
+        AgeRange[] ageRanges = AgeRange.values();
+        int saCount = in.getInt();
+        Map<String, List<IndRecord>> indRecs = new LinkedHashMap<>();
+        for (int s = 0; s < saCount; s++) {
+            String sa = readString(in);
+            int recCount = in.getInt();
+            List<IndRecord> recs = new ArrayList<>(Math.min(recCount, in.remaining()));
+            for (int i = 0; i < recCount; i++) {
+                int relStatus = in.get();
+                int sex = in.get();
+                int ageRange = in.get();
+                int count = in.getInt();
+                recs.add(new IndRecord(relStatus == NONE ? null : relStatuses[relStatus],
+                                       sex == NONE ? null : sexes[sex],
+                                       ageRange == NONE ? null : ageRanges[ageRange],
+                                       count,
+                                       readNullableString(in)));
+            }
+            indRecs.put(sa, recs);
+        }
+        return indRecs;
+    }
+
+    private static void encodeAgeDistribution(Map<String, List<Double>> ageDist, DataOutputStream out) throws IOException {
+        out.writeInt(ageDist.size());
+        for (Map.Entry<String, List<Double>> sa : ageDist.entrySet()) {
+            writeString(sa.getKey(), out);
+            out.writeInt(sa.getValue().size());
+            for (Double d : sa.getValue()) {
+                out.writeDouble(d);
+            }
+        }
+    }
+
+    private static Map<String, List<Double>> decodeAgeDistribution(ByteBuffer in) {
+        int saCount = in.getInt();
+        Map<String, List<Double>> ageDist = new HashMap<>();
+        for (int s = 0; s < saCount; s++) {
+            String sa = readString(in);
+            int ages = in.getInt();
+            List<Double> dist = new ArrayList<>(Math.min(ages, in.remaining()));
+            for (int i = 0; i < ages; i++) {
+                dist.add(in.getDouble());
+            }
+            ageDist.put(sa, dist);
+        }
+        return ageDist;
+    }
+
+    private static void writeString(String s, DataOutputStream out) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableString(String s, DataOutputStream out) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) {
+            writeString(s, out);
+        }
+    }
+
+    private static String readNullableString(ByteBuffer in) {
+        return in.get() != 0 ? readString(in) : null;
+    }
+}
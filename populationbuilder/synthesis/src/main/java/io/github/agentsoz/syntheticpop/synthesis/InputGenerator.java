@@ -0,0 +1,432 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import io.github.agentsoz.syntheticpop.filemanager.csv.CSVRowWriter;
+import io.github.agentsoz.syntheticpop.filemanager.zip.Zip;
+import io.github.agentsoz.syntheticpop.util.ConfigProperties;
+import io.github.agentsoz.syntheticpop.util.GlobalConstants;
+import io.github.agentsoz.syntheticpop.util.Log;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Generates SA2 input files of any population size for scale testing. A generated SA2 is made of whole copies of template SA2s: the
+ * household types, person types and SA1 household types counts of the copies are added up, so the generated files are as consistent with
+ * each other as the files of the templates are. Scaling the counts by a fraction would not keep them consistent, e.g. the number of lone
+ * persons would no longer match the number of lone person households after rounding. The copies are chosen from the largest template down
+ * to get close to the requested size, so templates of different sizes give a closer match.
+ * <p>
+ * The age distribution of a generated SA2 is the average of the template distributions weighted by the persons of the copies. The age
+ * distribution and SA2 codes files of the generated SA2s are written alongside, with a properties file to synthesise them.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+public class InputGenerator {
+
+    static final String SA2_DIRECTORY = "SA2";
+    static final String HOUSEHOLD_TYPES_FILE = "household_types.csv.gz";
+    static final String PERSON_TYPES_FILE = "person_types.csv.gz";
+    static final String SA1_HOUSEHOLD_TYPES_FILE = "sa1_household_types.csv.gz";
+    static final String AGE_DISTRIBUTION_FILE = "age_distribution.csv";
+    static final String SA2_CODES_FILE = "sa2_codes.csv";
+    static final String SA2_CODES_ZIP = "sa2_codes.zip";
+    static final String SA2_NAME_COLUMN = "SA2_NAME_2016";
+    static final String SA2_CODE_COLUMN = "SA2_MAINCODE_2016";
+
+    private static final int HOUSEHOLDS_COUNT_COLUMN = 3;
+    private static final int PERSONS_COUNT_COLUMN = 4;
+    private static final int FIRST_SA1_COLUMN = 3;
+
+    private final List<Template> templates = new ArrayList<>();
+    private final Map<String, List<Double>> ageDistributions = new LinkedHashMap<>();
+    private final Map<String, String> sa2Codes = new LinkedHashMap<>();
+
+    /**
+     * @param templateInputDirectory The input directory of the template SA2s
+     * @param templateSA2s           The names of the template SA2s
+     * @param ageDistributions       The age distributions by SA2, which must have the template SA2s
+     * @throws IOException If the template files cannot be read
+     */
+    InputGenerator(Path templateInputDirectory, List<String> templateSA2s, Map<String, List<Double>> ageDistributions) throws IOException {
+        for (String sa2 : templateSA2s) {
+            if (ageDistributions.get(sa2) == null) {
+                throw new IllegalArgumentException("No age distribution for template SA2 " + sa2);
+            }
+            Template template = new Template(templateInputDirectory.resolve(sa2).resolve("preprocessed"), ageDistributions.get(sa2));
+            if (template.persons > 0) {
+                templates.add(template);
+            }
+        }
+        if (templates.isEmpty()) {
+            throw new IllegalArgumentException("There are no template SA2s with persons");
+        }
+        templates.sort(Comparator.comparingLong((Template t) -> t.persons).reversed());
+    }
+
+    /**
+     * @return True if all templates have the SA1 household types file, so the generated SA2s have it too
+     */
+    boolean hasSA1Distribution() {
+        return templates.stream().allMatch(t -> t.sa1HouseholdTypes != null);
+    }
+
+    /**
+     * Chooses the number of copies of each template so that the total persons is close to the requested size. Copies of the largest
+     * templates are taken first, and one more copy of the smallest template is added if that is closer.
+     *
+     * @param persons The requested number of persons
+     * @return The number of copies of each template, in the order of {@link #templates}
+     */
+    int[] copies(long persons) {
+        int[] copies = new int[templates.size()];
+        long remaining = persons;
+        for (int i = 0; i < templates.size(); i++) {
+            copies[i] = (int) (remaining / templates.get(i).persons);
+            remaining -= copies[i] * templates.get(i).persons;
+        }
+        int smallest = templates.size() - 1;
+        if (remaining * 2 > templates.get(smallest).persons || remaining == persons) {
+            copies[smallest]++;
+        }
+        return copies;
+    }
+
+    /**
+     * Writes the household types, person types and SA1 household types files of an SA2 named Synthetic&lt;persons&gt; to
+     * &lt;outputDirectory&gt;/SA2/&lt;name&gt;/preprocessed.
+     *
+     * @param outputDirectory The output directory
+     * @param persons         The requested number of persons in the SA2
+     * @return The name of the generated SA2
+     * @throws IOException If writing the files fails
+     */
+    String generate(Path outputDirectory, long persons) throws IOException {
+        String sa2 = "Synthetic" + persons;
+        String sa2Code = String.format("9%08d", sa2Codes.size() + 1);
+        Path preprocessed = outputDirectory.resolve(SA2_DIRECTORY).resolve(sa2).resolve("preprocessed");
+        Files.createDirectories(preprocessed);
+
+        int[] copies = copies(persons);
+        Map<List<String>, Long> personTypes = new LinkedHashMap<>();
+        Map<List<String>, Long> householdTypes = new LinkedHashMap<>();
+        long generatedPersons = 0;
+        double[] ageDistribution = new double[templates.get(0).ageDistribution.size()];
+        for (int i = 0; i < templates.size(); i++) {
+            Template template = templates.get(i);
+            add(personTypes, template.personTypes, PERSONS_COUNT_COLUMN, copies[i]);
+            add(householdTypes, template.householdTypes, HOUSEHOLDS_COUNT_COLUMN, copies[i]);
+            generatedPersons += copies[i] * template.persons;
+            for (int age = 0; age < ageDistribution.length; age++) {
+                ageDistribution[age] += template.ageDistribution.get(age) * copies[i] * template.persons;
+            }
+        }
+        List<Double> weightedAgeDistribution = new ArrayList<>(ageDistribution.length);
+        for (double percentage : ageDistribution) {
+            weightedAgeDistribution.add(percentage / generatedPersons);
+        }
+
+        writeCounts(preprocessed.resolve(PERSON_TYPES_FILE), templates.get(0).personTypes.get(0), sa2, personTypes);
+        writeCounts(preprocessed.resolve(HOUSEHOLD_TYPES_FILE), templates.get(0).householdTypes.get(0), sa2, householdTypes);
+        if (hasSA1Distribution()) {
+            writeSA1HouseholdTypes(preprocessed.resolve(SA1_HOUSEHOLD_TYPES_FILE), sa2, sa2Code, copies);
+        }
+        sa2Codes.put(sa2, sa2Code);
+        ageDistributions.put(sa2, weightedAgeDistribution);
+        Log.info("Generated " + sa2 + " with " + generatedPersons + " persons and " + householdTypes.values()
+                                                                                                   .stream()
+                                                                                                   .mapToLong(Long::longValue)
+                                                                                                   .sum() + " households");
+        return sa2;
+    }
+
+    /**
+     * Adds the counts of the rows to the counts of the same household or person types, which are the values of the columns between the
+     * SA column and the count column.
+     */
+    private static void add(Map<List<String>, Long> counts, List<CSVRecord> rows, int countColumn, int copies) {
+        for (int r = 1; r < rows.size(); r++) {
+            CSVRecord rec = rows.get(r);
+            List<String> type = new ArrayList<>(countColumn - 1);
+            for (int c = 1; c < countColumn; c++) {
+                type.add(rec.get(c));
+            }
+            counts.merge(type, (long) copies * Integer.parseInt(rec.get(countColumn)), Long::sum);
+        }
+    }
+
+    private static void writeCounts(Path file, CSVRecord header, String sa2, Map<List<String>, Long> counts) throws IOException {
+        try (CSVRowWriter writer = CSVRowWriter.gzip(file)) {
+            Object[] row = new Object[header.size()];
+            for (int c = 0; c < row.length; c++) {
+                row[c] = header.get(c);
+            }
+            writer.writeRow(row);
+            for (Map.Entry<List<String>, Long> type : counts.entrySet()) {
+                row[0] = sa2;
+                for (int c = 0; c < type.getKey().size(); c++) {
+                    row[c + 1] = type.getKey().get(c);
+                }
+                row[row.length - 1] = type.getValue();
+                writer.writeRow(row);
+            }
+        }
+    }
+
+    /**
+     * Writes the SA1 household types file. Each copy of a template adds the SA1s of the template with new SA1 codes.
+     */
+    private void writeSA1HouseholdTypes(Path file, String sa2, String sa2Code, int[] copies) throws IOException {
+        // The household types of all templates, and the column of each generated SA1 in its template
+        Set<List<String>> types = new LinkedHashSet<>();
+        List<Template> sa1Templates = new ArrayList<>();
+        List<Integer> sa1Columns = new ArrayList<>();
+        for (int i = 0; i < templates.size(); i++) {
+            Template template = templates.get(i);
+            for (int r = 1; r < template.sa1HouseholdTypes.size(); r++) {
+                types.add(Arrays.asList(template.sa1HouseholdTypes.get(r).get(1), template.sa1HouseholdTypes.get(r).get(2)));
+            }
+            for (int copy = 0; copy < copies[i]; copy++) {
+                for (int c = FIRST_SA1_COLUMN; c < template.sa1HouseholdTypes.get(0).size(); c++) {
+                    sa1Templates.add(template);
+                    sa1Columns.add(c);
+                }
+            }
+        }
+
+        CSVRecord header = templates.get(0).sa1HouseholdTypes.get(0);
+        Object[] row = new Object[FIRST_SA1_COLUMN + sa1Columns.size()];
+        try (CSVRowWriter writer = CSVRowWriter.gzip(file)) {
+            for (int c = 0; c < FIRST_SA1_COLUMN; c++) {
+                row[c] = header.get(c);
+            }
+            for (int s = 0; s < sa1Columns.size(); s++) {
+                row[FIRST_SA1_COLUMN + s] = sa2Code + String.format("%05d", s + 1);
+            }
+            writer.writeRow(row);
+
+            for (List<String> type : types) {
+                row[0] = sa2;
+                row[1] = type.get(0);
+                row[2] = type.get(1);
+                for (int s = 0; s < sa1Columns.size(); s++) {
+                    CSVRecord rec = sa1Templates.get(s).sa1Rows.get(type);
+                    row[FIRST_SA1_COLUMN + s] = rec == null ? "0" : rec.get(sa1Columns.get(s));
+                }
+                writer.writeRow(row);
+            }
+        }
+    }
+
+    /**
+     * Writes the age distribution of the generated SA2s. It has a row of SA2 names followed by a row for each age, so it is read with
+     * AgeColumn:0,SANamesRow:0.
+     *
+     * @param file The file to write
+     * @throws IOException If writing fails
+     */
+    void writeAgeDistribution(Path file) throws IOException {
+        try (CSVRowWriter writer = new CSVRowWriter(Files.newBufferedWriter(file))) {
+            Object[] row = new Object[ageDistributions.size() + 1];
+            row[0] = "Age";
+            int c = 1;
+            for (String sa2 : ageDistributions.keySet()) {
+                row[c++] = sa2;
+            }
+            writer.writeRow(row);
+            int ages = templates.get(0).ageDistribution.size();
+            for (int age = 0; age < ages; age++) {
+                row[0] = age;
+                c = 1;
+                for (List<Double> distribution : ageDistributions.values()) {
+                    // Plain decimals, because the reader does not accept the exponent notation of Double.toString
+                    row[c++] = BigDecimal.valueOf(distribution.get(age)).toPlainString();
+                }
+                writer.writeRow(row);
+            }
+        }
+    }
+
+    /**
+     * Writes the SA2 names and codes of the generated SA2s to a zip file in the format of the ABS SA2 codes file.
+     *
+     * @param zipFile The file to write
+     * @throws IOException If writing fails
+     */
+    void writeSA2Codes(Path zipFile) throws IOException {
+        Path csvFile = zipFile.resolveSibling(SA2_CODES_FILE);
+        try (CSVRowWriter writer = new CSVRowWriter(Files.newBufferedWriter(csvFile))) {
+            writer.writeRow(SA2_CODE_COLUMN, SA2_NAME_COLUMN);
+            for (Map.Entry<String, String> sa2 : sa2Codes.entrySet()) {
+                writer.writeRow(sa2.getValue(), sa2.getKey());
+            }
+        }
+        Files.deleteIfExists(zipFile);
+        try {
+            Zip.archiveFiles(zipFile, Collections.singletonList(csvFile), true);
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Writes a properties file to synthesise the generated SA2s, with the other settings as in population.properties
+     *
+     * @param file            The properties file
+     * @param outputDirectory The output directory of the generator
+     * @throws IOException If writing fails
+     */
+    void writeProperties(Path file, Path outputDirectory) throws IOException {
+        Path dir = outputDirectory.toAbsolutePath().normalize();
+        List<String> lines = Arrays.asList(
+                "#Synthesises the SA2s generated by InputGenerator",
+                "RandomSeed=58455245456",
+                "InputDirectory=" + dir.resolve(SA2_DIRECTORY) + File.separator,
+                "OutputDirectory=" + dir.resolve(SA2_DIRECTORY) + File.separator,
+                "AnalysisDirectory=" + dir.resolve("analysis") + File.separator,
+                "SAList=" + String.join(",", sa2Codes.keySet()),
+                "AgeDistributionFile=FileName:" + dir.resolve(AGE_DISTRIBUTION_FILE) + ",AgeColumn:0,SANamesRow:0",
+                "NonPrimaryCoupleWithChildProbability=0.2",
+                "ParentChildAgeGap=Min:15,Max:45",
+                "SACodesZip=" + dir.resolve(SA2_CODES_ZIP),
+                "SAReferenceColumnHeader=" + SA2_NAME_COLUMN,
+                "SATargetColumnHeader=" + SA2_CODE_COLUMN,
+                "EnableSummaryReports=true",
+                "DoSA1=" + hasSA1Distribution(),
+                "SA1HhDistFileProperties=FileName:" + SA1_HOUSEHOLD_TYPES_FILE + ",NumberOfPersonsColumn:1,FamilyHouseholdTypeColumn:2",
+                "SynthesisThreads=1",
+                "LogLevel=Info");
+        Files.write(file, lines);
+    }
+
+    private static List<CSVRecord> readRows(Path gzipCsvFile) throws IOException {
+        try (CSVParser parser = new CSVParser(new InputStreamReader(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(
+                gzipCsvFile)))), CSVFormat.EXCEL.withSkipHeaderRecord(false))) {
+            return parser.getRecords();
+        }
+    }
+
+    /**
+     * The preprocessed files of a template SA2
+     */
+    private static final class Template {
+        final List<CSVRecord> householdTypes;
+        final List<CSVRecord> personTypes;
+        final List<CSVRecord> sa1HouseholdTypes;
+        final Map<List<String>, CSVRecord> sa1Rows = new HashMap<>();
+        final List<Double> ageDistribution;
+        final long persons;
+
+        Template(Path preprocessed, List<Double> ageDistribution) throws IOException {
+            this.householdTypes = readRows(preprocessed.resolve(HOUSEHOLD_TYPES_FILE));
+            this.personTypes = readRows(preprocessed.resolve(PERSON_TYPES_FILE));
+            Path sa1File = preprocessed.resolve(SA1_HOUSEHOLD_TYPES_FILE);
+            this.sa1HouseholdTypes = Files.exists(sa1File) ? readRows(sa1File) : null;
+            if (sa1HouseholdTypes != null) {
+                for (int r = 1; r < sa1HouseholdTypes.size(); r++) {
+                    sa1Rows.put(Arrays.asList(sa1HouseholdTypes.get(r).get(1), sa1HouseholdTypes.get(r).get(2)), sa1HouseholdTypes.get(r));
+                }
+            }
+            this.ageDistribution = ageDistribution;
+            long p = 0;
+            for (int r = 1; r < personTypes.size(); r++) {
+                p += Integer.parseInt(personTypes.get(r).get(PERSONS_COUNT_COLUMN));
+            }
+            this.persons = p;
+        }
+    }
+
+    private static void usage() {
+        System.out.println("Usage: java -cp synthesis.jar io.github.agentsoz.syntheticpop.synthesis.InputGenerator <properties file>");
+        System.out.println("This program generates synthetic SA2 input files of the specified population sizes from the input files of "
+                                   + "template SA2s");
+        System.exit(0);
+    }
+
+    public static void main(String[] args) {
+        Log.createLogger("InputGenerator", "InputGenerator.log");
+
+        ConfigProperties props = null;
+        try {
+            props = new ConfigProperties(args[0]);
+        } catch (Exception e) {
+            usage();
+        }
+
+        Path templateInputDirectory = props.readFileOrDirectoryPath("TemplateInputDirectory");
+        Map<String, String> ageDistributionParams = props.readKeyValuePairs("AgeDistributionFile");
+        Path outputDirectory = props.readFileOrDirectoryPath("OutputDirectory");
+
+        List<Long> sizes = new ArrayList<>();
+        try {
+            for (String size : props.readCommaSepProperties("PopulationSizes")) {
+                sizes.add(Long.parseLong(size.trim()));
+            }
+        } catch (NumberFormatException e) {
+            Log.errorAndExit("Invalid PopulationSizes: " + e.getMessage(), GlobalConstants.ExitCode.USERINPUT);
+        }
+        if (sizes.stream().anyMatch(s -> s < 1)) {
+            Log.errorAndExit("PopulationSizes must be positive", GlobalConstants.ExitCode.USERINPUT);
+        }
+
+        try {
+            List<String> templateSA2s = null;
+            try {
+                templateSA2s = props.getSAList("TemplateSAList", templateInputDirectory);
+            } catch (IOException e) {
+                Log.errorAndExit("Cannot read SA list from " + props.getProperty("TemplateSAList"), GlobalConstants.ExitCode.USERINPUT);
+            }
+            templateSA2s.replaceAll(String::trim);
+
+            InputGenerator generator = null;
+            try {
+                generator = new InputGenerator(templateInputDirectory, templateSA2s, DataReader.readAgeDistribution(ageDistributionParams));
+            } catch (IllegalArgumentException e) {
+                Log.errorAndExit(e.getMessage(), GlobalConstants.ExitCode.USERINPUT);
+            }
+            for (long size : sizes) {
+                generator.generate(outputDirectory, size);
+            }
+            generator.writeAgeDistribution(outputDirectory.resolve(AGE_DISTRIBUTION_FILE));
+            generator.writeSA2Codes(outputDirectory.resolve(SA2_CODES_ZIP));
+            Path properties = outputDirectory.resolve("population.properties");
+            generator.writeProperties(properties, outputDirectory);
+            Log.info("Synthesise the generated SA2s with: java -jar synthesis.jar " + properties);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
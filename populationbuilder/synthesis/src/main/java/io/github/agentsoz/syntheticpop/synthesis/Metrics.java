@@ -0,0 +1,139 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import io.github.agentsoz.syntheticpop.util.LambdaCheckedException.ThrowingRunnable;
+import io.github.agentsoz.syntheticpop.util.LambdaCheckedException.ThrowingSupplier;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timers, counters and gauges recorded while synthesising one SA2. Timers add up the time and number of runs of a stage, counters add up
+ * the number of things a stage did, e.g. the children added to households, and gauges keep the last value set, e.g. the number of
+ * persons formed. A registry is used by the thread synthesising the SA2, so it is not synchronised. The values are written to the
+ * performance report in the order the names are first recorded.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+final class Metrics {
+
+    private final Map<String, Timer> timers = new LinkedHashMap<>();
+    private final Map<String, Long> counters = new LinkedHashMap<>();
+    private final Map<String, Long> gauges = new LinkedHashMap<>();
+
+    /**
+     * Runs a stage and records its time, also when the stage throws
+     *
+     * @param timer The name of the timer
+     * @param stage The stage
+     * @param <T>   The type of the result of the stage
+     * @param <E>   The exception the stage throws
+     * @return The result of the stage
+     * @throws E If the stage throws
+     */
+    <T, E extends Exception> T time(String timer, ThrowingSupplier<T, E> stage) throws E {
+        long start = System.nanoTime();
+        try {
+            return stage.get();
+        } finally {
+            record(timer, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Runs a stage and records its time, also when the stage throws
+     *
+     * @param timer The name of the timer
+     * @param stage The stage
+     * @param <E>   The exception the stage throws
+     * @throws E If the stage throws
+     */
+    <E extends Exception> void time(String timer, ThrowingRunnable<E> stage) throws E {
+        long start = System.nanoTime();
+        try {
+            stage.run();
+        } finally {
+            record(timer, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @param timer The name of the timer
+     * @param nanos The time of one run of the stage
+     */
+    void record(String timer, long nanos) {
+        Timer t = timers.computeIfAbsent(timer, k -> new Timer());
+        t.count++;
+        t.nanos += nanos;
+    }
+
+    /**
+     * @param counter The name of the counter
+     * @param delta   The value to add
+     */
+    void increment(String counter, long delta) {
+        counters.merge(counter, delta, Long::sum);
+    }
+
+    /**
+     * @param gauge The name of the gauge
+     * @param value The value
+     */
+    void gauge(String gauge, long value) {
+        gauges.put(gauge, value);
+    }
+
+    Map<String, Timer> timers() {
+        return Collections.unmodifiableMap(timers);
+    }
+
+    Map<String, Long> counters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    Map<String, Long> gauges() {
+        return Collections.unmodifiableMap(gauges);
+    }
+
+    boolean isEmpty() {
+        return timers.isEmpty() && counters.isEmpty() && gauges.isEmpty();
+    }
+
+    /**
+     * The number of runs and the total time of a stage
+     */
+    static final class Timer {
+        private int count;
+        private long nanos;
+
+        int count() {
+            return count;
+        }
+
+        long nanos() {
+            return nanos;
+        }
+    }
+}
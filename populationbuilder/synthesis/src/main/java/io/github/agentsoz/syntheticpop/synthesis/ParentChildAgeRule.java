@@ -0,0 +1,182 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import io.github.agentsoz.syntheticpop.synthesis.models.AgeRange;
+import io.github.agentsoz.syntheticpop.synthesis.models.Person;
+
+/**
+ * The rule that a parent must be between a minimum and a maximum number of years older than the child. The rule is evaluated on plain
+ * integer ages, and the results for age ranges (using the minimum age of each range) are computed once when the rule is created, so
+ * checking the rule does not allocate.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+public final class ParentChildAgeRule {
+
+    /**
+     * The rule used when the age gap is not configured: 15 to 45 years
+     */
+    public static final ParentChildAgeRule DEFAULT = new ParentChildAgeRule(15, 45);
+
+    /**
+     * Passed as the age of the second parent when the family has only one parent
+     */
+    public static final int NO_PARENT = -1;
+
+    private final int minAgeGap;
+    private final int maxAgeGap;
+    private final boolean[][] validByAgeRange; // [parent age range][child age range]
+
+    /**
+     * @param minAgeGap The minimum number of years a parent is older than the child
+     * @param maxAgeGap The maximum number of years a parent is older than the child
+     */
+    public ParentChildAgeRule(int minAgeGap, int maxAgeGap) {
+        if (minAgeGap > maxAgeGap) {
+            throw new IllegalArgumentException("Minimum parent child age gap " + minAgeGap + " is larger than the maximum " + maxAgeGap);
+        }
+        this.minAgeGap = minAgeGap;
+        this.maxAgeGap = maxAgeGap;
+
+        AgeRange[] ageRanges = AgeRange.values();
+        validByAgeRange = new boolean[ageRanges.length][ageRanges.length];
+        for (AgeRange parent : ageRanges) {
+            for (AgeRange child : ageRanges) {
+                validByAgeRange[parent.ordinal()][child.ordinal()] = isValid(parent.min(), child.min());
+            }
+        }
+    }
+
+    /**
+     * Reads the rule from a property value in the format "Min:15,Max:45"
+     *
+     * @param value The property value
+     * @return The rule
+     * @throws IllegalArgumentException If the value is not in the expected format
+     */
+    public static ParentChildAgeRule parse(String value) {
+        Integer min = null, max = null;
+        for (String entry : value.split(",")) {
+            String[] keyValue = entry.split(":");
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Invalid parent child age gap entry: " + entry);
+            }
+            switch (keyValue[0].trim()) {
+                case "Min":
+                    min = Integer.parseInt(keyValue[1].trim());
+                    break;
+                case "Max":
+                    max = Integer.parseInt(keyValue[1].trim());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown parent child age gap key: " + keyValue[0]);
+            }
+        }
+        if (min == null || max == null) {
+            throw new IllegalArgumentException("Parent child age gap must specify Min and Max: " + value);
+        }
+        return new ParentChildAgeRule(min, max);
+    }
+
+    public int minAgeGap() {
+        return minAgeGap;
+    }
+
+    public int maxAgeGap() {
+        return maxAgeGap;
+    }
+
+    /**
+     * @param parentAge The age of the parent
+     * @param childAge  The age of the child
+     * @return True if the age gap is within the limits
+     */
+    public boolean isValid(int parentAge, int childAge) {
+        int ageGap = parentAge - childAge;
+        return minAgeGap <= ageGap && ageGap <= maxAgeGap;
+    }
+
+    /**
+     * @param parent1Age The age of the first parent
+     * @param parent2Age The age of the second parent, or {@link #NO_PARENT}
+     * @param childAge   The age of the child
+     * @return True if the age gaps of both parents are within the limits
+     */
+    public boolean isValid(int parent1Age, int parent2Age, int childAge) {
+        return isValid(parent1Age, childAge) && (parent2Age == NO_PARENT || isValid(parent2Age, childAge));
+    }
+
+    /**
+     * Validates the rule using the minimum age of each age range
+     *
+     * @param parent1 The age range of the first parent. Can be null
+     * @param parent2 The age range of the second parent. Can be null
+     * @param child   The age range of the child
+     * @return True if the age gaps of the given parents are within the limits
+     */
+    public boolean isValid(AgeRange parent1, AgeRange parent2, AgeRange child) {
+        return (parent1 == null || validByAgeRange[parent1.ordinal()][child.ordinal()])
+                && (parent2 == null || validByAgeRange[parent2.ordinal()][child.ordinal()]);
+    }
+
+    /**
+     * Validates the rule using the ages of the parents, or the minimum age of their age range if ages are not assigned yet
+     *
+     * @param parent1  The first parent. Can be null
+     * @param parent2  The second parent. Can be null
+     * @param childAge The age of the child
+     * @return True if the age gaps of the given parents are within the limits
+     */
+    public boolean isValid(Person parent1, Person parent2, int childAge) {
+        return (parent1 == null || isValid(ageOf(parent1), childAge)) && (parent2 == null || isValid(ageOf(parent2), childAge));
+    }
+
+    /**
+     * Validates the rule using the ages of the persons, or the minimum age of their age range if ages are not assigned yet
+     *
+     * @param parent1 The first parent. Can be null
+     * @param parent2 The second parent. Can be null
+     * @param child   The child
+     * @return True if the age gaps of the given parents are within the limits
+     */
+    public boolean isValid(Person parent1, Person parent2, Person child) {
+        return isValid(parent1, parent2, ageOf(child));
+    }
+
+    /**
+     * @param person The person
+     * @return The age of the person, or the minimum age of the person's age range if age is not assigned yet
+     */
+    public static int ageOf(Person person) {
+        return person.getAge() >= 0 ? person.getAge() : person.getAgeRange().min();
+    }
+
+    /**
+     * @return The rule in the format {@link #parse(String)} reads, e.g. "Min:15,Max:45"
+     */
+    @Override
+    public String toString() {
+        return "Min:" + minAgeGap + ",Max:" + maxAgeGap;
+    }
+}
@@ -22,16 +22,14 @@ package io.github.agentsoz.syntheticpop.synthesis;
  * #L%
  */
 
-import com.google.common.util.concurrent.AtomicDouble;
 import io.github.agentsoz.syntheticpop.synthesis.models.AgeRange;
 import io.github.agentsoz.syntheticpop.synthesis.models.Family;
 import io.github.agentsoz.syntheticpop.synthesis.models.Household;
 import io.github.agentsoz.syntheticpop.synthesis.models.Person;
 import io.github.agentsoz.syntheticpop.util.Log;
 
-import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.List;
+import java.util.Random;
 
 /**
  * Handles person level property assignments like Relationships and age
@@ -153,36 +151,43 @@ public class PersonPropertiesHandler {
      * @return The number of agents that were assigned age randomly within their age range because age distribution is empty
      */
     public static int assignAge(List<Person> persons, List<Double> ageDistribution, Random random) {
+        return assignAge(persons, new AgeSamplingTable(ageDistribution), ParentChildAgeRule.DEFAULT, random);
+    }
+
+    /**
+     * Assign age to each person in population, while preserving overall age distribution in population
+     *
+     * @param persons          all persons in the population
+     * @param ageSamplingTable Sampling table of the overall age distribution of the population
+     * @param ageRule          The parent child age rule
+     * @param random           Random number generator instance
+     * @return The number of agents that were assigned age randomly within their age range because age distribution is empty
+     */
+    static int assignAge(List<Person> persons, AgeSamplingTable ageSamplingTable, ParentChildAgeRule ageRule, Random random) {
 
-        int randomAgeAssignments = 0;
+        int randomAgeAssignments = 0, ruleViolations = 0;
+        int[] eligibleAges = new int[2];
         for (Person p : persons) {
-            int[] eligibleAges = getPotentialAges(p);
-            // List of age percentages in this person's age range
-            List<Double> agePercentages = ageDistribution.subList(eligibleAges[0], eligibleAges[1] + 1);
-            double percentagesSum = agePercentages.stream().mapToDouble(e -> e).sum(); // Sum - going to calculate probability
+            if (!getPotentialAges(p, ageRule, eligibleAges)) {
+                ruleViolations++;
+            }
 
-            if (percentagesSum == 0) {
+            if (ageSamplingTable.isEmpty(eligibleAges[0], eligibleAges[1])) {
                 int age = eligibleAges[0] + random.nextInt(eligibleAges[1] + 1 - eligibleAges[0]);
                 p.setAge(age);
                 randomAgeAssignments++;
             } else {
-                // Probability this person falling in each age-year
-                List<Double> ageProbability = agePercentages.stream().map(ap -> ap / percentagesSum).collect(Collectors.toList());
-                AtomicDouble sum = new AtomicDouble(0);// so we can use addAndGet
-                // Get cumulative distribution of age probabilities
-                List<Double> cumAgeProbability = ageProbability.stream().sequential().mapToDouble(sum::addAndGet).boxed().collect(Collectors
-                                                                                                                                          .toList());
-                double ageOffSet = random.nextDouble(); // Deciding age within the age range randomly
-
                 // Find to which age-year this person belongs to and update person
-                for (int i = 0; i < cumAgeProbability.size(); i++) {
-                    if (ageOffSet <= cumAgeProbability.get(i)) {
-                        p.setAge(eligibleAges[0] + i);
-                        break;
-                    }
+                int age = ageSamplingTable.sample(eligibleAges[0], eligibleAges[1], random);
+                if (age >= 0) {
+                    p.setAge(age);
                 }
             }
         }
+        if (ruleViolations > 0) {
+            Log.warn("Number of persons assigned an age that breaks the parent child age rule because no age in the age range satisfies " +
+                             "it: " + ruleViolations);
+        }
         if (randomAgeAssignments > 0) {
             Log.warn("Number of persons assigned a random age because age distribution is empty within the age range: " + randomAgeAssignments);
         }
@@ -190,46 +195,52 @@ public class PersonPropertiesHandler {
     }
 
     /**
-     * Finds the age interval of the person based on the population rules
+     * Finds the age interval of the person based on the population rules. Family members are matched by the minimum age of their age
+     * ranges, so with an age gap narrower than the default one the ages already assigned to the family may leave no age in the range that
+     * satisfies the rule. The whole age range is used in that case.
      *
-     * @param p The person
-     * @return The age interval
+     * @param p            The person
+     * @param ageRule      The parent child age rule
+     * @param eligibleAges The array to store the minimum and maximum eligible ages
+     * @return False if no age in the range satisfies the rule
      */
-    private static int[] getPotentialAges(Person p) {
-
-        List<Integer> eligibleAgeRanges = IntStream.range(p.getAgeRange().min(), p.getAgeRange().max() + 1)
-                                                   .boxed()
-                                                   .collect(Collectors.toList());
+    private static boolean getPotentialAges(Person p, ParentChildAgeRule ageRule, int[] eligibleAges) {
 
-        for (int a = p.getAgeRange().min(); a <= p.getAgeRange().max(); a++) {
-            if (!PopulationRules.validateParentChildAgeRule(p.getMother(), p.getFather(), a)) {
-                eligibleAgeRanges.remove((Integer) a);
+        Person oldestChild = null;
+        if (p.getChildren() != null) {
+            AgeRange.AgeComparator ageComparator = new AgeRange.AgeComparator();
+            for (Person child : p.getChildren()) {
+                if (child != null && (oldestChild == null || ageComparator.compare(child, oldestChild) > 0)) {
+                    oldestChild = child;
+                }
+            }
+        }
+        int oldestChildAge = -1, partnerAge = ParentChildAgeRule.NO_PARENT;
+        if (oldestChild != null) {
+            oldestChildAge = ParentChildAgeRule.ageOf(oldestChild);
+            if (p.getPartner() != null) {
+                partnerAge = ParentChildAgeRule.ageOf(p.getPartner());
             }
         }
 
-        if (p.getChildren() != null) {
-            Person oldestChild = p.getChildren().stream()
-                                  .filter(Objects::nonNull)
-                                  .max(new AgeRange.AgeComparator())
-                                  .orElse(null);
-
-            if (oldestChild != null) {
-                int oldestChildAge = oldestChild.getAge() >= 0 ? oldestChild.getAge() : oldestChild.getAgeRange().min();
-                Iterator<Integer> ageItr = eligibleAgeRanges.iterator();
-                Integer age = null;
-                while (ageItr.hasNext()) {
-                    age = ageItr.next();
-                    if (!PopulationRules.validateParentChildAgeRule(age, p.getPartner(), oldestChildAge)) {
-                        ageItr.remove();
-                    }
+        int minAge = -1, maxAge = -1;
+        for (int a = p.getAgeRange().min(); a <= p.getAgeRange().max(); a++) {
+            if (ageRule.isValid(p.getMother(), p.getFather(), a)
+                    && (oldestChild == null || ageRule.isValid(a, partnerAge, oldestChildAge))) {
+                if (minAge < 0) {
+                    minAge = a;
                 }
+                maxAge = a;
             }
         }
 
-        eligibleAgeRanges.sort(Comparator.naturalOrder());
-        if (eligibleAgeRanges.isEmpty()) {
-            throw new Error("No eligible ages in the interval");
+        if (minAge < 0) {
+            eligibleAges[0] = p.getAgeRange().min();
+            eligibleAges[1] = p.getAgeRange().max();
+            return false;
         }
-        return new int[]{eligibleAgeRanges.get(0), eligibleAgeRanges.get(eligibleAgeRanges.size() - 1)};
+        eligibleAges[0] = minAge;
+        eligibleAges[1] = maxAge;
+        return true;
     }
 }
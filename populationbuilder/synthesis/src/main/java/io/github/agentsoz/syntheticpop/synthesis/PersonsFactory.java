@@ -22,6 +22,7 @@ package io.github.agentsoz.syntheticpop.synthesis;
  * #L%
  */
 
+import io.github.agentsoz.syntheticpop.synthesis.models.IDAllocator;
 import io.github.agentsoz.syntheticpop.synthesis.models.IndRecord;
 import io.github.agentsoz.syntheticpop.synthesis.models.Person;
 import io.github.agentsoz.syntheticpop.synthesis.models.RelationshipStatus;
@@ -36,11 +37,29 @@ public class PersonsFactory {
 
 
     static List<Person> makeAllPersonsByRelationshipType(List<IndRecord> indRecords, RelationshipStatus... relType) {
+        return makeAllPersonsByRelationshipType(indRecords, IDAllocator.shared(), relType);
+    }
+
+    /**
+     * Creates a person for each count in the person records of the specified relationship types. The IDs of the persons are
+     * reserved as a single block from the allocator.
+     *
+     * @param indRecords The person records
+     * @param ids        The ID allocator of the synthesis run
+     * @param relType    The relationship types to create persons of
+     * @return The list of persons
+     */
+    static List<Person> makeAllPersonsByRelationshipType(List<IndRecord> indRecords, IDAllocator ids, RelationshipStatus... relType) {
         List<IndRecord> indRecs = DataReader.getAgentsRecordsByRelationshipStatus(indRecords, relType);
-        List<Person> persons = new ArrayList<>();
+        int total = 0;
+        for (IndRecord rec : indRecs) {
+            total += rec.IND_COUNT;
+        }
+        IDAllocator.Block block = ids.reservePersonIDs(total);
+        List<Person> persons = new ArrayList<>(total);
         for (IndRecord rec : indRecs) {
             for (int i = 0; i < rec.IND_COUNT; i++) {
-                Person p = new Person();
+                Person p = new Person(block.next());
                 p.setAgeRange(rec.AGE_RANGE);
                 p.setSex(rec.SEX);
                 p.setRelationshipStatus(rec.RELATIONSHIP_STATUS);
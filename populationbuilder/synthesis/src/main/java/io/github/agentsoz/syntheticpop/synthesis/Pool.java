@@ -0,0 +1,133 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A pool of persons or families that are consumed in order from the front of a list. Instead of removing each consumed item from the
+ * front of the list, which shifts the remaining items every time, the pool moves a cursor forward and removes all the consumed items in
+ * one step when it is closed. Items put back into the pool are appended to the end of the list, and skipped items stay in the list. Once
+ * the pool is closed the list contains the same items, in the same order, as it would if each consumed item were removed with
+ * {@code remove(0)} or through an iterator.
+ * <p>
+ * The list must not be modified through other references while the pool is open. Use the pool in a try-with-resources block so the list
+ * is updated even if forming units fails part way.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+class Pool<T> implements AutoCloseable {
+
+    private final List<T> items;
+    private int cursor = 0;
+    private int kept = 0; // Number of skipped items moved to the front of the list
+
+    /**
+     * @param items The list to consume. The list is shuffled or sorted by the caller before the pool is created.
+     */
+    Pool(List<T> items) {
+        this.items = items;
+    }
+
+    /**
+     * @return True if all the items have been consumed
+     */
+    boolean isEmpty() {
+        return cursor >= items.size();
+    }
+
+    /**
+     * @return The number of items not yet consumed
+     */
+    int size() {
+        return items.size() - cursor;
+    }
+
+    /**
+     * Returns the next item without consuming it.
+     *
+     * @return The next item
+     */
+    T peek() {
+        if (isEmpty()) {
+            throw new NotEnoughPersonsException("The pool is empty");
+        }
+        return items.get(cursor);
+    }
+
+    /**
+     * Consumes the next item.
+     *
+     * @return The next item
+     */
+    T next() {
+        if (isEmpty()) {
+            throw new NotEnoughPersonsException("The pool is empty");
+        }
+        return items.get(cursor++);
+    }
+
+    /**
+     * Consumes the next count items.
+     *
+     * @param count The number of items to consume
+     * @return A new list with the consumed items
+     */
+    List<T> next(int count) {
+        if (count > size()) {
+            throw new NotEnoughPersonsException("Requested: " + count + " available: " + size());
+        }
+        List<T> selected = new ArrayList<>(items.subList(cursor, cursor + count));
+        cursor += count;
+        return selected;
+    }
+
+    /**
+     * Moves past the next item without consuming it. The item stays in the list when the pool is closed.
+     */
+    void skip() {
+        T item = peek();
+        items.set(kept++, item);
+        cursor++;
+    }
+
+    /**
+     * Puts an item back at the end of the pool.
+     *
+     * @param item The item
+     */
+    void putBack(T item) {
+        items.add(item);
+    }
+
+    /**
+     * Removes the consumed items from the list.
+     */
+    @Override
+    public void close() {
+        items.subList(kept, cursor).clear();
+        cursor = 0;
+        kept = 0;
+    }
+}
@@ -37,6 +37,9 @@ public class PopulationFactory {
     private final List<IndRecord> indRecs;
     private final Random random;
     private final double nonPrimaryCwcProbability;
+    private final Metrics metrics;
+    private final IDAllocator ids = new IDAllocator();
+    private final MembershipRegistry registry = new MembershipRegistry();
     private final ExtrasHandler extrasHandler;
     private final FamilyFactory familyFactory;
     private final HouseholdFactory householdFactory;
@@ -52,19 +55,41 @@ public class PopulationFactory {
     private List<Family> basicPrimaryCoupleWithChildFamilies;
     private List<Family> basicPrimaryOtherFamilies;
 
-    PopulationFactory(List<HhRecord> hhRecords, List<IndRecord> indRecords, double nonPrimaryCoupleWithChildProbability, Random random) {
+    PopulationFactory(List<HhRecord> hhRecords,
+                      List<IndRecord> indRecords,
+                      double nonPrimaryCoupleWithChildProbability,
+                      ParentChildAgeRule ageRule,
+                      Random random) {
+        this(hhRecords, indRecords, nonPrimaryCoupleWithChildProbability, ageRule, random, new Metrics());
+    }
+
+    /**
+     * @param hhRecords                            The household records of the SA2
+     * @param indRecords                           The person records of the SA2
+     * @param nonPrimaryCoupleWithChildProbability The probability of a non-primary couple having children
+     * @param ageRule                              The parent child age rule
+     * @param random                               The random number generator
+     * @param metrics                              The metrics of the SA2. The stages of the synthesis are timed and counted in it
+     */
+    PopulationFactory(List<HhRecord> hhRecords,
+                      List<IndRecord> indRecords,
+                      double nonPrimaryCoupleWithChildProbability,
+                      ParentChildAgeRule ageRule,
+                      Random random,
+                      Metrics metrics) {
         hhRecs = hhRecords;
         indRecs = indRecords;
         this.random = random;
         this.nonPrimaryCwcProbability = nonPrimaryCoupleWithChildProbability;
+        this.metrics = metrics;
 
-        extrasHandler = new ExtrasHandler(indRecs, random);
-        familyFactory = new FamilyFactory(random, extrasHandler);
-        householdFactory = new HouseholdFactory(hhRecs, random, extrasHandler);
+        extrasHandler = new ExtrasHandler(indRecs, random, ids);
+        familyFactory = new FamilyFactory(random, extrasHandler, ids, ageRule, metrics);
+        householdFactory = new HouseholdFactory(hhRecs, random, extrasHandler, ids, registry, ageRule, metrics);
     }
 
     List<Person> makeAllPersons() {
-        formAllPersons();
+        metrics.time("formAllPersons", this::formAllPersons);
         List<Person> persons = new ArrayList<>();
         persons.addAll(lonePersons);
         persons.addAll(groupHhPersons);
@@ -78,11 +103,13 @@ public class PopulationFactory {
 
     List<Household> makePopulation() {
 
-        formAllPersons();
-        formAllKnownFamilies();
+        metrics.time("formAllPersons", this::formAllPersons);
+        metrics.time("formAllKnownFamilies", this::formAllKnownFamilies);
         List<Household> allHouseholds = null;
         try {
             allHouseholds = new ArrayList<>(formHouseholds());
+            metrics.gauge("Households", allHouseholds.size());
+            metrics.gauge("Remaining extras", extrasHandler.remainingExtras());
             for (Household h : allHouseholds) {
                 if (!h.validate()) {
                     Log.error("Bad state in household: " + h);
@@ -91,70 +118,99 @@ public class PopulationFactory {
                     if (!f.validate()) {
                         Log.error("Bad state in family: " + f + " in household: " + h);
                     }
+                    for (Person p : f.getMembers()) {
+                        if (!registry.addPersonToFamily(p)) {
+                            Log.error("Bad state: person " + p.getID() + " in family: " + f + " is a member of more than one family");
+                        }
+                    }
                 }
             }
+            registry.release();
         } catch (Exception e) {
             Log.error("Error detected", e);
-            Log.debug("Remaining Relatives: " + relatives.size());
-            Log.debug("Remaining Children: " + children.size());
-            Log.debug("Remaining Male Married: " + marriedMales.size());
-            Log.debug("Remaining Female Married: " + marriedFemales.size());
-            Log.debug("Remaining Lone Parents: " + loneParents.size());
-            Log.debug("Remaining Lone Persons: " + lonePersons.size());
-            Log.debug("Remaining GroupHousehold persons: " + groupHhPersons.size());
-            Log.debug("Remaining Basic Couples: " + basicCouples.size());
-            Log.debug("Remaining Basic One Parent units: " + basicOneParentFamilies.size());
-            Log.debug("Remaining Extras: " + extrasHandler.remainingExtras());
+            Log.debug("Remaining Relatives: {}", relatives.size());
+            Log.debug("Remaining Children: {}", children.size());
+            Log.debug("Remaining Male Married: {}", marriedMales.size());
+            Log.debug("Remaining Female Married: {}", marriedFemales.size());
+            Log.debug("Remaining Lone Parents: {}", loneParents.size());
+            Log.debug("Remaining Lone Persons: {}", lonePersons.size());
+            Log.debug("Remaining GroupHousehold persons: {}", groupHhPersons.size());
+            Log.debug("Remaining Basic Couples: {}", basicCouples.size());
+            Log.debug("Remaining Basic One Parent units: {}", basicOneParentFamilies.size());
+            Log.debug("Remaining Extras: {}", extrasHandler.remainingExtras());
             Log.errorAndExit("Household construction failed", GlobalConstants.ExitCode.PROGERROR);
         }
         return allHouseholds;
     }
 
-    private void formAllPersons() {
+    /**
+     * Creates the persons of each relationship status and the extras. This is the first stage of {@link #makePopulation()}.
+     */
+    void formAllPersons() {
 
-        List<Person> married = PersonsFactory.makeAllPersonsByRelationshipType(indRecs, RelationshipStatus.MARRIED);
+        List<Person> married = PersonsFactory.makeAllPersonsByRelationshipType(indRecs, ids, RelationshipStatus.MARRIED);
         marriedMales = married.stream().filter(p -> p.getSex() == Sex.Male).collect(Collectors.toList());
         marriedFemales = married.stream()
                                 .filter(p -> p.getSex() == Sex.Female)
                                 .collect(Collectors.toList());
 
-        relatives = PersonsFactory.makeAllPersonsByRelationshipType(indRecs, RelationshipStatus.RELATIVE);
-        loneParents = PersonsFactory.makeAllPersonsByRelationshipType(indRecs,
+        relatives = PersonsFactory.makeAllPersonsByRelationshipType(indRecs, ids, RelationshipStatus.RELATIVE);
+        loneParents = PersonsFactory.makeAllPersonsByRelationshipType(indRecs, ids,
                                                                       RelationshipStatus.LONE_PARENT);
-        children = PersonsFactory.makeAllPersonsByRelationshipType(indRecs,
+        children = PersonsFactory.makeAllPersonsByRelationshipType(indRecs, ids,
                                                                    RelationshipStatus.U15_CHILD,
                                                                    RelationshipStatus.STUDENT,
                                                                    RelationshipStatus.O15_CHILD);
-        lonePersons = PersonsFactory.makeAllPersonsByRelationshipType(indRecs, RelationshipStatus.LONE_PERSON);
-        groupHhPersons = PersonsFactory.makeAllPersonsByRelationshipType(indRecs, RelationshipStatus.GROUP_HOUSEHOLD);
+        lonePersons = PersonsFactory.makeAllPersonsByRelationshipType(indRecs, ids, RelationshipStatus.LONE_PERSON);
+        groupHhPersons = PersonsFactory.makeAllPersonsByRelationshipType(indRecs, ids, RelationshipStatus.GROUP_HOUSEHOLD);
         extrasHandler.formExtras(hhRecs);
+        metrics.gauge("Persons", married.size() + relatives.size() + loneParents.size() + children.size() + lonePersons.size()
+                + groupHhPersons.size());
+        metrics.gauge("Extras", extrasHandler.remainingExtras());
         Log.info("Formed all person instances");
-        Log.debug("Remaining Married males: " + marriedMales.size());
-        Log.debug("Remaining Married females: " + marriedFemales.size());
-        Log.debug("Remaining Relatives: " + relatives.size());
-        Log.debug("Remaining Children: " + children.size());
-        Log.debug("Remaining Lone parents: " + loneParents.size());
-        Log.debug("Remaining Lone persons: " + lonePersons.size());
-        Log.debug("Remaining Group household persons: " + groupHhPersons.size());
-        Log.debug("Remaining Extras: " + extrasHandler.remainingExtras());
+        Log.debug("Remaining Married males: {}", marriedMales.size());
+        Log.debug("Remaining Married females: {}", marriedFemales.size());
+        Log.debug("Remaining Relatives: {}", relatives.size());
+        Log.debug("Remaining Children: {}", children.size());
+        Log.debug("Remaining Lone parents: {}", loneParents.size());
+        Log.debug("Remaining Lone persons: {}", lonePersons.size());
+        Log.debug("Remaining Group household persons: {}", groupHhPersons.size());
+        Log.debug("Remaining Extras: {}", extrasHandler.remainingExtras());
     }
 
-    private void formAllKnownFamilies() {
+    /**
+     * Forms the basic family units of the known persons. Must be called after {@link #formAllPersons()}.
+     */
+    void formAllKnownFamilies() {
+        formBasicOneParentAndCoupleUnits();
+        formBasicCoupleWithChildUnits();
+        formBasicOtherFamilyUnits();
+    }
 
+    /**
+     * Forms the basic one parent units and couples.
+     */
+    void formBasicOneParentAndCoupleUnits() {
         Log.info("Forming Basic One Parent families: " + loneParents.size());
         basicOneParentFamilies = familyFactory.formOneParentBasicUnits(loneParents.size(), loneParents, children);
-        Log.debug("Formed Basic One Parent families: " + basicOneParentFamilies.size());
-        Log.debug("Remaining Lone parent persons: " + loneParents.size());
-        Log.debug("Remaining Children: " + children.size());
+        Log.debug("Formed Basic One Parent families: {}", basicOneParentFamilies.size());
+        Log.debug("Remaining Lone parent persons: {}", loneParents.size());
+        Log.debug("Remaining Children: {}", children.size());
 
         Log.info("Forming Basic Couple families: " + Math.min(marriedMales.size(), marriedFemales.size()));
         basicCouples = familyFactory.formCoupleFamilyBasicUnits(Math.min(marriedMales.size(), marriedFemales.size()),
                                                                 marriedMales,
                                                                 marriedFemales);
-        Log.debug("Formed Basic couples: " + basicCouples.size());
-        Log.debug("Remaining Married males: " + marriedMales.size());
-        Log.debug("Remaining Married females: " + marriedFemales.size());
+        Log.debug("Formed Basic couples: {}", basicCouples.size());
+        Log.debug("Remaining Married males: {}", marriedMales.size());
+        Log.debug("Remaining Married females: {}", marriedFemales.size());
+    }
 
+    /**
+     * Forms the basic couple with children units of the primary families by adding children to couples. Must be called after {@link
+     * #formBasicOneParentAndCoupleUnits()}.
+     */
+    void formBasicCoupleWithChildUnits() {
         //Form basic family structures and removes couples from married males and females list
         List<HhRecord> coupleWChildRecs = DataReader.getHhRecordsByPrimaryFamilyType(hhRecs,
                                                                                      FamilyHouseholdType.F1_COUPLE_WITH_CHILDREN,
@@ -163,48 +219,83 @@ public class PopulationFactory {
         int fCount = coupleWChildRecs.stream().mapToInt(r -> r.HH_COUNT).sum();
         Log.info("Forming Basic Couple with Children families: " + fCount);
         basicPrimaryCoupleWithChildFamilies = familyFactory.formCoupleWithChildFamilyBasicUnits(fCount, basicCouples, children);
-        Log.debug("Formed Basic Couple with Children families: " + basicPrimaryCoupleWithChildFamilies.size());
-        Log.debug("Remaining Basic couples: " + basicCouples.size());
-        Log.debug("Remaining Children: " + children.size());
+        Log.debug("Formed Basic Couple with Children families: {}", basicPrimaryCoupleWithChildFamilies.size());
+        Log.debug("Remaining Basic couples: {}", basicCouples.size());
+        Log.debug("Remaining Children: {}", children.size());
+    }
 
+    /**
+     * Forms the basic other family units of the primary families from relatives.
+     */
+    void formBasicOtherFamilyUnits() {
         // Forms Other Family basic family structures
         List<HhRecord> otherFamiliesRecs = DataReader.getHhRecordsByPrimaryFamilyType(hhRecs,
                                                                                       FamilyHouseholdType.F1_OTHER_FAMILY,
                                                                                       FamilyHouseholdType.F2_OTHER_FAMILY,
                                                                                       FamilyHouseholdType.F3_OTHER_FAMILY);
-        fCount = otherFamiliesRecs.stream().mapToInt(r -> r.HH_COUNT).sum();
+        int fCount = otherFamiliesRecs.stream().mapToInt(r -> r.HH_COUNT).sum();
         Log.info("Forming Basic Other families: " + fCount);
         basicPrimaryOtherFamilies = familyFactory.formOtherFamilyBasicUnits(fCount, relatives);
-        Log.debug("Remaining Relatives: " + relatives.size());
-        Log.debug("Remaining Basic Other families: " + basicPrimaryOtherFamilies.size());
+        Log.debug("Remaining Relatives: {}", relatives.size());
+        Log.debug("Remaining Basic Other families: {}", basicPrimaryOtherFamilies.size());
 
     }
 
     private List<Household> formHouseholds() {
 
-        List<Household> allHouseholds = new ArrayList<>();
-        allHouseholds.addAll(householdFactory.formLonePersonHouseholds(lonePersons));
-        allHouseholds.addAll(householdFactory.formGroupHouseholds(groupHhPersons));
-        List<Household> familyHhs = householdFactory.formAllFamilyHouseholdsWithPrimaryFamilies(basicCouples,
-                                                                                                basicPrimaryCoupleWithChildFamilies,
-                                                                                                basicOneParentFamilies,
-                                                                                                basicPrimaryOtherFamilies);
-        //Fill 1 family couple only households with relatives
-        householdFactory.completeHouseholdsWithRelatives(familyHhs, relatives, FamilyHouseholdType.F1_COUPLE_ONLY);
-        //Fill 1 family other family households with relatives
-        householdFactory.completeHouseholdsWithRelatives(familyHhs, relatives, FamilyHouseholdType.F1_OTHER_FAMILY);
-
-        householdFactory.addNonPrimaryFamiliesToHouseholds(familyHhs,
-                                                           basicCouples,
-                                                           basicOneParentFamilies,
-                                                           children,
-                                                           relatives,
-                                                           marriedMales,
-                                                           marriedFemales,
-                                                           loneParents,
-                                                           nonPrimaryCwcProbability,
-                                                           getRelationshipDistInPrimaryFamilies(hhRecs),
-                                                           familyFactory);
+        List<Household> allHouseholds = metrics.time("formNonFamilyHouseholds", this::formNonFamilyHouseholds);
+        List<Household> familyHhs = metrics.time("formFamilyHouseholds", this::formFamilyHouseholds);
+        metrics.time("completeHouseholdsWithChildren", () -> completeHouseholdsWithChildren(familyHhs));
+        //TODO: Record children that are converted to extras
+        metrics.time("addExtrasAsChildrenAndRelatives", () -> addExtrasAsChildrenAndRelatives(familyHhs));
+        metrics.time("completeHouseholdsWithRelatives",
+                     () -> householdFactory.completeHouseholdsWithRelatives(familyHhs, relatives, null));
+
+        allHouseholds.addAll(familyHhs);
+
+        return allHouseholds;
+    }
+
+    /**
+     * @return The lone person and group households
+     */
+    List<Household> formNonFamilyHouseholds() {
+        List<Household> households = new ArrayList<>();
+        households.addAll(householdFactory.formLonePersonHouseholds(lonePersons));
+        households.addAll(householdFactory.formGroupHouseholds(groupHhPersons));
+        return households;
+    }
+
+    /**
+     * Forms the family households with their primary and non-primary families. Must be called after {@link #formAllKnownFamilies()}.
+     *
+     * @return The family households, which may still need children and relatives
+     */
+    List<Household> formFamilyHouseholds() {
+        List<Household> familyHhs = metrics.time("formAllFamilyHouseholdsWithPrimaryFamilies",
+                () -> householdFactory.formAllFamilyHouseholdsWithPrimaryFamilies(basicCouples,
+                                                                                  basicPrimaryCoupleWithChildFamilies,
+                                                                                  basicOneParentFamilies,
+                                                                                  basicPrimaryOtherFamilies));
+        metrics.time("completeF1HouseholdsWithRelatives", () -> {
+            //Fill 1 family couple only households with relatives
+            householdFactory.completeHouseholdsWithRelatives(familyHhs, relatives, FamilyHouseholdType.F1_COUPLE_ONLY);
+            //Fill 1 family other family households with relatives
+            householdFactory.completeHouseholdsWithRelatives(familyHhs, relatives, FamilyHouseholdType.F1_OTHER_FAMILY);
+        });
+
+        metrics.time("addNonPrimaryFamiliesToHouseholds",
+                     () -> householdFactory.addNonPrimaryFamiliesToHouseholds(familyHhs,
+                                                                              basicCouples,
+                                                                              basicOneParentFamilies,
+                                                                              children,
+                                                                              relatives,
+                                                                              marriedMales,
+                                                                              marriedFemales,
+                                                                              loneParents,
+                                                                              nonPrimaryCwcProbability,
+                                                                              getRelationshipDistInPrimaryFamilies(hhRecs),
+                                                                              familyFactory));
         familyHhs.forEach(h -> {
             if (h.getExpectedFamilyCount() != h.getCurrentFamilyCount()) {
                 throw new IllegalStateException("Family count wrong: " + h.getExpectedSize() + " person:" + h
@@ -212,15 +303,25 @@ public class PopulationFactory {
                         .getCurrentFamilyCount() + " families");
             }
         });
+        return familyHhs;
+    }
 
+    /**
+     * Adds the remaining known children to the family households.
+     *
+     * @param familyHhs The family households from {@link #formFamilyHouseholds()}
+     */
+    void completeHouseholdsWithChildren(List<Household> familyHhs) {
         householdFactory.completeHouseholdsWithChildren(familyHhs, children);
-        //TODO: Record children that are converted to extras
-        householdFactory.addExtrasAsChildrenAndRelatives(familyHhs, indRecs, marriedMales, marriedFemales, loneParents, children);
-        householdFactory.completeHouseholdsWithRelatives(familyHhs, relatives, null);
-
-        allHouseholds.addAll(familyHhs);
+    }
 
-        return allHouseholds;
+    /**
+     * Converts the unused persons to extras and adds them to the family households as children and relatives.
+     *
+     * @param familyHhs The family households after {@link #completeHouseholdsWithChildren(List)}
+     */
+    void addExtrasAsChildrenAndRelatives(List<Household> familyHhs) {
+        householdFactory.addExtrasAsChildrenAndRelatives(familyHhs, indRecs, marriedMales, marriedFemales, loneParents, children);
     }
 
 
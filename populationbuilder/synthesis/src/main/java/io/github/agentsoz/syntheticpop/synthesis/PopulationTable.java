@@ -0,0 +1,393 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import io.github.agentsoz.syntheticpop.synthesis.models.*;
+
+import java.util.*;
+
+/**
+ * A compact columnar copy of a synthesised population. Each property of persons, families and households is kept in a primitive array
+ * indexed by the position of the entity, references between persons are kept as indices into the person arrays, and the variable length
+ * lists of children and relatives are kept in compressed sparse row (CSR) form: the entries of person i are at positions start[i] to
+ * start[i+1]-1 of a shared index array. Persons are stored family by family and families household by household, so the members of a
+ * family and the families of a household are ranges given by a start array alone. Strings are kept once in a string table. An ID is
+ * split into a prefix from the string table and a numeric suffix, so "20101P123" is stored as an index to "20101P" and the number 123.
+ * <p>
+ * The table keeps everything {@link DataWriter} writes to the persons, families and households files, so the files written from a table
+ * are identical to the files written from the object graph. Family IDs of persons, siblings and group household members are not kept.
+ * <p>
+ * Size: a person takes 46 bytes in the person columns and 4 bytes for each child and relative entry.
+ * Families take 21 bytes and households 30 bytes. With the household and family mix of a typical Melbourne SA2 (about 2.5 persons per
+ * household and 1.05 families per household) this is about 70 bytes per person, compared to several hundred bytes per person for the
+ * {@link Person}, {@link Family} and {@link Household} objects with their ID strings and lists. {@link #sizeInBytes()} gives the exact
+ * figure of a table.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+public class PopulationTable {
+
+    static final int NONE = -1;
+    static final byte HAS_CHILDREN = 1;
+    static final byte HAS_RELATIVES = 2;
+
+    final String[] strings;
+
+    // Persons
+    final int[] personIdPrefix;
+    final long[] personIdNumber;
+    final short[] age;
+    final byte[] sex;
+    final byte[] relationshipStatus;
+    final byte[] ageRange;
+    final byte[] listFlags;
+    final int[] personSA2;
+    final int[] personSA1;
+    final int[] partner;
+    final int[] mother;
+    final int[] father;
+    final int[] childrenStart;
+    final int[] children;
+    final int[] relativesStart;
+    final int[] relatives;
+
+    // Families
+    final int[] familyIdPrefix;
+    final long[] familyIdNumber;
+    final byte[] familyType;
+    final int[] familyHousehold;
+    final int[] membersStart;
+
+    // Households
+    final int[] householdIdPrefix;
+    final long[] householdIdNumber;
+    final int[] expectedSize;
+    final byte[] familyHouseholdType;
+    final byte[] primaryFamilyType;
+    final int[] householdSA2;
+    final int[] householdSA1;
+    final int[] familiesStart;
+
+    private PopulationTable(Builder b) {
+        strings = b.strings.toArray(new String[0]);
+        personIdPrefix = b.personIdPrefix;
+        personIdNumber = b.personIdNumber;
+        age = b.age;
+        sex = b.sex;
+        relationshipStatus = b.relationshipStatus;
+        ageRange = b.ageRange;
+        listFlags = b.listFlags;
+        personSA2 = b.personSA2;
+        personSA1 = b.personSA1;
+        partner = b.partner;
+        mother = b.mother;
+        father = b.father;
+        childrenStart = b.childrenStart;
+        children = b.children;
+        relativesStart = b.relativesStart;
+        relatives = b.relatives;
+        familyIdPrefix = b.familyIdPrefix;
+        familyIdNumber = b.familyIdNumber;
+        familyType = b.familyType;
+        familyHousehold = b.familyHousehold;
+        membersStart = b.membersStart;
+        householdIdPrefix = b.householdIdPrefix;
+        householdIdNumber = b.householdIdNumber;
+        expectedSize = b.expectedSize;
+        familyHouseholdType = b.familyHouseholdType;
+        primaryFamilyType = b.primaryFamilyType;
+        householdSA2 = b.householdSA2;
+        householdSA1 = b.householdSA1;
+        familiesStart = b.familiesStart;
+    }
+
+    /**
+     * Builds the table of the households, their families and the members of the families. Persons are kept in the order of
+     * {@link Household#getMembers()} of each household.
+     *
+     * @param households The households
+     * @return The table
+     * @throws IllegalArgumentException If a person is related to a person who is not in the households
+     */
+    public static PopulationTable fromHouseholds(List<Household> households) {
+        List<Person> persons = new ArrayList<>();
+        int families = 0;
+        for (Household household : households) {
+            for (Family family : household.getFamilies()) {
+                persons.addAll(family.getMembers());
+                families++;
+            }
+        }
+        Builder b = new Builder(persons, families, households.size());
+        int f = 0, p = 0;
+        for (int h = 0; h < households.size(); h++) {
+            Household household = households.get(h);
+            b.householdIdPrefix[h] = b.idPrefix(household.getID());
+            b.householdIdNumber[h] = idNumber(household.getID());
+            b.expectedSize[h] = household.getExpectedSize();
+            b.familyHouseholdType[h] = ordinal(household.getFamilyHouseholdType());
+            b.primaryFamilyType[h] = household.getFamilies().isEmpty() ? NONE : ordinal(household.getPrimaryFamilyType());
+            b.householdSA2[h] = b.string(household.getSA2MainCode());
+            b.householdSA1[h] = b.string(household.getSA1Code());
+            b.familiesStart[h] = f;
+            for (Family family : household.getFamilies()) {
+                b.familyIdPrefix[f] = b.idPrefix(family.getID());
+                b.familyIdNumber[f] = idNumber(family.getID());
+                b.familyType[f] = ordinal(family.getType());
+                b.familyHousehold[f] = h;
+                b.membersStart[f] = p;
+                p += family.size();
+                f++;
+            }
+        }
+        b.familiesStart[households.size()] = f;
+        b.membersStart[families] = p;
+        return b.build();
+    }
+
+    /**
+     * Builds the table of persons that are not in households. The table has no families or households.
+     *
+     * @param persons The persons
+     * @return The table
+     * @throws IllegalArgumentException If a person is related to a person who is not in the list
+     */
+    public static PopulationTable fromPersons(List<Person> persons) {
+        Builder b = new Builder(persons, 0, 0);
+        b.familiesStart[0] = 0;
+        b.membersStart[0] = 0;
+        return b.build();
+    }
+
+    public int personCount() {
+        return personIdPrefix.length;
+    }
+
+    public int familyCount() {
+        return familyIdPrefix.length;
+    }
+
+    public int householdCount() {
+        return householdIdPrefix.length;
+    }
+
+    /**
+     * @return The number of bytes in the arrays of this table, not counting the string table
+     */
+    public long sizeInBytes() {
+        long ints = 0;
+        for (int[] column : new int[][]{personIdPrefix, personSA2, personSA1, partner, mother, father, childrenStart, children,
+                                        relativesStart, relatives, familyIdPrefix, familyHousehold, membersStart, householdIdPrefix,
+                                        expectedSize, householdSA2, householdSA1, familiesStart}) {
+            ints += column.length;
+        }
+        long longs = personIdNumber.length + familyIdNumber.length + householdIdNumber.length;
+        long bytes = sex.length + relationshipStatus.length + ageRange.length + listFlags.length + familyType.length
+                + familyHouseholdType.length + primaryFamilyType.length;
+        return ints * Integer.BYTES + longs * Long.BYTES + age.length * (long) Short.BYTES + bytes;
+    }
+
+    /**
+     * Appends the ID of an entity
+     *
+     * @param buffer The buffer to append to
+     * @param prefix The string table index of the ID prefix
+     * @param number The numeric suffix of the ID, or {@link #NONE} if it has none
+     * @return The buffer
+     */
+    StringBuilder appendID(StringBuilder buffer, int prefix, long number) {
+        buffer.append(prefix == NONE ? null : strings[prefix]);
+        return number == NONE ? buffer : buffer.append(number);
+    }
+
+    String personID(int person) {
+        return appendID(new StringBuilder(), personIdPrefix[person], personIdNumber[person]).toString();
+    }
+
+    String string(int index) {
+        return index == NONE ? null : strings[index];
+    }
+
+    /**
+     * The numeric suffix of an ID. The suffix is only split off if it prints back to the same digits, so the ID is always reproduced
+     * exactly.
+     *
+     * @param id The ID
+     * @return The number, or {@link #NONE} if the ID does not end with a number
+     */
+    private static long idNumber(String id) {
+        int start = numberStart(id);
+        return start < 0 ? NONE : Long.parseLong(id.substring(start));
+    }
+
+    /**
+     * @param id The ID
+     * @return The position of the numeric suffix of the ID, or -1 if it has none
+     */
+    private static int numberStart(String id) {
+        if (id == null) {
+            return -1;
+        }
+        // At most 18 digits, so the number always fits in a long
+        int start = id.length();
+        while (start > 0 && id.charAt(start - 1) >= '0' && id.charAt(start - 1) <= '9' && id.length() - start < 18) {
+            start--;
+        }
+        // A leading zero would be lost when the number is printed, so it stays in the prefix
+        while (start < id.length() - 1 && id.charAt(start) == '0') {
+            start++;
+        }
+        return start < id.length() && id.charAt(start) != '0' ? start : -1;
+    }
+
+    private static byte ordinal(Enum<?> value) {
+        return value == null ? NONE : (byte) value.ordinal();
+    }
+
+    /**
+     * Fills the person columns and the string table while a table is built
+     */
+    private static final class Builder {
+        final List<String> strings = new ArrayList<>();
+        final Map<String, Integer> stringIndex = new HashMap<>();
+        final int[] personIdPrefix, personSA2, personSA1, partner, mother, father, childrenStart, children, relativesStart, relatives;
+        final long[] personIdNumber;
+        final short[] age;
+        final byte[] sex, relationshipStatus, ageRange, listFlags;
+        final int[] familyIdPrefix, familyHousehold, membersStart;
+        final long[] familyIdNumber;
+        final byte[] familyType;
+        final int[] householdIdPrefix, expectedSize, householdSA2, householdSA1, familiesStart;
+        final long[] householdIdNumber;
+        final byte[] familyHouseholdType, primaryFamilyType;
+
+        Builder(List<Person> persons, int families, int households) {
+            int n = persons.size();
+            Map<Person, Integer> index = new IdentityHashMap<>(n);
+            int childEntries = 0, relativeEntries = 0;
+            for (Person p : persons) {
+                if (index.put(p, index.size()) != null) {
+                    throw new IllegalArgumentException("Person " + p.getID() + " is in the population more than once");
+                }
+                childEntries += p.getChildren() == null ? 0 : p.getChildren().size();
+                relativeEntries += p.getRelatives() == null ? 0 : p.getRelatives().size();
+            }
+
+            personIdPrefix = new int[n];
+            personIdNumber = new long[n];
+            age = new short[n];
+            sex = new byte[n];
+            relationshipStatus = new byte[n];
+            ageRange = new byte[n];
+            listFlags = new byte[n];
+            personSA2 = new int[n];
+            personSA1 = new int[n];
+            partner = new int[n];
+            mother = new int[n];
+            father = new int[n];
+            childrenStart = new int[n + 1];
+            children = new int[childEntries];
+            relativesStart = new int[n + 1];
+            relatives = new int[relativeEntries];
+
+            int c = 0, r = 0;
+            for (int i = 0; i < n; i++) {
+                Person p = persons.get(i);
+                personIdPrefix[i] = idPrefix(p.getID());
+                personIdNumber[i] = idNumber(p.getID());
+                if (p.getAge() < Short.MIN_VALUE || p.getAge() > Short.MAX_VALUE) {
+                    throw new IllegalArgumentException("Age out of range: " + p.getAge());
+                }
+                age[i] = (short) p.getAge();
+                sex[i] = ordinal(p.getSex());
+                relationshipStatus[i] = ordinal(p.getRelationshipStatus());
+                ageRange[i] = ordinal(p.getAgeRange());
+                personSA2[i] = string(p.getSA2MainCode());
+                personSA1[i] = string(p.getSA1Code());
+                partner[i] = indexOf(p.getPartner(), index);
+                mother[i] = indexOf(p.getMother(), index);
+                father[i] = indexOf(p.getFather(), index);
+                childrenStart[i] = c;
+                if (p.getChildren() != null) {
+                    listFlags[i] |= HAS_CHILDREN;
+                    for (Person child : p.getChildren()) {
+                        children[c++] = indexOf(child, index);
+                    }
+                }
+                relativesStart[i] = r;
+                if (p.getRelatives() != null) {
+                    listFlags[i] |= HAS_RELATIVES;
+                    for (Person relative : p.getRelatives()) {
+                        relatives[r++] = indexOf(relative, index);
+                    }
+                }
+            }
+            childrenStart[n] = c;
+            relativesStart[n] = r;
+
+            familyIdPrefix = new int[families];
+            familyIdNumber = new long[families];
+            familyType = new byte[families];
+            familyHousehold = new int[families];
+            membersStart = new int[families + 1];
+
+            householdIdPrefix = new int[households];
+            householdIdNumber = new long[households];
+            expectedSize = new int[households];
+            familyHouseholdType = new byte[households];
+            primaryFamilyType = new byte[households];
+            householdSA2 = new int[households];
+            householdSA1 = new int[households];
+            familiesStart = new int[households + 1];
+        }
+
+        private static int indexOf(Person p, Map<Person, Integer> index) {
+            if (p == null) {
+                return NONE;
+            }
+            Integer i = index.get(p);
+            if (i == null) {
+                throw new IllegalArgumentException("Person " + p.getID() + " is related to a person in the population, but is not in it");
+            }
+            return i;
+        }
+
+        int string(String s) {
+            if (s == null) {
+                return NONE;
+            }
+            return stringIndex.computeIfAbsent(s, k -> {
+                strings.add(k);
+                return strings.size() - 1;
+            });
+        }
+
+        int idPrefix(String id) {
+            int start = numberStart(id);
+            return string(start < 0 ? id : id.substring(0, start));
+        }
+
+        PopulationTable build() {
+            return new PopulationTable(this);
+        }
+    }
+}
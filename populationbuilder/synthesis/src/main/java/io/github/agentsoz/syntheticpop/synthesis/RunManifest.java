@@ -0,0 +1,298 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.agentsoz.syntheticpop.filemanager.FileUtils;
+import io.github.agentsoz.syntheticpop.util.Log;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the SA2s completed by a synthesis run in a manifest file in the output directory, so a run that stops part way can be restarted
+ * without synthesising the completed SA2s again, and a run after some inputs changed only synthesises the SA2s whose inputs or settings
+ * changed. Each line of the manifest is a JSON object describing one completed SA2: the SHA-256 hashes of its input files, its random
+ * seed, a fingerprint of the settings it was synthesised with ({@link SA2Synthesiser#settingsFingerprint(String)}) and the analysis data
+ * of the SA2. A line is appended as soon as all the output files of the SA2 are written, so a line that was cut short by a crash is the
+ * only possible damage. It is ignored and dropped when the manifest is read.
+ * <p>
+ * When resuming, an SA2 is up to date and skipped if the manifest has an entry with the same input hashes, seed and settings fingerprint,
+ * and all its output files ({@link SA2Synthesiser#outputFiles(String)}) exist. The analysis data of a skipped SA2 is taken from the
+ * manifest, so the analysis files of a resumed run are the same as those of a run that was never interrupted. When not resuming, the
+ * manifest of the previous run is discarded.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+class RunManifest {
+
+    static final String FILE_NAME = "synthesis_manifest.jsonl";
+
+    private final Path manifestFile;
+    private final Map<String, Entry> completed = new LinkedHashMap<>();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger synthesised = new AtomicInteger();
+
+    /**
+     * @param outputDirectory The output directory of the run
+     * @param resume          True to resume from the manifest of the previous run, false to start a new manifest
+     * @throws IOException If reading or deleting the previous manifest fails
+     */
+    RunManifest(Path outputDirectory, boolean resume) throws IOException {
+        this(outputDirectory, FILE_NAME, resume);
+    }
+
+    /**
+     * @param outputDirectory The output directory of the run
+     * @param fileName        The name of the manifest file in the output directory
+     * @param resume          True to resume from the manifest of the previous run, false to start a new manifest
+     * @throws IOException If reading or deleting the previous manifest fails
+     */
+    RunManifest(Path outputDirectory, String fileName, boolean resume) throws IOException {
+        this.manifestFile = outputDirectory.resolve(fileName);
+        if (!resume) {
+            Files.deleteIfExists(manifestFile);
+        } else if (Files.exists(manifestFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        Entry entry = mapper.readValue(line, Entry.class);
+                        completed.put(entry.sa, entry); // A later entry of the same SA2 replaces the earlier one
+                    } catch (IOException e) {
+                        Log.warn("Ignoring unreadable line " + lineNumber + " of " + manifestFile + ": " + e.getMessage());
+                    }
+                }
+            }
+            Log.info("Run manifest " + manifestFile + " lists " + completed.size() + " completed SA2(s)");
+
+            // Rewrite the manifest without the unreadable and replaced lines, so new lines are not appended to a line cut short
+            Path temp = Files.createTempFile(outputDirectory, fileName, ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Entry entry : completed.values()) {
+                    writer.write(mapper.writeValueAsString(entry));
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, manifestFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Synthesises the SA2 unless the manifest shows it is up to date, and records it in the manifest.
+     *
+     * @param sa          The SA2 name
+     * @param synthesiser The synthesiser
+     * @return The analysis data of the SA2, or null if there is no input data for the SA2
+     * @throws IOException If synthesising the SA2 or writing the manifest fails
+     */
+    SA2Synthesiser.Result synthesise(String sa, SA2Synthesiser synthesiser) throws IOException {
+        Entry current = new Entry();
+        current.sa = sa;
+        current.seed = synthesiser.seedOf(sa);
+        current.settings = synthesiser.settingsFingerprint(sa);
+        current.inputs = new TreeMap<>();
+        for (Path input : synthesiser.inputFiles(sa)) {
+            current.inputs.put(input.getFileName().toString(), Files.isRegularFile(input) ? FileUtils.sha256(input) : "missing");
+        }
+
+        Entry previous;
+        synchronized (this) {
+            previous = completed.get(sa);
+        }
+        String staleReason = staleReason(previous, current, synthesiser.outputFiles(sa));
+        if (staleReason == null) {
+            Log.info("Skipping " + sa + ": up to date");
+            skipped.incrementAndGet();
+            return previous.toResult();
+        } else if (previous != null) {
+            Log.info("Synthesising " + sa + " again: " + staleReason);
+        }
+
+        SA2Synthesiser.Result result = synthesiser.synthesise(sa);
+        current.noData = result == null;
+        if (result != null) {
+            current.randomAgePersons = result.randomAgePersons;
+            current.parentalAgeGaps = new TreeMap<>();
+            result.parentalAgeGapHistogram.forEach((gap, count) -> {
+                if (count != 0) {
+                    current.parentalAgeGaps.put(gap, count);
+                }
+            });
+        }
+        record(current);
+        synthesised.incrementAndGet();
+        return result;
+    }
+
+    /**
+     * @param previous    The manifest entry of the SA2, or null if there is none
+     * @param current     The entry describing the inputs and settings of this run
+     * @param outputFiles The output files of the SA2
+     * @return Why the SA2 has to be synthesised, or null if it is up to date
+     */
+    private static String staleReason(Entry previous, Entry current, List<Path> outputFiles) {
+        if (previous == null) {
+            return "not in the manifest";
+        }
+        List<String> changedInputs = new ArrayList<>();
+        for (String input : current.inputs.keySet()) {
+            if (previous.inputs == null || !current.inputs.get(input).equals(previous.inputs.get(input))) {
+                changedInputs.add(input);
+            }
+        }
+        if (!changedInputs.isEmpty()) {
+            return "input changed: " + String.join(", ", changedInputs);
+        } else if (!current.inputs.keySet().equals(previous.inputs.keySet())) {
+            return "input files changed";
+        } else if (previous.seed != current.seed) {
+            return "random seed changed";
+        } else if (!current.settings.equals(previous.settings)) {
+            return "settings changed";
+        } else if (!previous.noData) {
+            List<String> missingOutputs = new ArrayList<>();
+            for (Path output : outputFiles) {
+                if (!Files.exists(output)) {
+                    missingOutputs.add(output.getFileName().toString());
+                }
+            }
+            if (!missingOutputs.isEmpty()) {
+                return "output files are missing: " + String.join(", ", missingOutputs);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The number of SA2s skipped because they were up to date
+     */
+    int skippedCount() {
+        return skipped.get();
+    }
+
+    /**
+     * @return The number of SA2s synthesised
+     */
+    int synthesisedCount() {
+        return synthesised.get();
+    }
+
+    /**
+     * Combines the manifests of the shards of a run synthesised by separate processes (see {@link ShardCoordinator}) into one manifest.
+     * The entry of an SA2 is taken from the manifest of the shard the SA2 belongs to. Entries that a shard carried over from an earlier
+     * run are kept for SA2s that belong to no shard.
+     *
+     * @param target         The combined manifest file. It is replaced
+     * @param shardManifests The manifest file of each shard. Missing files are ignored
+     * @param shardSAs       The SA2s of each shard
+     * @throws IOException If reading or writing a manifest fails
+     */
+    static void merge(Path target, List<Path> shardManifests, List<List<String>> shardSAs) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, String> lines = new LinkedHashMap<>();
+        Set<String> owned = new HashSet<>();
+        for (int i = 0; i < shardManifests.size(); i++) {
+            if (!Files.exists(shardManifests.get(i))) {
+                continue;
+            }
+            Set<String> sas = new HashSet<>(shardSAs.get(i));
+            for (String line : Files.readAllLines(shardManifests.get(i), StandardCharsets.UTF_8)) {
+                Entry entry;
+                try {
+                    entry = mapper.readValue(line, Entry.class);
+                } catch (IOException e) {
+                    continue; // A line cut short, as when a manifest is read
+                }
+                if (sas.contains(entry.sa)) {
+                    lines.put(entry.sa, line);
+                    owned.add(entry.sa);
+                } else if (!owned.contains(entry.sa)) {
+                    lines.put(entry.sa, line);
+                }
+            }
+        }
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        Files.write(temp, lines.values(), StandardCharsets.UTF_8);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private synchronized void record(Entry entry) throws IOException {
+        String line = mapper.writeValueAsString(entry) + System.lineSeparator();
+        Files.write(manifestFile,
+                    line.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND,
+                    StandardOpenOption.WRITE);
+        completed.put(entry.sa, entry);
+    }
+
+    /**
+     * A completed SA2. The fields are public so they can be written and read as JSON.
+     */
+    static class Entry {
+        public String sa;
+        public long seed;
+        /**
+         * The fingerprint of the settings of the run that affect this SA2
+         */
+        public String settings;
+        /**
+         * Input file names and the SHA-256 hashes of their contents
+         */
+        public Map<String, String> inputs;
+        /**
+         * True if there was no input data for the SA2
+         */
+        public boolean noData;
+        public int randomAgePersons;
+        /**
+         * The non-zero counts of the parent child age gap histogram
+         */
+        public Map<Integer, Integer> parentalAgeGaps;
+
+        SA2Synthesiser.Result toResult() {
+            if (noData) {
+                return null;
+            }
+            SA2Synthesiser.Result result = new SA2Synthesiser.Result(sa);
+            result.randomAgePersons = randomAgePersons;
+            if (parentalAgeGaps != null) {
+                parentalAgeGaps.forEach((gap, count) -> result.parentalAgeGapHistogram.merge(gap, count, Integer::sum));
+            }
+            return result;
+        }
+    }
+}
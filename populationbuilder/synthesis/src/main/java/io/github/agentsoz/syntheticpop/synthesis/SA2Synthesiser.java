@@ -0,0 +1,447 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import io.github.agentsoz.syntheticpop.filemanager.FileUtils;
+import io.github.agentsoz.syntheticpop.filemanager.zip.GzipCodec;
+import io.github.agentsoz.syntheticpop.synthesis.models.*;
+import io.github.agentsoz.syntheticpop.util.LambdaCheckedException.ThrowingConsumer;
+import io.github.agentsoz.syntheticpop.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Synthesises the population of one SA2 at a time. An instance only holds read-only run settings, so the same instance can be used to
+ * synthesise several SA2s concurrently. Each SA2 draws its random numbers from its own generator seeded by {@link #seedFor(long, String)},
+ * so the population of an SA2 does not depend on which other SA2s are processed or in what order.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+class SA2Synthesiser {
+
+    private final Path inputDirectory;
+    private final Path outputDirectory;
+    private final long randomSeed;
+    private final double nonPrimaryCoupleWithChildProbability;
+    private final ParentChildAgeRule ageRule;
+    private final Map<String, List<Double>> ageDistribution;
+    private final Map<String, String> sa2CodeMap;
+    private final boolean enableSummaryReports;
+    private final Map<String, String> sa1HhDistCsvProperties;
+    private final boolean personsOnly;
+    private final GzipCodec outputCodec;
+    private final InputCache inputCache;
+
+    /**
+     * @param inputDirectory                       The directory containing the preprocessed inputs of each SA2
+     * @param outputDirectory                      The directory to save the population of each SA2
+     * @param randomSeed                           The seed of the run. SA2 level seeds are derived from this
+     * @param nonPrimaryCoupleWithChildProbability The probability of a non-primary couple family having children
+     * @param ageRule                              The parent child age rule
+     * @param ageDistribution                      Age distributions by SA2 name
+     * @param sa2CodeMap                           The map of SA2 names and codes
+     * @param enableSummaryReports                 Whether to save the marginal distribution files
+     * @param sa1HhDistCsvProperties               SA1 household distribution file properties. Households are not assigned to SA1s if
+     *                                             this is null
+     * @param personsOnly                          True to generate only persons instances
+     * @param outputCodec                          The gzip codec to compress the population files with
+     * @param inputCache                           The cache of parsed input files
+     */
+    SA2Synthesiser(Path inputDirectory,
+                   Path outputDirectory,
+                   long randomSeed,
+                   double nonPrimaryCoupleWithChildProbability,
+                   ParentChildAgeRule ageRule,
+                   Map<String, List<Double>> ageDistribution,
+                   Map<String, String> sa2CodeMap,
+                   boolean enableSummaryReports,
+                   Map<String, String> sa1HhDistCsvProperties,
+                   boolean personsOnly,
+                   GzipCodec outputCodec,
+                   InputCache inputCache) {
+        this.inputDirectory = inputDirectory;
+        this.outputDirectory = outputDirectory;
+        this.randomSeed = randomSeed;
+        this.nonPrimaryCoupleWithChildProbability = nonPrimaryCoupleWithChildProbability;
+        this.ageRule = ageRule;
+        this.ageDistribution = ageDistribution;
+        this.sa2CodeMap = sa2CodeMap;
+        this.enableSummaryReports = enableSummaryReports;
+        this.sa1HhDistCsvProperties = sa1HhDistCsvProperties;
+        this.personsOnly = personsOnly;
+        this.outputCodec = outputCodec;
+        this.inputCache = inputCache;
+    }
+
+    /**
+     * Derives the random seed of an SA2 from the seed of the run and the SA2 name. The name is hashed with 64-bit FNV-1a and the result
+     * is mixed with the run seed using the SplitMix64 finaliser, so SA2s with similar names get unrelated random streams.
+     *
+     * @param randomSeed The seed of the run
+     * @param sa2        The SA2 name
+     * @return The random seed of the SA2
+     */
+    static long seedFor(long randomSeed, String sa2) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : sa2.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        long z = randomSeed ^ hash;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param sa The SA2 name
+     * @return The random seed of the SA2 in this run
+     */
+    long seedOf(String sa) {
+        return seedFor(randomSeed, sa);
+    }
+
+    /**
+     * @param sa The SA2 name
+     * @return The input files the population of the SA2 is synthesised from
+     */
+    List<Path> inputFiles(String sa) {
+        List<Path> files = new ArrayList<>(3);
+        files.add(Paths.get(inputDirectory + File.separator + sa + File.separator + "preprocessed/household_types.csv.gz"));
+        files.add(Paths.get(inputDirectory + File.separator + sa + File.separator + "preprocessed/person_types.csv.gz"));
+        if (sa1HhDistCsvProperties != null) {
+            files.add(Paths.get(inputDirectory + File.separator + sa + File.separator + "preprocessed" + File.separator +
+                                        sa1HhDistCsvProperties.get("FileName")));
+        }
+        return files;
+    }
+
+    /**
+     * Fingerprints the settings that change the population of an SA2 other than the input files and the seed: the non-primary couple
+     * with children probability, the parent child age rule, the age distribution of the SA2, the SA2 code, the SA1 distribution file
+     * properties and the output mode. A change in any of these gives a different fingerprint.
+     *
+     * @param sa The SA2 name
+     * @return The SHA-256 hash of the settings
+     */
+    String settingsFingerprint(String sa) {
+        return FileUtils.sha256("NonPrimaryCoupleWithChildProbability=" + nonPrimaryCoupleWithChildProbability
+                                        + "\nParentChildAgeGap=Min:" + ageRule.minAgeGap() + ",Max:" + ageRule.maxAgeGap()
+                                        + "\nAgeDistribution=" + ageDistribution.get(sa)
+                                        + "\nSA2Code=" + sa2CodeMap.get(sa)
+                                        + "\nSA1HhDistFileProperties=" + (sa1HhDistCsvProperties == null
+                                                                          ? null
+                                                                          : new TreeMap<>(sa1HhDistCsvProperties))
+                                        + "\nEnableSummaryReports=" + enableSummaryReports
+                                        + "\nPersonsOnly=" + personsOnly);
+    }
+
+    /**
+     * @param sa The SA2 name
+     * @return The persons file of the SA2, which is written in every mode
+     */
+    Path personsFile(String sa) {
+        return Paths.get(outputDirectory + File.separator + sa + File.separator + "population" + File.separator + "persons.csv.gz");
+    }
+
+    /**
+     * @param sa The SA2 name
+     * @return The files written for the SA2 with the output mode and summary report settings of this synthesiser
+     */
+    List<Path> outputFiles(String sa) {
+        Path outputSA2Location = Paths.get(outputDirectory + File.separator + sa + File.separator + "population");
+        List<Path> files = new ArrayList<>(5);
+        if (!personsOnly) {
+            files.add(outputSA2Location.resolve("households.csv.gz"));
+            files.add(outputSA2Location.resolve("families.csv.gz"));
+        }
+        files.add(personsFile(sa));
+        if (enableSummaryReports) {
+            if (!personsOnly) {
+                files.add(outputSA2Location.resolve("output_household_types.csv.gz"));
+            }
+            files.add(outputSA2Location.resolve("output_person_types.csv.gz"));
+        }
+        return files;
+    }
+
+    /**
+     * Synthesises the population of the specified SA2 and saves it in the output directory.
+     *
+     * @param sa The SA2 name
+     * @return The analysis data of the SA2, or null if there is no input data for the SA2
+     * @throws IOException If reading inputs or writing outputs fail
+     */
+    Result synthesise(String sa) throws IOException {
+        Log.info("Starting: " + sa);
+        long start = System.nanoTime();
+        Result result = new Result(sa);
+        Metrics metrics = result.metrics;
+        List<Path> inputFiles = inputFiles(sa);
+        Path hhFile = inputFiles.get(0);
+        Path indFile = inputFiles.get(1);
+
+        // Read input CSVs
+        Map<String, List<HhRecord>> hhRecs = metrics.time("readHouseholdRecords", () -> inputCache.readHouseholdRecords(hhFile));
+        Map<String, List<IndRecord>> indRecs = metrics.time("readPersonRecords", () -> inputCache.readPersonRecords(indFile));
+
+        if (hhRecs.isEmpty() || indRecs.isEmpty()) {
+            Log.warn("Skipping " + sa + ": No data");
+            return null;
+        }
+
+        Random rand = new Random(seedOf(sa));
+
+        if (personsOnly) {
+            List<Person> personsOfSA2 = populationFactory(hhRecs.get(sa), indRecs.get(sa), rand, metrics).makeAllPersons();
+            result.randomAgePersons = metrics.time("assignAge", () -> assignAge(personsOfSA2, sa, rand));
+
+            metrics.time("assignUniqueIDs", () -> assignUniqueIDs(personsOfSA2, sa2CodeMap.get(sa), null));
+            Log.info("Writing output files to: " + outputDirectory);
+            Path outputSA2Location = Paths.get(outputDirectory + File.separator + sa +
+                                                       File.separator + "population");
+            PopulationTable population = metrics.time("populationTable", () -> PopulationTable.fromPersons(personsOfSA2));
+            save(Paths.get(outputSA2Location + File.separator + "persons.csv.gz"),
+                 metrics,
+                 file -> DataWriter.savePersons(file, population, outputCodec));
+            if (enableSummaryReports) {
+
+                save(Paths.get(outputSA2Location + File.separator + "output_person_types.csv.gz"),
+                     metrics,
+                     file -> DataWriter.savePersonsSummary(indRecs.get(sa), personsOfSA2, file));
+
+            }
+            metrics.gauge("Persons written", population.personCount());
+
+        } else {
+            Path outputSA2Location = Paths.get(outputDirectory + File.separator + sa + File.separator + "population");
+            // The household graph is only referenced while the table is built, so it can be garbage collected while the files are written
+            PopulationTable population = makeHouseholds(sa, hhRecs.get(sa), indRecs.get(sa), rand, result, outputSA2Location);
+            Log.debug("{} population table: {} bytes per person", sa, population.sizeInBytes() / Math.max(1, population.personCount()));
+            save(Paths.get(outputSA2Location + File.separator + "households.csv.gz"),
+                 metrics,
+                 file -> DataWriter.saveHouseholds(file, population, outputCodec));
+            save(Paths.get(outputSA2Location + File.separator + "families.csv.gz"),
+                 metrics,
+                 file -> DataWriter.saveFamilies(file, population, outputCodec));
+            save(Paths.get(outputSA2Location + File.separator + "persons.csv.gz"),
+                 metrics,
+                 file -> DataWriter.savePersons(file, population, outputCodec));
+            metrics.gauge("Households written", population.householdCount());
+            metrics.gauge("Families written", population.familyCount());
+            metrics.gauge("Persons written", population.personCount());
+        }
+        metrics.record("synthesise", System.nanoTime() - start);
+        Log.info("Finished: " + sa);
+        return result;
+    }
+
+    /**
+     * Synthesises the households of the SA2, writes the summary reports if enabled and converts the households to a population table.
+     * The household graph is not referenced after this returns.
+     *
+     * @param sa                The SA2 name
+     * @param hhRecords         The household records of the SA2
+     * @param indRecords        The person records of the SA2
+     * @param rand              The random number generator of the SA2
+     * @param result            The analysis data of the SA2
+     * @param outputSA2Location The output directory of the SA2
+     * @return The population table of the households
+     * @throws IOException If writing the summary reports fails
+     */
+    private PopulationTable makeHouseholds(String sa,
+                                           List<HhRecord> hhRecords,
+                                           List<IndRecord> indRecords,
+                                           Random rand,
+                                           Result result,
+                                           Path outputSA2Location) throws IOException {
+        Metrics metrics = result.metrics;
+        PopulationFactory populationFactory = populationFactory(hhRecords, indRecords, rand, metrics);
+        List<Household> householdsOfSA2 = metrics.time("makePopulation", populationFactory::makePopulation);
+        Log.info(sa + " household construction complete");
+
+        // Link the persons in each household
+        metrics.time("buildRelationships", () -> PersonPropertiesHandler.buildRelationships(householdsOfSA2));
+
+        // Assign actual ages to persons based on their age category and
+        // overall age distribution
+        Log.info("Assigning ages");
+        List<Person> personsOfSA2 = householdsOfSA2.parallelStream()
+                                                   .map(Household::getMembers)
+                                                   .flatMap(List::stream)
+                                                   .collect(Collectors.toList());
+        result.randomAgePersons = metrics.time("assignAge", () -> assignAge(personsOfSA2, sa, rand));
+        recordAgeGapDistribution(householdsOfSA2, result.parentalAgeGapHistogram);
+
+        Log.info("Generating unique IDs");
+        metrics.time("assignUniqueIDs", () -> assignUniqueIDs(householdsOfSA2, sa2CodeMap));
+
+        if (sa1HhDistCsvProperties != null) {
+            Log.info("Assigning households to SA1s");
+            metrics.time("assignHouseholdsToSA1s",
+                         () -> assignHouseholdsToSA1s(sa, sa1HhDistCsvProperties, inputDirectory, householdsOfSA2, rand));
+        }
+
+        Log.info("Writing output files to: " + outputSA2Location);
+        Files.createDirectories(outputSA2Location);
+        if (enableSummaryReports) {
+            save(Paths.get(outputSA2Location + File.separator + "output_household_types.csv.gz"),
+                 metrics,
+                 file -> DataWriter.saveHouseholdSummary(hhRecords, householdsOfSA2, file));
+            save(Paths.get(outputSA2Location + File.separator + "output_person_types.csv.gz"),
+                 metrics,
+                 file -> DataWriter.savePersonsSummary(indRecords, personsOfSA2, file));
+        }
+        return metrics.time("populationTable", () -> PopulationTable.fromHouseholds(householdsOfSA2));
+    }
+
+    /**
+     * Assigns actual ages to persons based on their age category and the age distribution of the SA2
+     *
+     * @return The number of persons whose age was chosen at random
+     */
+    private int assignAge(List<Person> persons, String sa, Random rand) {
+        return PersonPropertiesHandler.assignAge(persons, new AgeSamplingTable(ageDistribution.get(sa)), ageRule, rand);
+    }
+
+    /**
+     * Creates the factory that groups persons into households considering person, household and family types
+     */
+    private PopulationFactory populationFactory(List<HhRecord> hhRecords, List<IndRecord> indRecords, Random rand, Metrics metrics) {
+        return new PopulationFactory(hhRecords, indRecords, nonPrimaryCoupleWithChildProbability, ageRule, rand, metrics);
+    }
+
+    /**
+     * Writes an output file, timing the write under the name of the file and recording the size of the file
+     *
+     * @param file    The output file
+     * @param metrics The metrics of the SA2
+     * @param writer  Writes the file
+     * @throws IOException If writing the file fails
+     */
+    private static void save(Path file, Metrics metrics, ThrowingConsumer<Path, IOException> writer) throws IOException {
+        metrics.time("write " + file.getFileName(), () -> writer.accept(file));
+        metrics.gauge(file.getFileName() + " bytes", Files.size(file));
+    }
+
+    /**
+     * Updates properties in all persons, families and households based on SA2 main code.
+     *
+     * @param allHouseholds Households in the population
+     * @param sa2CodeMap    The map of SA2 names and codes
+     */
+    private static void assignUniqueIDs(List<Household> allHouseholds, Map<String, String> sa2CodeMap) {
+        for (Household h : allHouseholds) {
+            String sa2MainCode = sa2CodeMap.get(h.getSA2Name());
+            h.setSA2MainCode(sa2MainCode);
+            h.setID(sa2MainCode + "H" + h.getID());
+            for (Family f : h.getFamilies()) {
+                f.setID(sa2MainCode + "F" + f.getID());
+                assignUniqueIDs(f.getMembers(), sa2MainCode, f.getID());
+            }
+        }
+    }
+
+    private static void assignUniqueIDs(List<Person> persons, String sa2MainCode, String familyId) {
+        for (Person p : persons) {
+            p.setFamilyID(familyId);
+            p.setSA2MainCode(sa2MainCode);
+            p.setID(sa2MainCode + "P" + p.getID());
+        }
+    }
+
+    private static void assignHouseholdsToSA1s(String thisSA2,
+                                               Map<String, String> sa1HhDistCsvProperties,
+                                               Path inputLocation,
+                                               List<Household> householdsOfSA2,
+                                               Random rand) throws IOException {
+        Path sa1HouseholdsFile = Paths.get(inputLocation + File.separator + thisSA2 + File
+                .separator + "preprocessed" + File.separator + sa1HhDistCsvProperties.get("FileName"));
+        int numberOfPersonsColumn = Integer.parseInt(sa1HhDistCsvProperties.get("NumberOfPersonsColumn"));
+        int familyHouseholdTypeColumn = Integer.parseInt(sa1HhDistCsvProperties.get("FamilyHouseholdTypeColumn"));
+
+        Map<String, Map<String, Integer>> sa1HhCounts = DataReader.readSA1HouseholdDistribution(sa1HouseholdsFile,
+                                                                                                numberOfPersonsColumn,
+                                                                                                familyHouseholdTypeColumn);
+        Map<String, List<Household>> hhsByType = HouseholdSummary.groupHouseholdsByHouseholdType(householdsOfSA2);
+
+        SA1PopulationMaker.distributePopulationToSA1s(sa1HhCounts, hhsByType, rand);
+    }
+
+    private static void recordAgeGapDistribution(List<Household> householdsOfSA2, Map<Integer, Integer> parentalAgeGapHistogram) {
+        for (Household h : householdsOfSA2) {
+            for (Person m : h.getMembers()) {
+                if (m.isChild()) {
+                    if (m.getFather() != null) {
+                        int ageGapDad = m.getFather().getAge() - m.getAge();
+                        parentalAgeGapHistogram.compute(ageGapDad, (k, v) -> v + 1);
+                    }
+                    if (m.getMother() != null) {
+                        int ageGapMom = m.getMother().getAge() - m.getAge();
+                        parentalAgeGapHistogram.compute(ageGapMom, (k, v) -> v + 1);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a parent child age gap histogram with all the bins set to 0
+     *
+     * @return The empty histogram
+     */
+    static Map<Integer, Integer> newAgeGapHistogram() {
+        Map<Integer, Integer> parentalAgeGapHistogram = new LinkedHashMap<>();
+        for (int i = 0; i < 115; i++) {
+            parentalAgeGapHistogram.put(i, 0);
+        }
+        return parentalAgeGapHistogram;
+    }
+
+    /**
+     * The analysis data of a synthesised SA2. These are merged across SA2s to produce the analysis files of the run. The metrics are
+     * written to the performance report of the run.
+     */
+    static class Result {
+        final String sa;
+        final Map<Integer, Integer> parentalAgeGapHistogram = newAgeGapHistogram();
+        final Metrics metrics = new Metrics();
+        int randomAgePersons = 0;
+
+        Result(String sa) {
+            this.sa = sa;
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import io.github.agentsoz.syntheticpop.filemanager.csv.CSVReader;
+import io.github.agentsoz.syntheticpop.filemanager.csv.CSVWriter;
+import io.github.agentsoz.syntheticpop.synthesis.models.IndRecord;
+import io.github.agentsoz.syntheticpop.util.ConfigProperties;
+import io.github.agentsoz.syntheticpop.util.GlobalConstants;
+import io.github.agentsoz.syntheticpop.util.Log;
+import org.apache.commons.csv.CSVFormat;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Spreads the synthesis of the SA2s in SAList over several processes. The SA2s are split into shards with about the same number of
+ * persons, and each shard is synthesised by a separate {@link App} process with its own properties file, SA list, analysis directory, run
+ * manifest and log file. The population files of all shards are written to OutputDirectory as usual. When all shards are done, the
+ * analysis files and run manifests of the shards are merged, so AnalysisDirectory gets the same files as a single process synthesising
+ * all SA2s. Each SA2 draws its random numbers from its own generator, so the populations do not depend on the shards either.
+ * <p>
+ * The coordinator has three modes:
+ * <ul>
+ * <li>run - splits the SA2s, starts a worker process for each shard on this machine, waits for them and merges their outputs. This is
+ * the default</li>
+ * <li>plan - splits the SA2s and prints the command of each worker, to run the workers on other machines that share the file system</li>
+ * <li>merge - merges the outputs of the workers started after plan</li>
+ * </ul>
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+public class ShardCoordinator {
+
+    private static final String SA_LIST_FILE = "sa_list.txt";
+    private static final String PROPERTIES_FILE = "shard.properties";
+    private static final String LOG_FILE = "synthesis.log";
+    private static final String ANALYSIS_DIRECTORY = "analysis";
+    private static final String AGE_GAP_FILE = "parent_child_age_gap.csv";
+    private static final String RANDOM_AGE_FILE = "age_randomly_assigned_persons.csv";
+    private static final String PERFORMANCE_FILE = "performance.csv";
+
+    private final ConfigProperties props;
+    private final Path inputDirectory;
+    private final Path outputDirectory;
+    private final Path analysisDirectory;
+    private final Path shardDirectory;
+    private final String manifestFile;
+    private final boolean resume;
+    private final boolean personsOnly;
+
+    /**
+     * @param props       The properties of the run
+     * @param personsOnly True to generate only persons instances
+     */
+    ShardCoordinator(ConfigProperties props, boolean personsOnly) {
+        this.props = props;
+        this.inputDirectory = props.readFileOrDirectoryPath("InputDirectory");
+        this.outputDirectory = props.readFileOrDirectoryPath("OutputDirectory");
+        this.analysisDirectory = props.readFileOrDirectoryPath("AnalysisDirectory");
+        String shards = props.getOrDefault("ShardDirectory", "").toString().trim();
+        this.shardDirectory = shards.isEmpty() ? analysisDirectory.resolve("shards") : props.readFileOrDirectoryPath("ShardDirectory");
+        this.manifestFile = props.getOrDefault("ManifestFile", RunManifest.FILE_NAME).toString().trim();
+        this.resume = props.getOrDefault("Resume", "false").toString().trim().toLowerCase().equals("true");
+        this.personsOnly = personsOnly;
+    }
+
+    /**
+     * Splits the SA2s into shards with about the same number of persons. The SA2s are taken from the largest to the smallest and each is
+     * added to the shard with the fewest persons so far, or the fewest SA2s if the shards have the same number of persons. The SA2s of a
+     * shard keep their order in the SA list.
+     *
+     * @param saList  The SA2s in the order of the SA list
+     * @param persons The number of persons of each SA2
+     * @param shards  The number of shards
+     * @return The SA2s of each shard. Shards without SA2s are left out
+     */
+    static List<List<String>> partition(List<String> saList, Map<String, Long> persons, int shards) {
+        List<Integer> bySize = new ArrayList<>(saList.size());
+        for (int i = 0; i < saList.size(); i++) {
+            bySize.add(i);
+        }
+        // Stable sort, so SA2s of the same size are assigned in list order
+        bySize.sort(Comparator.comparingLong((Integer i) -> persons.getOrDefault(saList.get(i), 0L)).reversed());
+
+        long[] load = new long[shards];
+        List<SortedSet<Integer>> members = new ArrayList<>(shards);
+        for (int s = 0; s < shards; s++) {
+            members.add(new TreeSet<>());
+        }
+        for (int i : bySize) {
+            int lightest = 0;
+            for (int s = 1; s < shards; s++) {
+                if (load[s] < load[lightest] || (load[s] == load[lightest] && members.get(s).size() < members.get(lightest).size())) {
+                    lightest = s;
+                }
+            }
+            load[lightest] += persons.getOrDefault(saList.get(i), 0L);
+            members.get(lightest).add(i);
+        }
+        return members.stream()
+                      .filter(m -> !m.isEmpty())
+                      .map(m -> m.stream().map(saList::get).collect(Collectors.toList()))
+                      .collect(Collectors.toList());
+    }
+
+    /**
+     * @param saList The SA2s
+     * @return The number of persons in the person types file of each SA2. SA2s without a person types file have 0 persons
+     * @throws IOException If reading a file fails
+     */
+    Map<String, Long> countPersons(List<String> saList) throws IOException {
+        Map<String, Long> persons = new HashMap<>();
+        for (String sa : saList) {
+            Path indFile = Paths.get(inputDirectory + File.separator + sa + File.separator + "preprocessed/person_types.csv.gz");
+            long count = 0;
+            if (Files.exists(indFile)) {
+                for (IndRecord r : DataReader.readPersonRecords(indFile).getOrDefault(sa, Collections.emptyList())) {
+                    count += r.IND_COUNT;
+                }
+            }
+            persons.put(sa, count);
+        }
+        return persons;
+    }
+
+    /**
+     * Splits the SA2s into shards and writes the SA list and properties file of each shard. If resuming, each shard starts from a copy of
+     * the run manifest.
+     *
+     * @param shards The number of shards
+     * @return The SA2s of each shard
+     * @throws IOException If reading the inputs or writing the shard files fails
+     */
+    List<List<String>> plan(int shards) throws IOException {
+        List<String> saList = props.getSAList("SAList", inputDirectory)
+                                   .stream()
+                                   .map(String::trim)
+                                   .collect(Collectors.toList());
+        Map<String, Long> persons = countPersons(saList);
+        List<List<String>> shardSAs = partition(saList, persons, shards);
+
+        Files.createDirectories(shardDirectory);
+        Files.write(shardDirectory.resolve(SA_LIST_FILE), saList, StandardCharsets.UTF_8);
+        // Shards of an earlier plan with more shards would otherwise be merged too
+        for (int s = shardSAs.size(); Files.exists(shardDirectory(s)); s++) {
+            try (Stream<Path> files = Files.walk(shardDirectory(s))) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                    Files.delete(file);
+                }
+            }
+        }
+        Path manifest = outputDirectory.resolve(manifestFile);
+        for (int s = 0; s < shardSAs.size(); s++) {
+            Path dir = shardDirectory(s);
+            Files.createDirectories(dir.resolve(ANALYSIS_DIRECTORY));
+            Files.write(dir.resolve(SA_LIST_FILE), shardSAs.get(s), StandardCharsets.UTF_8);
+
+            Properties shardProps = new Properties();
+            shardProps.putAll(props);
+            shardProps.setProperty("SAList", dir.resolve(SA_LIST_FILE).toString());
+            shardProps.setProperty("AnalysisDirectory", dir.resolve(ANALYSIS_DIRECTORY).toString());
+            shardProps.setProperty("ManifestFile", shardManifestFile(s));
+            try (Writer writer = Files.newBufferedWriter(dir.resolve(PROPERTIES_FILE), StandardCharsets.ISO_8859_1)) {
+                shardProps.store(writer, "Shard " + (s + 1) + " of " + shardSAs.size());
+            }
+            if (resume && Files.exists(manifest)) {
+                Files.createDirectories(outputDirectory);
+                Files.copy(manifest, outputDirectory.resolve(shardManifestFile(s)), StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            long shardPersons = shardSAs.get(s).stream().mapToLong(persons::get).sum();
+            Log.info("Shard " + (s + 1) + ": " + shardSAs.get(s).size() + " SA2s, " + shardPersons + " persons");
+        }
+        return shardSAs;
+    }
+
+    /**
+     * @param shard The shard index
+     * @return The command that synthesises the shard
+     */
+    List<String> command(int shard) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        String javaOptions = props.getOrDefault("ShardJavaOptions", "").toString().trim();
+        if (!javaOptions.isEmpty()) {
+            command.addAll(Arrays.asList(javaOptions.split("\\s+")));
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(App.class.getName());
+        command.add(shardDirectory(shard).resolve(PROPERTIES_FILE).toString());
+        if (personsOnly) {
+            command.add("-p");
+        }
+        command.add("-l=" + shardDirectory(shard).resolve(LOG_FILE));
+        return command;
+    }
+
+    /**
+     * Starts a worker process for each shard and waits for all of them.
+     *
+     * @param shards The number of shards
+     * @return The shards whose worker failed, empty if all succeeded
+     * @throws IOException If a worker cannot be started
+     */
+    List<Integer> runWorkers(int shards) throws IOException {
+        List<Process> workers = new ArrayList<>(shards);
+        for (int s = 0; s < shards; s++) {
+            Log.info("Starting shard " + (s + 1) + ": " + String.join(" ", command(s)));
+            workers.add(new ProcessBuilder(command(s)).redirectErrorStream(true)
+                                                      .redirectOutput(shardDirectory(s).resolve("console.txt").toFile())
+                                                      .start());
+        }
+        List<Integer> failed = new ArrayList<>();
+        for (int s = 0; s < shards; s++) {
+            int exitCode;
+            try {
+                exitCode = workers.get(s).waitFor();
+            } catch (InterruptedException e) {
+                workers.forEach(Process::destroy);
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the shards", e);
+            }
+            if (exitCode != 0) {
+                Log.error("Shard " + (s + 1) + " failed with exit code " + exitCode + ". See " + shardDirectory(s).resolve(LOG_FILE));
+                failed.add(s);
+            } else {
+                Log.info("Shard " + (s + 1) + " finished");
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Merges the analysis files and run manifests of the shards written by {@link #plan(int)}. The analysis files are the same as the
+     * files of a single process synthesising all SA2s: the parent child age gap histograms are added up and the SA2s with randomly
+     * assigned ages and the performance report rows are listed in the order of the SA list.
+     *
+     * @throws IOException If a shard has no analysis files or writing the merged files fails
+     */
+    void merge() throws IOException {
+        List<String> saList = Files.readAllLines(shardDirectory.resolve(SA_LIST_FILE), StandardCharsets.UTF_8);
+        List<List<String>> shardSAs = new ArrayList<>();
+        while (Files.exists(shardDirectory(shardSAs.size()).resolve(SA_LIST_FILE))) {
+            shardSAs.add(Files.readAllLines(shardDirectory(shardSAs.size()).resolve(SA_LIST_FILE), StandardCharsets.UTF_8));
+        }
+
+        Map<Integer, Integer> parentalAgeGapHistogram = SA2Synthesiser.newAgeGapHistogram();
+        Map<String, Integer> randomAges = new HashMap<>();
+        Map<String, List<List<String>>> performance = new HashMap<>();
+        List<String> performanceHeader = null;
+        for (int s = 0; s < shardSAs.size(); s++) {
+            Path analysis = shardDirectory(s).resolve(ANALYSIS_DIRECTORY);
+            if (!Files.exists(analysis.resolve(AGE_GAP_FILE))) {
+                throw new IOException("Shard " + (s + 1) + " has not finished: no " + analysis.resolve(AGE_GAP_FILE));
+            }
+            for (List<String> row : readRows(analysis.resolve(AGE_GAP_FILE))) {
+                parentalAgeGapHistogram.merge(Integer.parseInt(row.get(0)), Integer.parseInt(row.get(1)), Integer::sum);
+            }
+            if (Files.exists(analysis.resolve(RANDOM_AGE_FILE))) {
+                for (List<String> row : readRows(analysis.resolve(RANDOM_AGE_FILE))) {
+                    randomAges.put(row.get(0), Integer.parseInt(row.get(1)));
+                }
+            }
+            if (Files.exists(analysis.resolve(PERFORMANCE_FILE))) {
+                List<List<String>> rows = new CSVReader(CSVFormat.DEFAULT).readCsvRows(Files.newBufferedReader(analysis.resolve(
+                        PERFORMANCE_FILE)));
+                performanceHeader = rows.get(0);
+                for (List<String> row : rows.subList(1, rows.size())) {
+                    performance.computeIfAbsent(row.get(0), k -> new ArrayList<>()).add(row);
+                }
+            }
+        }
+
+        Map<String, Integer> randomAgeAssignments = new LinkedHashMap<>();
+        List<List<String>> performanceRows = new ArrayList<>();
+        for (String sa : saList) {
+            if (randomAges.containsKey(sa)) {
+                randomAgeAssignments.put(sa, randomAges.get(sa));
+            }
+            performanceRows.addAll(performance.getOrDefault(sa, Collections.emptyList()));
+        }
+
+        Log.info("Writing analysis data files to: " + analysisDirectory);
+        Files.createDirectories(analysisDirectory);
+        DataWriter.saveParentChildAgeGapSummary(analysisDirectory.resolve(AGE_GAP_FILE), parentalAgeGapHistogram);
+        if (!randomAgeAssignments.isEmpty()) {
+            DataWriter.saveRandomAgeAssignedPersons(analysisDirectory.resolve(RANDOM_AGE_FILE), randomAgeAssignments);
+        }
+        if (performanceHeader != null) {
+            performanceRows.add(0, performanceHeader);
+            new CSVWriter().writeAsCsv(new OutputStreamWriter(new BufferedOutputStream(Files.newOutputStream(analysisDirectory.resolve(
+                    PERFORMANCE_FILE)))), performanceRows);
+        }
+
+        // The manifest of the run lists the SA2s of all shards, so a later run can resume with or without shards
+        List<Path> shardManifests = new ArrayList<>();
+        for (int s = 0; s < shardSAs.size(); s++) {
+            shardManifests.add(outputDirectory.resolve(shardManifestFile(s)));
+        }
+        RunManifest.merge(outputDirectory.resolve(manifestFile), shardManifests, shardSAs);
+        for (Path shardManifest : shardManifests) {
+            Files.deleteIfExists(shardManifest);
+        }
+    }
+
+    private static List<List<String>> readRows(Path csvFile) throws IOException {
+        List<List<String>> rows = new CSVReader(CSVFormat.DEFAULT).readCsvRows(Files.newBufferedReader(csvFile));
+        return rows.subList(1, rows.size()); // Without the header
+    }
+
+    private Path shardDirectory(int shard) {
+        return shardDirectory.resolve("shard-" + (shard + 1));
+    }
+
+    private String shardManifestFile(int shard) {
+        return manifestFile + ".shard-" + (shard + 1);
+    }
+
+    private static void usage() {
+        System.out.println("Usage: java -cp synthesis.jar io.github.agentsoz.syntheticpop.synthesis.ShardCoordinator <properties file> "
+                                   + "[run|plan|merge] [-p]");
+        System.out.println("This program synthesises the SA2s in the properties file using several processes\n");
+        System.out.println("Modes:");
+        System.out.println("   run");
+        System.out.println("       Start a worker process for each shard on this machine and merge their outputs. This is the default");
+        System.out.println("   plan");
+        System.out.println("       Write the files of each shard and print the commands to run the workers, e.g. on other machines");
+        System.out.println("   merge");
+        System.out.println("       Merge the outputs of the workers started after plan");
+        System.out.println("Options:");
+        System.out.println("   -p");
+        System.out.println("       Generate only persons instances");
+        System.exit(0);
+    }
+
+    public static void main(String[] args) {
+        long startTime = System.currentTimeMillis();
+        Log.createLogger("ShardCoordinator", "ShardCoordinator.log");
+
+        String mode = "run";
+        boolean personsOnly = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("-p")) {
+                personsOnly = true;
+            } else if (Arrays.asList("run", "plan", "merge").contains(args[i])) {
+                mode = args[i];
+            } else {
+                usage();
+            }
+        }
+        ConfigProperties props = null;
+        try {
+            props = new ConfigProperties(args[0]);
+        } catch (Exception e) {
+            usage();
+        }
+
+        int shards = 0;
+        try {
+            shards = Integer.parseInt(props.getProperty("Shards").trim());
+        } catch (NumberFormatException e) {
+            Log.errorAndExit("Invalid Shards: " + e.getMessage(), GlobalConstants.ExitCode.USERINPUT);
+        }
+        if (shards < 1) {
+            Log.errorAndExit("Shards must be at least 1", GlobalConstants.ExitCode.USERINPUT);
+        }
+
+        ShardCoordinator coordinator = new ShardCoordinator(props, personsOnly);
+        try {
+            if (!mode.equals("merge")) {
+                List<List<String>> shardSAs = coordinator.plan(shards);
+                if (mode.equals("plan")) {
+                    System.out.println("Run these commands from " + System.getProperty("user.dir") + ", then run the merge mode:");
+                    for (int s = 0; s < shardSAs.size(); s++) {
+                        System.out.println(coordinator.command(s).stream().collect(Collectors.joining("' '", "'", "'")));
+                    }
+                    return;
+                }
+                List<Integer> failed = coordinator.runWorkers(shardSAs.size());
+                if (!failed.isEmpty()) {
+                    Log.errorAndExit(failed.size() + " shard(s) failed", GlobalConstants.ExitCode.PROGERROR);
+                }
+            }
+            coordinator.merge();
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        double timeSpent = (System.currentTimeMillis() - startTime) / (double) 1000;
+        Log.info("Done!");
+        Log.info("Execution time: " + timeSpent + " secs");
+    }
+}
@@ -26,24 +26,33 @@ package io.github.agentsoz.syntheticpop.synthesis.models;
  */
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * @author wniroshan 19 May 2016
  */
 public class Family {
-    private static long IDCounter = 1;
-    private static Map<String, Person> allMembersAlreadyInFamilies = new HashMap<>();
+    private final long numericID;
     private List<Person> members;
     private FamilyType type;
     private String familyID;
 
+    /**
+     * Creates a family with an ID from the JVM wide {@link IDAllocator}. Families of a synthesised population are created with {@link
+     * #Family(long)} using the allocator of the synthesis run.
+     */
     public Family() {
+        this(IDAllocator.shared().nextFamilyID());
+    }
+
+    /**
+     * @param numericID The ID of this family, unique within the synthesis run
+     */
+    public Family(long numericID) {
         this.members = new ArrayList<>();
-        this.familyID = String.valueOf(IDCounter++);
+        this.numericID = numericID;
+        this.familyID = String.valueOf(numericID);
     }
 
     public String getID() {
@@ -52,6 +61,15 @@ public class Family {
 
     public void setID(String ID) { this.familyID = ID;}
 
+    /**
+     * The numeric ID this family was created with. Unlike {@link #getID()}, this does not change when the ID is updated.
+     *
+     * @return The numeric ID
+     */
+    public long getNumericID() {
+        return numericID;
+    }
+
     /**
      * Number of members in the family
      *
@@ -25,9 +25,7 @@ package io.github.agentsoz.syntheticpop.synthesis.models;
 import io.github.agentsoz.syntheticpop.util.Log;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * @author Bhagya N. Wickramasinghe
@@ -35,8 +33,7 @@ import java.util.Map;
 public class Household {
 
 
-    private static long IDCounter = 1;
-    private static Map<String, Family> familiesAddedToHouseholds = new HashMap<>();
+    private final long numericID;
     private int expectedSize;
     private FamilyHouseholdType familyHhType;
     private String SA2_NAME;
@@ -48,16 +45,37 @@ public class Household {
     private String SA1_7DIG11;
     private String SA2_MAINCODE;
 
+    /**
+     * Creates a household with an ID from the JVM wide {@link IDAllocator}. Households of a synthesised population are created with
+     * {@link #Household(int, FamilyHouseholdType, String, long)} using the allocator of the synthesis run.
+     *
+     * @param expectedSize                The number of persons in the household
+     * @param expectedFamilyHouseholdType The household type
+     * @param sa2                         The name of the SA2 of the household
+     */
     public Household(int expectedSize, FamilyHouseholdType expectedFamilyHouseholdType, String sa2) {
+        this(expectedSize, expectedFamilyHouseholdType, sa2, IDAllocator.shared().nextHouseholdID());
+    }
+
+    /**
+     * @param expectedSize                The number of persons in the household
+     * @param expectedFamilyHouseholdType The household type
+     * @param sa2                         The name of the SA2 of the household
+     * @param numericID                   The ID of this household, unique within the synthesis run
+     */
+    public Household(int expectedSize, FamilyHouseholdType expectedFamilyHouseholdType, String sa2, long numericID) {
         this.expectedSize = expectedSize;
         this.familyHhType = expectedFamilyHouseholdType;
         this.SA2_NAME = sa2;
 
         this.families = new ArrayList<>();
-        this.householdID = String.valueOf(IDCounter++);
+        this.numericID = numericID;
+        this.householdID = String.valueOf(numericID);
     }
 
-    public Household() {}
+    public Household() {
+        this.numericID = 0;
+    }
 
     public String getSA2MainCode() {
         return this.SA2_MAINCODE;
@@ -117,6 +135,15 @@ public class Household {
         this.householdID = ID;
     }
 
+    /**
+     * The numeric ID this household was created with. Unlike {@link #getID()}, this does not change when the ID is updated.
+     *
+     * @return The numeric ID
+     */
+    public long getNumericID() {
+        return numericID;
+    }
+
     /**
      * @return the families
      */
@@ -139,9 +166,7 @@ public class Household {
         if (this.families.contains(family)) {
             throw new Error("Family already exists in this household");
         } else {
-
             this.families.add(family);
-            Household.familiesAddedToHouseholds.put(family.getID(), family);
         }
     }
 
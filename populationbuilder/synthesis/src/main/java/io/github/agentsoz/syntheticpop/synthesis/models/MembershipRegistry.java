@@ -0,0 +1,88 @@
+package io.github.agentsoz.syntheticpop.synthesis.models;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.BitSet;
+
+/**
+ * Tracks which families have been added to households and which persons are members of a family during one synthesis run. Entities are
+ * identified by their numeric IDs, which are dense within a run, so membership is kept in bit sets rather than maps of objects. The
+ * registry does not keep references to the entities, and {@link #release()} drops the recorded memberships once the run no longer needs
+ * them.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+public final class MembershipRegistry {
+
+    private BitSet familiesInHouseholds = new BitSet();
+    private BitSet personsInFamilies = new BitSet();
+
+    /**
+     * Records that the family is added to a household.
+     *
+     * @param family The family
+     * @throws Error If the family is already in a household
+     */
+    public void addFamilyToHousehold(Family family) {
+        int index = index(family.getNumericID());
+        if (familiesInHouseholds.get(index)) {
+            throw new Error("Family " + family.getID() + " is already in a household");
+        }
+        familiesInHouseholds.set(index);
+    }
+
+    /**
+     * @param family The family
+     * @return True if the family has been added to a household
+     */
+    public boolean isInHousehold(Family family) {
+        return familiesInHouseholds.get(index(family.getNumericID()));
+    }
+
+    /**
+     * Records that the person is a member of a family.
+     *
+     * @param person The person
+     * @return False if the person has already been recorded as a member of a family
+     */
+    public boolean addPersonToFamily(Person person) {
+        int index = index(person.getNumericID());
+        if (personsInFamilies.get(index)) {
+            return false;
+        }
+        personsInFamilies.set(index);
+        return true;
+    }
+
+    /**
+     * Drops all recorded memberships.
+     */
+    public void release() {
+        familiesInHouseholds = new BitSet();
+        personsInFamilies = new BitSet();
+    }
+
+    private static int index(long numericID) {
+        return Math.toIntExact(numericID);
+    }
+}
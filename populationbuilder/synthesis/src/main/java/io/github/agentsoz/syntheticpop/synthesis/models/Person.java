@@ -37,7 +37,7 @@ import java.util.Objects;
  */
 public class Person {
 
-    private static long IDCounter = 1;
+    private final long numericID;
     private String personID;
     private String familyID;
     private RelationshipStatus type;
@@ -55,8 +55,20 @@ public class Person {
     private List<Person> siblings;
     private List<Person> groupHouseholdMembers;
 
+    /**
+     * Creates a person with an ID from the JVM wide {@link IDAllocator}. Persons of a synthesised population are created with {@link
+     * #Person(long)} using the allocator of the synthesis run.
+     */
     public Person() {
-        this.personID = String.valueOf(IDCounter++);
+        this(IDAllocator.shared().nextPersonID());
+    }
+
+    /**
+     * @param numericID The ID of this person, unique within the synthesis run
+     */
+    public Person(long numericID) {
+        this.numericID = numericID;
+        this.personID = String.valueOf(numericID);
     }
 
     public RelationshipStatus getRelationshipStatus() {
@@ -97,6 +109,15 @@ public class Person {
 
     public void setID(String id) {this.personID = id;}
 
+    /**
+     * The numeric ID this person was created with. Unlike {@link #getID()}, this does not change when the ID is updated.
+     *
+     * @return The numeric ID
+     */
+    public long getNumericID() {
+        return numericID;
+    }
+
     public void clearFamilyID() {
         this.familyID = null;
     }
@@ -0,0 +1,124 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import io.github.agentsoz.syntheticpop.synthesis.models.AgeRange;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author wniroshan 18 Oct 2026
+ */
+public class AgeSamplingTableTest {
+
+    private List<Double> ageDistribution;
+    private AgeSamplingTable table;
+
+    @Before
+    public void setUp() {
+        ageDistribution = new ArrayList<>();
+        for (int age = 0; age <= AgeRange.A100_110.max(); age++) {
+            ageDistribution.add(0.5 + (age % 7));
+        }
+        // Ages 20 to 24 have weights 1, 0, 3, 0, 6 and ages 30 to 34 have no persons
+        double[] weights = {1, 0, 3, 0, 6};
+        for (int i = 0; i < weights.length; i++) {
+            ageDistribution.set(20 + i, weights[i]);
+            ageDistribution.set(30 + i, 0.0);
+        }
+        table = new AgeSamplingTable(ageDistribution);
+    }
+
+    @Test
+    public void testSampleFollowsWeights() {
+        Random random = new Random(4456);
+        int[] counts = new int[5];
+        int samples = 100000;
+        for (int i = 0; i < samples; i++) {
+            int age = table.sample(20, 24, random);
+            Assert.assertTrue("Age " + age + " is in the interval", age >= 20 && age <= 24);
+            counts[age - 20]++;
+        }
+        Assert.assertEquals(0, counts[1]);
+        Assert.assertEquals(0, counts[3]);
+        Assert.assertEquals(0.1, counts[0] / (double) samples, 0.01);
+        Assert.assertEquals(0.3, counts[2] / (double) samples, 0.01);
+        Assert.assertEquals(0.6, counts[4] / (double) samples, 0.01);
+    }
+
+    @Test
+    public void testSampleMatchesLinearScan() {
+        Random random = new Random(4456);
+        Random expectedRandom = new Random(4456);
+        for (AgeRange ageRange : AgeRange.values()) {
+            for (int min = ageRange.min(); min <= ageRange.max(); min++) {
+                for (int max = min; max <= ageRange.max(); max++) {
+                    for (int i = 0; i < 20; i++) {
+                        Assert.assertEquals(ageRange + " " + min + "-" + max,
+                                            linearScan(min, max, expectedRandom),
+                                            table.sample(min, max, random));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyInterval() {
+        Assert.assertTrue(table.isEmpty(30, 34));
+        Assert.assertTrue(table.isEmpty(31, 31));
+        Assert.assertFalse(table.isEmpty(29, 30));
+        Assert.assertFalse(table.isEmpty(20, 20));
+        Assert.assertEquals(-1, table.sample(30, 34, new Random(4456)));
+        Assert.assertEquals(20, table.sample(20, 20, new Random(4456)));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIntervalOutsideDistribution() {
+        table.sample(100, AgeRange.A100_110.max() + 1, new Random(4456));
+    }
+
+    /**
+     * The original sampling: computes the probabilities of the interval and scans them in age order
+     */
+    private int linearScan(int minAge, int maxAge, Random random) {
+        List<Double> agePercentages = ageDistribution.subList(minAge, maxAge + 1);
+        double percentagesSum = agePercentages.stream().mapToDouble(e -> e).sum();
+        if (percentagesSum == 0) {
+            return -1;
+        }
+        double ageOffSet = random.nextDouble();
+        double sum = 0;
+        for (int i = 0; i < agePercentages.size(); i++) {
+            sum += agePercentages.get(i) / percentagesSum;
+            if (ageOffSet <= sum) {
+                return minAge + i;
+            }
+        }
+        return -1;
+    }
+}
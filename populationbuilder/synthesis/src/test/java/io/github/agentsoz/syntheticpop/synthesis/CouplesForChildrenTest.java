@@ -0,0 +1,127 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import io.github.agentsoz.syntheticpop.synthesis.models.AgeRange;
+import io.github.agentsoz.syntheticpop.synthesis.models.Family;
+import io.github.agentsoz.syntheticpop.synthesis.models.Person;
+import io.github.agentsoz.syntheticpop.synthesis.models.RelationshipStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests the Fenwick tree selection of {@link FamilyFactory.CouplesForChildren}
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+public class CouplesForChildrenTest {
+
+    @Test
+    public void testPrefixSumsAndFindNth() {
+        Random random = new Random(4456);
+        int[] counts = new int[100];
+        int[] tree = new int[counts.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = random.nextInt(3);
+            FamilyFactory.CouplesForChildren.add(tree, i, counts[i]);
+        }
+
+        for (int update = 0; update < 200; update++) {
+            int sum = 0;
+            for (int i = 0; i <= counts.length; i++) {
+                Assert.assertEquals("Prefix " + i, sum, FamilyFactory.CouplesForChildren.prefixSum(tree, i));
+                if (i < counts.length) {
+                    // Every count up to the sum at this position is found at this position
+                    for (int n = sum + 1; n <= sum + counts[i]; n++) {
+                        Assert.assertEquals("Nth " + n, i, FamilyFactory.CouplesForChildren.findNth(tree, n));
+                    }
+                    sum += counts[i];
+                }
+            }
+
+            // Removes or adds one at a random position
+            int index = random.nextInt(counts.length);
+            int delta = counts[index] > 0 && random.nextBoolean() ? -1 : 1;
+            counts[index] += delta;
+            FamilyFactory.CouplesForChildren.add(tree, index, delta);
+        }
+    }
+
+    @Test
+    public void testSelectionMatchesScanningSuitableCouples() {
+        ParentChildAgeRule ageRule = new ParentChildAgeRule(18, 40);
+        Random random = new Random(4456);
+        List<Family> couples = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Family family = new Family(i);
+            family.addMember(parent(18 + random.nextInt(60), random.nextBoolean()));
+            if (random.nextInt(4) > 0) {
+                family.addMember(parent(18 + random.nextInt(60), random.nextBoolean()));
+            }
+            couples.add(family);
+        }
+        List<Family> remaining = new ArrayList<>(couples);
+
+        Random selectRandom = new Random(6718);
+        Random expectedRandom = new Random(6718);
+        try (FamilyFactory.CouplesForChildren couplesForChildren = new FamilyFactory.CouplesForChildren(couples, ageRule)) {
+            for (int c = 0; c < 400; c++) {
+                Person child = new Person(c);
+                child.setAgeRange(AgeRange.values()[random.nextInt(3)]);
+                child.setAge(child.getAgeRange().min() + random.nextInt(child.getAgeRange().max() - child.getAgeRange().min() + 1));
+
+                // Picks a random couple from the suitable couples in the list order
+                List<Family> suitable = new ArrayList<>();
+                for (Family f : remaining) {
+                    List<Person> parents = f.getParents();
+                    if (ageRule.isValid(parents.get(0).getAge(),
+                                        parents.size() == 2 ? parents.get(1).getAge() : ParentChildAgeRule.NO_PARENT,
+                                        child.getAge())) {
+                        suitable.add(f);
+                    }
+                }
+                Family expected = suitable.isEmpty() ? null : suitable.get(expectedRandom.nextInt(suitable.size()));
+
+                Assert.assertSame("Child " + c, expected, couplesForChildren.removeFamilyForChild(child, selectRandom));
+                remaining.remove(expected);
+            }
+        }
+        Assert.assertTrue(remaining.size() < 300);
+        Assert.assertEquals("Selected couples are removed and the rest keep their order", remaining, couples);
+    }
+
+    private static Person parent(int age, boolean married) {
+        Person p = new Person();
+        p.setRelationshipStatus(married ? RelationshipStatus.MARRIED : RelationshipStatus.LONE_PARENT);
+        p.setAge(age);
+        for (AgeRange ageRange : AgeRange.values()) {
+            if (ageRange.min() <= age && age <= ageRange.max()) {
+                p.setAgeRange(ageRange);
+            }
+        }
+        return p;
+    }
+}
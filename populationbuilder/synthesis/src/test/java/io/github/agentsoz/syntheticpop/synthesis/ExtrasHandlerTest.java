@@ -75,7 +75,7 @@ public class ExtrasHandlerTest {
 
         Field field = ExtrasHandler.class.getDeclaredField("extras");
         field.setAccessible(true);
-        List<Person> extras = (List<Person>) field.get(extrasHandler);
+        List<Person> extras = ((ExtrasPool) field.get(extrasHandler)).snapshot();
 
         Person lastAddedToExtras = extras.get(extras.size() - 1);
         Assert.assertEquals("New person added to extra - age", lastAddedToExtras.getAgeRange(), AgeRange.A25_39);
@@ -105,11 +105,35 @@ public class ExtrasHandlerTest {
 
         Field field = ExtrasHandler.class.getDeclaredField("extras");
         field.setAccessible(true);
-        List<Person> extras = (List<Person>) field.get(extrasHandler);
+        List<Person> extras = ((ExtrasPool) field.get(extrasHandler)).snapshot();
 
         Assert.assertTrue("All persons in extras have no sex", extras.stream().filter(e -> e.getSex() == null).count() == extrasHandler.remainingExtras());
         Assert.assertTrue("All persons in extras have no age range", extras.stream().filter(e -> e.getAgeRange() == null).count() == extrasHandler.remainingExtras());
         Assert.assertTrue("All persons in extras have no relationship status", extras.stream().filter(e -> e.getRelationshipStatus() == null).count() == extrasHandler.remainingExtras());
 
     }
+
+    @Test
+    public void testMatchingExtrasAreTakenInInsertionOrder() {
+        List<Person> added = new ArrayList<>();
+        for (AgeRange ageRange : Arrays.asList(AgeRange.A40_54, AgeRange.A25_39, AgeRange.A25_39)) {
+            Person p = new Person();
+            p.setAgeRange(ageRange);
+            p.setSex(Sex.Male);
+            added.add(p);
+        }
+        extrasHandler.addToExtras(new ArrayList<>(added));
+        int startingSize = extrasHandler.remainingExtras();
+
+        List<Person> pl = extrasHandler.getPersonsFromExtras(RelationshipStatus.RELATIVE, Sex.Male, AgeRange.A25_39, 1);
+        Assert.assertSame("First matching person added to extras is taken", added.get(1), pl.get(0));
+
+        pl = extrasHandler.getPersonsFromExtras(Collections.singletonList(RelationshipStatus.RELATIVE),
+                                                Collections.singletonList(Sex.Male),
+                                                Arrays.asList(AgeRange.A25_39, AgeRange.A40_54),
+                                                2);
+        Assert.assertSame("Matching persons are taken in the order they were added", added.get(0), pl.get(0));
+        Assert.assertSame("Matching persons are taken in the order they were added", added.get(2), pl.get(1));
+        Assert.assertEquals(startingSize - 3, extrasHandler.remainingExtras());
+    }
 }
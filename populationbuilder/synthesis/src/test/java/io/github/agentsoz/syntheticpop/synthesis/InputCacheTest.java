@@ -0,0 +1,121 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import io.github.agentsoz.syntheticpop.synthesis.models.HhRecord;
+import io.github.agentsoz.syntheticpop.synthesis.models.IndRecord;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * @author wniroshan 18 Oct 2026
+ */
+public class InputCacheTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private Path resource(String name) {
+        return new File(Objects.requireNonNull(getClass().getClassLoader().getResource(name)).getFile()).toPath();
+    }
+
+    private List<Path> snapshots(Path cacheDir) throws IOException {
+        return Files.list(cacheDir).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testCachedRecordsMatchParsedRecords() throws IOException {
+        Path cacheDir = tempFolder.newFolder("cache").toPath();
+        Path hhFile = resource("Armadale/preprocessed/household_types.csv.gz");
+        Path indFile = resource("Armadale/preprocessed/person_types.csv.gz");
+        Map<String, String> ageParams = new HashMap<>();
+        ageParams.put("FileName", resource("Persons_percentage_by_age_2016_Greater_Melbourne_SA2s.zip").toString());
+        ageParams.put("AgeColumn", "0");
+        ageParams.put("SANamesRow", "10");
+
+        Map<String, List<HhRecord>> hhRecs = DataReader.readHouseholdRecords(hhFile);
+        Map<String, List<IndRecord>> indRecs = DataReader.readPersonRecords(indFile);
+        Map<String, List<Double>> ages = DataReader.readAgeDistribution(ageParams);
+
+        InputCache cache = new InputCache(cacheDir);
+        // The first read parses the files and saves the snapshots, the second reads the snapshots
+        for (int run = 0; run < 2; run++) {
+            Assert.assertEquals(hhRecs, cache.readHouseholdRecords(hhFile));
+            Assert.assertEquals(indRecs, cache.readPersonRecords(indFile));
+            Assert.assertEquals(ages, cache.readAgeDistribution(ageParams));
+            Assert.assertEquals("One snapshot per input", 3, snapshots(cacheDir).size());
+        }
+        Assert.assertEquals("SA order is kept", new ArrayList<>(hhRecs.keySet()), new ArrayList<>(cache.readHouseholdRecords(hhFile).keySet()));
+
+        ageParams.put("AgeColumn", "00");
+        Assert.assertEquals(ages, cache.readAgeDistribution(ageParams));
+        Assert.assertEquals("Different read parameters are cached separately", 4, snapshots(cacheDir).size());
+    }
+
+    @Test
+    public void testUnreadableSnapshotIsRewritten() throws IOException {
+        Path cacheDir = tempFolder.newFolder("cache").toPath();
+        Path indFile = resource("Armadale/preprocessed/person_types.csv.gz");
+        InputCache cache = new InputCache(cacheDir);
+        Map<String, List<IndRecord>> indRecs = cache.readPersonRecords(indFile);
+
+        Path snapshot = snapshots(cacheDir).get(0);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length / 2));
+
+        Assert.assertEquals(indRecs, cache.readPersonRecords(indFile));
+        Assert.assertArrayEquals(bytes, Files.readAllBytes(snapshot));
+    }
+
+    @Test
+    public void testChangedInputIsParsedAgain() throws IOException {
+        Path cacheDir = tempFolder.newFolder("cache").toPath();
+        Path hhFile = tempFolder.newFile("household_types.csv.gz").toPath();
+        Files.copy(resource("Armadale/preprocessed/household_types.csv.gz"), hhFile, StandardCopyOption.REPLACE_EXISTING);
+        InputCache cache = new InputCache(cacheDir);
+        cache.readHouseholdRecords(hhFile);
+
+        Files.copy(resource("Armadale/preprocessed/person_types.csv.gz"), hhFile, StandardCopyOption.REPLACE_EXISTING);
+        try {
+            cache.readHouseholdRecords(hhFile);
+            Assert.fail("A person types file is not a valid household types file, so reading it must fail instead of using the snapshot");
+        } catch (IOException | Error expected) {
+            // The edited file was parsed
+        }
+    }
+
+    @Test
+    public void testDisabledCacheDoesNotWriteSnapshots() throws IOException {
+        Path indFile = resource("Armadale/preprocessed/person_types.csv.gz");
+        Assert.assertEquals(DataReader.readPersonRecords(indFile), InputCache.DISABLED.readPersonRecords(indFile));
+    }
+}
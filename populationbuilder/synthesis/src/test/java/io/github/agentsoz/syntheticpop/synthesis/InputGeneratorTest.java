@@ -0,0 +1,146 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import io.github.agentsoz.syntheticpop.filemanager.csv.abs.StatisticalAreaCodeReader;
+import io.github.agentsoz.syntheticpop.filemanager.zip.GzipCodec;
+import io.github.agentsoz.syntheticpop.synthesis.models.HhRecord;
+import io.github.agentsoz.syntheticpop.synthesis.models.IndRecord;
+import io.github.agentsoz.syntheticpop.util.Log;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * @author wniroshan 18 Oct 2026
+ */
+public class InputGeneratorTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private Path templateDirectory;
+    private Map<String, List<Double>> ageDistributions;
+
+    @Before
+    public void setUp() throws IOException {
+        Log.createLogger("SynthesisTest", "PopulationSynthesisTest.log");
+        ClassLoader classLoader = getClass().getClassLoader();
+        templateDirectory = new File(Objects.requireNonNull(classLoader.getResource("Armadale")).getFile()).toPath().getParent();
+        Map<String, String> ageParams = new HashMap<>();
+        ageParams.put("FileName",
+                      new File(Objects.requireNonNull(classLoader.getResource("Persons_percentage_by_age_2016_Greater_Melbourne_SA2s.zip"))
+                                       .getFile()).toString());
+        ageParams.put("AgeColumn", "0");
+        ageParams.put("SANamesRow", "10");
+        ageDistributions = DataReader.readAgeDistribution(ageParams);
+    }
+
+    @Test
+    public void testCopiesAreClosestToSize() throws IOException {
+        // Armadale has 8045 persons
+        InputGenerator generator = new InputGenerator(templateDirectory, Collections.singletonList("Armadale"), ageDistributions);
+        Assert.assertArrayEquals(new int[]{2}, generator.copies(20000));
+        Assert.assertArrayEquals(new int[]{2}, generator.copies(13000));
+        Assert.assertArrayEquals(new int[]{1}, generator.copies(10));
+        Assert.assertArrayEquals(new int[]{622}, generator.copies(5000000));
+    }
+
+    @Test
+    public void testGeneratedInputsAreConsistent() throws IOException {
+        Path output = tempFolder.newFolder("generated").toPath();
+        InputGenerator generator = new InputGenerator(templateDirectory, Collections.singletonList("Armadale"), ageDistributions);
+        String sa2 = generator.generate(output, 20000);
+        generator.writeAgeDistribution(output.resolve(InputGenerator.AGE_DISTRIBUTION_FILE));
+        generator.writeSA2Codes(output.resolve(InputGenerator.SA2_CODES_ZIP));
+
+        Path preprocessed = output.resolve(InputGenerator.SA2_DIRECTORY).resolve(sa2).resolve("preprocessed");
+        List<IndRecord> persons = DataReader.readPersonRecords(preprocessed.resolve(InputGenerator.PERSON_TYPES_FILE)).get(sa2);
+        List<IndRecord> templatePersons = DataReader.readPersonRecords(templateDirectory.resolve("Armadale/preprocessed/person_types.csv.gz"))
+                                                    .get("Armadale");
+        Assert.assertEquals(templatePersons.size(), persons.size());
+        for (int i = 0; i < persons.size(); i++) {
+            Assert.assertEquals(templatePersons.get(i).RELATIONSHIP_STATUS, persons.get(i).RELATIONSHIP_STATUS);
+            Assert.assertEquals(templatePersons.get(i).AGE_RANGE, persons.get(i).AGE_RANGE);
+            Assert.assertEquals(2 * templatePersons.get(i).IND_COUNT, persons.get(i).IND_COUNT);
+        }
+
+        List<HhRecord> households = DataReader.readHouseholdRecords(preprocessed.resolve(InputGenerator.HOUSEHOLD_TYPES_FILE)).get(sa2);
+        Map<String, Integer> householdsByType = new HashMap<>();
+        for (HhRecord r : households) {
+            householdsByType.merge(r.NUM_OF_PERSONS_PER_HH + ":" + r.FAMILY_HOUSEHOLD_TYPE.getFamilyCount() + ":" + r
+                    .FAMILY_HOUSEHOLD_TYPE.getFamilyType(), r.HH_COUNT, Integer::sum);
+        }
+        Map<String, Map<String, Integer>> sa1Households = DataReader.readSA1HouseholdDistribution(preprocessed.resolve(InputGenerator
+                                                                                                                               .SA1_HOUSEHOLD_TYPES_FILE),
+                                                                                                  1,
+                                                                                                  2);
+        Assert.assertEquals(38, sa1Households.values().iterator().next().size());
+        for (Map.Entry<String, Map<String, Integer>> type : sa1Households.entrySet()) {
+            int inSA1s = type.getValue().values().stream().mapToInt(Integer::intValue).sum();
+            Assert.assertEquals(type.getKey(), householdsByType.getOrDefault(type.getKey(), 0).intValue(), inSA1s);
+        }
+
+        Map<String, String> ageParams = new HashMap<>();
+        ageParams.put("FileName", output.resolve(InputGenerator.AGE_DISTRIBUTION_FILE).toString());
+        ageParams.put("AgeColumn", "0");
+        ageParams.put("SANamesRow", "0");
+        List<Double> ageDistribution = DataReader.readAgeDistribution(ageParams).get(sa2);
+        Assert.assertEquals(ageDistributions.get("Armadale").size(), ageDistribution.size());
+        for (int age = 0; age < ageDistribution.size(); age++) {
+            Assert.assertEquals(ageDistributions.get("Armadale").get(age), ageDistribution.get(age), 1e-9);
+        }
+
+        Map<String, String> sa2Codes = StatisticalAreaCodeReader.loadCsvAndCreateMapWithAreaCode(output.resolve(InputGenerator.SA2_CODES_ZIP),
+                                                                                                 InputGenerator.SA2_NAME_COLUMN,
+                                                                                                 InputGenerator.SA2_CODE_COLUMN);
+        Assert.assertEquals(Collections.singletonMap(sa2, "900000001"), sa2Codes);
+
+        Map<String, String> sa1Properties = new HashMap<>();
+        sa1Properties.put("FileName", InputGenerator.SA1_HOUSEHOLD_TYPES_FILE);
+        sa1Properties.put("NumberOfPersonsColumn", "1");
+        sa1Properties.put("FamilyHouseholdTypeColumn", "2");
+        SA2Synthesiser synthesiser = new SA2Synthesiser(output.resolve(InputGenerator.SA2_DIRECTORY),
+                                                        tempFolder.newFolder("population").toPath(),
+                                                        1234,
+                                                        0.2,
+                                                        ParentChildAgeRule.DEFAULT,
+                                                        Collections.singletonMap(sa2, ageDistribution),
+                                                        sa2Codes,
+                                                        false,
+                                                        sa1Properties,
+                                                        false,
+                                                        GzipCodec.STANDARD,
+                                                        InputCache.DISABLED);
+        Assert.assertNotNull(synthesiser.synthesise(sa2));
+        Assert.assertTrue(Files.exists(synthesiser.personsFile(sa2)));
+    }
+}
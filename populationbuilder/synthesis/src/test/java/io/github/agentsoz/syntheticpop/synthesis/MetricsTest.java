@@ -0,0 +1,113 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import io.github.agentsoz.syntheticpop.synthesis.models.Household;
+import io.github.agentsoz.syntheticpop.util.Log;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * @author wniroshan 18 Oct 2026
+ */
+public class MetricsTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testTimersCountersAndGauges() throws IOException {
+        Metrics metrics = new Metrics();
+        Assert.assertTrue(metrics.isEmpty());
+
+        metrics.time("stage", () -> metrics.increment("things", 2));
+        Assert.assertEquals(Integer.valueOf(3), metrics.time("stage", () -> 3));
+        try {
+            metrics.time("stage", () -> {
+                throw new IOException("stage failed");
+            });
+            Assert.fail("Expected an IOException");
+        } catch (IOException e) {
+            Assert.assertEquals("stage failed", e.getMessage());
+        }
+        metrics.record("stage", 5);
+        metrics.increment("things", 3);
+        metrics.gauge("level", 7);
+        metrics.gauge("level", 4);
+
+        Assert.assertFalse(metrics.isEmpty());
+        Assert.assertEquals(4, metrics.timers().get("stage").count());
+        Assert.assertTrue(metrics.timers().get("stage").nanos() >= 5);
+        Assert.assertEquals(Long.valueOf(5), metrics.counters().get("things"));
+        Assert.assertEquals(Long.valueOf(4), metrics.gauges().get("level"));
+    }
+
+    @Test
+    public void testPopulationFactoryRecordsStages() throws IOException {
+        Log.createLogger("SynthesisTest", "PopulationSynthesisTest.log");
+        ClassLoader classLoader = getClass().getClassLoader();
+        Path hhFile = new File(Objects.requireNonNull(classLoader.getResource("Armadale/preprocessed/household_types.csv.gz")).getFile())
+                .toPath();
+        Path indFile = new File(Objects.requireNonNull(classLoader.getResource("Armadale/preprocessed/person_types.csv.gz")).getFile())
+                .toPath();
+        Metrics metrics = new Metrics();
+        PopulationFactory populationFactory = new PopulationFactory(DataReader.readHouseholdRecords(hhFile).get("Armadale"),
+                                                                    DataReader.readPersonRecords(indFile).get("Armadale"),
+                                                                    0.2,
+                                                                    ParentChildAgeRule.DEFAULT,
+                                                                    new Random(7),
+                                                                    metrics);
+        List<Household> households = populationFactory.makePopulation();
+
+        for (String stage : Arrays.asList("formAllPersons",
+                                          "formAllKnownFamilies",
+                                          "formNonFamilyHouseholds",
+                                          "formFamilyHouseholds",
+                                          "addNonPrimaryFamiliesToHouseholds",
+                                          "completeHouseholdsWithChildren",
+                                          "addExtrasAsChildrenAndRelatives")) {
+            Assert.assertEquals(stage, 1, metrics.timers().get(stage).count());
+        }
+        Assert.assertEquals(Long.valueOf(households.size()), metrics.gauges().get("Households"));
+        long formed = metrics.counters().get("Lone person households formed") + metrics.counters().get("Group households formed")
+                + metrics.counters().get("Family households formed");
+        Assert.assertEquals(households.size(), formed);
+        Assert.assertTrue(metrics.counters().get("Couple families formed") > 0);
+
+        Path report = tempFolder.newFile("performance.csv").toPath();
+        Map<String, Metrics> bySA2 = new LinkedHashMap<>();
+        bySA2.put("Armadale", metrics);
+        DataWriter.savePerformanceReport(report, bySA2);
+        List<String> lines = Files.readAllLines(report);
+        Assert.assertEquals("SA2,Type,Metric,Runs,Value", lines.get(0));
+        Assert.assertEquals(1 + metrics.timers().size() + metrics.counters().size() + metrics.gauges().size(), lines.size());
+        Assert.assertTrue(lines.get(1).startsWith("Armadale,Timer,formAllPersons,1,"));
+    }
+}
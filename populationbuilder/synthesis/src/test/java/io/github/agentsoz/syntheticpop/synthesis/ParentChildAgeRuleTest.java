@@ -0,0 +1,108 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+
+import io.github.agentsoz.syntheticpop.synthesis.models.AgeRange;
+import io.github.agentsoz.syntheticpop.synthesis.models.Person;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author wniroshan 18 Oct 2026
+ */
+public class ParentChildAgeRuleTest {
+
+    @Test
+    public void testAgeRangeMatrixMatchesMinimumAges() {
+        ParentChildAgeRule rule = new ParentChildAgeRule(20, 40);
+        for (AgeRange parent1 : AgeRange.values()) {
+            for (AgeRange child : AgeRange.values()) {
+                Assert.assertEquals("One parent: " + parent1 + " child: " + child,
+                                    rule.isValid(parent1.min(), child.min()),
+                                    rule.isValid(parent1, null, child));
+                for (AgeRange parent2 : AgeRange.values()) {
+                    Assert.assertEquals("Parents: " + parent1 + ", " + parent2 + " child: " + child,
+                                        rule.isValid(parent1.min(), parent2.min(), child.min()),
+                                        rule.isValid(parent1, parent2, child));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDefaultRuleMatchesPopulationRules() {
+        for (AgeRange parent1 : AgeRange.values()) {
+            for (AgeRange child : AgeRange.values()) {
+                Assert.assertEquals(PopulationRules.validateParentChildAgeRule(parent1, null, child),
+                                    ParentChildAgeRule.DEFAULT.isValid(parent1, null, child));
+                for (AgeRange parent2 : AgeRange.values()) {
+                    Assert.assertEquals(PopulationRules.validateParentChildAgeRule(parent1, parent2, child),
+                                        ParentChildAgeRule.DEFAULT.isValid(parent1, parent2, child));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAgeGapLimitsAreInclusive() {
+        ParentChildAgeRule rule = new ParentChildAgeRule(15, 45);
+        Assert.assertTrue(rule.isValid(25, 10));
+        Assert.assertTrue(rule.isValid(55, 10));
+        Assert.assertFalse(rule.isValid(24, 10));
+        Assert.assertFalse(rule.isValid(56, 10));
+        Assert.assertTrue("Missing second parent is ignored", rule.isValid(30, ParentChildAgeRule.NO_PARENT, 10));
+        Assert.assertFalse("Both parents are checked", rule.isValid(30, 60, 10));
+    }
+
+    @Test
+    public void testPersonAgeFallsBackToAgeRange() {
+        Person parent = new Person();
+        parent.setAgeRange(AgeRange.A25_39);
+        Person child = new Person();
+        child.setAgeRange(AgeRange.A0_14);
+        Assert.assertEquals(25, ParentChildAgeRule.ageOf(parent));
+        Assert.assertTrue(ParentChildAgeRule.DEFAULT.isValid(parent, null, child));
+
+        parent.setAge(39);
+        child.setAge(14);
+        Assert.assertEquals(39, ParentChildAgeRule.ageOf(parent));
+        Assert.assertFalse(new ParentChildAgeRule(30, 45).isValid(parent, null, child));
+    }
+
+    @Test
+    public void testParse() {
+        ParentChildAgeRule rule = ParentChildAgeRule.parse("Min:18, Max:40");
+        Assert.assertEquals(18, rule.minAgeGap());
+        Assert.assertEquals(40, rule.maxAgeGap());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseRejectsMissingLimit() {
+        ParentChildAgeRule.parse("Min:18");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMinimumLargerThanMaximumIsRejected() {
+        new ParentChildAgeRule(45, 15);
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author wniroshan 18 Oct 2026
+ */
+public class PoolTest {
+
+    @Test
+    public void testConsumedItemsAreRemovedOnClose() {
+        List<String> items = new ArrayList<>(Arrays.asList("a", "b", "c", "d", "e", "f"));
+        try (Pool<String> pool = new Pool<>(items)) {
+            Assert.assertEquals(6, pool.size());
+            Assert.assertEquals("a", pool.peek());
+            Assert.assertEquals("a", pool.next());
+            pool.skip(); // b stays
+            Assert.assertEquals(Arrays.asList("c", "d"), pool.next(2));
+            pool.putBack("a");
+            Assert.assertEquals(3, pool.size());
+            Assert.assertEquals("e", pool.next());
+            pool.skip(); // f stays
+            Assert.assertEquals("a", pool.next());
+            Assert.assertTrue(pool.isEmpty());
+        }
+        Assert.assertEquals(Arrays.asList("b", "f"), items);
+    }
+
+    @Test
+    public void testMatchesRemovingFromTheFront() {
+        Random random = new Random(4456);
+        for (int run = 0; run < 200; run++) {
+            List<Integer> items = new ArrayList<>();
+            int size = random.nextInt(50);
+            for (int i = 0; i < size; i++) {
+                items.add(i);
+            }
+            // The list the pool replaces: consumed items are removed from the front of the remaining items
+            List<Integer> kept = new ArrayList<>();
+            Deque<Integer> remaining = new ArrayDeque<>(items);
+            int nextNew = 1000;
+
+            try (Pool<Integer> pool = new Pool<>(items)) {
+                while (!pool.isEmpty()) {
+                    Assert.assertEquals(remaining.size(), pool.size());
+                    Assert.assertEquals(remaining.peekFirst(), pool.peek());
+                    switch (random.nextInt(4)) {
+                        case 0:
+                            Assert.assertEquals(remaining.pollFirst(), pool.next());
+                            break;
+                        case 1:
+                            int count = random.nextInt(pool.size() + 1);
+                            List<Integer> expected = new ArrayList<>();
+                            for (int i = 0; i < count; i++) {
+                                expected.add(remaining.pollFirst());
+                            }
+                            Assert.assertEquals(expected, pool.next(count));
+                            break;
+                        case 2:
+                            kept.add(remaining.pollFirst());
+                            pool.skip();
+                            break;
+                        default:
+                            if (random.nextBoolean()) {
+                                remaining.addLast(nextNew);
+                                pool.putBack(nextNew++);
+                            }
+                    }
+                    if (random.nextInt(10) == 0) {
+                        break; // Stop part way
+                    }
+                }
+            }
+            kept.addAll(remaining);
+            Assert.assertEquals(kept, items);
+        }
+    }
+
+    @Test
+    public void testEmptyPool() {
+        Pool<String> pool = new Pool<>(new ArrayList<>(Arrays.asList("a")));
+        pool.next();
+        try {
+            pool.next();
+            Assert.fail("Expected a NotEnoughPersonsException");
+        } catch (NotEnoughPersonsException ignored) {
+        }
+        try {
+            pool.peek();
+            Assert.fail("Expected a NotEnoughPersonsException");
+        } catch (NotEnoughPersonsException ignored) {
+        }
+        try {
+            pool.next(1);
+            Assert.fail("Expected a NotEnoughPersonsException");
+        } catch (NotEnoughPersonsException ignored) {
+        }
+        pool.close();
+    }
+}
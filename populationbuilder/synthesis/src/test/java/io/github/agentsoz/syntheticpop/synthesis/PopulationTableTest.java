@@ -0,0 +1,158 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import io.github.agentsoz.syntheticpop.filemanager.zip.GzipCodec;
+import io.github.agentsoz.syntheticpop.synthesis.models.*;
+import io.github.agentsoz.syntheticpop.util.Log;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * @author wniroshan 18 Oct 2026
+ */
+public class PopulationTableTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private List<Household> households;
+    private List<Person> persons;
+
+    @Before
+    public void makePopulation() throws IOException {
+        Log.createLogger("SynthesisTest", "PopulationSynthesisTest.log");
+        ClassLoader classLoader = getClass().getClassLoader();
+        Path hhFile = new File(Objects.requireNonNull(classLoader.getResource("Armadale/preprocessed/household_types.csv.gz")).getFile())
+                .toPath();
+        Path indFile = new File(Objects.requireNonNull(classLoader.getResource("Armadale/preprocessed/person_types.csv.gz")).getFile())
+                .toPath();
+        Random random = new Random(7);
+        PopulationFactory populationFactory = new PopulationFactory(DataReader.readHouseholdRecords(hhFile).get("Armadale"),
+                                                                    DataReader.readPersonRecords(indFile).get("Armadale"),
+                                                                    0.2,
+                                                                    ParentChildAgeRule.DEFAULT,
+                                                                    random);
+        households = populationFactory.makePopulation();
+        PersonPropertiesHandler.buildRelationships(households);
+        persons = households.stream().map(Household::getMembers).flatMap(List::stream).collect(Collectors.toList());
+        for (Person p : persons) {
+            p.setAge(p.getAgeRange().min());
+            p.setSA2MainCode("206011105");
+            p.setID("206011105P" + p.getID());
+        }
+        for (Household h : households) {
+            h.setSA2MainCode("206011105");
+            h.setSA1Code("2110501");
+            h.setID("206011105H" + h.getID());
+        }
+    }
+
+    private String unzip(Path file) throws IOException {
+        try (Reader reader = new InputStreamReader(new GZIPInputStream(Files.newInputStream(file)))) {
+            StringBuilder content = new StringBuilder();
+            char[] buffer = new char[8192];
+            int n;
+            while ((n = reader.read(buffer)) > 0) {
+                content.append(buffer, 0, n);
+            }
+            return content.toString();
+        }
+    }
+
+    @Test
+    public void testFilesWrittenFromTableMatchObjectGraph() throws IOException {
+        PopulationTable population = PopulationTable.fromHouseholds(households);
+        Assert.assertEquals(persons.size(), population.personCount());
+        Assert.assertEquals(households.size(), population.householdCount());
+
+        Path expected = tempFolder.newFile("expected.csv.gz").toPath();
+        Path actual = tempFolder.newFile("actual.csv.gz").toPath();
+
+        DataWriter.saveHouseholds(expected, households);
+        DataWriter.saveHouseholds(actual, population, GzipCodec.STANDARD);
+        Assert.assertEquals("households", unzip(expected), unzip(actual));
+
+        DataWriter.saveFamilies(expected, households);
+        DataWriter.saveFamilies(actual, population, GzipCodec.STANDARD);
+        Assert.assertEquals("families", unzip(expected), unzip(actual));
+
+        DataWriter.savePersons(expected, persons);
+        DataWriter.savePersons(actual, population, GzipCodec.STANDARD);
+        Assert.assertEquals("persons", unzip(expected), unzip(actual));
+    }
+
+    @Test
+    public void testHouseholdWithoutType() throws IOException {
+        // A household without a type or families, which the object graph writer cannot write
+        Household untyped = new Household(2, null, "Armadale", 99);
+        untyped.setID("206011105H99");
+        PopulationTable population = PopulationTable.fromHouseholds(Collections.singletonList(untyped));
+
+        Path actual = tempFolder.newFile("actual.csv.gz").toPath();
+        DataWriter.saveHouseholds(actual, population, GzipCodec.STANDARD);
+        String content = unzip(actual);
+        Assert.assertTrue(content, content.contains("206011105H99,2,,null,[],[]"));
+    }
+
+    @Test
+    public void testIDsAreReproducedExactly() throws IOException {
+        List<Person> loners = new ArrayList<>();
+        for (String id : Arrays.asList("007", "0", "", "P", "12345678901234567890123", "A-1", null)) {
+            Person p = new Person();
+            p.setID(id);
+            loners.add(p);
+        }
+        PopulationTable population = PopulationTable.fromPersons(loners);
+        for (int i = 0; i < loners.size(); i++) {
+            Assert.assertEquals(String.valueOf(loners.get(i).getID()), population.personID(i));
+        }
+
+        Path expected = tempFolder.newFile("expected.csv.gz").toPath();
+        Path actual = tempFolder.newFile("actual.csv.gz").toPath();
+        DataWriter.savePersons(expected, loners);
+        DataWriter.savePersons(actual, population, GzipCodec.STANDARD);
+        Assert.assertEquals(unzip(expected), unzip(actual));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRelativesMustBeInTheTable() {
+        PopulationTable.fromPersons(persons.stream().filter(p -> p.getPartner() != null).limit(1).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testTableIsSmallerThanObjectGraph() {
+        PopulationTable population = PopulationTable.fromHouseholds(households);
+        long bytesPerPerson = population.sizeInBytes() / population.personCount();
+        Assert.assertTrue("Bytes per person: " + bytesPerPerson, bytesPerPerson < 100);
+    }
+}
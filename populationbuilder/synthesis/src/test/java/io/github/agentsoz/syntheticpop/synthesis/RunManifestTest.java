@@ -0,0 +1,174 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import io.github.agentsoz.syntheticpop.filemanager.zip.GzipCodec;
+import io.github.agentsoz.syntheticpop.util.Log;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * @author wniroshan 18 Oct 2026
+ */
+public class RunManifestTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private Path inputDirectory;
+    private Path outputDirectory;
+    private Map<String, List<Double>> ageDistribution;
+
+    @Before
+    public void setUp() throws IOException {
+        Log.createLogger("SynthesisTest", "PopulationSynthesisTest.log");
+        ClassLoader classLoader = getClass().getClassLoader();
+        inputDirectory = new File(Objects.requireNonNull(classLoader.getResource("Armadale")).getFile()).toPath().getParent();
+        outputDirectory = tempFolder.newFolder("output").toPath();
+        Map<String, String> ageParams = new HashMap<>();
+        ageParams.put("FileName",
+                      new File(Objects.requireNonNull(classLoader.getResource("Persons_percentage_by_age_2016_Greater_Melbourne_SA2s.zip"))
+                                       .getFile()).toString());
+        ageParams.put("AgeColumn", "0");
+        ageParams.put("SANamesRow", "10");
+        ageDistribution = DataReader.readAgeDistribution(ageParams);
+    }
+
+    private SA2Synthesiser synthesiser(long seed) {
+        return synthesiser(seed, 0.2, ParentChildAgeRule.DEFAULT);
+    }
+
+    private SA2Synthesiser synthesiser(long seed, double nonPrimaryProb, ParentChildAgeRule ageRule) {
+        return new SA2Synthesiser(inputDirectory,
+                                  outputDirectory,
+                                  seed,
+                                  nonPrimaryProb,
+                                  ageRule,
+                                  ageDistribution,
+                                  Collections.singletonMap("Armadale", "206011105"),
+                                  false,
+                                  null,
+                                  false,
+                                  GzipCodec.STANDARD,
+                                  InputCache.DISABLED);
+    }
+
+    @Test
+    public void testResumedRunSkipsCompletedSA2s() throws IOException {
+        SA2Synthesiser synthesiser = synthesiser(1234);
+        SA2Synthesiser.Result first = new RunManifest(outputDirectory, false).synthesise("Armadale", synthesiser);
+        Path persons = synthesiser.personsFile("Armadale");
+        byte[] personsFile = Files.readAllBytes(persons);
+        Files.delete(persons);
+        Files.createFile(persons); // An empty file shows the SA2 was not synthesised again
+
+        SA2Synthesiser.Result resumed = new RunManifest(outputDirectory, true).synthesise("Armadale", synthesiser);
+        Assert.assertEquals(0, Files.size(persons));
+        Assert.assertEquals(first.sa, resumed.sa);
+        Assert.assertEquals(first.randomAgePersons, resumed.randomAgePersons);
+        Assert.assertEquals(first.parentalAgeGapHistogram, resumed.parentalAgeGapHistogram);
+
+        // A different seed, a missing output or a new manifest synthesise the SA2 again
+        new RunManifest(outputDirectory, true).synthesise("Armadale", synthesiser(99));
+        Assert.assertNotEquals(0, Files.size(persons));
+        new RunManifest(outputDirectory, true).synthesise("Armadale", synthesiser);
+        Assert.assertArrayEquals(personsFile, Files.readAllBytes(persons));
+        Files.delete(persons);
+        new RunManifest(outputDirectory, true).synthesise("Armadale", synthesiser);
+        Assert.assertArrayEquals(personsFile, Files.readAllBytes(persons));
+    }
+
+    @Test
+    public void testMissingOutputFileSynthesisesAgain() throws IOException {
+        SA2Synthesiser synthesiser = synthesiser(1234);
+        new RunManifest(outputDirectory, false).synthesise("Armadale", synthesiser);
+        List<Path> outputs = synthesiser.outputFiles("Armadale");
+        Assert.assertEquals(3, outputs.size());
+        for (Path output : outputs) {
+            Assert.assertTrue(Files.exists(output));
+        }
+
+        for (Path output : outputs) {
+            Files.delete(output);
+            RunManifest manifest = new RunManifest(outputDirectory, true);
+            manifest.synthesise("Armadale", synthesiser);
+            Assert.assertEquals(output.toString(), 1, manifest.synthesisedCount());
+            Assert.assertTrue(Files.exists(output));
+        }
+
+        RunManifest manifest = new RunManifest(outputDirectory, true);
+        manifest.synthesise("Armadale", synthesiser);
+        Assert.assertEquals(1, manifest.skippedCount());
+    }
+
+    @Test
+    public void testChangedSettingsSynthesiseAgain() throws IOException {
+        new RunManifest(outputDirectory, false).synthesise("Armadale", synthesiser(1234));
+        Path persons = synthesiser(1234).personsFile("Armadale");
+
+        RunManifest manifest = new RunManifest(outputDirectory, true);
+        Files.write(persons, new byte[0]);
+        manifest.synthesise("Armadale", synthesiser(1234));
+        Assert.assertEquals(0, Files.size(persons));
+        Assert.assertEquals(1, manifest.skippedCount());
+
+        manifest = new RunManifest(outputDirectory, true);
+        manifest.synthesise("Armadale", synthesiser(1234, 0.3, ParentChildAgeRule.DEFAULT));
+        Assert.assertNotEquals(0, Files.size(persons));
+        Assert.assertEquals(1, manifest.synthesisedCount());
+
+        Files.write(persons, new byte[0]);
+        manifest = new RunManifest(outputDirectory, true);
+        manifest.synthesise("Armadale", synthesiser(1234, 0.3, ParentChildAgeRule.parse("Min:18,Max:45")));
+        Assert.assertNotEquals(0, Files.size(persons));
+        Assert.assertEquals(0, manifest.skippedCount());
+    }
+
+    @Test
+    public void testLineCutShortIsDropped() throws IOException {
+        SA2Synthesiser synthesiser = synthesiser(1234);
+        new RunManifest(outputDirectory, false).synthesise("Armadale", synthesiser);
+        Path manifestFile = outputDirectory.resolve(RunManifest.FILE_NAME);
+        String entry = new String(Files.readAllBytes(manifestFile), "UTF-8");
+        Files.write(manifestFile, (entry + entry.substring(0, entry.length() / 2)).getBytes("UTF-8"));
+
+        new RunManifest(outputDirectory, true);
+        Assert.assertEquals(entry, new String(Files.readAllBytes(manifestFile), "UTF-8"));
+    }
+
+    @Test
+    public void testSA2WithoutDataIsRecorded() throws IOException {
+        SA2Synthesiser synthesiser = synthesiser(1234);
+        Assert.assertNull(new RunManifest(outputDirectory, false).synthesise("NoSuchSA2", synthesiser));
+        Assert.assertNull(new RunManifest(outputDirectory, true).synthesise("NoSuchSA2", synthesiser));
+        Assert.assertEquals(1, Files.readAllLines(outputDirectory.resolve(RunManifest.FILE_NAME)).size());
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.agentsoz.syntheticpop.synthesis;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * @author wniroshan 18 Oct 2026
+ */
+public class ShardCoordinatorTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testPartitionBalancesPersons() {
+        List<String> saList = Arrays.asList("A", "B", "C", "D", "E", "F");
+        Map<String, Long> persons = new HashMap<>();
+        persons.put("A", 10L);
+        persons.put("B", 80L);
+        persons.put("C", 30L);
+        persons.put("D", 50L);
+        persons.put("E", 20L);
+        persons.put("F", 10L);
+
+        List<List<String>> shards = ShardCoordinator.partition(saList, persons, 2);
+
+        // B(80) -> 1, D(50) -> 2, C(30) -> 2, E(20) -> 1 (fewer SA2s), A(10) -> 2, F(10) -> 2
+        Assert.assertEquals(Arrays.asList(Arrays.asList("B", "E"), Arrays.asList("A", "C", "D", "F")), shards);
+    }
+
+    @Test
+    public void testPartitionCoversAllSA2sOnce() {
+        List<String> saList = new ArrayList<>();
+        Map<String, Long> persons = new HashMap<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 50; i++) {
+            saList.add("SA" + i);
+            persons.put("SA" + i, (long) random.nextInt(20000));
+        }
+
+        List<List<String>> shards = ShardCoordinator.partition(saList, persons, 4);
+
+        Assert.assertEquals(4, shards.size());
+        List<String> all = new ArrayList<>();
+        shards.forEach(all::addAll);
+        Assert.assertEquals(new HashSet<>(saList), new HashSet<>(all));
+        Assert.assertEquals(saList.size(), all.size());
+        long max = 0, min = Long.MAX_VALUE;
+        for (List<String> shard : shards) {
+            // The SA2s of a shard keep their order in the SA list
+            List<Integer> positions = new ArrayList<>();
+            shard.forEach(sa -> positions.add(saList.indexOf(sa)));
+            List<Integer> sorted = new ArrayList<>(positions);
+            Collections.sort(sorted);
+            Assert.assertEquals(sorted, positions);
+
+            long size = shard.stream().mapToLong(persons::get).sum();
+            max = Math.max(max, size);
+            min = Math.min(min, size);
+        }
+        Assert.assertTrue("Shard sizes differ by more than the largest SA2: " + min + " - " + max, max - min < 20000);
+    }
+
+    @Test
+    public void testPartitionSkipsEmptyShards() {
+        List<List<String>> shards = ShardCoordinator.partition(Arrays.asList("A", "B"), Collections.emptyMap(), 5);
+
+        Assert.assertEquals(Arrays.asList(Collections.singletonList("A"), Collections.singletonList("B")), shards);
+    }
+
+    @Test
+    public void testMergeManifests() throws IOException {
+        Path dir = tempFolder.newFolder("output").toPath();
+        Path shard1 = dir.resolve("manifest.shard-1");
+        Path shard2 = dir.resolve("manifest.shard-2");
+        // Both shards start from a copy of the previous manifest listing A, B and C. C is not in this run
+        Files.write(shard1, Arrays.asList(entry("A", 1), entry("B", 1), entry("C", 1), entry("A", 2)), StandardCharsets.UTF_8);
+        Files.write(shard2, Arrays.asList(entry("A", 1), entry("B", 1), entry("C", 1), "{\"sa\":\"B\",\"se"), StandardCharsets.UTF_8);
+        Path target = dir.resolve("manifest");
+
+        RunManifest.merge(target, Arrays.asList(shard1, shard2), Arrays.asList(Collections.singletonList("A"),
+                                                                                  Collections.singletonList("B")));
+
+        Assert.assertEquals(Arrays.asList(entry("A", 2), entry("B", 1), entry("C", 1)), Files.readAllLines(target));
+    }
+
+    private static String entry(String sa, long seed) {
+        return "{\"sa\":\"" + sa + "\",\"seed\":" + seed + "}";
+    }
+}
@@ -0,0 +1,193 @@
+package io.github.agentsoz.syntheticpop.util;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes log messages to other appenders from a background thread. Logging threads put the messages in a bounded queue and return. The
+ * background thread takes up to {@link #BATCH_SIZE} messages at a time, writes them and flushes the output once per batch instead of
+ * once per message. Any number of threads can log through the same appender.
+ * <p>
+ * When the queue is full a logging thread waits for space, unless the overflow policy is {@link Overflow#DROP}, in which case DEBUG and
+ * TRACE messages are discarded and only INFO and more severe messages wait. The number of discarded messages is logged as a warning.
+ *
+ * @author wniroshan 18 Oct 2026
+ */
+public class AsyncLogAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    /**
+     * The largest number of messages written between two flushes
+     */
+    static final int BATCH_SIZE = 256;
+
+    /**
+     * What a logging thread does when the queue is full
+     */
+    public enum Overflow {
+        /**
+         * Wait for space in the queue
+         */
+        BLOCK,
+        /**
+         * Discard DEBUG and TRACE messages. INFO and more severe messages wait for space
+         */
+        DROP
+    }
+
+    private final BlockingQueue<ILoggingEvent> queue;
+    private final Overflow overflow;
+    private final List<Appender<ILoggingEvent>> appenders = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private Thread worker;
+
+    /**
+     * @param queueSize The number of messages the queue holds
+     * @param overflow  What to do when the queue is full
+     */
+    public AsyncLogAppender(int queueSize, Overflow overflow) {
+        if (queueSize < 1) {
+            throw new IllegalArgumentException("Log queue size must be at least 1: " + queueSize);
+        }
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.overflow = overflow;
+    }
+
+    /**
+     * Adds an appender to write the messages to. Output stream appenders no longer flush after every message, because the background
+     * thread flushes them after each batch.
+     *
+     * @param appender The appender
+     */
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        if (appender instanceof OutputStreamAppender
+                && ((OutputStreamAppender<ILoggingEvent>) appender).getEncoder() instanceof LayoutWrappingEncoder) {
+            ((LayoutWrappingEncoder<ILoggingEvent>) ((OutputStreamAppender<ILoggingEvent>) appender).getEncoder()).setImmediateFlush(false);
+        }
+        appenders.add(appender);
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        worker = new Thread(this::writeQueuedMessages, "AsyncLogAppender-" + getName());
+        worker.setDaemon(true);
+        super.start();
+        worker.start();
+    }
+
+    /**
+     * Stops accepting messages, writes the queued messages and stops the appenders it writes to.
+     */
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        worker.interrupt();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Appender<ILoggingEvent> appender : appenders) {
+            appender.stop();
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Formats the message and captures the thread name now, as the event is written by another thread
+        event.prepareForDeferredProcessing();
+        if (overflow == Overflow.DROP && !event.getLevel().isGreaterOrEqual(Level.INFO)) {
+            if (!queue.offer(event)) {
+                dropped.incrementAndGet();
+            }
+            return;
+        }
+        try {
+            queue.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeQueuedMessages() {
+        List<ILoggingEvent> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                write(batch);
+            }
+        } catch (InterruptedException e) {
+            // Stopped. Write the messages that are still in the queue
+        }
+        queue.drainTo(batch);
+        write(batch);
+    }
+
+    private void write(List<ILoggingEvent> batch) {
+        long discarded = dropped.getAndSet(0);
+        if (discarded > 0) {
+            batch.add(new LoggingEvent(AsyncLogAppender.class.getName(),
+                                       ((LoggerContext) getContext()).getLogger(AsyncLogAppender.class),
+                                       Level.WARN,
+                                       "Log queue full: discarded " + discarded + " DEBUG and TRACE messages",
+                                       null,
+                                       null));
+        }
+        for (ILoggingEvent event : batch) {
+            for (Appender<ILoggingEvent> appender : appenders) {
+                appender.doAppend(event);
+            }
+        }
+        batch.clear();
+        for (Appender<ILoggingEvent> appender : appenders) {
+            if (appender instanceof OutputStreamAppender && ((OutputStreamAppender<ILoggingEvent>) appender).getOutputStream() != null) {
+                try {
+                    ((OutputStreamAppender<ILoggingEvent>) appender).getOutputStream().flush();
+                } catch (IOException e) {
+                    addError("Failed to flush " + appender.getName(), e);
+                }
+            }
+        }
+    }
+}
@@ -52,4 +52,14 @@ public class LambdaCheckedException {
     public interface ThrowingConsumer<T, E extends Exception> {
         void accept(T t) throws E;
     }
+
+    @FunctionalInterface
+    public interface ThrowingSupplier<T, E extends Exception> {
+        T get() throws E;
+    }
+
+    @FunctionalInterface
+    public interface ThrowingRunnable<E extends Exception> {
+        void run() throws E;
+    }
 }
@@ -22,6 +22,11 @@ package io.github.agentsoz.syntheticpop.util;
  * #L%
  */
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Supplier;
+
 import org.slf4j.LoggerFactory;
 
 import ch.qos.logback.classic.Level;
@@ -29,6 +34,7 @@ import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.FileAppender;
 
 /**
@@ -44,6 +50,17 @@ public class Log {
         logger.info(format, args);
     }
 
+    /**
+     * Logs the message only if info logging is enabled. The supplier is not called otherwise.
+     *
+     * @param message Builds the message
+     */
+    public static void info(Supplier<String> message) {
+        if (logger.isInfoEnabled()) {
+            logger.info(message.get());
+        }
+    }
+
     /**
      * See http://slf4j.org/faq.html#logging_performance for how to improve logging performance by upto 30x by adjusting the arguments
      * 
@@ -54,14 +71,45 @@ public class Log {
         logger.trace(format, args);
     }
 
+    /**
+     * Logs the message only if trace logging is enabled. The supplier is not called otherwise, so use this when building the message
+     * takes work, e.g. summing over a list of households.
+     *
+     * @param message Builds the message
+     */
+    public static void trace(Supplier<String> message) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(message.get());
+        }
+    }
+
     public static void warn(String s) {
         logger.warn(s);
     }
 
+    /**
+     * Logs a debug message. Pass the values as arguments instead of concatenating them, e.g. {@code Log.debug("Remaining: {}",
+     * list.size())}, so the message is only formatted if debug logging is enabled.
+     *
+     * @param format The message with a {} for each argument
+     * @param args   The arguments
+     */
     public static void debug(String format, Object... args) {
         logger.debug(format, args);
     }
 
+    /**
+     * Logs the message only if debug logging is enabled. The supplier is not called otherwise, so use this when building the message
+     * takes work, e.g. summing over a list of households.
+     *
+     * @param message Builds the message
+     */
+    public static void debug(Supplier<String> message) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(message.get());
+        }
+    }
+
     public static void error(String s) {
         logger.error(s);
     }
@@ -82,6 +130,10 @@ public class Log {
         System.exit(exitCode.getCode());
     }
 
+    public static boolean isInfoEnabled() {
+        return logger.isInfoEnabled();
+    }
+
     public static boolean isDebugEnabled() {
         return logger.isDebugEnabled();
     }
@@ -153,4 +205,53 @@ public class Log {
 
     }
 
+    /**
+     * Moves the writing of the log file of the logger to a background thread. See {@link AsyncLogAppender}. Must be called after {@link
+     * #createLogger(String, String)}. The queued messages are written when the logger is created again or the program exits.
+     *
+     * @param queueSize The number of messages the queue holds
+     * @param overflow  What to do when the queue is full
+     */
+    public static void useAsyncAppender(int queueSize, AsyncLogAppender.Overflow overflow) {
+        AsyncLogAppender async = new AsyncLogAppender(queueSize, overflow);
+        async.setContext(logger.getLoggerContext());
+        async.setName("async");
+        List<Appender<ILoggingEvent>> appenders = new ArrayList<>();
+        logger.iteratorForAppenders().forEachRemaining(appenders::add);
+        for (Appender<ILoggingEvent> appender : appenders) {
+            logger.detachAppender(appender);
+            async.addAppender(appender);
+        }
+        async.start();
+        logger.addAppender(async);
+        Runtime.getRuntime().addShutdownHook(new Thread(async::stop, "AsyncLogAppender-shutdown"));
+    }
+
+    /**
+     * Reads the log queue settings from the properties and moves the writing of the log file to a background thread if LogQueueSize is
+     * set. LogQueueSize is the number of messages the queue holds, 0 (the default) writes each message as it is logged. LogQueueOverflow
+     * is "block" (the default) to wait for space in a full queue or "drop" to discard DEBUG and TRACE messages when the queue is full.
+     *
+     * @param props The properties
+     * @throws IllegalArgumentException If a property has an invalid value
+     */
+    public static void useAsyncAppender(Properties props) {
+        String queueSize = props.getOrDefault("LogQueueSize", "0").toString().trim();
+        String overflow = props.getOrDefault("LogQueueOverflow", "block").toString().trim().toLowerCase();
+        if (!overflow.equals("block") && !overflow.equals("drop")) {
+            throw new IllegalArgumentException("LogQueueOverflow must be block or drop: " + overflow);
+        }
+        int size;
+        try {
+            size = Integer.parseInt(queueSize);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + e.getMessage());
+        }
+        if (size < 0) {
+            throw new IllegalArgumentException("LogQueueSize must not be negative: " + size);
+        }
+        if (size > 0) {
+            useAsyncAppender(size, overflow.equals("drop") ? AsyncLogAppender.Overflow.DROP : AsyncLogAppender.Overflow.BLOCK);
+        }
+    }
 }
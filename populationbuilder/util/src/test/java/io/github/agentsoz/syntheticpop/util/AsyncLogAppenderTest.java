@@ -0,0 +1,253 @@
+package io.github.agentsoz.syntheticpop.util;
+
+/*-
+ * #%L
+ * Synthetic Population Construction for Australia
+ * %%
+ * Copyright (C) 2016 - 2019 by its authors. See AUTHORS file.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-3.0.html>.
+ * #L%
+ */
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author wniroshan 18 Oct 2026
+ */
+public class AsyncLogAppenderTest {
+
+    private LoggerContext context;
+    private Logger logger;
+    private AsyncLogAppender async;
+
+    @Before
+    public void setUp() {
+        context = new LoggerContext();
+        logger = context.getLogger("AsyncLogAppenderTest");
+        logger.setLevel(Level.TRACE);
+        logger.setAdditive(false);
+    }
+
+    @After
+    public void tearDown() {
+        if (async != null) {
+            async.stop();
+        }
+        context.stop();
+    }
+
+    @Test
+    public void testBlockDeliversAllMessagesInOrder() throws InterruptedException {
+        ListAppender<ILoggingEvent> delivered = listAppender();
+        start(4, AsyncLogAppender.Overflow.BLOCK, delivered);
+
+        // Several threads log through a queue much smaller than the number of messages
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final String name = "thread" + t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    logger.debug(name + " " + i);
+                }
+            }, name));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        async.stop();
+
+        Assert.assertEquals(4000, delivered.list.size());
+        int[] next = new int[4];
+        for (ILoggingEvent event : delivered.list) {
+            String[] parts = event.getFormattedMessage().split(" ");
+            int thread = Integer.parseInt(parts[0].substring("thread".length()));
+            Assert.assertEquals(parts[0], event.getThreadName());
+            Assert.assertEquals(next[thread]++, Integer.parseInt(parts[1]));
+        }
+    }
+
+    @Test
+    public void testDropDiscardsOnlyDebugAndTrace() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ListAppender<ILoggingEvent> delivered = listAppender();
+        // Holds the background thread on the first message, so the queue fills up
+        AppenderBase<ILoggingEvent> gate = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        gate.setContext(context);
+        gate.start();
+        start(2, AsyncLogAppender.Overflow.DROP, gate, delivered);
+
+        logger.info("first");
+        Assert.assertTrue(writing.await(10, TimeUnit.SECONDS));
+        logger.debug("debug1");
+        logger.trace("trace1");
+        logger.debug("debug2"); // The queue is full
+        logger.trace("trace2");
+
+        // A warning waits for space instead of being discarded
+        Thread warning = new Thread(() -> {
+            logger.warn("warn");
+            logger.error("error");
+        });
+        warning.start();
+        warning.join(200);
+        Assert.assertTrue(warning.isAlive());
+
+        release.countDown();
+        warning.join();
+        async.stop();
+
+        List<String> messages = new ArrayList<>();
+        for (ILoggingEvent event : delivered.list) {
+            if (event.getLoggerName().equals(AsyncLogAppender.class.getName())) {
+                Assert.assertEquals(Level.WARN, event.getLevel());
+                Assert.assertEquals("Log queue full: discarded 2 DEBUG and TRACE messages", event.getFormattedMessage());
+            } else {
+                messages.add(event.getFormattedMessage());
+            }
+        }
+        Assert.assertEquals(Arrays.asList("first", "debug1", "trace1", "warn", "error"), messages);
+        Assert.assertEquals(6, delivered.list.size());
+    }
+
+    @Test
+    public void testStopWritesQueuedMessagesAndFlushes() {
+        FlushRecordingStream stream = new FlushRecordingStream();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setPattern("%msg%n");
+        encoder.setContext(context);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+        output.setContext(context);
+        output.setEncoder(encoder);
+        output.setOutputStream(stream);
+        output.start();
+        start(1000, AsyncLogAppender.Overflow.BLOCK, output);
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            logger.info("message " + i);
+            expected.append("message ").append(i).append(System.lineSeparator());
+        }
+        async.stop();
+
+        Assert.assertFalse(output.isStarted());
+        Assert.assertEquals(expected.toString(), stream.bytes.toString());
+        Assert.assertEquals("All messages were flushed before the stream was closed", stream.bytes.size(), stream.flushed);
+    }
+
+    @Test
+    public void testInvalidSettings() {
+        for (String[] property : new String[][]{{"LogQueueSize", "-1"},
+                                                {"LogQueueSize", "many"},
+                                                {"LogQueueOverflow", "wait"}}) {
+            Properties props = new Properties();
+            props.setProperty(property[0], property[1]);
+            try {
+                Log.useAsyncAppender(props);
+                Assert.fail("Expected an IllegalArgumentException for " + Arrays.toString(property));
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        try {
+            new AsyncLogAppender(0, AsyncLogAppender.Overflow.BLOCK);
+            Assert.fail("Expected an IllegalArgumentException for an empty queue");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    @SafeVarargs
+    private final void start(int queueSize, AsyncLogAppender.Overflow overflow, Appender<ILoggingEvent>... appenders) {
+        async = new AsyncLogAppender(queueSize, overflow);
+        async.setContext(context);
+        async.setName("test");
+        for (Appender<ILoggingEvent> appender : appenders) {
+            async.addAppender(appender);
+        }
+        async.start();
+        logger.addAppender(async);
+    }
+
+    private ListAppender<ILoggingEvent> listAppender() {
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        return appender;
+    }
+
+    /**
+     * Records the number of bytes written when the stream was last flushed. Closing does not flush
+     */
+    private static final class FlushRecordingStream extends FilterOutputStream {
+        final ByteArrayOutputStream bytes;
+        int flushed = 0;
+
+        FlushRecordingStream() {
+            this(new ByteArrayOutputStream());
+        }
+
+        private FlushRecordingStream(ByteArrayOutputStream bytes) {
+            super(bytes);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+            flushed = bytes.size();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}